@@ -69,6 +69,6 @@ public class HiveJdbcConnectionFactory extends GenericJdbcConnectionFactory
             derivedJdbcString = databaseConnectionConfig.getJdbcConnectionString();
         }
         Class.forName(databaseConnectionInfo.getDriverClassName()).newInstance();
-        return DriverManager.getConnection(derivedJdbcString, this.jdbcProperties);
+        return getPooledConnection(jdbcCredentialProvider, () -> DriverManager.getConnection(derivedJdbcString, this.jdbcProperties));
     }
 }
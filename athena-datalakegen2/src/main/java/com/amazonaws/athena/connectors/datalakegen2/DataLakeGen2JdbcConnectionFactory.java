@@ -69,7 +69,7 @@ public class DataLakeGen2JdbcConnectionFactory extends GenericJdbcConnectionFact
                 derivedJdbcString = databaseConnectionConfig.getJdbcConnectionString();
             }
             Class.forName(databaseConnectionInfo.getDriverClassName()).newInstance();
-            return DriverManager.getConnection(derivedJdbcString, this.jdbcProperties);
+            return getPooledConnection(jdbcCredentialProvider, () -> DriverManager.getConnection(derivedJdbcString, this.jdbcProperties));
         }
         catch (SQLException sqlException) {
             throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException);
@@ -115,7 +115,9 @@ public class DynamoDBRecordHandler
                 public ThrottlingInvoker load(String tableName)
                         throws Exception
                 {
-                    return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions).build();
+                    return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions)
+                            .withRateCacheName(sourceType + "-" + tableName)
+                            .build();
                 }
             }
         );
@@ -132,7 +134,9 @@ public class DynamoDBRecordHandler
                 public ThrottlingInvoker load(String tableName)
                         throws Exception
                 {
-                    return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions).build();
+                    return ThrottlingInvoker.newDefaultBuilder(EXCEPTION_FILTER, configOptions)
+                            .withRateCacheName(sourceType + "-" + tableName)
+                            .build();
                 }
             }
         );
@@ -0,0 +1,69 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.types.pojo.Schema;
+
+/**
+ * The schema and rows shared by the benchmarks which need a populated Block. Rows are a mix of a fixed width integer,
+ * a variable width string, and a floating point column so that results are representative of typical connector output.
+ */
+public final class BenchmarkData
+{
+    public static final String ID_COL = "id";
+    public static final String NAME_COL = "name";
+    public static final String VALUE_COL = "value";
+
+    private BenchmarkData() {}
+
+    public static Schema makeSchema()
+    {
+        return SchemaBuilder.newBuilder()
+                .addBigIntField(ID_COL)
+                .addStringField(NAME_COL)
+                .addFloat8Field(VALUE_COL)
+                .build();
+    }
+
+    public static String makeName(long id)
+    {
+        return "name_" + id;
+    }
+
+    /**
+     * Creates a Block using makeSchema() containing the requested number of rows.
+     *
+     * @param allocator The BlockAllocator to create the Block with.
+     * @param numRows The number of rows to write.
+     * @return The populated Block, the caller is responsible for closing it.
+     */
+    public static Block makeBlock(BlockAllocator allocator, int numRows)
+    {
+        Block block = allocator.createBlock(makeSchema());
+        for (int i = 0; i < numRows; i++) {
+            BlockUtils.setValue(block.getFieldVector(ID_COL), i, (long) i);
+            BlockUtils.setValue(block.getFieldVector(NAME_COL), i, makeName(i));
+            BlockUtils.setValue(block.getFieldVector(VALUE_COL), i, i * 1.5D);
+        }
+        block.setRowCount(numRows);
+        return block;
+    }
+}
@@ -0,0 +1,132 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.FieldVector;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.ID_COL;
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.NAME_COL;
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.VALUE_COL;
+
+/**
+ * Measures the cost of writing boxed values into a Block, one row (of three columns) per operation. Compares
+ * BlockUtils.setValue(...) on pre-resolved vectors, Block.setValue(...) which resolves the field by name on every call,
+ * and the bound ColumnWriters returned by Block.getColumnWriter(...).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockUtilsBenchmark
+{
+    private static final int NUM_ROWS = 4096;
+
+    private BlockAllocatorImpl allocator;
+    private Block block;
+    private Long[] ids;
+    private String[] names;
+    private Double[] values;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        block = allocator.createBlock(BenchmarkData.makeSchema());
+
+        //Box the values up front so that only the cost of writing them is measured.
+        ids = new Long[NUM_ROWS];
+        names = new String[NUM_ROWS];
+        values = new Double[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            ids[i] = (long) i;
+            names[i] = BenchmarkData.makeName(i);
+            values[i] = i * 1.5D;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Block setValue()
+    {
+        FieldVector idVector = block.getFieldVector(ID_COL);
+        FieldVector nameVector = block.getFieldVector(NAME_COL);
+        FieldVector valueVector = block.getFieldVector(VALUE_COL);
+        for (int i = 0; i < NUM_ROWS; i++) {
+            BlockUtils.setValue(idVector, i, ids[i]);
+            BlockUtils.setValue(nameVector, i, names[i]);
+            BlockUtils.setValue(valueVector, i, values[i]);
+        }
+        block.setRowCount(NUM_ROWS);
+        return block;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Block blockSetValue()
+    {
+        for (int i = 0; i < NUM_ROWS; i++) {
+            block.setValue(ID_COL, i, ids[i]);
+            block.setValue(NAME_COL, i, names[i]);
+            block.setValue(VALUE_COL, i, values[i]);
+        }
+        block.setRowCount(NUM_ROWS);
+        return block;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public Block columnWriter()
+    {
+        ColumnWriter idWriter = block.getColumnWriter(ID_COL);
+        ColumnWriter nameWriter = block.getColumnWriter(NAME_COL);
+        ColumnWriter valueWriter = block.getColumnWriter(VALUE_COL);
+        for (int i = 0; i < NUM_ROWS; i++) {
+            idWriter.offerValue(i, ids[i]);
+            nameWriter.offerValue(i, names[i]);
+            valueWriter.offerValue(i, values[i]);
+        }
+        block.setRowCount(NUM_ROWS);
+        return block;
+    }
+}
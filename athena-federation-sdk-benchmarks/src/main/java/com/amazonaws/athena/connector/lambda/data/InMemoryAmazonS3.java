@@ -0,0 +1,152 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.services.s3.AbstractAmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadResult;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectResult;
+import com.amazonaws.services.s3.model.S3Object;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.amazonaws.util.IOUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory stand in for AmazonS3 which supports the subset of operations used to spill and read Blocks, both single
+ * PutObject and multipart uploads. This lets spill benchmarks measure the SDK's own cost without any network I/O.
+ * Any other operation throws UnsupportedOperationException.
+ */
+public class InMemoryAmazonS3
+        extends AbstractAmazonS3
+{
+    private final Map<String, byte[]> objects = new ConcurrentHashMap<>();
+    private final Map<String, ByteArrayOutputStream> uploads = new ConcurrentHashMap<>();
+    private final AtomicLong bytesWritten = new AtomicLong();
+
+    @Override
+    public PutObjectResult putObject(PutObjectRequest request)
+    {
+        objects.put(makeKey(request.getBucketName(), request.getKey()), readAll(request.getInputStream()));
+        return new PutObjectResult();
+    }
+
+    @Override
+    public InitiateMultipartUploadResult initiateMultipartUpload(InitiateMultipartUploadRequest request)
+    {
+        String uploadId = UUID.randomUUID().toString();
+        uploads.put(uploadId, new ByteArrayOutputStream());
+        InitiateMultipartUploadResult result = new InitiateMultipartUploadResult();
+        result.setBucketName(request.getBucketName());
+        result.setKey(request.getKey());
+        result.setUploadId(uploadId);
+        return result;
+    }
+
+    @Override
+    public UploadPartResult uploadPart(UploadPartRequest request)
+    {
+        byte[] bytes = readAll(request.getInputStream());
+        ByteArrayOutputStream upload = uploads.get(request.getUploadId());
+        synchronized (upload) {
+            upload.write(bytes, 0, bytes.length);
+        }
+        UploadPartResult result = new UploadPartResult();
+        result.setPartNumber(request.getPartNumber());
+        result.setETag(String.valueOf(request.getPartNumber()));
+        return result;
+    }
+
+    @Override
+    public CompleteMultipartUploadResult completeMultipartUpload(CompleteMultipartUploadRequest request)
+    {
+        ByteArrayOutputStream upload = uploads.remove(request.getUploadId());
+        objects.put(makeKey(request.getBucketName(), request.getKey()), upload.toByteArray());
+        return new CompleteMultipartUploadResult();
+    }
+
+    @Override
+    public void abortMultipartUpload(AbortMultipartUploadRequest request)
+    {
+        uploads.remove(request.getUploadId());
+    }
+
+    @Override
+    public S3Object getObject(String bucketName, String key)
+    {
+        byte[] bytes = objects.get(makeKey(bucketName, key));
+        if (bytes == null) {
+            throw new IllegalArgumentException("No such object " + bucketName + "/" + key);
+        }
+        S3Object object = new S3Object();
+        object.setBucketName(bucketName);
+        object.setKey(key);
+        object.setObjectContent(new ByteArrayInputStream(bytes));
+        return object;
+    }
+
+    /**
+     * @return The total number of bytes written to this stub, across all objects and parts.
+     */
+    public long getBytesWritten()
+    {
+        return bytesWritten.get();
+    }
+
+    /**
+     * Discards all stored objects and in progress uploads.
+     */
+    public void clear()
+    {
+        objects.clear();
+        uploads.clear();
+    }
+
+    private byte[] readAll(InputStream in)
+    {
+        try {
+            byte[] bytes = IOUtils.toByteArray(in);
+            bytesWritten.addAndGet(bytes.length);
+            return bytes;
+        }
+        catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static String makeKey(String bucketName, String key)
+    {
+        return bucketName + "/" + key;
+    }
+}
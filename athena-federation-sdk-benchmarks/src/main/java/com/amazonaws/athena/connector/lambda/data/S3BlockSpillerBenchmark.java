@@ -0,0 +1,135 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.ID_COL;
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.NAME_COL;
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.VALUE_COL;
+
+/**
+ * Measures the end to end cost of writing rows through an S3BlockSpiller which spills every few thousand rows, including
+ * block size checks, serialization, optional compression and encryption, and upload to an in-memory S3 stub. Spilling is synchronous so
+ * that all of the work is attributed to the benchmark thread.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class S3BlockSpillerBenchmark
+{
+    private static final int NUM_ROWS = 100_000;
+    private static final long MAX_BLOCK_BYTES = 1_000_000;
+    private static final String MULTIPART_PART_SIZE = String.valueOf(5 * 1024 * 1024);
+
+    @Param({"false", "true"})
+    public boolean encrypted;
+
+    @Param({"false", "true"})
+    public boolean multipart;
+
+    @Param({"NO_COMPRESSION", "LZ4_FRAME", "ZSTD"})
+    public CompressionUtil.CodecType compression;
+
+    private InMemoryAmazonS3 amazonS3;
+    private SpillConfig spillConfig;
+    private Map<String, String> configOptions;
+    private String[] names;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        amazonS3 = new InMemoryAmazonS3();
+        spillConfig = SpillConfig.newBuilder()
+                .withEncryptionKey(encrypted ? new LocalKeyFactory().create() : null)
+                .withRequestId("benchmark")
+                .withSpillLocation(S3SpillLocation.newBuilder()
+                        .withBucket("spill-bucket")
+                        .withPrefix("spill-prefix")
+                        .withQueryId("benchmark")
+                        .withSplitId("split")
+                        .withIsDirectory(true)
+                        .build())
+                .withMaxBlockBytes(MAX_BLOCK_BYTES)
+                .withMaxInlineBlockBytes(0)
+                .withNumSpillThreads(0)
+                .withCompressionCodec(compression)
+                .build();
+        configOptions = multipart ? ImmutableMap.of("SPILL_MULTIPART_PART_SIZE", MULTIPART_PART_SIZE) : ImmutableMap.of();
+
+        names = new String[NUM_ROWS];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            names[i] = BenchmarkData.makeName(i);
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void clear()
+    {
+        amazonS3.clear();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public int writeRows()
+            throws Exception
+    {
+        //The spiller does not own the Blocks it allocates, so a fresh allocator is used to free them after each invocation.
+        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl();
+                S3BlockSpiller spiller = new S3BlockSpiller(amazonS3, spillConfig, allocator, BenchmarkData.makeSchema(),
+                        ConstraintEvaluator.emptyEvaluator(), configOptions)) {
+            for (int i = 0; i < NUM_ROWS; i++) {
+                final int row = i;
+                spiller.writeRows((Block block, int rowNum) -> {
+                    boolean matched = block.offerValue(ID_COL, rowNum, (long) row);
+                    matched &= block.offerValue(NAME_COL, rowNum, names[row]);
+                    matched &= block.offerValue(VALUE_COL, rowNum, row * 1.5D);
+                    return matched ? 1 : 0;
+                });
+            }
+            return spiller.getSpillLocations().size();
+        }
+    }
+}
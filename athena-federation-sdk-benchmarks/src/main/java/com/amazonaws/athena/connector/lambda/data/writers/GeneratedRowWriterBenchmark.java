@@ -0,0 +1,137 @@
+package com.amazonaws.athena.connector.lambda.data.writers;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BenchmarkData;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.BigIntExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float8Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarCharExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableVarCharHolder;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import org.apache.arrow.vector.holders.NullableBigIntHolder;
+import org.apache.arrow.vector.holders.NullableFloat8Holder;
+import org.apache.arrow.vector.types.Types;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.ID_COL;
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.NAME_COL;
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.VALUE_COL;
+
+/**
+ * Measures GeneratedRowWriter writing rows from a source row object, the way JDBC and other connectors use it, with and
+ * without a constraint on one of the columns. The constraint matches every row so both variants write the same data.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratedRowWriterBenchmark
+{
+    private static final int NUM_ROWS = 4096;
+
+    @Param({"false", "true"})
+    public boolean constrained;
+
+    private BlockAllocatorImpl allocator;
+    private Block block;
+    private GeneratedRowWriter rowWriter;
+    private Object[][] rows;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        block = allocator.createBlock(BenchmarkData.makeSchema());
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        if (constrained) {
+            summary.put(ID_COL, SortedRangeSet.of(false,
+                    Range.greaterThanOrEqual(allocator, Types.MinorType.BIGINT.getType(), 0L)));
+        }
+        Constraints constraints = new Constraints(summary, Collections.emptyList(), Collections.emptyList(), Constraints.DEFAULT_NO_LIMIT);
+
+        rowWriter = GeneratedRowWriter.newBuilder(constraints)
+                .withExtractor(ID_COL, (BigIntExtractor) (Object context, NullableBigIntHolder dst) -> {
+                    dst.isSet = 1;
+                    dst.value = (Long) ((Object[]) context)[0];
+                })
+                .withExtractor(NAME_COL, (VarCharExtractor) (Object context, NullableVarCharHolder dst) -> {
+                    dst.isSet = 1;
+                    dst.value = (String) ((Object[]) context)[1];
+                })
+                .withExtractor(VALUE_COL, (Float8Extractor) (Object context, NullableFloat8Holder dst) -> {
+                    dst.isSet = 1;
+                    dst.value = (Double) ((Object[]) context)[2];
+                })
+                .build();
+
+        rows = new Object[NUM_ROWS][];
+        for (int i = 0; i < NUM_ROWS; i++) {
+            rows[i] = new Object[] {(long) i, BenchmarkData.makeName(i), i * 1.5D};
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public int writeRow()
+            throws Exception
+    {
+        int matched = 0;
+        for (int i = 0; i < NUM_ROWS; i++) {
+            if (rowWriter.writeRow(block, matched, rows[i])) {
+                matched++;
+            }
+        }
+        block.setRowCount(matched);
+        return matched;
+    }
+}
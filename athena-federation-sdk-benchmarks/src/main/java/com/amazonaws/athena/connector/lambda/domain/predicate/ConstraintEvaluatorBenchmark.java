@@ -0,0 +1,135 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BenchmarkData;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static com.amazonaws.athena.connector.lambda.data.BenchmarkData.ID_COL;
+
+/**
+ * Measures the per value cost of applying a query's constraint to a BIGINT column, either through
+ * ConstraintEvaluator.apply(...) which looks up the field's constraint on every call, or through the ConstraintProjector
+ * returned by ConstraintEvaluator.bindConstraint(...) which is looked up once per column.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ConstraintEvaluatorBenchmark
+{
+    private static final int NUM_VALUES = 4096;
+
+    //RANGE is a single BETWEEN style range, IN is a 64 value IN-list.
+    @Param({"RANGE", "IN"})
+    public String constraint;
+
+    private BlockAllocatorImpl allocator;
+    private ConstraintEvaluator evaluator;
+    private ConstraintProjector projector;
+    private Long[] values;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        ArrowType type = Types.MinorType.BIGINT.getType();
+
+        ValueSet valueSet;
+        if ("RANGE".equals(constraint)) {
+            valueSet = SortedRangeSet.of(false, Range.range(allocator, type, 0L, true, (long) NUM_VALUES, false));
+        }
+        else {
+            List<Object> inList = new ArrayList<>();
+            for (long i = 0; i < 64; i++) {
+                inList.add(i * 2);
+            }
+            valueSet = EquatableValueSet.newBuilder(allocator, type, true, false).addAll(inList).build();
+        }
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(ID_COL, valueSet);
+        evaluator = new ConstraintEvaluator(allocator,
+                BenchmarkData.makeSchema(),
+                new Constraints(summary, Collections.emptyList(), Collections.emptyList(), Constraints.DEFAULT_NO_LIMIT));
+        projector = evaluator.bindConstraint(ID_COL).orElseThrow(IllegalStateException::new);
+
+        //Roughly half of the values satisfy the constraint.
+        Random random = new Random(0);
+        values = new Long[NUM_VALUES];
+        for (int i = 0; i < NUM_VALUES; i++) {
+            values[i] = (long) ("RANGE".equals(constraint) ? random.nextInt(NUM_VALUES * 2) - NUM_VALUES / 2 : random.nextInt(256));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+            throws Exception
+    {
+        evaluator.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public void apply(Blackhole blackhole)
+    {
+        for (Long next : values) {
+            blackhole.consume(evaluator.apply(ID_COL, next));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_VALUES)
+    public void boundProjector(Blackhole blackhole)
+    {
+        for (Long next : values) {
+            blackhole.consume(projector.apply(next));
+        }
+    }
+}
@@ -0,0 +1,130 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.ArrowTypeComparator;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of probing an EquatableValueSet (e.g. an IN-list) for a range of set sizes. The scan benchmark
+ * reproduces the comparison based scan that is used for sets smaller than EquatableValueSetIndex.MIN_INDEXED_VALUES
+ * so that the crossover point between scanning and the hash index can be read directly from the results.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class EquatableValueSetBenchmark
+{
+    private static final int NUM_PROBES = 1024;
+
+    @Param({"1", "4", "8", "16", "32", "64", "1024", "8192"})
+    public int numValues;
+
+    @Param({"BIGINT", "VARCHAR"})
+    public String type;
+
+    private BlockAllocatorImpl allocator;
+    private EquatableValueSet valueSet;
+    private Object[] probes;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        ArrowType arrowType = Types.MinorType.valueOf(type).getType();
+        Random random = new Random(0);
+
+        List<Object> values = new ArrayList<>(numValues);
+        for (int i = 0; i < numValues; i++) {
+            values.add(makeValue(i * 2L));
+        }
+        valueSet = EquatableValueSet.newBuilder(allocator, arrowType, true, false).addAll(values).build();
+
+        //Roughly half of the probes hit the set.
+        probes = new Object[NUM_PROBES];
+        for (int i = 0; i < NUM_PROBES; i++) {
+            probes[i] = makeValue(random.nextInt(numValues * 4));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PROBES)
+    public void containsValue(Blackhole blackhole)
+    {
+        for (Object next : probes) {
+            blackhole.consume(valueSet.containsValue(next));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PROBES)
+    public void scan(Blackhole blackhole)
+    {
+        Block values = valueSet.getValueBlock();
+        FieldReader reader = values.getFieldReader("col1");
+        for (Object next : probes) {
+            boolean result = false;
+            for (int i = 0; i < values.getRowCount() && !result; i++) {
+                reader.setPosition(i);
+                result = ArrowTypeComparator.compare(reader, next, reader.readObject()) == 0;
+            }
+            blackhole.consume(result);
+        }
+    }
+
+    private Object makeValue(long value)
+    {
+        return "BIGINT".equals(type) ? (Object) value : "value_" + value;
+    }
+}
@@ -0,0 +1,113 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures SortedRangeSet.containsValue(...) for a range of set sizes, compared with the LongConstraintProjector that
+ * ConstraintEvaluator compiles from the same SortedRangeSet.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SortedRangeSetBenchmark
+{
+    private static final int NUM_PROBES = 1024;
+
+    @Param({"1", "8", "64", "1024"})
+    public int numRanges;
+
+    private BlockAllocatorImpl allocator;
+    private SortedRangeSet rangeSet;
+    private ConstraintProjector projector;
+    private Long[] probes;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        ArrowType type = Types.MinorType.BIGINT.getType();
+
+        //Disjoint ranges [i * 10, i * 10 + 5) so that roughly half of the probes hit the set.
+        List<Range> ranges = new ArrayList<>(numRanges);
+        for (long i = 0; i < numRanges; i++) {
+            ranges.add(Range.range(allocator, type, i * 10, true, i * 10 + 5, false));
+        }
+        rangeSet = SortedRangeSet.of(false, ranges.get(0), ranges.subList(1, ranges.size()));
+        projector = LongConstraintProjector.of(rangeSet).orElseThrow(IllegalStateException::new);
+
+        Random random = new Random(0);
+        probes = new Long[NUM_PROBES];
+        for (int i = 0; i < NUM_PROBES; i++) {
+            probes[i] = (long) random.nextInt(numRanges * 10);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PROBES)
+    public void containsValue(Blackhole blackhole)
+    {
+        for (Long next : probes) {
+            blackhole.consume(rangeSet.containsValue(next));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_PROBES)
+    public void projector(Blackhole blackhole)
+    {
+        for (Long next : probes) {
+            blackhole.consume(projector.apply(next));
+        }
+    }
+}
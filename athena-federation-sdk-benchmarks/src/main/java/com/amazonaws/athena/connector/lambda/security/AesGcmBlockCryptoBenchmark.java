@@ -0,0 +1,114 @@
+package com.amazonaws.athena.connector.lambda.security;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BenchmarkData;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures encrypting and decrypting a spilled Block with AesGcmBlockCrypto, reported per row of the Block so that the
+ * results can be compared directly with the other write path benchmarks. Each benchmark is run with both providers,
+ * the JDK's AES-NI accelerated implementation and BouncyCastle's pure Java one.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AesGcmBlockCryptoBenchmark
+{
+    private static final int NUM_ROWS = 10_000;
+
+    @Param({"JDK", "BOUNCY_CASTLE"})
+    public AesGcmBlockCrypto.Provider provider;
+
+    private BlockAllocatorImpl allocator;
+    private AesGcmBlockCrypto crypto;
+    private EncryptionKey key;
+    private Schema schema;
+    private Block block;
+    private byte[] encrypted;
+
+    @Setup(Level.Trial)
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        crypto = new AesGcmBlockCrypto(allocator, provider);
+        key = new LocalKeyFactory().create();
+        schema = BenchmarkData.makeSchema();
+        block = BenchmarkData.makeBlock(allocator, NUM_ROWS);
+        encrypted = crypto.encrypt(key, block);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public byte[] encrypt()
+    {
+        return crypto.encrypt(key, block);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public int encryptStream()
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(encrypted.length);
+        crypto.encrypt(key, block, out);
+        return out.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public int decrypt()
+            throws Exception
+    {
+        try (Block result = crypto.decrypt(key, encrypted, schema)) {
+            return result.getRowCount();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package com.amazonaws.athena.connector.lambda.serde.v4;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BenchmarkData;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures serializing and deserializing an inline ReadRecordsResponse with the V4 SerDe, which is dominated by
+ * BlockSerDeV4 converting the Block's record batch to and from base64 encoded Apache Arrow IPC bytes.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BlockSerDeV4Benchmark
+{
+    private static final int NUM_ROWS = 10_000;
+    private static final int SERDE_VERSION = 4;
+
+    private BlockAllocatorImpl allocator;
+    private ObjectMapper mapper;
+    private ReadRecordsResponse response;
+    private byte[] serialized;
+
+    @Setup(Level.Trial)
+    public void setup()
+            throws Exception
+    {
+        allocator = new BlockAllocatorImpl();
+        mapper = VersionedObjectMapperFactory.create(allocator, SERDE_VERSION);
+        response = new ReadRecordsResponse("catalog", BenchmarkData.makeBlock(allocator, NUM_ROWS));
+        serialized = mapper.writeValueAsBytes(response);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public byte[] serialize()
+            throws Exception
+    {
+        return mapper.writeValueAsBytes(response);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public int deserialize()
+            throws Exception
+    {
+        try (ReadRecordsResponse result = (ReadRecordsResponse) mapper.readValue(serialized, FederationResponse.class)) {
+            return result.getRecordCount();
+        }
+    }
+}
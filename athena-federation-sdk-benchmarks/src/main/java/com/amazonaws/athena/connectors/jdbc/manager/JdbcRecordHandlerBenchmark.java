@@ -0,0 +1,215 @@
+package com.amazonaws.athena.connectors.jdbc.manager;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK Benchmarks
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.data.writers.GeneratedRowWriter;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.BigIntExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.DateDayExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.DateMilliExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float8Extractor;
+import com.amazonaws.athena.connector.lambda.data.writers.extractors.VarCharExtractor;
+import com.amazonaws.athena.connector.lambda.data.writers.holders.NullableVarCharHolder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
+import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.holders.NullableBigIntHolder;
+import org.apache.arrow.vector.holders.NullableDateDayHolder;
+import org.apache.arrow.vector.holders.NullableDateMilliHolder;
+import org.apache.arrow.vector.holders.NullableFloat8Holder;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Field;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reading rows from a JDBC ResultSet into a Block using the extractors built by JdbcRecordHandler.makeExtractor,
+ * compared with extractors which look each value up by column label (and read dates, timestamps and strings twice) the
+ * way makeExtractor used to. An embedded H2 database provides the ResultSet so the driver's per value cost is real but
+ * there is no network round trip.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JdbcRecordHandlerBenchmark
+{
+    private static final int NUM_ROWS = 4096;
+    private static final String ID_COL = "id";
+    private static final String NAME_COL = "name";
+    private static final String VALUE_COL = "value";
+    private static final String DAY_COL = "day";
+    private static final String TS_COL = "ts";
+
+    @Param({"label", "ordinal"})
+    public String extraction;
+
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+    private Block block;
+    private Connection connection;
+    private PreparedStatement statement;
+    private JdbcRecordHandler recordHandler;
+
+    @Setup(Level.Trial)
+    public void setup()
+            throws SQLException
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addBigIntField(ID_COL)
+                .addStringField(NAME_COL)
+                .addFloat8Field(VALUE_COL)
+                .addDateDayField(DAY_COL)
+                .addDateMilliField(TS_COL)
+                .build();
+        block = allocator.createBlock(schema);
+
+        connection = DriverManager.getConnection("jdbc:h2:mem:" + JdbcRecordHandlerBenchmark.class.getSimpleName());
+        try (Statement ddl = connection.createStatement()) {
+            ddl.execute("CREATE TABLE bench (id BIGINT, name VARCHAR(64), \"value\" DOUBLE, \"day\" DATE, ts TIMESTAMP)");
+            ddl.execute("INSERT INTO bench SELECT x, 'name_' || x, x * 1.5, DATEADD('DAY', x, DATE '2020-01-01'), " +
+                    "DATEADD('SECOND', x, TIMESTAMP '2020-01-01 00:00:00') FROM SYSTEM_RANGE(1, " + NUM_ROWS + ")");
+        }
+        statement = connection.prepareStatement("SELECT id, name, \"value\", \"day\", ts FROM bench");
+
+        DatabaseConnectionConfig connectionConfig = new DatabaseConnectionConfig("default", "h2", "jdbc:h2:mem:");
+        recordHandler = new JdbcRecordHandler(null, null, null, connectionConfig, credentialProvider -> connection, ImmutableMap.of())
+        {
+            @Override
+            public PreparedStatement buildSplitSql(Connection jdbcConnection, String catalogName, TableName tableName,
+                    Schema schema, Constraints constraints, Split split)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown()
+            throws SQLException
+    {
+        statement.close();
+        connection.close();
+        allocator.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_ROWS)
+    public int readRows()
+            throws Exception
+    {
+        try (ResultSet resultSet = statement.executeQuery()) {
+            GeneratedRowWriter.RowWriterBuilder builder = GeneratedRowWriter.newBuilder(
+                    new Constraints(Collections.emptyMap(), Collections.emptyList(), Collections.emptyList(), Constraints.DEFAULT_NO_LIMIT));
+            for (Field next : schema.getFields()) {
+                builder.withExtractor(next.getName(), "ordinal".equals(extraction) ?
+                        recordHandler.makeExtractor(next, resultSet, Collections.emptyMap()) : makeLabelExtractor(next, resultSet));
+            }
+            GeneratedRowWriter rowWriter = builder.build();
+
+            int rows = 0;
+            while (resultSet.next()) {
+                rowWriter.writeRow(block, rows, resultSet);
+                rows++;
+            }
+            block.setRowCount(rows);
+            return rows;
+        }
+    }
+
+    /**
+     * The by-label extractors used before makeExtractor resolved columns to their ordinal.
+     */
+    private static Extractor makeLabelExtractor(Field field, ResultSet resultSet)
+    {
+        String fieldName = field.getName();
+        switch (Types.getMinorTypeForArrowType(field.getType())) {
+            case BIGINT:
+                return (BigIntExtractor) (Object context, NullableBigIntHolder dst) ->
+                {
+                    dst.value = resultSet.getLong(fieldName);
+                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                };
+            case FLOAT8:
+                return (Float8Extractor) (Object context, NullableFloat8Holder dst) ->
+                {
+                    dst.value = resultSet.getDouble(fieldName);
+                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                };
+            case DATEDAY:
+                return (DateDayExtractor) (Object context, NullableDateDayHolder dst) ->
+                {
+                    if (resultSet.getDate(fieldName) != null) {
+                        dst.value = (int) TimeUnit.MILLISECONDS.toDays(resultSet.getDate(fieldName).getTime());
+                    }
+                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                };
+            case DATEMILLI:
+                return (DateMilliExtractor) (Object context, NullableDateMilliHolder dst) ->
+                {
+                    if (resultSet.getTimestamp(fieldName) != null) {
+                        dst.value = resultSet.getTimestamp(fieldName).getTime();
+                    }
+                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                };
+            case VARCHAR:
+                return (VarCharExtractor) (Object context, NullableVarCharHolder dst) ->
+                {
+                    if (null != resultSet.getString(fieldName)) {
+                        dst.value = resultSet.getString(fieldName);
+                    }
+                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                };
+            default:
+                throw new IllegalArgumentException("Unhandled type " + field.getType());
+        }
+    }
+}
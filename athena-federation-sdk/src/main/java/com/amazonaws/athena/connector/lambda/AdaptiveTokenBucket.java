@@ -0,0 +1,265 @@
+package com.amazonaws.athena.connector.lambda;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket whose refill rate is controlled using Additive Increase, Multiplicative Decrease. This is used by
+ * ThrottlingInvoker's TOKEN_BUCKET mode. Callers reserve a token before each call and sleep for however long it takes
+ * for their token to become available, this spaces calls out evenly instead of having every caller sleep for the same
+ * delay and then retry at the same time.
+ * <p>
+ * The bucket is unlimited until the first congestion event. On congestion the rate is cut to a fraction of the smaller
+ * of the current rate and the smoothed rate at which calls were actually being made, so the cut is relative to real
+ * traffic rather than a limit that was never reached. While free of congestion the rate grows linearly with time.
+ * <p>
+ * The rate can optionally be persisted to a local file (e.g. in /tmp) so that a warm Lambda container, or another
+ * invoker for the same resource, starts at the last known good rate instead of rediscovering it.
+ */
+class AdaptiveTokenBucket
+{
+    private static final Logger logger = LoggerFactory.getLogger(AdaptiveTokenBucket.class);
+
+    //The bucket holds at most this many seconds worth of tokens, this bounds the burst allowed after an idle period.
+    private static final double BURST_SECONDS = 0.1D;
+    //The window over which the rate of calls is measured before being folded into the smoothed measured rate.
+    private static final long MEASURE_WINDOW_NANOS = TimeUnit.MILLISECONDS.toNanos(500);
+    //The weight given to the most recent window when smoothing the measured rate.
+    private static final double SMOOTHING = 0.3D;
+    //Congestion events this close to the last decrease are assumed to be caused by calls made before the decrease.
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.MILLISECONDS.toNanos(100);
+    //The rate must change by this factor from the last persisted rate before it is persisted again.
+    private static final double PERSIST_CHANGE_FACTOR = 1.25D;
+
+    private final double initialRate;
+    private final double minRate;
+    private final double decrease;
+    private final double increasePerSecond;
+    //Optional file used to persist the rate across invocations, may be null.
+    private final Path rateCacheFile;
+
+    //The rate, in calls per second, at which tokens are added to the bucket. Zero while unlimited.
+    private double rate;
+    private double tokens;
+    private long lastRefillNanos;
+    private long lastIncreaseNanos;
+    private long lastDecreaseNanos;
+    private long windowStartNanos;
+    private long windowCalls;
+    private double measuredRate;
+    private double persistedRate;
+
+    /**
+     * @param initialRate The rate, in calls per second, to use on the first congestion event if no calls were measured.
+     * @param minRate The lowest rate, in calls per second, the bucket will be reduced to.
+     * @param decrease The multiplicative factor applied to the rate on congestion.
+     * @param increasePerSecond The calls per second added to the rate for every second free of congestion.
+     * @param rateCacheFile Optional file used to seed and persist the rate, may be null.
+     */
+    AdaptiveTokenBucket(double initialRate, double minRate, double decrease, double increasePerSecond, Path rateCacheFile)
+    {
+        this.initialRate = initialRate;
+        this.minRate = minRate;
+        this.decrease = decrease;
+        this.increasePerSecond = increasePerSecond;
+        this.rateCacheFile = rateCacheFile;
+
+        long now = System.nanoTime();
+        this.lastRefillNanos = now;
+        this.lastIncreaseNanos = now;
+        this.lastDecreaseNanos = now - MIN_DECREASE_INTERVAL_NANOS;
+        this.windowStartNanos = now;
+
+        double seed = readPersistedRate();
+        if (seed > 0) {
+            logger.info("AdaptiveTokenBucket: Seeding rate from {} with {} TPS", rateCacheFile, seed);
+            rate = Math.max(minRate, seed);
+            tokens = capacity();
+            persistedRate = seed;
+        }
+    }
+
+    /**
+     * Takes a token from the bucket.
+     *
+     * @return The number of nanoseconds the caller must wait before its token is available, 0 if it is available now.
+     */
+    synchronized long reserve()
+    {
+        long now = System.nanoTime();
+        measure(now);
+        if (rate <= 0) {
+            return 0;
+        }
+
+        refill(now);
+        tokens -= 1;
+        return (tokens >= 0) ? 0 : (long) (-tokens / rate * TimeUnit.SECONDS.toNanos(1));
+    }
+
+    /**
+     * Called after a successful call, increases the rate in proportion to the time since the last increase.
+     */
+    void onSuccess()
+    {
+        double toPersist = 0;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (rate > 0) {
+                rate += increasePerSecond * (now - lastIncreaseNanos) / TimeUnit.SECONDS.toNanos(1);
+                toPersist = checkPersist();
+            }
+            lastIncreaseNanos = now;
+        }
+        persist(toPersist);
+    }
+
+    /**
+     * Called after a call failed due to congestion, decreases the rate unless it was very recently decreased.
+     *
+     * @return True if the rate was decreased, False if this event was attributed to the previous decrease.
+     */
+    boolean onCongestion()
+    {
+        double toPersist;
+        synchronized (this) {
+            long now = System.nanoTime();
+            if (now - lastDecreaseNanos < Math.max(MIN_DECREASE_INTERVAL_NANOS, rateIntervalNanos())) {
+                return false;
+            }
+
+            double base = (rate > 0) ? rate : initialRate;
+            if (measuredRate > 0) {
+                base = Math.min(base, measuredRate);
+            }
+            refill(now);
+            rate = Math.max(minRate, base * decrease);
+            tokens = Math.min(tokens, capacity());
+            lastDecreaseNanos = now;
+            lastIncreaseNanos = now;
+            toPersist = checkPersist();
+        }
+        persist(toPersist);
+        return true;
+    }
+
+    /**
+     * @return The rate, in calls per second, that the bucket currently allows or 0 if the bucket is unlimited.
+     */
+    synchronized double getRate()
+    {
+        return rate;
+    }
+
+    /**
+     * @return The smoothed rate, in calls per second, at which tokens have been reserved.
+     */
+    synchronized double getMeasuredRate()
+    {
+        return measuredRate;
+    }
+
+    private void measure(long now)
+    {
+        windowCalls++;
+        long elapsed = now - windowStartNanos;
+        if (elapsed >= MEASURE_WINDOW_NANOS) {
+            double windowRate = windowCalls * (double) TimeUnit.SECONDS.toNanos(1) / elapsed;
+            measuredRate = (measuredRate > 0) ? SMOOTHING * windowRate + (1 - SMOOTHING) * measuredRate : windowRate;
+            windowStartNanos = now;
+            windowCalls = 0;
+        }
+    }
+
+    private void refill(long now)
+    {
+        tokens = Math.min(capacity(), tokens + rate * (now - lastRefillNanos) / TimeUnit.SECONDS.toNanos(1));
+        lastRefillNanos = now;
+    }
+
+    private double capacity()
+    {
+        return Math.max(1, rate * BURST_SECONDS);
+    }
+
+    private long rateIntervalNanos()
+    {
+        return (rate > 0) ? (long) (TimeUnit.SECONDS.toNanos(1) / rate) : 0;
+    }
+
+    private double readPersistedRate()
+    {
+        if (rateCacheFile == null || !Files.exists(rateCacheFile)) {
+            return 0;
+        }
+
+        try {
+            return Double.parseDouble(new String(Files.readAllBytes(rateCacheFile), StandardCharsets.UTF_8).trim());
+        }
+        catch (IOException | RuntimeException ex) {
+            logger.warn("readPersistedRate: Unable to read rate from {}", rateCacheFile, ex);
+            return 0;
+        }
+    }
+
+    /**
+     * Must be called while holding this bucket's lock.
+     *
+     * @return The rate to persist once the lock is released, 0 if the rate hasn't changed enough to be persisted.
+     */
+    private double checkPersist()
+    {
+        if (rateCacheFile == null || (rate <= persistedRate * PERSIST_CHANGE_FACTOR && rate >= persistedRate / PERSIST_CHANGE_FACTOR)) {
+            return 0;
+        }
+        persistedRate = rate;
+        return rate;
+    }
+
+    /**
+     * Writes the rate without holding this bucket's lock so that file I/O never stalls callers waiting for a token.
+     */
+    private void persist(double rate)
+    {
+        if (rate <= 0) {
+            return;
+        }
+
+        try {
+            //Write to a temp file first so that concurrent readers never see a partially written rate.
+            Path tempFile = Files.createTempFile(rateCacheFile.toAbsolutePath().getParent(), rateCacheFile.getFileName().toString(), ".tmp");
+            Files.write(tempFile, String.valueOf(rate).getBytes(StandardCharsets.UTF_8));
+            Files.move(tempFile, rateCacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (IOException | RuntimeException ex) {
+            logger.warn("persist: Unable to persist rate to {}", rateCacheFile, ex);
+        }
+    }
+}
@@ -27,8 +27,16 @@ import com.google.common.collect.ImmutableSet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 import static java.lang.String.format;
 
@@ -37,6 +45,11 @@ import static java.lang.String.format;
  * already terminated.  Callers using the SDK as-is should only need to call #isQueryRunning, as #startQueryStatusChecker
  * should have already been called by {@link com.amazonaws.athena.connector.lambda.handlers.MetadataHandler} or
  * {@link com.amazonaws.athena.connector.lambda.handlers.RecordHandler}.
+ * <p>
+ * Polling is shared by all QueryStatusCheckers in the container. Checkers for the same query share a single poll
+ * schedule, so concurrent splits of a query make one set of calls to Athena. A single scheduler thread times the polls
+ * while the calls to Athena run on a small bounded pool, so a slow call for one query doesn't delay the polls of other
+ * queries. isQueryRunning() only reads the shared status.
  */
 public class QueryStatusChecker
         implements AutoCloseable
@@ -47,87 +60,184 @@ public class QueryStatusChecker
     private static final int[] FIBONACCI = new int[] { 1, 1, 2, 3, 5, 8, 13, 21, 34, 55};
     // Athena terminal states
     private static final Set<String> TERMINAL_STATES = ImmutableSet.of("SUCCEEDED", "FAILED", "CANCELLED");
+    // The max number of concurrent calls to Athena for all QueryStatusCheckers in the container
+    private static final int MAX_POLL_THREADS = 4;
+    // Times the polls for all QueryStatusCheckers in the container, the polls themselves run on pollPool
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor((Runnable runnable) -> {
+        Thread thread = new Thread(runnable, "QueryStatusCheckerThread");
+        thread.setDaemon(true);
+        return thread;
+    });
+    // Makes the blocking calls to Athena, idle threads exit so an idle container holds no poll threads
+    private static final ExecutorService pollPool = makePollPool();
+    // The status of each query that at least one open QueryStatusChecker is checking, guarded by itself
+    private static final Map<String, QueryStatus> statuses = new HashMap<>();
 
-    private boolean wasStarted = false;
-    private final AtomicBoolean isRunning = new AtomicBoolean(true);
     private final AmazonAthena athena;
     private final ThrottlingInvoker athenaInvoker;
     private final String queryId;
-    private final Thread checkerThread;
+    private volatile QueryStatus status;
+    private volatile boolean closed = false;
 
     public QueryStatusChecker(AmazonAthena athena, ThrottlingInvoker athenaInvoker, String queryId)
     {
         this.athena = athena;
         this.athenaInvoker = athenaInvoker;
         this.queryId = queryId;
-        this.checkerThread = new Thread(() -> runQueryStatusChecker(queryId), "QueryStatusCheckerThread-" + queryId);
     }
 
     /**
-     * Returns whether the query is still running
+     * Returns whether the query is still running. Once this QueryStatusChecker has been closed it returns the last
+     * status it knew of, or false if it never checked the query's status.
      */
     public boolean isQueryRunning()
     {
-        // start the checker thread if it hasn't started already
-        if (!wasStarted) {
+        // start checking the query's status if we haven't already, a closed checker must not start polling again
+        // since nothing would stop it
+        if (status == null && !closed) {
             synchronized (this) {
-                if (!wasStarted) {
-                    checkerThread.start();
-                    wasStarted = true;
+                if (status == null && !closed) {
+                    status = acquire(athena, athenaInvoker, queryId);
                 }
             }
         }
-        return isRunning.get();
+        QueryStatus current = status;
+        return current != null && current.running;
     }
 
     /**
-     * Stops the status checker thread
+     * Stops checking the query's status, polling ceases once no open QueryStatusChecker is checking the query.
      */
     @Override
-    public void close()
+    public synchronized void close()
     {
-        // fine if the thread isn't running
-        checkerThread.interrupt();
-        logger.debug("Interrupt signal sent to status checker thread");
+        // fine if we never started checking
+        if (status != null && !closed) {
+            release(status);
+            logger.debug("Released status checker for query {}", queryId);
+        }
+        closed = true;
     }
 
-    private void runQueryStatusChecker(String queryId)
+    private static ExecutorService makePollPool()
     {
-        int attempt = 0;
-        while (isRunning.get()) {
-            int delay = FIBONACCI[Math.min(attempt, FIBONACCI.length - 1)];
-            try {
-                Thread.sleep(delay * 1000);
-                checkStatus(queryId, attempt);
+        ThreadPoolExecutor pool = new ThreadPoolExecutor(MAX_POLL_THREADS, MAX_POLL_THREADS, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), (Runnable runnable) -> {
+                    Thread thread = new Thread(runnable, "QueryStatusCheckerPollThread");
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        pool.allowCoreThreadTimeOut(true);
+        return pool;
+    }
+
+    private static QueryStatus acquire(AmazonAthena athena, ThrottlingInvoker athenaInvoker, String queryId)
+    {
+        synchronized (statuses) {
+            QueryStatus queryStatus = statuses.get(queryId);
+            if (queryStatus == null) {
+                queryStatus = new QueryStatus(athena, athenaInvoker, queryId);
+                statuses.put(queryId, queryStatus);
+                queryStatus.scheduleNext();
             }
-            catch (InterruptedException e) {
-                logger.debug("Checker thread interrupted. Ceasing status polling");
-                return;
+            queryStatus.refCount++;
+            return queryStatus;
+        }
+    }
+
+    private static void release(QueryStatus queryStatus)
+    {
+        synchronized (statuses) {
+            if (--queryStatus.refCount == 0) {
+                statuses.remove(queryStatus.queryId);
+                queryStatus.cancel();
             }
-            attempt++;
         }
-        logger.debug("Query terminated. Ceasing status polling");
     }
 
-    private void checkStatus(String queryId, int attempt)
-            throws InterruptedException
+    /**
+     * The shared status of a single query, polled on the Fibonacci schedule for as long as any QueryStatusChecker is
+     * checking the query and the query has not terminated.
+     */
+    private static class QueryStatus
     {
-        logger.debug(format("Background thread checking status of Athena query %s, attempt %d", queryId, attempt));
-        try {
-            GetQueryExecutionResult queryExecution = athenaInvoker.invoke(() -> athena.getQueryExecution(new GetQueryExecutionRequest().withQueryExecutionId(queryId)));
-            String state = queryExecution.getQueryExecution().getStatus().getState();
-            if (TERMINAL_STATES.contains(state)) {
-                logger.debug("Query {} has terminated with state {}", queryId, state);
-                isRunning.set(false);
+        private final AmazonAthena athena;
+        private final ThrottlingInvoker athenaInvoker;
+        private final String queryId;
+        private volatile boolean running = true;
+        // guarded by statuses
+        private int refCount = 0;
+        // the remaining fields are guarded by this
+        private int attempt = 0;
+        private boolean cancelled = false;
+        private ScheduledFuture<?> nextCheck;
+
+        QueryStatus(AmazonAthena athena, ThrottlingInvoker athenaInvoker, String queryId)
+        {
+            this.athena = athena;
+            this.athenaInvoker = athenaInvoker;
+            this.queryId = queryId;
+        }
+
+        synchronized void scheduleNext()
+        {
+            if (cancelled) {
+                return;
             }
+            int delay = FIBONACCI[Math.min(attempt, FIBONACCI.length - 1)];
+            nextCheck = scheduler.schedule(() -> pollPool.execute(this::runCheck), delay, TimeUnit.SECONDS);
         }
-        catch (Exception e) {
-            logger.warn("Exception {} thrown when calling Athena for query status: {}", e.getClass().getSimpleName(), e.getMessage());
-            if (e instanceof InvalidRequestException) {
-                // query does not exist, so no need to keep calling Athena
-                logger.debug("Athena reports query {} not found. Interrupting checker thread", queryId);
-                throw new InterruptedException();
+
+        synchronized void cancel()
+        {
+            cancelled = true;
+            if (nextCheck != null) {
+                nextCheck.cancel(false);
+            }
+        }
+
+        private void runCheck()
+        {
+            int currentAttempt;
+            synchronized (this) {
+                if (cancelled) {
+                    return;
+                }
+                currentAttempt = attempt++;
+            }
+
+            if (checkStatus(currentAttempt)) {
+                scheduleNext();
+            }
+            else {
+                logger.debug("Ceasing status polling for query {}", queryId);
+            }
+        }
+
+        /**
+         * @return True if we should continue polling, False if the query terminated or could not be found.
+         */
+        private boolean checkStatus(int attempt)
+        {
+            logger.debug(format("Background thread checking status of Athena query %s, attempt %d", queryId, attempt));
+            try {
+                GetQueryExecutionResult queryExecution = athenaInvoker.invoke(() -> athena.getQueryExecution(new GetQueryExecutionRequest().withQueryExecutionId(queryId)));
+                String state = queryExecution.getQueryExecution().getStatus().getState();
+                if (TERMINAL_STATES.contains(state)) {
+                    logger.debug("Query {} has terminated with state {}", queryId, state);
+                    running = false;
+                    return false;
+                }
+            }
+            catch (Exception e) {
+                logger.warn("Exception {} thrown when calling Athena for query status: {}", e.getClass().getSimpleName(), e.getMessage());
+                if (e instanceof InvalidRequestException) {
+                    // query does not exist, so no need to keep calling Athena
+                    logger.debug("Athena reports query {} not found. Ceasing status polling", queryId);
+                    return false;
+                }
             }
+            return true;
         }
     }
 }
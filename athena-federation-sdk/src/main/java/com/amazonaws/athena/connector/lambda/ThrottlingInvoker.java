@@ -22,12 +22,15 @@ package com.amazonaws.athena.connector.lambda;
 
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.exceptions.FederationThrottleException;
+import com.amazonaws.athena.connector.lambda.metrics.SplitMetrics;
 import com.google.common.base.MoreObjects;
 import org.apache.arrow.util.VisibleForTesting;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.nio.file.Paths;
 import java.util.concurrent.Callable;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
 import java.util.concurrent.atomic.AtomicReference;
@@ -40,6 +43,10 @@ import java.util.concurrent.atomic.AtomicReference;
  * to detect the congestion and converge. This utility works best when all callers use it, otherwise callers
  * that do not use this logic will get a larger % of the available call capacity because the other callers
  * will back off when they see congestion and get starved out by the greedy caller
+ * <p>
+ * By default a delay is applied before every call (Mode.DELAY). In Mode.TOKEN_BUCKET calls are instead paced by an
+ * AdaptiveTokenBucket whose rate is adjusted using the same Additive Increase, Multiplicative Decrease logic, see
+ * AdaptiveTokenBucket for details.
  */
 public class ThrottlingInvoker
 {
@@ -53,6 +60,11 @@ public class ThrottlingInvoker
     private static final String THROTTLE_DECREASE_FACTOR = "throttle_decrease_factor";
     //The additive factor by which we should increase our call rate (e.g. decrease delay) when we seem free of congestion.
     private static final String THROTTLE_INCREASE_MS = "throttle_increase_ms";
+    //The Mode to use, either DELAY (the default) or TOKEN_BUCKET.
+    private static final String THROTTLE_MODE = "throttle_mode";
+    //(Optional) A local directory in which TOKEN_BUCKET mode invokers built with a rate cache name seed and persist
+    //their rate across invocations, each name has its own file so unrelated resources don't share a rate.
+    private static final String THROTTLE_RATE_CACHE_DIR = "throttle_rate_cache_dir";
 
     //10ms is our initial delay, this takes us from unlimited TPS to 100 TPS as a first step.
     private static final long DEFAULT_INITIAL_DELAY_MS = 10;
@@ -70,11 +82,16 @@ public class ThrottlingInvoker
     private final ExceptionFilter filter;
     private final AtomicReference<BlockSpiller> spillerRef;
     private final AtomicLong delay = new AtomicLong(0);
+    //Paces calls when in TOKEN_BUCKET mode, null in DELAY mode.
+    private final AdaptiveTokenBucket tokenBucket;
     private volatile State state = State.FAST_START;
 
     public enum State
     {FAST_START, CONGESTED, AVOIDANCE}
 
+    public enum Mode
+    {DELAY, TOKEN_BUCKET}
+
     public interface ExceptionFilter
     {
         boolean isMatch(Exception ex);
@@ -87,7 +104,9 @@ public class ThrottlingInvoker
                 builder.decrease,
                 builder.increase,
                 builder.filter,
-                builder.spiller);
+                builder.spiller,
+                builder.mode,
+                builder.getRateCacheFile());
     }
 
     @VisibleForTesting
@@ -97,6 +116,25 @@ public class ThrottlingInvoker
             long increase,
             ExceptionFilter filter,
             BlockSpiller spiller)
+    {
+        this(initialDelayMs, maxDelayMs, decrease, increase, filter, spiller, Mode.DELAY, null);
+    }
+
+    /**
+     * @param mode The Mode to use. In TOKEN_BUCKET mode the initial rate is 1000 / initialDelayMs calls per second,
+     * the min rate is 1000 / maxDelayMs calls per second, and the rate is increased by increase calls per second for
+     * every second free of congestion.
+     * @param rateCacheFile (Optional) The file used by TOKEN_BUCKET mode to seed and persist its rate, may be null.
+     */
+    @VisibleForTesting
+    ThrottlingInvoker(long initialDelayMs,
+            long maxDelayMs,
+            double decrease,
+            long increase,
+            ExceptionFilter filter,
+            BlockSpiller spiller,
+            Mode mode,
+            String rateCacheFile)
     {
         if (decrease > 1 || decrease < .001) {
             throw new IllegalArgumentException("decrease was " + decrease + " but should be between .001 and 1");
@@ -116,6 +154,20 @@ public class ThrottlingInvoker
         this.increase = increase;
         this.filter = filter;
         this.spillerRef = new AtomicReference<>(spiller);
+        if (mode == Mode.TOKEN_BUCKET) {
+            this.tokenBucket = new AdaptiveTokenBucket(1000D / Math.max(1, initialDelayMs),
+                    1000D / maxDelayMs,
+                    decrease,
+                    increase,
+                    (rateCacheFile != null) ? Paths.get(rateCacheFile) : null);
+            if (tokenBucket.getRate() > 0) {
+                //We were seeded with a known good rate, skip straight to avoidance.
+                state = State.AVOIDANCE;
+            }
+        }
+        else {
+            this.tokenBucket = null;
+        }
     }
 
     /**
@@ -144,13 +196,17 @@ public class ThrottlingInvoker
                 Long.parseLong(configOptions.get(THROTTLE_DECREASE_FACTOR)) : DEFAULT_DECREASE_FACTOR;
         long increase = (configOptions.get(THROTTLE_INCREASE_MS) != null) ?
                 Long.parseLong(configOptions.get(THROTTLE_INCREASE_MS)) : DEFAULT_INCREASE_MS;
+        Mode mode = (configOptions.get(THROTTLE_MODE) != null) ?
+                Mode.valueOf(configOptions.get(THROTTLE_MODE).toUpperCase()) : Mode.DELAY;
 
         return newBuilder()
                 .withInitialDelayMs(initialDelayMs)
                 .withMaxDelayMs(maxDelayMs)
                 .withDecrease(decreaseFactor)
                 .withIncrease(increase)
-                .withFilter(filter);
+                .withFilter(filter)
+                .withMode(mode)
+                .withRateCacheDir(configOptions.get(THROTTLE_RATE_CACHE_DIR));
     }
 
     /**
@@ -225,6 +281,20 @@ public class ThrottlingInvoker
         return delay.get();
     }
 
+    /**
+     * Provides the rate, in calls per second, that this invoker currently allows. Useful for publishing as a metric.
+     *
+     * @return The current TPS limit, 0 if calls are not currently limited.
+     */
+    public double getRate()
+    {
+        if (tokenBucket != null) {
+            return tokenBucket.getRate();
+        }
+        long currentDelay = delay.get();
+        return (currentDelay > 0) ? 1000D / currentDelay : 0;
+    }
+
     @Override
     public String toString()
     {
@@ -234,12 +304,23 @@ public class ThrottlingInvoker
                 .add("decrease", decrease)
                 .add("increase", increase)
                 .add("delay", delay)
+                .add("rate", getRate())
                 .add("state", state)
                 .toString();
     }
 
     private synchronized void handleThrottle(Exception ex)
     {
+        if (tokenBucket != null) {
+            if (tokenBucket.onCongestion()) {
+                logger.info("handleThrottle: Encountered a Throttling event[{}] adjusting rate to {} TPS (measured {} TPS)",
+                        ex, tokenBucket.getRate(), tokenBucket.getMeasuredRate());
+            }
+            state = State.CONGESTED;
+            propagateIfNotSpilled(ex);
+            return;
+        }
+
         long newDelay = (long) Math.ceil(delay.get() / decrease);
         if (newDelay == 0) {
             newDelay = initialDelayMs;
@@ -251,14 +332,31 @@ public class ThrottlingInvoker
                 ex, newDelay, 1000D / newDelay);
         state = State.CONGESTED;
         delay.set(newDelay);
+        propagateIfNotSpilled(ex);
+    }
 
+    private void propagateIfNotSpilled(Exception ex)
+    {
         if (spillerRef.get() != null && !spillerRef.get().spilled()) {
             //If no blocks have spilled, it is better to signal the Throttle to Athena by propagating.
             throw new FederationThrottleException("ThrottlingInvoker requesting slow down due to " + ex, ex);
         }
     }
 
-    private synchronized void handleAvoidance()
+    private void handleAvoidance()
+    {
+        if (tokenBucket != null) {
+            tokenBucket.onSuccess();
+            if (state == State.CONGESTED) {
+                state = State.AVOIDANCE;
+            }
+            return;
+        }
+
+        handleDelayAvoidance();
+    }
+
+    private synchronized void handleDelayAvoidance()
     {
         long newDelay = delay.get() - increase;
         if (newDelay <= 0) {
@@ -275,9 +373,24 @@ public class ThrottlingInvoker
 
     private void applySleep()
     {
-        if (delay.get() > 0) {
+        if (tokenBucket != null) {
+            long waitNanos = tokenBucket.reserve();
+            if (waitNanos > 0) {
+                try {
+                    TimeUnit.NANOSECONDS.sleep(waitNanos);
+                    recordThrottleDelay(waitNanos);
+                }
+                catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new RuntimeException(ex);
+                }
+            }
+        }
+        else if (delay.get() > 0) {
             try {
-                Thread.sleep(delay.get());
+                long delayMs = delay.get();
+                Thread.sleep(delayMs);
+                recordThrottleDelay(TimeUnit.MILLISECONDS.toNanos(delayMs));
             }
             catch (InterruptedException ex) {
                 Thread.currentThread().interrupt();
@@ -286,6 +399,18 @@ public class ThrottlingInvoker
         }
     }
 
+    /**
+     * Attributes time spent sleeping to the metrics of the split being read, if the BlockSpiller collects any.
+     */
+    private void recordThrottleDelay(long nanos)
+    {
+        BlockSpiller spiller = spillerRef.get();
+        SplitMetrics metrics = (spiller != null) ? spiller.getMetrics() : null;
+        if (metrics != null) {
+            metrics.recordThrottleDelay(nanos);
+        }
+    }
+
     private boolean isTimedOut(long startTime, long timeoutMillis)
     {
         return (timeoutMillis > 0) ? System.currentTimeMillis() - startTime > timeoutMillis : false;
@@ -299,6 +424,10 @@ public class ThrottlingInvoker
         private long increase;
         private ExceptionFilter filter;
         private BlockSpiller spiller;
+        private Mode mode = Mode.DELAY;
+        private String rateCacheFile;
+        private String rateCacheDir;
+        private String rateCacheName;
 
         public Builder withInitialDelayMs(long initialDelayMs)
         {
@@ -336,6 +465,46 @@ public class ThrottlingInvoker
             return this;
         }
 
+        public Builder withMode(Mode mode)
+        {
+            this.mode = mode;
+            return this;
+        }
+
+        public Builder withRateCacheFile(String rateCacheFile)
+        {
+            this.rateCacheFile = rateCacheFile;
+            return this;
+        }
+
+        /**
+         * @param rateCacheDir The directory in which invokers with a rate cache name persist their rate, may be null.
+         */
+        public Builder withRateCacheDir(String rateCacheDir)
+        {
+            this.rateCacheDir = rateCacheDir;
+            return this;
+        }
+
+        /**
+         * @param rateCacheName Identifies the resource this invoker calls (e.g. a DynamoDB table), invokers only share a
+         * persisted rate if they have the same name. Invokers without a name don't persist their rate.
+         */
+        public Builder withRateCacheName(String rateCacheName)
+        {
+            this.rateCacheName = rateCacheName;
+            return this;
+        }
+
+        private String getRateCacheFile()
+        {
+            if (rateCacheFile != null || rateCacheDir == null || rateCacheName == null) {
+                return rateCacheFile;
+            }
+            //The name may come from a resource name, keep it to characters that are safe in a file name.
+            return Paths.get(rateCacheDir, rateCacheName.replaceAll("[^A-Za-z0-9._-]", "_") + ".rate").toString();
+        }
+
         public ThrottlingInvoker build()
         {
             return new ThrottlingInvoker(this);
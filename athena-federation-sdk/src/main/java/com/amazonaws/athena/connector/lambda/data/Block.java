@@ -22,11 +22,20 @@ package com.amazonaws.athena.connector.lambda.data;
 
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
 import com.google.common.base.MoreObjects;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.vector.BaseFixedWidthVector;
+import org.apache.arrow.vector.BaseVariableWidthVector;
 import org.apache.arrow.vector.FieldVector;
 import org.apache.arrow.vector.VectorLoader;
 import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.VectorUnloader;
+import org.apache.arrow.vector.complex.ListVector;
+import org.apache.arrow.vector.complex.StructVector;
 import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.Field;
@@ -36,9 +45,11 @@ import org.slf4j.LoggerFactory;
 
 import java.beans.Transient;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Consumer;
 
 import static com.amazonaws.athena.connector.lambda.data.BlockUtils.fieldToString;
 import static java.util.Objects.requireNonNull;
@@ -79,6 +90,10 @@ public class Block
     //Note that we will _NOT_ close this ConstraintEvaluator because we may not own it and the emptyEvaluator
     //has no resources that could leak.
     private ConstraintEvaluator constraintEvaluator = ConstraintEvaluator.emptyEvaluator();
+    //The ColumnWriters that have been bound to this Block's fields, keyed by field name.
+    private final Map<String, ColumnWriter> columnWriters = new HashMap<>();
+    //Notified when the Block is closed so that the owning BlockAllocator can stop tracking it.
+    private Consumer<Block> closeListener;
 
     /**
      * Used by a BlockAllocator to construct a block by setting the key values that a Block 'holds'. Most of the meaningful
@@ -107,6 +122,7 @@ public class Block
     public void constrain(ConstraintEvaluator constraintEvaluator)
     {
         this.constraintEvaluator = (constraintEvaluator != null) ? constraintEvaluator : ConstraintEvaluator.emptyEvaluator();
+        columnWriters.clear();
     }
 
     /**
@@ -169,14 +185,26 @@ public class Block
      */
     public boolean offerValue(String fieldName, int row, Object value)
     {
-        if (constraintEvaluator.apply(fieldName, value)) {
-            FieldVector vector = getFieldVector(fieldName);
-            if (vector != null) {
-                BlockUtils.setValue(vector, row, value);
-            }
-            return true;
+        return getColumnWriter(fieldName).offerValue(row, value);
+    }
+
+    /**
+     * Provides a ColumnWriter which can be used to repeatedly write values to the given field without looking up the
+     * field, its type, or its constraint on every call. ColumnWriters are bound once per field and reused until the
+     * Block is constrained again or reset.
+     *
+     * @param fieldName The name of the field you wish to write to.
+     * @return The ColumnWriter for the field. If the field is not part of this Block's Schema the ColumnWriter behaves
+     * like offerValue(...) and only applies the field's constraint.
+     */
+    public ColumnWriter getColumnWriter(String fieldName)
+    {
+        ColumnWriter writer = columnWriters.get(fieldName);
+        if (writer == null) {
+            writer = new ColumnWriter(getFieldVector(fieldName), fieldName, constraintEvaluator);
+            columnWriters.put(fieldName, writer);
         }
-        return false;
+        return writer;
     }
 
     /**
@@ -336,6 +364,32 @@ public class Block
         return vectorUnloader.getRecordBatch();
     }
 
+    /**
+     * Used to convert this Block's data into an Apache Arrow ArrowRecordBatch whose buffers are compressed with the
+     * provided codec, e.g. to reduce the size of spilled Blocks.
+     *
+     * @param codec The CompressionCodec to compress each buffer with.
+     * @return An ArrowRecordBatch of this Block's data using Apache Arrow's IPC buffer compression.
+     * @note The compressed buffers are new allocations, this Block is not modified.
+     */
+    public ArrowRecordBatch getRecordBatch(CompressionCodec codec)
+    {
+        List<ArrowBuf> compressedBuffers = new ArrayList<>();
+        try (ArrowRecordBatch batch = getRecordBatch()) {
+            for (ArrowBuf next : batch.getBuffers()) {
+                //Compressing releases the source buffer, retain it so that it remains owned by this Block.
+                next.getReferenceManager().retain();
+                compressedBuffers.add(codec.compress(next.getReferenceManager().getAllocator(), next));
+            }
+            return new ArrowRecordBatch(batch.getLength(), batch.getNodes(), compressedBuffers,
+                    CompressionUtil.createBodyCompression(codec), true);
+        }
+        finally {
+            //The compressed batch holds its own reference to each compressed buffer.
+            compressedBuffers.forEach(ArrowBuf::close);
+        }
+    }
+
     /**
      * Used to load Apache Arrow data into this Block after it has been deserialized.
      *
@@ -346,11 +400,66 @@ public class Block
      */
     public void loadRecordBatch(ArrowRecordBatch batch)
     {
-        VectorLoader vectorLoader = new VectorLoader(vectorSchema);
+        //Compressed batches (e.g. spilled with a compression codec) are decompressed as they are loaded.
+        VectorLoader vectorLoader = (batch.getBodyCompression().getCodec() == NoCompressionCodec.COMPRESSION_TYPE) ?
+                new VectorLoader(vectorSchema) : new VectorLoader(vectorSchema, CommonsCompressionFactory.INSTANCE);
         vectorLoader.load(batch);
         batch.close();
     }
 
+    /**
+     * Clears all rows and constraints from this Block while retaining its Apache Arrow Buffers, allowing the Block
+     * to be reused without allocating new memory.
+     */
+    protected void reset()
+    {
+        for (FieldVector next : vectorSchema.getFieldVectors()) {
+            clear(next);
+        }
+        vectorSchema.setRowCount(0);
+        constraintEvaluator = ConstraintEvaluator.emptyEvaluator();
+        columnWriters.clear();
+    }
+
+    /**
+     * Empties the vector by clearing only its validity and offset buffers and its value count. Unlike
+     * FieldVector.reset() the data buffers are not zeroed since every value is overwritten before it becomes visible
+     * again. Vectors of other kinds are fully reset.
+     */
+    private static void clear(FieldVector vector)
+    {
+        if (vector instanceof BaseFixedWidthVector) {
+            zero(vector.getValidityBuffer());
+        }
+        else if (vector instanceof BaseVariableWidthVector) {
+            zero(vector.getValidityBuffer());
+            zero(vector.getOffsetBuffer());
+            ((BaseVariableWidthVector) vector).setLastSet(-1);
+        }
+        else if (vector instanceof ListVector) {
+            zero(vector.getValidityBuffer());
+            zero(vector.getOffsetBuffer());
+            ((ListVector) vector).setLastSet(-1);
+            clear(((ListVector) vector).getDataVector());
+        }
+        else if (vector instanceof StructVector) {
+            zero(vector.getValidityBuffer());
+            for (FieldVector next : vector.getChildrenFromFields()) {
+                clear(next);
+            }
+        }
+        else {
+            vector.reset();
+            return;
+        }
+        vector.setValueCount(0);
+    }
+
+    private static void zero(ArrowBuf buffer)
+    {
+        buffer.setZero(0, buffer.capacity());
+    }
+
     /**
      * Frees all Apache Arrow Buffers and resources associated with this block.
      *
@@ -361,6 +470,17 @@ public class Block
             throws Exception
     {
         this.vectorSchema.close();
+        if (closeListener != null) {
+            closeListener.accept(this);
+        }
+    }
+
+    /**
+     * Used by the BlockAllocator that created this Block to be notified when the Block is closed.
+     */
+    void setCloseListener(Consumer<Block> closeListener)
+    {
+        this.closeListener = closeListener;
     }
 
     @Override
@@ -46,6 +46,26 @@ public interface BlockAllocator
      */
     Block createBlock(Schema schema);
 
+    /**
+     * Returns a Block that the caller no longer needs to this BlockAllocator so that its Apache Arrow resources can be
+     * reused by a subsequent call to createBlock(...) with the same Schema, avoiding the cost of allocating (and
+     * zeroing) new buffers for every Block. Callers must not use the Block after recycling it.
+     *
+     * @param block The Block to recycle.
+     * @param maxPooledBlocks The max number of idle Blocks with the same Schema that should be retained, if this many
+     * Blocks are already pooled the recycled Block is closed instead.
+     * @note The default implementation does not pool and simply closes the Block.
+     */
+    default void recycleBlock(Block block, int maxPooledBlocks)
+    {
+        try {
+            block.close();
+        }
+        catch (Exception ex) {
+            throw new RuntimeException(ex);
+        }
+    }
+
     /**
      * Creates an empty Apache Arrow Buffer of the requested size. This is useful when working with certain Apache Arrow
      * types directly.
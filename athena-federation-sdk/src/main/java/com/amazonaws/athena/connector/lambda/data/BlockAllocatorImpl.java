@@ -32,8 +32,15 @@ import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicBoolean;
 
@@ -46,20 +53,31 @@ public class BlockAllocatorImpl
         implements BlockAllocator
 {
     private static final Logger logger = LoggerFactory.getLogger(BlockAllocatorImpl.class);
+    //Config to enable the warm allocator mode, see forRequest(...)
+    private static final String WARM_ALLOCATOR = "WARM_ALLOCATOR";
+    //Tracked batches and buffers are pruned of released entries each time they grow past this (or twice their size
+    //after the last prune).
+    private static final int MIN_PRUNE_THRESHOLD = 64;
+    //The process wide RootAllocator that warm allocators are children of, created on first use.
+    private static RootAllocator warmRootAllocator;
 
     //Identifier for this block allocator, mostly used by BlockAllocatorRegistry.
     private final String id;
     //The Apache Arrow Buffer Allocator that we are wrapping with reference counting and clean up.
     private final BufferAllocator rootAllocator;
     private final boolean ownRootAllocator;
-    //The Blocks that have been allocated via this BlockAllocator
-    private final List<Block> blocks = new ArrayList<>();
+    //The live Blocks that have been allocated via this BlockAllocator, Blocks remove themselves when closed.
+    private final Set<Block> blocks = Collections.newSetFromMap(new IdentityHashMap<>());
     //The record batches that have been allocated via this BlockAllocator
     private final List<ArrowRecordBatch> recordBatches = new ArrayList<>();
+    //Idle Blocks, keyed by Schema, which have been recycled and can be handed out by createBlock(...)
+    private final Map<Schema, Deque<Block>> blockPool = new HashMap<>();
     //The arrow buffers that have been allocated via this BlockAllocator
     private final List<ArrowBuf> arrowBufs = new ArrayList<>();
     //Flag inficating if this allocator has been closed.
     private final AtomicBoolean isClosed = new AtomicBoolean(false);
+    private int batchPruneThreshold = MIN_PRUNE_THRESHOLD;
+    private int bufferPruneThreshold = MIN_PRUNE_THRESHOLD;
 
     /**
      * Default constructor.
@@ -113,6 +131,46 @@ public class BlockAllocatorImpl
         this.id = id;
     }
 
+    /**
+     * Constructs a BlockAllocatorImpl with the given id whose memory is allocated from a child of the provided
+     * BufferAllocator. The child is closed, and its memory returned to the parent, when this BlockAllocator is closed.
+     *
+     * @param id The id used to identify this BlockAllocatorImpl
+     * @param parent The BufferAllocator to create the child allocator from.
+     * @param memoryLimit The max memory, in bytes, that this BlockAllocator is allows to use.
+     */
+    public BlockAllocatorImpl(String id, BufferAllocator parent, long memoryLimit)
+    {
+        this.rootAllocator = parent.newChildAllocator(id, 0, memoryLimit);
+        this.ownRootAllocator = true;
+        this.id = id;
+    }
+
+    /**
+     * Creates the BlockAllocator for a single request. By default every request gets its own RootAllocator, when the
+     * WARM_ALLOCATOR config is set to true requests instead get a child of a process wide RootAllocator. This lets a
+     * warm Lambda container reuse the RootAllocator (and the memory it has reserved) across invocations while still
+     * verifying that each request freed everything it allocated.
+     *
+     * @param configOptions The configOptions of the handler serving the request.
+     * @return A new BlockAllocatorImpl which the caller is responsible for closing.
+     */
+    public static BlockAllocatorImpl forRequest(Map<String, String> configOptions)
+    {
+        if (configOptions == null || !Boolean.parseBoolean(configOptions.get(WARM_ALLOCATOR))) {
+            return new BlockAllocatorImpl();
+        }
+        return new BlockAllocatorImpl(UUID.randomUUID().toString(), getWarmRootAllocator(), Integer.MAX_VALUE);
+    }
+
+    private static synchronized RootAllocator getWarmRootAllocator()
+    {
+        if (warmRootAllocator == null) {
+            warmRootAllocator = new RootAllocator(Long.MAX_VALUE);
+        }
+        return warmRootAllocator;
+    }
+
     /**
      * Creates a block and registers it for later clean up if the block isn't explicitly closed by the caller.
      *
@@ -120,6 +178,12 @@ public class BlockAllocatorImpl
      */
     public synchronized Block createBlock(Schema schema)
     {
+        Deque<Block> pooled = blockPool.get(schema);
+        if (pooled != null && !pooled.isEmpty()) {
+            //Recycled blocks are already registered in blocks and were reset when they were recycled.
+            return pooled.pop();
+        }
+
         Block block = null;
         VectorSchemaRoot vectorSchemaRoot = null;
         List<FieldVector> vectors = new ArrayList();
@@ -129,6 +193,7 @@ public class BlockAllocatorImpl
             }
             vectorSchemaRoot = new VectorSchemaRoot(schema, vectors, 0);
             block = new Block(id, schema, vectorSchemaRoot);
+            block.setCloseListener(this::releaseBlock);
             blocks.add(block);
         }
         catch (Exception ex) {
@@ -154,17 +219,53 @@ public class BlockAllocatorImpl
         return block;
     }
 
+    /**
+     * Resets the Block and retains it for reuse by createBlock(...), the Block is closed instead if it was not
+     * allocated by this BlockAllocator or the pool for its Schema is already full.
+     *
+     * @see com.amazonaws.athena.connector.lambda.data.BlockAllocator
+     */
+    @Override
+    public synchronized void recycleBlock(Block block, int maxPooledBlocks)
+    {
+        Deque<Block> pooled = blockPool.computeIfAbsent(block.getSchema(), key -> new ArrayDeque<>());
+        if (isClosed.get() || !id.equals(block.getAllocatorId()) || pooled.size() >= maxPooledBlocks) {
+            try {
+                block.close();
+            }
+            catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+            return;
+        }
+
+        block.reset();
+        pooled.push(block);
+    }
+
+    /**
+     * Stops tracking a Block once it has been closed by its owner.
+     */
+    private synchronized void releaseBlock(Block block)
+    {
+        blocks.remove(block);
+    }
+
     /**
      * Creates an ArrowBuf and registers it for later clean up if the ArrowBuff isn't explicitly closed by the caller.
      *
      * @see com.amazonaws.athena.connector.lambda.data.BlockAllocator
      */
-    public ArrowBuf createBuffer(int size)
+    public synchronized ArrowBuf createBuffer(int size)
     {
         ArrowBuf buffer = null;
         try {
             buffer = rootAllocator.buffer(size);
             arrowBufs.add(buffer);
+            if (arrowBufs.size() >= bufferPruneThreshold) {
+                arrowBufs.removeIf(next -> next.refCnt() == 0);
+                bufferPruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, arrowBufs.size() * 2);
+            }
             return buffer;
         }
         catch (Exception ex) {
@@ -187,6 +288,10 @@ public class BlockAllocatorImpl
             logger.debug("registerBatch: {}", recordBatches.size());
             ArrowRecordBatch batch = generator.generate(getRawAllocator());
             recordBatches.add(batch);
+            if (recordBatches.size() >= batchPruneThreshold) {
+                recordBatches.removeIf(BlockAllocatorImpl::isReleased);
+                batchPruneThreshold = Math.max(MIN_PRUNE_THRESHOLD, recordBatches.size() * 2);
+            }
             return batch;
         }
         catch (org.apache.arrow.memory.OutOfMemoryException ex) {
@@ -201,6 +306,26 @@ public class BlockAllocatorImpl
         }
     }
 
+    /**
+     * A batch is released once it has been closed and any vectors it was loaded into have been closed, at which point
+     * closing it again would be a no-op and we can stop tracking it.
+     */
+    private static boolean isReleased(ArrowRecordBatch batch)
+    {
+        try {
+            for (ArrowBuf next : batch.getBuffers()) {
+                if (next.refCnt() > 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        catch (IllegalStateException ex) {
+            //Thrown when the batch has already been closed.
+            return true;
+        }
+    }
+
     /**
      * Provides access to the underlying Apache Arrow Allocator.
      *
@@ -219,7 +344,10 @@ public class BlockAllocatorImpl
     protected synchronized void closeBlocks()
     {
         logger.debug("closeBlocks: {}", blocks.size());
-        for (Block next : blocks) {
+        //Closing a Block removes it from blocks, so iterate over a copy.
+        List<Block> toClose = new ArrayList<>(blocks);
+        blocks.clear();
+        for (Block next : toClose) {
             try {
                 next.close();
             }
@@ -227,7 +355,6 @@ public class BlockAllocatorImpl
                 logger.warn("closeBlocks: Error closing block", ex);
             }
         }
-        blocks.clear();
     }
 
     /**
@@ -266,6 +393,15 @@ public class BlockAllocatorImpl
         recordBatches.clear();
     }
 
+    /**
+     * @return The number of Blocks allocated by this BlockAllocator that have not yet been closed.
+     */
+    @VisibleForTesting
+    synchronized int getNumLiveBlocks()
+    {
+        return blocks.size();
+    }
+
     /**
      * Returns number of bytes in the Apache Arrow Pool that are used. This is not the same as the actual
      * reserved memory usage you may be familiar with from your operating system.
@@ -291,6 +427,7 @@ public class BlockAllocatorImpl
         if (!isClosed.get()) {
             isClosed.set(true);
             closeBatches();
+            blockPool.clear();
             closeBlocks();
             closeBuffers();
             // Do not close rootAllocators that we do not own
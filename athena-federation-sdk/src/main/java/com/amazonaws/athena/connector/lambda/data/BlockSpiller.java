@@ -22,6 +22,8 @@ package com.amazonaws.athena.connector.lambda.data;
 
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.metrics.SplitMetrics;
+import org.apache.arrow.vector.VectorSchemaRoot;
 
 import java.util.List;
 
@@ -31,6 +33,67 @@ import java.util.List;
 public interface BlockSpiller
         extends BlockWriter
 {
+    /**
+     * Used to write an entire batch of rows which the source already provides in Apache Arrow format. Constraints are
+     * applied to the batch one column at a time and the rows that pass are copied into the Block(s) being managed,
+     * splitting across Blocks as needed.
+     *
+     * @param batch The batch of rows to write. Columns are matched to the spiller's Schema by field name and must have
+     * the same type, columns that are not part of the Schema are ignored. The batch is not modified or closed.
+     * @note The default implementation writes the batch one row at a time via writeRows(...), implementations are
+     * encouraged to provide a bulk copy.
+     */
+    default void writeBatch(VectorSchemaRoot batch)
+    {
+        int[] selection = new int[1];
+        for (int i = 0; i < batch.getRowCount(); i++) {
+            int row = i;
+            writeRows((Block block, int rowNum) -> {
+                selection[0] = row;
+                if (block.getConstraintEvaluator().selectRows(batch, selection, 1) == 0) {
+                    return 0;
+                }
+                return BlockUtils.copyRows(batch, selection, 0, 1, block, rowNum);
+            });
+        }
+    }
+
+    /**
+     * Creates a ProducerBlockWriter which can be used by one additional thread to write rows to this BlockSpiller
+     * concurrently with other producers. Each producer must be closed before spilled(), getBlock(), or
+     * getSpillLocations() are called.
+     *
+     * @return A new ProducerBlockWriter for use by a single thread.
+     * @note The default implementation serializes all producers on this BlockSpiller, implementations are encouraged
+     * to give each producer its own Block so that producers can write in parallel.
+     */
+    default ProducerBlockWriter newProducer()
+    {
+        BlockSpiller spiller = this;
+        return new ProducerBlockWriter()
+        {
+            @Override
+            public void writeRows(RowWriter rowWriter)
+            {
+                synchronized (spiller) {
+                    spiller.writeRows(rowWriter);
+                }
+            }
+
+            @Override
+            public ConstraintEvaluator getConstraintEvaluator()
+            {
+                return spiller.getConstraintEvaluator();
+            }
+
+            @Override
+            public void close()
+            {
+                //NoOp, rows are written directly to the BlockSpiller.
+            }
+        };
+    }
+
     /**
      * Indicates if any part of the response written thus far has been spilled.
      *
@@ -61,4 +124,15 @@ public interface BlockSpiller
      * Provides access to the ConstraintEvaluator that will be applied to the generated Blocks.
      */
     ConstraintEvaluator getConstraintEvaluator();
+
+    /**
+     * Provides access to the performance metrics collected while writing the split (e.g. rows read and filtered,
+     * bytes written, spill latency) so that they can be published once the split completes.
+     *
+     * @return The SplitMetrics for this BlockSpiller, null if this implementation does not collect metrics.
+     */
+    default SplitMetrics getMetrics()
+    {
+        return null;
+    }
 }
@@ -42,6 +42,7 @@ import org.apache.arrow.vector.UInt4Vector;
 import org.apache.arrow.vector.UInt8Vector;
 import org.apache.arrow.vector.VarBinaryVector;
 import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
 import org.apache.arrow.vector.complex.ListVector;
 import org.apache.arrow.vector.complex.MapVector;
 import org.apache.arrow.vector.complex.StructVector;
@@ -541,6 +542,41 @@ public class BlockUtils
         return rowsCopied;
     }
 
+    /**
+     * Copies the selected rows of an Apache Arrow batch into a Block one column at a time using Apache Arrow's
+     * copyFromSafe(...). This avoids the per-value type conversion and boxing of setValue(...) and is the preferred
+     * way to write data that the source already provides in Apache Arrow format. Like setValue(...) this method
+     * does _not_ update the row count of the destination Block.
+     *
+     * @param src The batch to copy rows from. Columns are matched to the Block's fields by name and must have the same
+     * ArrowType, fields in the Block that are not present in the batch are left null.
+     * @param srcRows The row numbers in the batch to copy, in the order they should be written.
+     * @param offset The index in srcRows of the first row to copy.
+     * @param length The number of rows from srcRows to copy.
+     * @param dstBlock The Block to copy the rows into.
+     * @param dstRow The row in the Block to write the first copied row to.
+     * @return The number of rows that were copied.
+     */
+    public static int copyRows(VectorSchemaRoot src, int[] srcRows, int offset, int length, Block dstBlock, int dstRow)
+    {
+        for (FieldVector dst : dstBlock.getFieldVectors()) {
+            FieldVector srcVector = src.getVector(dst.getField().getName());
+            if (srcVector == null) {
+                continue;
+            }
+
+            if (!srcVector.getField().getType().equals(dst.getField().getType())) {
+                throw new IllegalArgumentException("Field " + dst.getField().getName() + " has type "
+                        + dst.getField().getType() + " but the source batch has type " + srcVector.getField().getType());
+            }
+
+            for (int i = 0; i < length; i++) {
+                dst.copyFromSafe(srcRows[offset + i], dstRow + i, srcVector);
+            }
+        }
+        return length;
+    }
+
     /**
      * Checks if a row is null by checking that all fields in that row are null (aka not set).
      *
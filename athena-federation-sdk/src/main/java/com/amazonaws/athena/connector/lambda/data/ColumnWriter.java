@@ -0,0 +1,191 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.BitVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.VarBinaryVector;
+import org.apache.arrow.vector.VarCharVector;
+import org.apache.arrow.vector.util.Text;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A handle for writing values to a single field of a Block. The handle is bound once, via Block.getColumnWriter(...),
+ * and holds the field's FieldVector, a setter specialized for the field's type, and the field's compiled constraint.
+ * This lets connectors that write one value at a time skip the per value field name lookups and type dispatch that
+ * Block.offerValue(...) would otherwise perform.
+ * <p>
+ * Values are coerced exactly as BlockUtils.setValue(...) would coerce them, values that are already of the java type
+ * Apache Arrow uses for the field (e.g. Long for BIGINT or String for VARCHAR) are written directly.
+ *
+ * @note A ColumnWriter captures the ConstraintEvaluator that the Block had when the ColumnWriter was bound. If the Block
+ * is later constrained with a different ConstraintEvaluator you must get a new ColumnWriter from the Block.
+ */
+public class ColumnWriter
+{
+    //The FieldVector to write to, null if the field is not part of the Block's Schema.
+    private final FieldVector vector;
+    private final ValueSetter setter;
+    //The field's constraint, null if the field is unconstrained.
+    private final ConstraintProjector constraint;
+
+    ColumnWriter(FieldVector vector, String fieldName, ConstraintEvaluator constraintEvaluator)
+    {
+        this.vector = vector;
+        this.setter = (vector != null) ? makeSetter(vector) : null;
+        this.constraint = constraintEvaluator.bindConstraint(fieldName).orElse(null);
+    }
+
+    /**
+     * Attempts to write the provided value to the specified row, see Block.offerValue(...) for details.
+     *
+     * @param row The row number to write to.
+     * @param value The value you wish to write.
+     * @return True if the value was written (even if the field is missing from the Block), False if the value was not
+     * written due to failing a constraint.
+     */
+    public boolean offerValue(int row, Object value)
+    {
+        if (constraint != null && !constraint.apply(value)) {
+            return false;
+        }
+        if (setter != null) {
+            setter.set(row, value);
+        }
+        return true;
+    }
+
+    /**
+     * @return The FieldVector this ColumnWriter writes to, or null if the field is not part of the Block's Schema.
+     */
+    public FieldVector getFieldVector()
+    {
+        return vector;
+    }
+
+    /**
+     * Builds a setter which writes values of the field's native java type directly and defers all other values
+     * (including nulls) to BlockUtils.setValue(...) for coercion.
+     */
+    private static ValueSetter makeSetter(FieldVector vector)
+    {
+        switch (vector.getMinorType()) {
+            case BIGINT:
+                BigIntVector bigIntVector = (BigIntVector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof Long) {
+                        bigIntVector.setSafe(row, (long) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case INT:
+                IntVector intVector = (IntVector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof Integer) {
+                        intVector.setSafe(row, (int) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case DATEDAY:
+                DateDayVector dateDayVector = (DateDayVector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof Integer) {
+                        dateDayVector.setSafe(row, (int) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case FLOAT8:
+                Float8Vector float8Vector = (Float8Vector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof Double) {
+                        float8Vector.setSafe(row, (double) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case FLOAT4:
+                Float4Vector float4Vector = (Float4Vector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof Float) {
+                        float4Vector.setSafe(row, (float) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case BIT:
+                BitVector bitVector = (BitVector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof Boolean) {
+                        bitVector.setSafe(row, (boolean) value ? 1 : 0);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case VARCHAR:
+                VarCharVector varCharVector = (VarCharVector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof String) {
+                        varCharVector.setSafe(row, ((String) value).getBytes(StandardCharsets.UTF_8));
+                    }
+                    else if (value instanceof Text) {
+                        varCharVector.setSafe(row, (Text) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            case VARBINARY:
+                VarBinaryVector varBinaryVector = (VarBinaryVector) vector;
+                return (int row, Object value) -> {
+                    if (value instanceof byte[]) {
+                        varBinaryVector.setSafe(row, (byte[]) value);
+                    }
+                    else {
+                        BlockUtils.setValue(vector, row, value);
+                    }
+                };
+            default:
+                return (int row, Object value) -> BlockUtils.setValue(vector, row, value);
+        }
+    }
+
+    private interface ValueSetter
+    {
+        void set(int row, Object value);
+    }
+}
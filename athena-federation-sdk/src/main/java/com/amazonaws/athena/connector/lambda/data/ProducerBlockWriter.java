@@ -0,0 +1,39 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+/**
+ * A BlockWriter that is owned by a single producer thread, allowing several threads to write rows to the same
+ * BlockSpiller at the same time. Each ProducerBlockWriter fills its own Block(s) and must be closed by its producer
+ * once it has finished writing, this hands off any rows that are still buffered to the BlockSpiller that created it.
+ *
+ * @see BlockSpiller#newProducer()
+ */
+public interface ProducerBlockWriter
+        extends BlockWriter, AutoCloseable
+{
+    /**
+     * Hands off any buffered rows to the BlockSpiller that created this ProducerBlockWriter. No further rows may be
+     * written after this is called.
+     */
+    @Override
+    void close();
+}
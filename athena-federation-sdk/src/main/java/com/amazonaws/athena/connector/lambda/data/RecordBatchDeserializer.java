@@ -0,0 +1,228 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.arrow.flatbuf.Message;
+import org.apache.arrow.flatbuf.MessageHeader;
+import org.apache.arrow.memory.ArrowBuf;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
+import org.apache.arrow.vector.ipc.message.MessageSerializer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Collections;
+
+/**
+ * Deserializes ArrowRecordBatches that were written using Apache Arrow's IPC message format without the intermediate
+ * copies made by reading the message through a ReadChannel. The serialized bytes are copied (or Base64 decoded) once
+ * into an ArrowBuf owned by the BlockAllocator and the resulting ArrowRecordBatch is built from slices of that ArrowBuf.
+ */
+public final class RecordBatchDeserializer
+{
+    //Marks the start of a message in the current IPC format, legacy messages start directly with the metadata length.
+    private static final int CONTINUATION_MARKER = -1;
+    //The initial capacity of the ArrowBuf that Base64 values are decoded into, it doubles as needed.
+    private static final long INITIAL_DECODE_CAPACITY = 64 * 1024;
+
+    private RecordBatchDeserializer() {}
+
+    /**
+     * Deserializes the provided bytes into an ArrowRecordBatch which is registered with the provided BlockAllocator.
+     *
+     * @param allocator The BlockAllocator that will own the ArrowRecordBatch.
+     * @param in The byte[] that is expected to contain a serialized ArrowRecordBatch.
+     * @return The resulting ArrowRecordBatch.
+     */
+    public static ArrowRecordBatch deserialize(BlockAllocator allocator, byte[] in)
+    {
+        return deserialize(allocator, in, 0, in.length);
+    }
+
+    /**
+     * Deserializes a range of the provided bytes into an ArrowRecordBatch which is registered with the provided
+     * BlockAllocator.
+     *
+     * @param allocator The BlockAllocator that will own the ArrowRecordBatch.
+     * @param in The byte[] that is expected to contain a serialized ArrowRecordBatch.
+     * @param offset The offset in the byte[] where the serialized ArrowRecordBatch starts.
+     * @param length The length of the serialized ArrowRecordBatch.
+     * @return The resulting ArrowRecordBatch.
+     */
+    public static ArrowRecordBatch deserialize(BlockAllocator allocator, byte[] in, int offset, int length)
+    {
+        return allocator.registerBatch((BufferAllocator root) -> {
+            ArrowBuf buffer = root.buffer(length);
+            try {
+                buffer.setBytes(0, in, offset, length);
+            }
+            catch (RuntimeException ex) {
+                buffer.close();
+                throw ex;
+            }
+            return deserialize(buffer, length);
+        });
+    }
+
+    /**
+     * Base64 decodes the current binary value of the provided JsonParser directly into an ArrowBuf and deserializes it
+     * into an ArrowRecordBatch which is registered with the provided BlockAllocator. Unlike JsonParser.getBinaryValue()
+     * this never materializes the decoded value as a byte[]. The parser streams the value, so its length isn't known up
+     * front and the ArrowBuf grows by doubling.
+     *
+     * @param allocator The BlockAllocator that will own the ArrowRecordBatch.
+     * @param jparser The JsonParser, positioned on the binary value to read.
+     * @return The resulting ArrowRecordBatch, or null if the value is empty.
+     * @throws IOException If there is an error parsing the value.
+     */
+    public static ArrowRecordBatch deserialize(BlockAllocator allocator, JsonParser jparser)
+            throws IOException
+    {
+        if (jparser.currentToken() != JsonToken.VALUE_STRING) {
+            //The value was already decoded by the parser (e.g. it was buffered), there is nothing left to save.
+            byte[] bytes = jparser.getBinaryValue();
+            return (bytes.length > 0) ? deserialize(allocator, bytes) : null;
+        }
+
+        //Calling getTextLength() or similar here would make the parser buffer the entire value before decoding it.
+        ArrowRecordBatch batch = allocator.registerBatch((BufferAllocator root) -> {
+            ArrowBufOutputStream out = new ArrowBufOutputStream(root);
+            int length;
+            try {
+                length = jparser.readBinaryValue(out);
+            }
+            catch (IOException | RuntimeException ex) {
+                out.getBuffer().close();
+                throw ex;
+            }
+            if (length == 0) {
+                out.getBuffer().close();
+                //The allocator doesn't accept null batches, so register an empty one in its place.
+                return new ArrowRecordBatch(0, Collections.emptyList(), Collections.emptyList());
+            }
+            return deserialize(out.getBuffer(), length);
+        });
+
+        if (batch.getLength() == 0 && batch.getNodes().isEmpty()) {
+            batch.close();
+            return null;
+        }
+        return batch;
+    }
+
+    /**
+     * Builds an ArrowRecordBatch from slices of the provided ArrowBuf. This takes over the caller's reference to the
+     * ArrowBuf, Apache Arrow releases it once the ArrowRecordBatch has retained the slices it uses, so the memory is
+     * freed when the ArrowRecordBatch (or the vectors it is loaded into) is closed.
+     */
+    private static ArrowRecordBatch deserialize(ArrowBuf buffer, long length)
+            throws IOException
+    {
+        ArrowBuf body;
+        Message message;
+        try {
+            ByteBuffer in = buffer.nioBuffer(0, (int) length).order(ByteOrder.LITTLE_ENDIAN);
+            int metadataLength = in.getInt();
+            if (metadataLength == CONTINUATION_MARKER) {
+                metadataLength = in.getInt();
+            }
+            if (metadataLength <= 0 || metadataLength > in.remaining()) {
+                throw new IOException("Invalid metadata length " + metadataLength + " for a message of " + length + " bytes");
+            }
+
+            ByteBuffer metadata = in.slice();
+            metadata.limit(metadataLength);
+            message = Message.getRootAsMessage(metadata);
+            if (message.headerType() != MessageHeader.RecordBatch) {
+                throw new IOException("Expected a RecordBatch message but found message type " + message.headerType());
+            }
+
+            long bodyOffset = in.position() + metadataLength;
+            if (bodyOffset + message.bodyLength() > length) {
+                throw new IOException("Message body of " + message.bodyLength() + " bytes exceeds the " + length + " byte message");
+            }
+            //The slice shares the buffer's reference count, which is how Arrow releases the caller's reference.
+            body = buffer.slice(bodyOffset, message.bodyLength());
+        }
+        catch (IOException | RuntimeException ex) {
+            buffer.close();
+            throw ex;
+        }
+        return MessageSerializer.deserializeRecordBatch(message, body);
+    }
+
+    /**
+     * OutputStream which writes directly into an ArrowBuf, doubling its capacity as needed.
+     */
+    private static class ArrowBufOutputStream
+            extends OutputStream
+    {
+        private final BufferAllocator allocator;
+        private ArrowBuf buffer;
+        private long position = 0;
+
+        ArrowBufOutputStream(BufferAllocator allocator)
+        {
+            this.allocator = allocator;
+            this.buffer = allocator.buffer(INITIAL_DECODE_CAPACITY);
+        }
+
+        @Override
+        public void write(int b)
+        {
+            ensureCapacity(1);
+            buffer.setByte(position++, b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+        {
+            ensureCapacity(len);
+            buffer.setBytes(position, b, off, len);
+            position += len;
+        }
+
+        ArrowBuf getBuffer()
+        {
+            return buffer;
+        }
+
+        private void ensureCapacity(int len)
+        {
+            if (position + len <= buffer.capacity()) {
+                return;
+            }
+
+            long capacity = buffer.capacity();
+            while (capacity < position + len) {
+                capacity *= 2;
+            }
+            ArrowBuf next = allocator.buffer(capacity);
+            next.setBytes(0, buffer, 0, position);
+            buffer.close();
+            buffer = next;
+        }
+    }
+}
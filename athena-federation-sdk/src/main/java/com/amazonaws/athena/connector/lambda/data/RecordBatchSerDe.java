@@ -20,14 +20,11 @@ package com.amazonaws.athena.connector.lambda.data;
  * #L%
  */
 
-import org.apache.arrow.memory.BufferAllocator;
-import org.apache.arrow.vector.ipc.ReadChannel;
 import org.apache.arrow.vector.ipc.WriteChannel;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.ipc.message.IpcOption;
 import org.apache.arrow.vector.ipc.message.MessageSerializer;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.OutputStream;
 import java.nio.channels.Channels;
@@ -68,7 +65,8 @@ public class RecordBatchSerDe
     }
 
     /**
-     * Attempts to deserialize the provided byte[] into an ArrowRecordBatch.
+     * Attempts to deserialize the provided byte[] into an ArrowRecordBatch. The byte[] is copied once into an ArrowBuf
+     * which the ArrowRecordBatch's buffers are sliced from.
      *
      * @param in The byte[] that is expected to contain a serialized ArrowRecordBatch.
      * @return The resulting ArrowRecordBatch if the byte[] contains a valid ArrowRecordBatch.
@@ -77,19 +75,6 @@ public class RecordBatchSerDe
     public ArrowRecordBatch deserialize(byte[] in)
             throws IOException
     {
-        ArrowRecordBatch batch = null;
-        try {
-            return allocator.registerBatch((BufferAllocator root) ->
-                    (ArrowRecordBatch) MessageSerializer.deserializeMessageBatch(
-                            new ReadChannel(Channels.newChannel(new ByteArrayInputStream(in))),
-                            root)
-            );
-        }
-        catch (Exception ex) {
-            if (batch != null) {
-                batch.close();
-            }
-            throw ex;
-        }
+        return RecordBatchDeserializer.deserialize(allocator, in);
     }
 }
@@ -21,11 +21,14 @@ package com.amazonaws.athena.connector.lambda.data;
  */
 
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.RemoteReadRecordsResponse;
 import com.amazonaws.athena.connector.lambda.security.AesGcmBlockCrypto;
 import com.amazonaws.athena.connector.lambda.security.BlockCrypto;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
 import com.amazonaws.athena.connector.lambda.security.NoOpBlockCrypto;
 import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.GetObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
 import com.google.common.io.ByteStreams;
 import org.apache.arrow.vector.types.pojo.Schema;
@@ -33,20 +36,41 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
+import static java.lang.Math.toIntExact;
 import static java.util.Objects.requireNonNull;
 
 public class S3BlockSpillReader
 {
     private static final Logger logger = LoggerFactory.getLogger(S3BlockSpillReader.class);
+    //The default number of spilled blocks that an iterator will fetch ahead of the consumer.
+    private static final int DEFAULT_PREFETCH_BLOCKS = 4;
+    //The default max number of fetched or in-flight, but not yet consumed, bytes that an iterator will hold.
+    private static final long DEFAULT_PREFETCH_BYTES = 64 * 1024 * 1024;
+    //The max number of bytes requested by each ranged GET when prefetching.
+    private static final int RANGE_SIZE = 8 * 1024 * 1024;
 
     private final AmazonS3 amazonS3;
     private final BlockAllocator allocator;
+    private final BlockCrypto aesCrypto;
+    private final BlockCrypto noOpCrypto;
 
     public S3BlockSpillReader(AmazonS3 amazonS3, BlockAllocator allocator)
     {
         this.amazonS3 = requireNonNull(amazonS3, "amazonS3 was null");
         this.allocator = requireNonNull(allocator, "allocator was null");
+        this.aesCrypto = new AesGcmBlockCrypto(allocator);
+        this.noOpCrypto = new NoOpBlockCrypto(allocator);
     }
 
     /**
@@ -64,7 +88,7 @@ public class S3BlockSpillReader
             logger.debug("read: Started reading block from S3");
             fullObject = amazonS3.getObject(spillLocation.getBucket(), spillLocation.getKey());
             logger.debug("read: Completed reading block from S3");
-            BlockCrypto blockCrypto = (key != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
+            BlockCrypto blockCrypto = getBlockCrypto(key);
             Block block = blockCrypto.decrypt(key, ByteStreams.toByteArray(fullObject.getObjectContent()), schema);
             logger.debug("read: Completed decrypting block of size.");
             return block;
@@ -98,7 +122,7 @@ public class S3BlockSpillReader
             logger.debug("read: Started reading block from S3");
             fullObject = amazonS3.getObject(spillLocation.getBucket(), spillLocation.getKey());
             logger.debug("read: Completed reading block from S3");
-            BlockCrypto blockCrypto = (key != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
+            BlockCrypto blockCrypto = getBlockCrypto(key);
             return blockCrypto.decrypt(key, ByteStreams.toByteArray(fullObject.getObjectContent()));
         }
         catch (IOException ex) {
@@ -115,4 +139,225 @@ public class S3BlockSpillReader
             }
         }
     }
+
+    /**
+     * Creates an iterator over all the Blocks spilled for the provided response using the default prefetch settings.
+     *
+     * @param response The response whose spilled Blocks should be read.
+     * @return An iterator which returns the spilled Blocks in order, the caller is responsible for closing the iterator
+     * and each Block it returns.
+     */
+    public PrefetchingBlockIterator iterator(RemoteReadRecordsResponse response)
+    {
+        return iterator(response, DEFAULT_PREFETCH_BLOCKS, DEFAULT_PREFETCH_BYTES);
+    }
+
+    /**
+     * Creates an iterator over all the Blocks spilled for the provided response. While the consumer works on one Block
+     * the iterator fetches the following spilled Blocks from S3 in the background.
+     *
+     * @param response The response whose spilled Blocks should be read.
+     * @param prefetchBlocks The max number of spilled Blocks to fetch ahead of the consumer, each is fetched by its own
+     * thread.
+     * @param prefetchBytes The max number of fetched, but not yet consumed, bytes to hold. This includes fetches which are
+     * still in progress, a fetch waits for room once it learns the size of its spilled Block. The Block the consumer is
+     * waiting for is always fetched so that progress can be made, even if it alone exceeds this.
+     * @return An iterator which returns the spilled Blocks in order, the caller is responsible for closing the iterator
+     * and each Block it returns.
+     */
+    public PrefetchingBlockIterator iterator(RemoteReadRecordsResponse response, int prefetchBlocks, long prefetchBytes)
+    {
+        if (prefetchBlocks < 1) {
+            throw new IllegalArgumentException("prefetchBlocks must be at least 1 but was " + prefetchBlocks);
+        }
+        return new PrefetchingBlockIterator(response.getRemoteBlocks(), response.getEncryptionKey(), response.getSchema(),
+                prefetchBlocks, prefetchBytes);
+    }
+
+    private BlockCrypto getBlockCrypto(EncryptionKey key)
+    {
+        return (key != null) ? aesCrypto : noOpCrypto;
+    }
+
+    /**
+     * Reads from the stream until it is exhausted or the destination is full.
+     *
+     * @return The position in the destination after the last byte read.
+     */
+    private static int readFully(InputStream in, byte[] dst, int position)
+            throws IOException
+    {
+        int pos = position;
+        while (pos < dst.length) {
+            int read = in.read(dst, pos, dst.length - pos);
+            if (read < 0) {
+                break;
+            }
+            pos += read;
+        }
+        return pos;
+    }
+
+    /**
+     * Iterator which returns spilled Blocks in spill order while fetching the next few spilled Blocks in the background.
+     * Only the raw (encrypted) bytes are fetched in the background, Blocks are decrypted and deserialized when next() is
+     * called so that abandoning the iterator never leaks Apache Arrow memory.
+     */
+    public class PrefetchingBlockIterator
+            implements Iterator<Block>, AutoCloseable
+    {
+        private final List<SpillLocation> spillLocations;
+        private final EncryptionKey encryptionKey;
+        private final Schema schema;
+        private final int prefetchBlocks;
+        private final long prefetchBytes;
+        private final ExecutorService fetchPool;
+        private final Deque<Future<byte[]>> fetches = new ArrayDeque<>();
+        //Guards reservedBytes and nextConsume, fetches wait on it for room in the prefetch budget.
+        private final Object budgetLock = new Object();
+        //The number of bytes reserved by fetches that are in progress or done but not yet consumed.
+        private long reservedBytes = 0;
+        //The index of the next spilled Block the consumer will take, its fetch may always reserve.
+        private int nextConsume = 0;
+        private int nextFetch = 0;
+
+        private PrefetchingBlockIterator(List<SpillLocation> spillLocations,
+                EncryptionKey encryptionKey,
+                Schema schema,
+                int prefetchBlocks,
+                long prefetchBytes)
+        {
+            this.spillLocations = requireNonNull(spillLocations, "spillLocations was null");
+            this.encryptionKey = encryptionKey;
+            this.schema = requireNonNull(schema, "schema was null");
+            this.prefetchBlocks = prefetchBlocks;
+            this.prefetchBytes = prefetchBytes;
+            this.fetchPool = Executors.newFixedThreadPool(prefetchBlocks, runnable -> {
+                Thread thread = new Thread(runnable, "S3BlockSpillReader-prefetch");
+                thread.setDaemon(true);
+                return thread;
+            });
+            startFetches();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return !fetches.isEmpty() || nextFetch < spillLocations.size();
+        }
+
+        @Override
+        public Block next()
+        {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            startFetches();
+            byte[] bytes;
+            try {
+                bytes = fetches.removeFirst().get();
+            }
+            catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException(ex);
+            }
+            catch (ExecutionException ex) {
+                throw (ex.getCause() instanceof RuntimeException) ? (RuntimeException) ex.getCause() : new RuntimeException(ex.getCause());
+            }
+
+            release(bytes.length);
+            if (hasNext()) {
+                startFetches();
+            }
+            else {
+                //All Blocks have been fetched, don't wait for close() to release the fetch threads.
+                fetchPool.shutdown();
+            }
+            logger.debug("next: Decrypting block of {} bytes", bytes.length);
+            return getBlockCrypto(encryptionKey).decrypt(encryptionKey, bytes, schema);
+        }
+
+        /**
+         * Stops any in-progress fetches, Blocks that were already returned by this iterator are not affected.
+         */
+        @Override
+        public void close()
+        {
+            for (Future<byte[]> next : fetches) {
+                next.cancel(true);
+            }
+            fetches.clear();
+            nextFetch = spillLocations.size();
+            fetchPool.shutdownNow();
+        }
+
+        private void startFetches()
+        {
+            while (nextFetch < spillLocations.size() && fetches.size() < prefetchBlocks) {
+                int index = nextFetch++;
+                fetches.addLast(fetchPool.submit(() -> fetch(index)));
+            }
+        }
+
+        /**
+         * Reads an entire spilled object using ranged GETs. The size of the object is looked up first which lets us
+         * reserve room in the prefetch budget before any request is opened and read directly into an exactly sized buffer
+         * instead of growing and copying a buffer as we go.
+         *
+         * @param index The index of the spilled Block to read.
+         * @return The bytes of the spilled object.
+         */
+        private byte[] fetch(int index)
+                throws IOException, InterruptedException
+        {
+            S3SpillLocation spillLocation = (S3SpillLocation) spillLocations.get(index);
+            long length = amazonS3.getObjectMetadata(spillLocation.getBucket(), spillLocation.getKey()).getContentLength();
+            //No connection is held while waiting for room, the ranged GETs are only issued once there is room.
+            reserve(index, length);
+
+            byte[] bytes = new byte[toIntExact(length)];
+            int position = 0;
+            while (position < bytes.length) {
+                long end = Math.min((long) position + RANGE_SIZE, bytes.length) - 1;
+                try (S3Object next = amazonS3.getObject(new GetObjectRequest(spillLocation.getBucket(), spillLocation.getKey())
+                        .withRange(position, end))) {
+                    int read = readFully(next.getObjectContent(), bytes, position);
+                    if (read == position) {
+                        throw new IOException("Unexpected end of " + spillLocation + " after " + position + " of " + bytes.length + " bytes");
+                    }
+                    position = read;
+                }
+            }
+            return bytes;
+        }
+
+        /**
+         * Waits until the prefetch budget has room for the spilled Block, the Block the consumer is waiting for never
+         * waits.
+         */
+        private void reserve(int index, long bytes)
+                throws InterruptedException
+        {
+            synchronized (budgetLock) {
+                while (index != nextConsume && reservedBytes + bytes > prefetchBytes) {
+                    budgetLock.wait();
+                }
+                reservedBytes += bytes;
+            }
+        }
+
+        /**
+         * Returns the bytes of the consumed Block to the prefetch budget and lets the fetch of the following Block
+         * proceed regardless of the budget.
+         */
+        private void release(long bytes)
+        {
+            synchronized (budgetLock) {
+                reservedBytes -= bytes;
+                nextConsume++;
+                budgetLock.notifyAll();
+            }
+        }
+    }
 }
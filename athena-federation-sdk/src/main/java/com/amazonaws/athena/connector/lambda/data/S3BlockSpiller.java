@@ -20,9 +20,11 @@ package com.amazonaws.athena.connector.lambda.data;
  * #L%
  */
 
+import com.amazonaws.AmazonWebServiceRequest;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.metrics.SplitMetrics;
 import com.amazonaws.athena.connector.lambda.security.AesGcmBlockCrypto;
 import com.amazonaws.athena.connector.lambda.security.BlockCrypto;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
@@ -34,6 +36,12 @@ import com.amazonaws.services.s3.model.S3Object;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.io.ByteStreams;
+import org.apache.arrow.compression.CommonsCompressionFactory;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.CompressionUtil;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -70,9 +78,17 @@ public class S3BlockSpiller
     private static final long ASYNC_SHUTDOWN_MILLIS = 10_000;
     //The default max number of rows that are allowed to be written per call to writeRows(...)
     private static final int MAX_ROWS_PER_CALL = 100;
+    //The most rows that will be written to a Block between checks of its actual size.
+    private static final int MAX_ROWS_BETWEEN_SIZE_CHECKS = 1024;
     //Config to set spill queue capacity
     private static final String SPILL_QUEUE_CAPACITY = "SPILL_QUEUE_CAPACITY";
 
+    //Config to enable streaming spill writes using multipart uploads of the given part size (in bytes)
+    private static final String SPILL_MULTIPART_PART_SIZE = "SPILL_MULTIPART_PART_SIZE";
+
+    //Config to choose the provider used to encrypt spilled blocks, JDK (default) or BOUNCY_CASTLE
+    private static final String SPILL_ENCRYPTION_PROVIDER = "SPILL_ENCRYPTION_PROVIDER";
+
     private static final String SPILL_PUT_REQUEST_HEADERS_ENV = "spill_put_request_headers";
     //Used to write to S3
     private final AmazonS3 amazonS3;
@@ -86,6 +102,9 @@ public class S3BlockSpiller
     private final Schema schema;
     //The max number of rows that are allowed to be written per call to writeRows(...)
     private final long maxRowsPerCall;
+    //When > 0, blocks are streamed to S3 as multipart uploads with parts of this many bytes instead of being
+    //fully buffered in memory before being written.
+    private final int multipartPartSize;
     //If we spilled, the spill locations are kept here.
     private final List<SpillLocation> spillLocations = new ArrayList<>();
     //Reference to the in progress Block.
@@ -93,6 +112,13 @@ public class S3BlockSpiller
     //Allows a degree of pipelining to take place so we don't block reading from the source
     //while we are spilling.
     private final ExecutorService asyncSpillPool;
+    //The max number of spilled Blocks that are retained by the allocator for reuse, this matches the number of Blocks
+    //that can be in-flight in the spill queue so steady state rollover never needs to allocate a new Block.
+    private final int maxPooledBlocks;
+    //Serializes every write to the in-progress Block, including ProducerBlockWriters handing off their remaining rows.
+    private final Object producerLock = new Object();
+    //Used by writeRows(...) to avoid checking the actual size of the in-progress Block after every row.
+    private final BlockSizeEstimator inProgressSizeEstimator = new BlockSizeEstimator();
     //Allows us to provide thread safety between async spill completion and calls to getSpill status
     private final ReadWriteLock spillLock = new StampedLock().asReadWriteLock();
     //Used to create monotonically increasing spill locations, if the locations are not
@@ -108,6 +134,8 @@ public class S3BlockSpiller
     private final AtomicLong totalBytesSpilled = new AtomicLong();
     //Time this BlockSpiller wss created.
     private final long startTime = System.currentTimeMillis();
+    //Performance metrics for the split being written.
+    private final SplitMetrics metrics = new SplitMetrics();
 
     // Config options
     // These are from System.getenv() when the connector is being used from an AWS Lambda (*CompositeHandler).
@@ -158,10 +186,16 @@ public class S3BlockSpiller
         this.spillConfig = requireNonNull(spillConfig, "spillConfig was null");
         this.allocator = requireNonNull(allocator, "allocator was null");
         this.schema = requireNonNull(schema, "schema was null");
-        this.blockCrypto = (spillConfig.getEncryptionKey() != null) ? new AesGcmBlockCrypto(allocator) : new NoOpBlockCrypto(allocator);
-        asyncSpillPool = (spillConfig.getNumSpillThreads() <= 0) ? null : makeAsyncSpillPool(spillConfig);
+        CompressionCodec codec = makeCompressionCodec(spillConfig.getCompressionCodec());
+        this.blockCrypto = (spillConfig.getEncryptionKey() != null) ?
+                makeAesGcmBlockCrypto(allocator, codec, configOptions) : new NoOpBlockCrypto(allocator, codec);
+        int spillQueueCapacity = getSpillQueueCapacity(spillConfig);
+        asyncSpillPool = (spillConfig.getNumSpillThreads() <= 0) ? null : makeAsyncSpillPool(spillConfig, spillQueueCapacity);
+        this.maxPooledBlocks = Math.max(spillQueueCapacity, 1);
         this.maxRowsPerCall = maxRowsPerCall;
         this.constraintEvaluator = constraintEvaluator;
+        this.multipartPartSize = (configOptions.get(SPILL_MULTIPART_PART_SIZE) != null) ?
+                Math.max(Integer.parseInt(configOptions.get(SPILL_MULTIPART_PART_SIZE)), S3SpillOutputStream.MIN_PART_SIZE) : 0;
     }
 
     /**
@@ -183,9 +217,38 @@ public class S3BlockSpiller
      */
     public void writeRows(RowWriter rowWriter)
     {
-        ensureInit();
+        long writeStart = metrics.startWrite();
+        synchronized (producerLock) {
+            ensureInit();
+            inProgressBlock.set(writeRows(inProgressBlock.get(), inProgressSizeEstimator, rowWriter));
+        }
+        metrics.endWrite(writeStart);
+    }
+
+    /**
+     * Creates a ProducerBlockWriter which fills its own Block so that several threads can write rows at the same time.
+     * Full Blocks are spilled using the same async spill pool and spill location sequence as the rest of this
+     * BlockSpiller, closing the producer hands any rows it still holds off to this BlockSpiller's in-progress Block.
+     *
+     * @return A new ProducerBlockWriter for use by a single thread.
+     * @see BlockSpiller
+     */
+    @Override
+    public ProducerBlockWriter newProducer()
+    {
+        return new S3ProducerBlockWriter();
+    }
 
-        Block block = inProgressBlock.get();
+    /**
+     * Writes rows to the provided Block, spilling it if it exceeds the max block size.
+     *
+     * @param block The Block to write to.
+     * @param sizeEstimator The BlockSizeEstimator used to decide when to check the size of the Block.
+     * @param rowWriter The RowWriter to use to write rows to the Block.
+     * @return The Block that subsequent rows should be written to, this is a new Block if the provided one was spilled.
+     */
+    private Block writeRows(Block block, BlockSizeEstimator sizeEstimator, RowWriter rowWriter)
+    {
         int rowCount = block.getRowCount();
 
         int rows;
@@ -203,13 +266,87 @@ public class S3BlockSpiller
         if (rows > 0) {
             block.setRowCount(rowCount + rows);
         }
+        metrics.recordRows(rows);
 
-        if (block.getSize() > spillConfig.getMaxBlockBytes()) {
+        if (sizeEstimator.exceeds(block, spillConfig.getMaxBlockBytes())) {
             logger.info("writeRow: Spilling block with {} rows and {} bytes and config {} bytes",
                     new Object[] {block.getRowCount(), block.getSize(), spillConfig.getMaxBlockBytes()});
             spillBlock(block);
-            inProgressBlock.set(this.allocator.createBlock(this.schema));
-            inProgressBlock.get().constrain(constraintEvaluator);
+            //The next Block may be this one recycled, so the estimate must not carry over.
+            sizeEstimator.reset();
+            return newBlock();
+        }
+        return block;
+    }
+
+    /**
+     * Used to write a batch of rows which is already in Apache Arrow format. Constraints are evaluated one column at
+     * a time and the rows which pass are bulk copied into the in-progress Block, rolling over to a new Block whenever
+     * the in-progress Block exceeds the configured max block size.
+     *
+     * @param batch The batch of rows to write.
+     * @see BlockSpiller
+     */
+    @Override
+    public void writeBatch(VectorSchemaRoot batch)
+    {
+        long writeStart = System.nanoTime();
+
+        int[] selection = new int[batch.getRowCount()];
+        for (int i = 0; i < selection.length; i++) {
+            selection[i] = i;
+        }
+        int numSelected;
+        synchronized (producerLock) {
+            ensureInit();
+            numSelected = inProgressBlock.get().getConstraintEvaluator().selectRows(batch, selection, selection.length);
+            if (numSelected > 0) {
+                appendRows(batch, selection, numSelected);
+            }
+        }
+        metrics.recordBatch(batch.getRowCount(), numSelected);
+        metrics.recordWriteTime(System.nanoTime() - writeStart);
+    }
+
+    /**
+     * Bulk copies the selected rows of the batch into the in-progress Block, rolling over to a new Block whenever the
+     * in-progress Block exceeds the configured max block size.
+     *
+     * @param batch The batch to copy rows from.
+     * @param selection The row numbers in the batch to copy.
+     * @param numSelected The number of entries in selection to copy.
+     */
+    private void appendRows(VectorSchemaRoot batch, int[] selection, int numSelected)
+    {
+        //Estimate the size of each row using only the columns we will copy so that we can copy in chunks that
+        //roughly fill the remaining space in the in-progress Block instead of checking the size after every row.
+        long batchBytes = 0;
+        for (FieldVector next : inProgressBlock.get().getFieldVectors()) {
+            FieldVector srcVector = batch.getVector(next.getField().getName());
+            if (srcVector != null) {
+                batchBytes += srcVector.getBufferSize();
+            }
+        }
+        long bytesPerRow = Math.max(1, batchBytes / batch.getRowCount());
+
+        int offset = 0;
+        while (offset < numSelected) {
+            Block block = inProgressBlock.get();
+            int rowCount = block.getRowCount();
+            long remainingBytes = spillConfig.getMaxBlockBytes() - block.getSize();
+            int length = (int) Math.min(numSelected - offset, Math.max(1, remainingBytes / bytesPerRow));
+
+            BlockUtils.copyRows(batch, selection, offset, length, block, rowCount);
+            block.setRowCount(rowCount + length);
+            offset += length;
+
+            if (block.getSize() > spillConfig.getMaxBlockBytes()) {
+                logger.info("writeBatch: Spilling block with {} rows and {} bytes and config {} bytes",
+                        new Object[] {block.getRowCount(), block.getSize(), spillConfig.getMaxBlockBytes()});
+                spillBlock(block);
+                inProgressSizeEstimator.reset();
+                inProgressBlock.set(newBlock());
+            }
         }
     }
 
@@ -277,8 +414,8 @@ public class S3BlockSpiller
 
                 spillBlock(block);
 
-                inProgressBlock.set(this.allocator.createBlock(this.schema));
-                inProgressBlock.get().constrain(constraintEvaluator);
+                inProgressSizeEstimator.reset();
+                inProgressBlock.set(newBlock());
             }
 
             lock.lock();
@@ -289,6 +426,17 @@ public class S3BlockSpiller
         }
     }
 
+    /**
+     * Provides access to the performance metrics collected while writing this split.
+     *
+     * @see BlockSpiller
+     */
+    @Override
+    public SplitMetrics getMetrics()
+    {
+        return metrics;
+    }
+
     /**
      * Frees any resources held by this BlockSpiller.
      *
@@ -317,7 +465,7 @@ public class S3BlockSpiller
     /**
      * Grabs the request headers from env and sets them on the request
      */
-    private void setRequestHeadersFromEnv(PutObjectRequest request)
+    private void setRequestHeadersFromEnv(AmazonWebServiceRequest request)
     {
         String headersFromEnvStr = configOptions.get(SPILL_PUT_REQUEST_HEADERS_ENV);
         if (headersFromEnvStr == null || headersFromEnvStr.isEmpty()) {
@@ -343,14 +491,28 @@ public class S3BlockSpiller
     }
 
     /**
-     * Writes (aka spills) a Block.
+     * Writes (aka spills) a Block to the next spill location.
      */
     protected SpillLocation write(Block block)
+    {
+        return write(block, makeSpillLocation());
+    }
+
+    /**
+     * Writes (aka spills) a Block to the provided spill location.
+     */
+    protected SpillLocation write(Block block, S3SpillLocation spillLocation)
     {
         try {
-            S3SpillLocation spillLocation = makeSpillLocation();
+            long startNanos = System.nanoTime();
             EncryptionKey encryptionKey = spillConfig.getEncryptionKey();
 
+            if (multipartPartSize > 0) {
+                long streamedBytes = streamingWrite(block, spillLocation, encryptionKey);
+                metrics.recordSpill(streamedBytes, System.nanoTime() - startNanos);
+                return spillLocation;
+            }
+
             logger.info("write: Started encrypting block for write to {}", spillLocation);
             byte[] bytes = blockCrypto.encrypt(encryptionKey, block);
 
@@ -370,6 +532,7 @@ public class S3BlockSpiller
             setRequestHeadersFromEnv(request);
             amazonS3.putObject(request);
             logger.info("write: Completed spilling block of size {} bytes", bytes.length);
+            metrics.recordSpill(bytes.length, System.nanoTime() - startNanos);
 
             return spillLocation;
         }
@@ -380,6 +543,37 @@ public class S3BlockSpiller
         }
     }
 
+    /**
+     * Serializes, encrypts, and uploads the Block in a single pass so that at most one multipart part worth of
+     * encrypted bytes is held in memory at a time, rather than several full copies of the Block.
+     *
+     * @param block The Block to spill.
+     * @param spillLocation The location to spill the Block to.
+     * @param encryptionKey The key to encrypt the Block with, null if encryption is disabled.
+     * @return The number of bytes written to the spill location.
+     */
+    private long streamingWrite(Block block, S3SpillLocation spillLocation, EncryptionKey encryptionKey)
+    {
+        logger.info("write: Started streaming block to {} using {} byte parts", spillLocation, multipartPartSize);
+        S3SpillOutputStream out = new S3SpillOutputStream(amazonS3,
+                spillLocation.getBucket(),
+                spillLocation.getKey(),
+                multipartPartSize,
+                this::setRequestHeadersFromEnv);
+        try {
+            blockCrypto.encrypt(encryptionKey, block, out);
+            out.close();
+        }
+        catch (IOException | RuntimeException ex) {
+            out.abort();
+            throw (ex instanceof RuntimeException) ? (RuntimeException) ex : new RuntimeException(ex);
+        }
+
+        totalBytesSpilled.addAndGet(out.getTotalBytes());
+        logger.info("write: Completed streaming block of size {} bytes", out.getTotalBytes());
+        return out.getTotalBytes();
+    }
+
     /**
      * Reads a spilled block.
      *
@@ -410,6 +604,14 @@ public class S3BlockSpiller
      */
     private void spillBlock(Block block)
     {
+        //Reserve the spill location, and its place in the manifest, before going async so that the manifest stays in
+        //spill number order even when blocks from several producers are spilled in parallel.
+        S3SpillLocation spillLocation;
+        synchronized (spillLocations) {
+            spillLocation = makeSpillLocation();
+            spillLocations.add(spillLocation);
+        }
+
         if (asyncSpillPool != null) {
             //We use the read lock here because we want to allow these in parallel, its a bit counter intuitive
             Lock lock = spillLock.readLock();
@@ -417,17 +619,17 @@ public class S3BlockSpiller
                 //We lock before going async but unlock after spilling in the async thread, this makes it easy to use
                 //the ReadWrite lock to tell if all spills are completed without killing the thread pool.
                 lock.lock();
+                //Submitting blocks until a spill completes when the spill queue is full, this is time the writer is stalled.
+                long submitStart = System.nanoTime();
                 asyncSpillPool.submit(() -> {
                     try {
-                        SpillLocation spillLocation = write(block);
-                        spillLocations.add(spillLocation);
-                        //Free the memory from the previous block since it has been spilled
-                        safeClose(block);
+                        writeAndRecycle(block, spillLocation);
                     }
                     finally {
                         lock.unlock();
                     }
                 });
+                metrics.recordSpillQueueWait(System.nanoTime() - submitStart);
             }
             catch (Exception ex) {
                 //If we hit an exception, make sure we unlock to avoid a deadlock before throwing.
@@ -436,12 +638,31 @@ public class S3BlockSpiller
             }
         }
         else {
-            SpillLocation spillLocation = write(block);
-            spillLocations.add(spillLocation);
-            safeClose(block);
+            writeAndRecycle(block, spillLocation);
         }
     }
 
+    /**
+     * Spills the Block and then returns it to the allocator for reuse. If the spill fails the Block is closed instead
+     * so that its Apache Arrow Buffers are not leaked.
+     */
+    private void writeAndRecycle(Block block, S3SpillLocation spillLocation)
+    {
+        try {
+            write(block, spillLocation);
+        }
+        catch (RuntimeException ex) {
+            try {
+                block.close();
+            }
+            catch (Exception closeEx) {
+                ex.addSuppressed(closeEx);
+            }
+            throw ex;
+        }
+        allocator.recycleBlock(block, maxPooledBlocks);
+    }
+
     /**
      * Ensures that the initial Block is initialized.
      */
@@ -449,11 +670,20 @@ public class S3BlockSpiller
     {
         if (inProgressBlock.get() == null) {
             //Create the initial block
-            inProgressBlock.set(this.allocator.createBlock(this.schema));
-            inProgressBlock.get().constrain(constraintEvaluator);
+            inProgressBlock.set(newBlock());
         }
     }
 
+    /**
+     * Creates a new, empty, Block that is constrained by this BlockSpiller's ConstraintEvaluator.
+     */
+    private Block newBlock()
+    {
+        Block block = this.allocator.createBlock(this.schema);
+        block.constrain(constraintEvaluator);
+        return block;
+    }
+
     /**
      * This needs to be thread safe and generate locations in a format of:
      * location.0
@@ -475,35 +705,48 @@ public class S3BlockSpiller
     }
 
     /**
-     * Closes the supplied AutoCloseable and remaps any actions to Runtime.
-     *
-     * @param block The Block to close.
+     * Creates the BlockCrypto used to encrypt spilled blocks, using the provider chosen by SPILL_ENCRYPTION_PROVIDER.
      */
-    private void safeClose(AutoCloseable block)
+    private static BlockCrypto makeAesGcmBlockCrypto(BlockAllocator allocator, CompressionCodec codec,
+            java.util.Map<String, String> configOptions)
     {
-        try {
-            block.close();
-        }
-        catch (Exception ex) {
-            throw new RuntimeException(ex);
-        }
+        AesGcmBlockCrypto.Provider provider = (configOptions.get(SPILL_ENCRYPTION_PROVIDER) != null) ?
+                AesGcmBlockCrypto.Provider.valueOf(configOptions.get(SPILL_ENCRYPTION_PROVIDER).toUpperCase()) :
+                AesGcmBlockCrypto.Provider.JDK;
+        return new AesGcmBlockCrypto(allocator, provider, codec);
     }
 
     /**
-     * Used to create a thread pool that will be used to service writes to S3 associated with spilling blocks.
-     * This pool should use a blocking, fixed size, pool for work in order to avoid a fast producer from overhwelming
-     * the Apache Arrow Allocator's memory pool.
-     *
-     * @return A fixed size thread pool with fixed size and blocking runnable queue.
+     * Creates the codec used to compress the buffers of spilled blocks, a missing codec type means no compression.
      */
-    private ThreadPoolExecutor makeAsyncSpillPool(SpillConfig config)
+    private static CompressionCodec makeCompressionCodec(CompressionUtil.CodecType codecType)
+    {
+        return (codecType == null || codecType == CompressionUtil.CodecType.NO_COMPRESSION) ?
+                NoCompressionCodec.INSTANCE : CommonsCompressionFactory.INSTANCE.createCodec(codecType);
+    }
+
+    /**
+     * Gets the capacity of the queue of blocks waiting to be spilled, defaults to the number of spill threads.
+     */
+    private int getSpillQueueCapacity(SpillConfig config)
     {
         int spillQueueCapacity = config.getNumSpillThreads();
         if (configOptions.get(SPILL_QUEUE_CAPACITY) != null) {
             spillQueueCapacity = Integer.parseInt(configOptions.get(SPILL_QUEUE_CAPACITY));
             logger.debug("Setting Spill Queue Capacity to {}", spillQueueCapacity);
         }
+        return spillQueueCapacity;
+    }
 
+    /**
+     * Used to create a thread pool that will be used to service writes to S3 associated with spilling blocks.
+     * This pool should use a blocking, fixed size, pool for work in order to avoid a fast producer from overhwelming
+     * the Apache Arrow Allocator's memory pool.
+     *
+     * @return A fixed size thread pool with fixed size and blocking runnable queue.
+     */
+    private ThreadPoolExecutor makeAsyncSpillPool(SpillConfig config, int spillQueueCapacity)
+    {
         RejectedExecutionHandler rejectedExecutionHandler = (r, executor) -> {
             if (!executor.isShutdown()) {
                 try {
@@ -523,4 +766,111 @@ public class S3BlockSpiller
                 new LinkedBlockingQueue<>(spillQueueCapacity),
                 rejectedExecutionHandler);
     }
+
+    /**
+     * ProducerBlockWriter which fills its own Block so that it can be written to without coordinating with any other
+     * producers. Full Blocks are spilled directly, the final partially filled Block is copied into the BlockSpiller's
+     * in-progress Block when the producer is closed so that small results can still be returned inline.
+     */
+    private class S3ProducerBlockWriter
+            implements ProducerBlockWriter
+    {
+        private final BlockSizeEstimator sizeEstimator = new BlockSizeEstimator();
+        private Block block;
+
+        @Override
+        public void writeRows(RowWriter rowWriter)
+        {
+            if (block == null) {
+                block = newBlock();
+            }
+            block = S3BlockSpiller.this.writeRows(block, sizeEstimator, rowWriter);
+        }
+
+        @Override
+        public ConstraintEvaluator getConstraintEvaluator()
+        {
+            return constraintEvaluator;
+        }
+
+        @Override
+        public void close()
+        {
+            if (block == null) {
+                return;
+            }
+
+            try {
+                int numRows = block.getRowCount();
+                if (numRows > 0) {
+                    int[] selection = new int[numRows];
+                    for (int i = 0; i < numRows; i++) {
+                        selection[i] = i;
+                    }
+                    synchronized (producerLock) {
+                        ensureInit();
+                        appendRows(block.getVectorSchema(), selection, numRows);
+                    }
+                }
+            }
+            finally {
+                allocator.recycleBlock(block, maxPooledBlocks);
+                sizeEstimator.reset();
+                block = null;
+            }
+        }
+    }
+
+    /**
+     * Decides when a Block that is being written to one row at a time needs its actual size checked. Block.getSize()
+     * visits every FieldVector, which is costly for wide Schemas, so instead the average bytes per row seen at the last
+     * check is used to estimate how many rows can still be written. The next check happens once half of those rows
+     * have been written, so checks become more frequent as the Block fills up and happen on every row once the Block
+     * is within two rows of being full.
+     * <p>
+     * Blocks are recycled, so the same Block instance may come back empty once it has been spilled. The estimator must
+     * be reset whenever the Block it is estimating is spilled or recycled.
+     */
+    private static class BlockSizeEstimator
+    {
+        //The row count at which the actual size of the Block must next be checked.
+        private int nextCheckRowCount;
+
+        /**
+         * @param block The Block that was just written to.
+         * @param maxBlockBytes The size, in bytes, that the Block should not exceed.
+         * @return True if the actual size of the Block exceeds maxBlockBytes, False if it does not or if the Block
+         * can not yet have exceeded maxBlockBytes based on the estimate.
+         */
+        public boolean exceeds(Block block, long maxBlockBytes)
+        {
+            int rowCount = block.getRowCount();
+            if (rowCount < nextCheckRowCount) {
+                return false;
+            }
+
+            long size = block.getSize();
+            if (size > maxBlockBytes) {
+                return true;
+            }
+
+            if (rowCount == 0) {
+                nextCheckRowCount = 1;
+            }
+            else {
+                long bytesPerRow = Math.max(1, size / rowCount);
+                long rowsUntilFull = (maxBlockBytes - size) / bytesPerRow;
+                nextCheckRowCount = rowCount + (int) Math.max(1, Math.min(MAX_ROWS_BETWEEN_SIZE_CHECKS, rowsUntilFull / 2));
+            }
+            return false;
+        }
+
+        /**
+         * Starts over with the next Block written to, which checks its actual size on the first write.
+         */
+        public void reset()
+        {
+            nextCheckRowCount = 0;
+        }
+    }
 }
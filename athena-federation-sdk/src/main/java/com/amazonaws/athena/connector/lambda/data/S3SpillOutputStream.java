@@ -0,0 +1,224 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.AmazonWebServiceRequest;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.PutObjectRequest;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * OutputStream which uploads everything written to it to a single S3 object using a multipart upload. Only one part
+ * is ever buffered in memory, so the peak memory used to spill a Block is bounded by the part size regardless of how
+ * large the Block is. If the entire stream fits in a single part, a plain PutObject is used instead to avoid the extra
+ * round trips of a multipart upload.
+ *
+ * @note The upload is only committed when close() is called. Callers that encounter an error before then should call
+ * abort() so that S3 discards any parts that were already uploaded.
+ */
+class S3SpillOutputStream
+        extends OutputStream
+{
+    private static final Logger logger = LoggerFactory.getLogger(S3SpillOutputStream.class);
+
+    //S3 rejects multipart uploads whose non-final parts are smaller than this.
+    protected static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    private final AmazonS3 amazonS3;
+    private final String bucket;
+    private final String key;
+    //Applied to the request which creates the object (PutObject or InitiateMultipartUpload).
+    private final Consumer<AmazonWebServiceRequest> requestCustomizer;
+    //Holds the part that is currently being filled, this buffer is reused for every part.
+    private final byte[] buffer;
+    private final List<PartETag> partETags = new ArrayList<>();
+    private final byte[] single = new byte[1];
+    private int position = 0;
+    private long totalBytes = 0;
+    private String uploadId;
+    private boolean closed = false;
+
+    /**
+     * Constructs a new S3SpillOutputStream.
+     *
+     * @param amazonS3 The AmazonS3 client to use for the upload.
+     * @param bucket The bucket to write to.
+     * @param key The key of the object to write.
+     * @param partSize The number of bytes to buffer before uploading a part, must be at least 5MB.
+     * @param requestCustomizer Used to customize (e.g. add headers to) the request that creates the object.
+     */
+    public S3SpillOutputStream(AmazonS3 amazonS3,
+            String bucket,
+            String key,
+            int partSize,
+            Consumer<AmazonWebServiceRequest> requestCustomizer)
+    {
+        if (partSize < MIN_PART_SIZE) {
+            throw new IllegalArgumentException("partSize must be at least " + MIN_PART_SIZE + " bytes but was " + partSize);
+        }
+        this.amazonS3 = requireNonNull(amazonS3, "amazonS3 was null");
+        this.bucket = requireNonNull(bucket, "bucket was null");
+        this.key = requireNonNull(key, "key was null");
+        this.requestCustomizer = requireNonNull(requestCustomizer, "requestCustomizer was null");
+        this.buffer = new byte[partSize];
+    }
+
+    @Override
+    public void write(int b)
+            throws IOException
+    {
+        single[0] = (byte) b;
+        write(single, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len)
+            throws IOException
+    {
+        if (closed) {
+            throw new IOException("Stream for " + bucket + "/" + key + " has already been closed.");
+        }
+
+        int remaining = len;
+        int offset = off;
+        while (remaining > 0) {
+            int toCopy = Math.min(remaining, buffer.length - position);
+            System.arraycopy(b, offset, buffer, position, toCopy);
+            position += toCopy;
+            offset += toCopy;
+            remaining -= toCopy;
+            if (position == buffer.length) {
+                uploadPart();
+            }
+        }
+        totalBytes += len;
+    }
+
+    /**
+     * Completes the upload, making the object visible in S3.
+     */
+    @Override
+    public void close()
+            throws IOException
+    {
+        if (closed) {
+            return;
+        }
+        closed = true;
+
+        try {
+            if (uploadId == null) {
+                ObjectMetadata objMeta = new ObjectMetadata();
+                objMeta.setContentLength(position);
+                PutObjectRequest request = new PutObjectRequest(bucket, key, new ByteArrayInputStream(buffer, 0, position), objMeta);
+                requestCustomizer.accept(request);
+                amazonS3.putObject(request);
+                return;
+            }
+
+            if (position > 0) {
+                uploadPart();
+            }
+            amazonS3.completeMultipartUpload(new CompleteMultipartUploadRequest(bucket, key, uploadId, partETags));
+            logger.debug("close: Completed multipart upload of {} bytes in {} parts to {}/{}", totalBytes, partETags.size(), bucket, key);
+        }
+        catch (RuntimeException ex) {
+            abort();
+            throw ex;
+        }
+    }
+
+    /**
+     * Abandons the upload, discarding any parts which have already been uploaded. It is safe to call this more than
+     * once or after close().
+     */
+    public void abort()
+    {
+        closed = true;
+        if (uploadId == null) {
+            return;
+        }
+
+        try {
+            amazonS3.abortMultipartUpload(new AbortMultipartUploadRequest(bucket, key, uploadId));
+        }
+        catch (RuntimeException ex) {
+            logger.warn("abort: Failed to abort multipart upload {} for {}/{}", uploadId, bucket, key, ex);
+        }
+        finally {
+            uploadId = null;
+        }
+    }
+
+    /**
+     * @return The total number of bytes written to this stream.
+     */
+    public long getTotalBytes()
+    {
+        return totalBytes;
+    }
+
+    /**
+     * Uploads the contents of the buffer as the next part, starting the multipart upload if needed.
+     */
+    private void uploadPart()
+    {
+        try {
+            if (uploadId == null) {
+                InitiateMultipartUploadRequest request = new InitiateMultipartUploadRequest(bucket, key);
+                requestCustomizer.accept(request);
+                uploadId = amazonS3.initiateMultipartUpload(request).getUploadId();
+            }
+
+            int partNumber = partETags.size() + 1;
+            UploadPartRequest request = new UploadPartRequest()
+                    .withBucketName(bucket)
+                    .withKey(key)
+                    .withUploadId(uploadId)
+                    .withPartNumber(partNumber)
+                    .withPartSize(position)
+                    .withInputStream(new ByteArrayInputStream(buffer, 0, position));
+            partETags.add(amazonS3.uploadPart(request).getPartETag());
+            logger.debug("uploadPart: Uploaded part {} of {} bytes to {}/{}", partNumber, position, bucket, key);
+            position = 0;
+        }
+        catch (RuntimeException ex) {
+            abort();
+            throw ex;
+        }
+    }
+}
@@ -22,6 +22,7 @@ package com.amazonaws.athena.connector.lambda.data;
 
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
+import org.apache.arrow.vector.compression.CompressionUtil;
 
 import static java.util.Objects.requireNonNull;
 
@@ -44,6 +45,8 @@ public class SpillConfig
     private final long maxInlineBlockSize;
     //The default number of threads to use for async spill operations. 0 indicates that the calling thread should be used.
     private final int numSpillThreads;
+    //The codec used to compress the buffers of spilled Blocks.
+    private final CompressionUtil.CodecType compressionCodec;
 
     private SpillConfig(Builder builder)
     {
@@ -53,6 +56,7 @@ public class SpillConfig
         maxBlockBytes = builder.maxBlockBytes;
         maxInlineBlockSize = builder.maxInlineBlockSize;
         numSpillThreads = builder.numSpillThreads;
+        compressionCodec = requireNonNull(builder.compressionCodec, "compressionCodec was null");
     }
 
     /**
@@ -112,6 +116,16 @@ public class SpillConfig
         return numSpillThreads;
     }
 
+    /**
+     * Gets the codec used to compress the buffers of spilled Blocks.
+     * @return The codec, NO_COMPRESSION if spilled Blocks are not compressed.
+     * @note Compressed Blocks use Apache Arrow's IPC buffer compression, so the reader must support the codec.
+     */
+    public CompressionUtil.CodecType getCompressionCodec()
+    {
+        return compressionCodec;
+    }
+
     public static Builder newBuilder()
     {
         return new Builder();
@@ -122,6 +136,7 @@ public class SpillConfig
         Builder builder = new Builder();
         builder.encryptionKey = copy.getEncryptionKey();
         builder.maxBlockBytes = copy.getMaxBlockBytes();
+        builder.compressionCodec = copy.getCompressionCodec();
         return builder;
     }
 
@@ -133,6 +148,7 @@ public class SpillConfig
         private long maxBlockBytes;
         private long maxInlineBlockSize;
         private int numSpillThreads = DEFAULT_SPILL_THREADS;
+        private CompressionUtil.CodecType compressionCodec = CompressionUtil.CodecType.NO_COMPRESSION;
 
         private Builder() {}
 
@@ -172,6 +188,12 @@ public class SpillConfig
             return this;
         }
 
+        public Builder withCompressionCodec(CompressionUtil.CodecType val)
+        {
+            compressionCodec = val;
+            return this;
+        }
+
         public SpillConfig build()
         {
             return new SpillConfig(this);
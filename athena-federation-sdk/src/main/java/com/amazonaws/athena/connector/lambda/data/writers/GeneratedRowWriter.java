@@ -47,6 +47,7 @@ import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.SmallIntF
 import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.TinyIntFieldWriter;
 import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.VarBinaryFieldWriter;
 import com.amazonaws.athena.connector.lambda.data.writers.fieldwriters.VarCharFieldWriter;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
 import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
@@ -94,7 +95,7 @@ public class GeneratedRowWriter
         this.fieldWriterFactories.putAll(builder.fieldWriterFactories);
         if (builder.constraints != null && builder.constraints.getSummary() != null) {
             for (Map.Entry<String, ValueSet> next : builder.constraints.getSummary().entrySet()) {
-                constraints.put(next.getKey(), makeConstraintProjector(next.getValue()));
+                constraints.put(next.getKey(), ConstraintEvaluator.compile(next.getValue()));
             }
         }
     }
@@ -121,11 +122,6 @@ public class GeneratedRowWriter
         return matched;
     }
 
-    private ConstraintProjector makeConstraintProjector(ValueSet constraint)
-    {
-        return (Object value) -> constraint.containsValue(value);
-    }
-
     private void checkAndRecompile(Block block)
     {
         if (this.block != block) {
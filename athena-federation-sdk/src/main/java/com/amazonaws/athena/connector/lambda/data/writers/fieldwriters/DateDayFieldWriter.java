@@ -21,6 +21,7 @@ package com.amazonaws.athena.connector.lambda.data.writers.fieldwriters;
 
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.DateDayExtractor;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+import com.amazonaws.athena.connector.lambda.domain.predicate.LongConstraintProjector;
 import org.apache.arrow.vector.DateDayVector;
 import org.apache.arrow.vector.holders.NullableDateDayHolder;
 
@@ -53,7 +54,11 @@ public class DateDayFieldWriter
     {
         this.extractor = extractor;
         this.vector = vector;
-        if (rawConstraint != null) {
+        if (rawConstraint instanceof LongConstraintProjector) {
+            LongConstraintProjector projector = (LongConstraintProjector) rawConstraint;
+            constraint = (NullableDateDayHolder value) -> value.isSet == 0 ? projector.applyNull() : projector.apply(value.value);
+        }
+        else if (rawConstraint != null) {
             constraint = (NullableDateDayHolder value) -> rawConstraint.apply(value.isSet == 0 ? null : value.value);
         }
         else {
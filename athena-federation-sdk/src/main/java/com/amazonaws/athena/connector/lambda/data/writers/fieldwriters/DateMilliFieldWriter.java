@@ -21,6 +21,7 @@ package com.amazonaws.athena.connector.lambda.data.writers.fieldwriters;
 
 import com.amazonaws.athena.connector.lambda.data.writers.extractors.DateMilliExtractor;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+import com.amazonaws.athena.connector.lambda.domain.predicate.LongConstraintProjector;
 import org.apache.arrow.vector.DateMilliVector;
 import org.apache.arrow.vector.holders.NullableDateMilliHolder;
 
@@ -57,7 +58,11 @@ public class DateMilliFieldWriter
     {
         this.extractor = extractor;
         this.vector = vector;
-        if (rawConstraint != null) {
+        if (rawConstraint instanceof LongConstraintProjector) {
+            LongConstraintProjector projector = (LongConstraintProjector) rawConstraint;
+            constraint = (NullableDateMilliHolder value) -> value.isSet == 0 ? projector.applyNull() : projector.apply(value.value);
+        }
+        else if (rawConstraint != null) {
             constraint = (NullableDateMilliHolder value) -> rawConstraint.apply(value.isSet == 0 ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(value.value), ZoneOffset.UTC));
         }
         else {
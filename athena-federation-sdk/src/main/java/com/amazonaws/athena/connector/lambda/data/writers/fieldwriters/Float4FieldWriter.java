@@ -21,6 +21,7 @@
 
  import com.amazonaws.athena.connector.lambda.data.writers.extractors.Float4Extractor;
  import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+ import com.amazonaws.athena.connector.lambda.domain.predicate.DoubleConstraintProjector;
  import org.apache.arrow.vector.Float4Vector;
  import org.apache.arrow.vector.holders.NullableFloat4Holder;
 
@@ -53,7 +54,11 @@
      {
          this.extractor = extractor;
          this.vector = vector;
-         if (rawConstraint != null) {
+         if (rawConstraint instanceof DoubleConstraintProjector) {
+             DoubleConstraintProjector projector = (DoubleConstraintProjector) rawConstraint;
+             constraint = (NullableFloat4Holder value) -> value.isSet == 0 ? projector.applyNull() : projector.apply(value.value);
+         }
+         else if (rawConstraint != null) {
              constraint = (NullableFloat4Holder value) -> rawConstraint.apply(value.isSet == 0 ? null : value.value);
          }
          else {
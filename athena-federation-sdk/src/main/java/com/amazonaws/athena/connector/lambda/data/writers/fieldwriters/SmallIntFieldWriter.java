@@ -21,6 +21,7 @@
 
  import com.amazonaws.athena.connector.lambda.data.writers.extractors.SmallIntExtractor;
  import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+ import com.amazonaws.athena.connector.lambda.domain.predicate.LongConstraintProjector;
  import org.apache.arrow.vector.SmallIntVector;
  import org.apache.arrow.vector.holders.NullableSmallIntHolder;
 
@@ -53,7 +54,11 @@
      {
          this.extractor = extractor;
          this.vector = vector;
-         if (rawConstraint != null) {
+         if (rawConstraint instanceof LongConstraintProjector) {
+             LongConstraintProjector projector = (LongConstraintProjector) rawConstraint;
+             constraint = (NullableSmallIntHolder value) -> value.isSet == 0 ? projector.applyNull() : projector.apply(value.value);
+         }
+         else if (rawConstraint != null) {
              constraint = (NullableSmallIntHolder value) -> rawConstraint.apply(value.isSet == 0 ? null : value.value);
          }
          else {
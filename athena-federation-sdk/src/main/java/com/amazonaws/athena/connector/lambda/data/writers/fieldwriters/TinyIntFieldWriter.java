@@ -21,6 +21,7 @@
 
  import com.amazonaws.athena.connector.lambda.data.writers.extractors.TinyIntExtractor;
  import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintProjector;
+ import com.amazonaws.athena.connector.lambda.domain.predicate.LongConstraintProjector;
  import org.apache.arrow.vector.TinyIntVector;
  import org.apache.arrow.vector.holders.NullableTinyIntHolder;
 
@@ -53,7 +54,11 @@
      {
          this.extractor = extractor;
          this.vector = vector;
-         if (rawConstraint != null) {
+         if (rawConstraint instanceof LongConstraintProjector) {
+             LongConstraintProjector projector = (LongConstraintProjector) rawConstraint;
+             constraint = (NullableTinyIntHolder value) -> value.isSet == 0 ? projector.applyNull() : projector.apply(value.value);
+         }
+         else if (rawConstraint != null) {
              constraint = (NullableTinyIntHolder value) -> rawConstraint.apply(value.isSet == 0 ? null : value.value);
          }
          else {
@@ -133,6 +133,16 @@ public class AllOrNoneValueSet
         return all && nullAllowed;
     }
 
+    /**
+     * Conveys if every non-null value satisfies this ValueSet, regardless of whether nulls do.
+     *
+     * @return True if all non-null values are in this ValueSet, false otherwise.
+     */
+    boolean isAllNonNull()
+    {
+        return all;
+    }
+
     /**
      * Conveys if this ValueSet contains a single value.
      *
@@ -22,12 +22,25 @@ package com.amazonaws.athena.connector.lambda.domain.predicate;
 
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.vector.BigIntVector;
+import org.apache.arrow.vector.DateDayVector;
+import org.apache.arrow.vector.DateMilliVector;
+import org.apache.arrow.vector.FieldVector;
+import org.apache.arrow.vector.Float4Vector;
+import org.apache.arrow.vector.Float8Vector;
+import org.apache.arrow.vector.IntVector;
+import org.apache.arrow.vector.SmallIntVector;
+import org.apache.arrow.vector.TinyIntVector;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Field;
 import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
@@ -50,7 +63,10 @@ import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints
  * <p>
  * For usage examples, please see the ExampleRecordHandler or connectors like athena-redis.
  * <p>
- * TODO: We can improve the filtering performance of ConstraintEvaluator by refactoring how ValueSets and Markers works.
+ * Constraints are compiled into ConstraintProjectors when the ConstraintEvaluator is created. Values which are
+ * already of the java type Apache Arrow uses for the field (e.g. Long for BIGINT) are tested directly against the
+ * compiled projector without creating a Marker, which makes apply(...) safe and contention free to call from multiple
+ * threads. Other values are first coerced into the field's type using a Marker.
  * @see ValueSet for details on how Constraints are represented and individually applied.
  */
 public class ConstraintEvaluator
@@ -67,6 +83,8 @@ public class ConstraintEvaluator
     private final MarkerFactory markerFactory;
     //Holds the type for each field.
     private final Map<String, ArrowType> typeMap = new HashMap<>();
+    //Holds the compiled constraint for each field which has both a constraint and a known type.
+    private final Map<String, ConstraintProjector> projectors = new HashMap<>();
 
     public ConstraintEvaluator(BlockAllocator allocator, Schema schema, Constraints constraints)
     {
@@ -74,6 +92,13 @@ public class ConstraintEvaluator
         for (Field next : schema.getFields()) {
             typeMap.put(next.getName(), next.getType());
         }
+        if (constraints != null && constraints.getSummary() != null) {
+            for (Map.Entry<String, ValueSet> next : constraints.getSummary().entrySet()) {
+                if (typeMap.get(next.getKey()) != null) {
+                    projectors.put(next.getKey(), compile(next.getValue()));
+                }
+            }
+        }
         markerFactory = new MarkerFactory(allocator);
     }
 
@@ -97,30 +122,260 @@ public class ConstraintEvaluator
      */
     public boolean apply(String fieldName, Object value)
     {
-        try {
-            ValueSet constraint = constraints.getSummary().get(fieldName);
-            if (constraint != null && typeMap.get(fieldName) != null) {
-                try (Marker marker = markerFactory.createNullable(typeMap.get(fieldName),
-                        value,
-                        Marker.Bound.EXACTLY)) {
-                    return constraint.containsValue(marker);
-                }
-            }
+        ConstraintProjector projector = projectors.get(fieldName);
+        if (projector != null && (value == null || isArrowJavaType(typeMap.get(fieldName), value))) {
+            return projector.apply(value);
+        }
+
+        ValueSet constraint = constraints.getSummary().get(fieldName);
+        if (constraint != null && typeMap.get(fieldName) != null) {
+            return applyWithMarker(typeMap.get(fieldName), constraint, value);
+        }
+
+        return true;
+    }
+
+    /**
+     * Resolves the constraint for the given field once so that values can be repeatedly tested against it without the
+     * per value field lookups done by apply(...).
+     *
+     * @param fieldName The name of the field whose constraints we'd like to bind.
+     * @return A ConstraintProjector which returns the same result as apply(fieldName, value) for any value, or empty if
+     * the field has no constraints (including if the field is unknown).
+     */
+    public Optional<ConstraintProjector> bindConstraint(String fieldName)
+    {
+        ConstraintProjector projector = projectors.get(fieldName);
+        if (projector == null) {
+            return Optional.empty();
+        }
 
-            return true;
+        ArrowType type = typeMap.get(fieldName);
+        ValueSet constraint = constraints.getSummary().get(fieldName);
+        return Optional.of((Object value) -> (value == null || isArrowJavaType(type, value))
+                ? projector.apply(value)
+                : applyWithMarker(type, constraint, value));
+    }
+
+    /**
+     * Tests a value that is not of the java type Apache Arrow uses for the field by first coercing it into a Marker.
+     */
+    private boolean applyWithMarker(ArrowType type, ValueSet constraint, Object value)
+    {
+        try (Marker marker = markerFactory.createNullable(type, value, Marker.Bound.EXACTLY)) {
+            return constraint.containsValue(marker);
         }
         catch (Exception ex) {
             throw (ex instanceof RuntimeException) ? (RuntimeException) ex : new RuntimeException(ex);
         }
     }
 
+    /**
+     * Used to filter a selection of rows from an Apache Arrow batch, applying the constraints one column at a time
+     * rather than one row at a time. This avoids creating a Marker for every value tested.
+     *
+     * @param batch The batch containing the values to test, columns are matched to constraints by field name.
+     * @param selection The row numbers in the batch to test. This array is updated in place so that, upon return,
+     * its first N entries contain the row numbers (in their original order) which passed all constraints.
+     * @param numSelected The number of entries in selection to test.
+     * @return N, the number of rows which passed all constraints. Fields without constraints, or which are not
+     * present in the batch, do not filter any rows.
+     */
+    public int selectRows(VectorSchemaRoot batch, int[] selection, int numSelected)
+    {
+        int selected = numSelected;
+        for (Map.Entry<String, ConstraintProjector> next : projectors.entrySet()) {
+            FieldVector vector = batch.getVector(next.getKey());
+            if (vector == null) {
+                continue;
+            }
+
+            ConstraintProjector projector = next.getValue();
+            LongReader longReader = (projector instanceof LongConstraintProjector) ? makeLongReader(vector) : null;
+            DoubleReader doubleReader = (projector instanceof DoubleConstraintProjector) ? makeDoubleReader(vector) : null;
+            if (longReader != null) {
+                selected = selectRows((LongConstraintProjector) projector, vector, longReader, selection, selected);
+            }
+            else if (doubleReader != null) {
+                selected = selectRows((DoubleConstraintProjector) projector, vector, doubleReader, selection, selected);
+            }
+            else {
+                selected = selectRows(projector, vector, selection, selected);
+            }
+        }
+        return selected;
+    }
+
+    /**
+     * Filters the selection using the primitive values of an integral or date vector so no values are boxed.
+     */
+    private static int selectRows(LongConstraintProjector projector, FieldVector vector, LongReader reader,
+            int[] selection, int numSelected)
+    {
+        int kept = 0;
+        for (int i = 0; i < numSelected; i++) {
+            int row = selection[i];
+            if (vector.isNull(row) ? projector.applyNull() : projector.apply(reader.get(row))) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Filters the selection using the primitive values of a floating point vector so no values are boxed.
+     */
+    private static int selectRows(DoubleConstraintProjector projector, FieldVector vector, DoubleReader reader,
+            int[] selection, int numSelected)
+    {
+        int kept = 0;
+        for (int i = 0; i < numSelected; i++) {
+            int row = selection[i];
+            if (vector.isNull(row) ? projector.applyNull() : projector.apply(reader.get(row))) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * Filters the selection using the java objects Apache Arrow returns for the vector's values.
+     */
+    private static int selectRows(ConstraintProjector projector, FieldVector vector, int[] selection, int numSelected)
+    {
+        int kept = 0;
+        for (int i = 0; i < numSelected; i++) {
+            int row = selection[i];
+            if (projector.apply(vector.getObject(row))) {
+                selection[kept++] = row;
+            }
+        }
+        return kept;
+    }
+
+    /**
+     * @return A LongReader for the vector, or null if the vector does not hold values LongConstraintProjector can test
+     * as a long. DateMilliVector values are the epoch millis that LongConstraintProjector converts LocalDateTimes to.
+     */
+    private static LongReader makeLongReader(FieldVector vector)
+    {
+        if (vector instanceof BigIntVector) {
+            return ((BigIntVector) vector)::get;
+        }
+        else if (vector instanceof IntVector) {
+            return ((IntVector) vector)::get;
+        }
+        else if (vector instanceof SmallIntVector) {
+            return ((SmallIntVector) vector)::get;
+        }
+        else if (vector instanceof TinyIntVector) {
+            return ((TinyIntVector) vector)::get;
+        }
+        else if (vector instanceof DateDayVector) {
+            return ((DateDayVector) vector)::get;
+        }
+        else if (vector instanceof DateMilliVector) {
+            return ((DateMilliVector) vector)::get;
+        }
+        return null;
+    }
+
+    /**
+     * @return A DoubleReader for the vector, or null if the vector does not hold floating point values.
+     */
+    private static DoubleReader makeDoubleReader(FieldVector vector)
+    {
+        if (vector instanceof Float8Vector) {
+            return ((Float8Vector) vector)::get;
+        }
+        else if (vector instanceof Float4Vector) {
+            return ((Float4Vector) vector)::get;
+        }
+        return null;
+    }
+
+    /**
+     * Reads the value of a non-null row as a primitive long.
+     */
+    private interface LongReader
+    {
+        long get(int row);
+    }
+
+    /**
+     * Reads the value of a non-null row as a primitive double.
+     */
+    private interface DoubleReader
+    {
+        double get(int row);
+    }
+
     public Optional<ConstraintProjector> makeConstraintProjector(String fieldName)
     {
-        ValueSet constraint = constraints.getSummary().get(fieldName);
-        if (constraint != null && typeMap.get(fieldName) != null) {
-            return Optional.of((Object value) -> constraint.containsValue(value));
+        return Optional.ofNullable(projectors.get(fieldName));
+    }
+
+    /**
+     * Compiles the provided constraint, preferring a primitive specialized projector when one is available for the
+     * constraint's type so that values can be tested against precompiled bounds. Shared with GeneratedRowWriter so
+     * that both apply constraints identically.
+     *
+     * @param constraint The constraint to compile.
+     * @return A ConstraintProjector which expects values of the java type Apache Arrow uses for the constraint's type.
+     */
+    public static ConstraintProjector compile(ValueSet constraint)
+    {
+        Optional<LongConstraintProjector> longProjector = LongConstraintProjector.of(constraint);
+        if (longProjector.isPresent()) {
+            return longProjector.get();
+        }
+
+        Optional<DoubleConstraintProjector> doubleProjector = DoubleConstraintProjector.of(constraint);
+        if (doubleProjector.isPresent()) {
+            return doubleProjector.get();
+        }
+
+        return (Object value) -> (value == null) ? constraint.isNullAllowed() : constraint.containsValue(value);
+    }
+
+    /**
+     * Used to determine if the value is already of the java type that Apache Arrow uses for the given type, in which
+     * case it can be tested without first being coerced into that type by writing it to a Marker.
+     *
+     * @param type The ArrowType of the field.
+     * @param value The non-null value to check.
+     * @return True if the value can be applied to a compiled ConstraintProjector as-is, False otherwise.
+     */
+    private static boolean isArrowJavaType(ArrowType type, Object value)
+    {
+        switch (Types.getMinorTypeForArrowType(type)) {
+            case INT:
+            case UINT4:
+            case DATEDAY:
+                return value instanceof Integer;
+            case BIGINT:
+            case UINT8:
+                return value instanceof Long;
+            case SMALLINT:
+                return value instanceof Short;
+            case TINYINT:
+            case UINT1:
+                return value instanceof Byte;
+            case FLOAT8:
+                return value instanceof Double;
+            case FLOAT4:
+                return value instanceof Float;
+            case BIT:
+                return value instanceof Boolean;
+            case VARCHAR:
+                return value instanceof String || value instanceof Text;
+            case VARBINARY:
+                return value instanceof byte[];
+            case DATEMILLI:
+                return value instanceof LocalDateTime;
+            default:
+                return false;
         }
-        return Optional.empty();
     }
 
     /**
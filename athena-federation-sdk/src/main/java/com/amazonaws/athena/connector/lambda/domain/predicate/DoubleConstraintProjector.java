@@ -0,0 +1,183 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.types.Types;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * ConstraintProjector for floating point types (FLOAT4 and FLOAT8) which is compiled from a ValueSet into sorted
+ * primitive arrays. This allows values to be tested with a binary search and without boxing the value or allocating
+ * a Marker, making it suitable for use on a per-row hot path.
+ *
+ * @note Values are ordered using Double.compare(...), matching ArrowTypeComparator, so NaN is greater than all other
+ * values and -0.0 is less than 0.0.
+ * @see ConstraintProjector
+ */
+public class DoubleConstraintProjector
+        implements ConstraintProjector
+{
+    //The ValueSet this projector was compiled from, used for values that aren't of a supported java type.
+    private final ValueSet valueSet;
+    private final boolean nullAllowed;
+    //When true, lows holds a sorted set of discrete values and whiteList indicates if they are included.
+    private final boolean discrete;
+    private final boolean whiteList;
+    //Sorted, non-overlapping ranges. For discrete sets only lows is used.
+    private final double[] lows;
+    private final boolean[] lowInclusive;
+    private final double[] highs;
+    private final boolean[] highInclusive;
+
+    private DoubleConstraintProjector(ValueSet valueSet,
+            boolean discrete,
+            boolean whiteList,
+            double[] lows,
+            boolean[] lowInclusive,
+            double[] highs,
+            boolean[] highInclusive)
+    {
+        this.valueSet = requireNonNull(valueSet, "valueSet is null");
+        this.nullAllowed = valueSet.isNullAllowed();
+        this.discrete = discrete;
+        this.whiteList = whiteList;
+        this.lows = lows;
+        this.lowInclusive = lowInclusive;
+        this.highs = highs;
+        this.highInclusive = highInclusive;
+    }
+
+    /**
+     * Attempts to compile the provided ValueSet into a DoubleConstraintProjector.
+     *
+     * @param valueSet The ValueSet to compile.
+     * @return The compiled projector, or empty if the ValueSet's type or implementation is not supported.
+     */
+    public static Optional<DoubleConstraintProjector> of(ValueSet valueSet)
+    {
+        Types.MinorType type = Types.getMinorTypeForArrowType(valueSet.getType());
+        if (type != Types.MinorType.FLOAT4 && type != Types.MinorType.FLOAT8) {
+            return Optional.empty();
+        }
+
+        if (valueSet instanceof AllOrNoneValueSet) {
+            //Nulls are handled by nullAllowed, so only the non-null values determine the range.
+            int numRanges = ((AllOrNoneValueSet) valueSet).isAllNonNull() ? 1 : 0;
+            double[] lows = new double[numRanges];
+            double[] highs = new double[numRanges];
+            boolean[] inclusive = new boolean[numRanges];
+            Arrays.fill(lows, Double.NEGATIVE_INFINITY);
+            Arrays.fill(highs, Double.NaN);
+            Arrays.fill(inclusive, true);
+            return Optional.of(new DoubleConstraintProjector(valueSet, false, true, lows, inclusive, highs, inclusive));
+        }
+        else if (valueSet instanceof EquatableValueSet) {
+            EquatableValueSet equatable = (EquatableValueSet) valueSet;
+            int numValues = equatable.getValueBlock().getRowCount();
+            double[] values = new double[numValues];
+            for (int i = 0; i < numValues; i++) {
+                Object value = equatable.getValue(i);
+                if (value == null) {
+                    return Optional.empty();
+                }
+                values[i] = ((Number) value).doubleValue();
+            }
+            Arrays.sort(values);
+            return Optional.of(new DoubleConstraintProjector(valueSet, true, equatable.isWhiteList(), values, null, null, null));
+        }
+        else if (valueSet instanceof SortedRangeSet) {
+            List<Range> ranges = ((SortedRangeSet) valueSet).getOrderedRanges();
+            double[] lows = new double[ranges.size()];
+            boolean[] lowInclusive = new boolean[ranges.size()];
+            double[] highs = new double[ranges.size()];
+            boolean[] highInclusive = new boolean[ranges.size()];
+            for (int i = 0; i < ranges.size(); i++) {
+                Marker low = ranges.get(i).getLow();
+                Marker high = ranges.get(i).getHigh();
+                //Unbounded ranges are represented using the smallest and largest values per Double.compare(...)
+                lows[i] = low.isLowerUnbounded() ? Double.NEGATIVE_INFINITY : ((Number) low.getValue()).doubleValue();
+                lowInclusive[i] = low.isLowerUnbounded() || low.getBound() == Marker.Bound.EXACTLY;
+                highs[i] = high.isUpperUnbounded() ? Double.NaN : ((Number) high.getValue()).doubleValue();
+                highInclusive[i] = high.isUpperUnbounded() || high.getBound() == Marker.Bound.EXACTLY;
+            }
+            return Optional.of(new DoubleConstraintProjector(valueSet, false, true, lows, lowInclusive, highs, highInclusive));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Tests if the provided non-null value satisfies the constraint.
+     *
+     * @param value The value to test.
+     * @return True if the value satisfies the constraint, False otherwise.
+     */
+    public boolean apply(double value)
+    {
+        if (discrete) {
+            return whiteList == (Arrays.binarySearch(lows, value) >= 0);
+        }
+
+        int pos = Arrays.binarySearch(lows, value);
+        //The range with the greatest lower bound that is less than or equal to the value, if any.
+        int candidate = (pos >= 0) ? pos : -pos - 2;
+        //When the value sits exactly on an exclusive lower bound the preceding range may still include it.
+        return includes(candidate, value) || includes(candidate - 1, value);
+    }
+
+    /**
+     * Tests if a null value satisfies the constraint.
+     *
+     * @return True if null values satisfy the constraint, False otherwise.
+     */
+    public boolean applyNull()
+    {
+        return nullAllowed;
+    }
+
+    @Override
+    public boolean apply(Object value)
+    {
+        if (value == null) {
+            return nullAllowed;
+        }
+        else if (value instanceof Number) {
+            return apply(((Number) value).doubleValue());
+        }
+        return valueSet.containsValue(value);
+    }
+
+    private boolean includes(int range, double value)
+    {
+        if (range < 0) {
+            return false;
+        }
+        int lowCompare = Double.compare(value, lows[range]);
+        int highCompare = Double.compare(value, highs[range]);
+        return (lowCompare > 0 || (lowCompare == 0 && lowInclusive[range]))
+                && (highCompare < 0 || (highCompare == 0 && highInclusive[range]));
+    }
+}
@@ -55,6 +55,9 @@ public class EquatableValueSet
     private final boolean whiteList;
     private final Block valueBlock;
     public final boolean nullAllowed;
+    //Lazily built hash index over valueBlock, null if the set is too small or its type can't be indexed.
+    private volatile EquatableValueSetIndex index;
+    private volatile boolean indexBuilt = false;
 
     /**
      * Constructs a new EquatableValueSet.
@@ -272,14 +275,7 @@ public class EquatableValueSet
             return false;
         }
 
-        Object value = marker.getValue();
-        boolean result = false;
-        FieldReader reader = valueBlock.getFieldReader(DEFAULT_COLUMN);
-        for (int i = 0; i < valueBlock.getRowCount() && !result; i++) {
-            reader.setPosition(i);
-            result = ArrowTypeComparator.compare(reader, value, reader.readObject()) == 0;
-        }
-        return whiteList == result;
+        return whiteList == contains(marker.getValue());
     }
 
     /**
@@ -296,13 +292,45 @@ public class EquatableValueSet
             return true;
         }
 
+        return whiteList == contains(value);
+    }
+
+    /**
+     * Tests if the supplied value is one of the values in valueBlock, using the hash index when possible.
+     *
+     * @param value The value to test.
+     * @return True if the value is in valueBlock, False otherwise.
+     */
+    private boolean contains(Object value)
+    {
+        EquatableValueSetIndex valueIndex = getIndex();
+        if (valueIndex != null && valueIndex.canProbe(value)) {
+            return valueIndex.contains(value);
+        }
+
         boolean result = false;
         FieldReader reader = valueBlock.getFieldReader(DEFAULT_COLUMN);
         for (int i = 0; i < valueBlock.getRowCount() && !result; i++) {
             reader.setPosition(i);
             result = ArrowTypeComparator.compare(reader, value, reader.readObject()) == 0;
         }
-        return whiteList == result;
+        return result;
+    }
+
+    private EquatableValueSetIndex getIndex()
+    {
+        if (!indexBuilt) {
+            synchronized (this) {
+                if (!indexBuilt) {
+                    int numValues = valueBlock.getRowCount();
+                    if (numValues >= EquatableValueSetIndex.MIN_INDEXED_VALUES) {
+                        index = EquatableValueSetIndex.build(getType(), valueBlock.getFieldReader(DEFAULT_COLUMN), numValues);
+                    }
+                    indexBuilt = true;
+                }
+            }
+        }
+        return index;
     }
 
     @Override
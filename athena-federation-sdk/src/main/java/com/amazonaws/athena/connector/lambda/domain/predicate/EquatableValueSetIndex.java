@@ -0,0 +1,241 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.util.Text;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Hash index over the values of an EquatableValueSet which allows membership to be tested in constant time instead
+ * of scanning (and comparing against) every value in the set. Primitive types are keyed by a long in an open addressing
+ * hash set so that probes don't box or allocate, VARCHAR and VARBINARY are keyed by their bytes, and DECIMAL is keyed
+ * by its normalized BigDecimal.
+ *
+ * @note Keys are derived such that two values have the same key iff ArrowTypeComparator considers them equal. Probes
+ * whose java type doesn't match what ArrowTypeComparator expects for the ArrowType are reported as not probeable so
+ * the caller can fall back to a comparison based scan.
+ */
+abstract class EquatableValueSetIndex
+{
+    //Sets smaller than this are cheaper to scan than to index, see EquatableValueSetBenchmark.
+    static final int MIN_INDEXED_VALUES = 16;
+
+    private EquatableValueSetIndex() {}
+
+    /**
+     * Builds an index over the values readable from the provided FieldReader.
+     *
+     * @param type The ArrowType of the values.
+     * @param reader The FieldReader to read values from, its position will be modified.
+     * @param numValues The number of values to read.
+     * @return The index, or null if the type (or one of the values) is not supported.
+     */
+    static EquatableValueSetIndex build(ArrowType type, FieldReader reader, int numValues)
+    {
+        EquatableValueSetIndex index = create(Types.getMinorTypeForArrowType(type), numValues);
+        if (index == null) {
+            return null;
+        }
+
+        for (int i = 0; i < numValues; i++) {
+            reader.setPosition(i);
+            Object value = reader.readObject();
+            if (!index.canProbe(value)) {
+                return null;
+            }
+            index.add(value);
+        }
+        return index;
+    }
+
+    private static EquatableValueSetIndex create(Types.MinorType minorType, int numValues)
+    {
+        switch (minorType) {
+            case INT:
+            case UINT4:
+            case DATEDAY:
+                return new LongIndex(numValues, Integer.class::isInstance, value -> (Integer) value);
+            case TINYINT:
+            case UINT1:
+                return new LongIndex(numValues, Byte.class::isInstance, value -> (Byte) value);
+            case SMALLINT:
+                return new LongIndex(numValues, Short.class::isInstance, value -> (Short) value);
+            case UINT2:
+                return new LongIndex(numValues, Character.class::isInstance, value -> (Character) value);
+            case BIGINT:
+            case UINT8:
+                return new LongIndex(numValues, Long.class::isInstance, value -> (Long) value);
+            case FLOAT8:
+                //doubleToLongBits canonicalizes NaN and distinguishes -0.0 from 0.0, just like Double.compare(...)
+                return new LongIndex(numValues, Double.class::isInstance, value -> Double.doubleToLongBits((Double) value));
+            case FLOAT4:
+                return new LongIndex(numValues, Float.class::isInstance, value -> Float.floatToIntBits((Float) value));
+            case DATEMILLI:
+                //LocalDateTime.equals(...) is consistent with its compareTo(...)
+                return new ObjectIndex(numValues, LocalDateTime.class::isInstance, Function.identity());
+            case VARCHAR:
+                return new ObjectIndex(numValues, value -> value instanceof Text || value instanceof String,
+                        EquatableValueSetIndex::toUtf8Key);
+            case VARBINARY:
+                return new ObjectIndex(numValues, byte[].class::isInstance, value -> ByteBuffer.wrap((byte[]) value));
+            case DECIMAL:
+                //BigDecimal.equals(...) considers scale, compareTo(...) does not.
+                return new ObjectIndex(numValues, BigDecimal.class::isInstance, value -> ((BigDecimal) value).stripTrailingZeros());
+            default:
+                return null;
+        }
+    }
+
+    private static Object toUtf8Key(Object value)
+    {
+        if (value instanceof Text) {
+            Text text = (Text) value;
+            return ByteBuffer.wrap(text.getBytes(), 0, text.getLength());
+        }
+        return ByteBuffer.wrap(((String) value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param value The value to test.
+     * @return True if the value can be tested against this index, False if the caller should fall back to a scan.
+     */
+    abstract boolean canProbe(Object value);
+
+    /**
+     * @param value The value to test, canProbe(value) must be true.
+     * @return True if the value is contained in the index, False otherwise.
+     */
+    abstract boolean contains(Object value);
+
+    protected abstract void add(Object value);
+
+    /**
+     * Index for types which can be losslessly represented as a long, uses open addressing with linear probing so that
+     * probes don't allocate.
+     */
+    private static class LongIndex
+            extends EquatableValueSetIndex
+    {
+        private final Predicate<Object> probeable;
+        private final ToLongFunction<Object> toKey;
+        private final long[] slots;
+        private final boolean[] used;
+        private final int mask;
+
+        LongIndex(int numValues, Predicate<Object> probeable, ToLongFunction<Object> toKey)
+        {
+            this.probeable = probeable;
+            this.toKey = toKey;
+            //Keep the load factor at or below 0.5 to keep probe sequences short.
+            int capacity = Integer.highestOneBit(Math.max(numValues, 1) * 2 - 1) << 1;
+            this.slots = new long[capacity];
+            this.used = new boolean[capacity];
+            this.mask = capacity - 1;
+        }
+
+        @Override
+        boolean canProbe(Object value)
+        {
+            return probeable.test(value);
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            long key = toKey.applyAsLong(value);
+            for (int slot = slotFor(key); used[slot]; slot = (slot + 1) & mask) {
+                if (slots[slot] == key) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        protected void add(Object value)
+        {
+            long key = toKey.applyAsLong(value);
+            int slot = slotFor(key);
+            while (used[slot]) {
+                if (slots[slot] == key) {
+                    return;
+                }
+                slot = (slot + 1) & mask;
+            }
+            used[slot] = true;
+            slots[slot] = key;
+        }
+
+        private int slotFor(long key)
+        {
+            long hash = key * 0x9E3779B97F4A7C15L;
+            return (int) (hash ^ (hash >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Index for types whose values must be normalized into a key object (e.g. bytes) before they can be hashed.
+     */
+    private static class ObjectIndex
+            extends EquatableValueSetIndex
+    {
+        private final Predicate<Object> probeable;
+        private final Function<Object, Object> toKey;
+        private final Set<Object> keys;
+
+        ObjectIndex(int numValues, Predicate<Object> probeable, Function<Object, Object> toKey)
+        {
+            this.probeable = probeable;
+            this.toKey = toKey;
+            this.keys = new HashSet<>(numValues * 2);
+        }
+
+        @Override
+        boolean canProbe(Object value)
+        {
+            return probeable.test(value);
+        }
+
+        @Override
+        boolean contains(Object value)
+        {
+            return keys.contains(toKey.apply(value));
+        }
+
+        @Override
+        protected void add(Object value)
+        {
+            keys.add(toKey.apply(value));
+        }
+    }
+}
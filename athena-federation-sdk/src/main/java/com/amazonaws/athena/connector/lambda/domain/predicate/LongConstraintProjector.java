@@ -0,0 +1,220 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.types.Types;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * ConstraintProjector for integral types (TINYINT, SMALLINT, INT, BIGINT, DATEDAY, and DATEMILLI as epoch millis) which
+ * is compiled from a ValueSet into sorted primitive arrays. This allows values to be tested with a binary search and
+ * without boxing the value or allocating a Marker, making it suitable for use on a per-row hot path.
+ *
+ * @see ConstraintProjector
+ */
+public class LongConstraintProjector
+        implements ConstraintProjector
+{
+    //The ValueSet this projector was compiled from, used for values that aren't of a supported java type.
+    private final ValueSet valueSet;
+    private final boolean nullAllowed;
+    //When true, lows and highs hold a sorted set of discrete values and whiteList indicates if they are included.
+    private final boolean discrete;
+    private final boolean whiteList;
+    //Sorted, non-overlapping, inclusive ranges. For discrete sets only lows is used.
+    private final long[] lows;
+    private final long[] highs;
+
+    private LongConstraintProjector(ValueSet valueSet, boolean discrete, boolean whiteList, long[] lows, long[] highs)
+    {
+        this.valueSet = requireNonNull(valueSet, "valueSet is null");
+        this.nullAllowed = valueSet.isNullAllowed();
+        this.discrete = discrete;
+        this.whiteList = whiteList;
+        this.lows = lows;
+        this.highs = highs;
+    }
+
+    /**
+     * Attempts to compile the provided ValueSet into a LongConstraintProjector.
+     *
+     * @param valueSet The ValueSet to compile.
+     * @return The compiled projector, or empty if the ValueSet's type or implementation is not supported.
+     */
+    public static Optional<LongConstraintProjector> of(ValueSet valueSet)
+    {
+        if (!isSupported(Types.getMinorTypeForArrowType(valueSet.getType()))) {
+            return Optional.empty();
+        }
+
+        if (valueSet instanceof AllOrNoneValueSet) {
+            //Nulls are handled by nullAllowed, so only the non-null values determine the range.
+            boolean all = ((AllOrNoneValueSet) valueSet).isAllNonNull();
+            long[] lows = all ? new long[] {Long.MIN_VALUE} : new long[0];
+            long[] highs = all ? new long[] {Long.MAX_VALUE} : new long[0];
+            return Optional.of(new LongConstraintProjector(valueSet, false, true, lows, highs));
+        }
+        else if (valueSet instanceof EquatableValueSet) {
+            EquatableValueSet equatable = (EquatableValueSet) valueSet;
+            int numValues = equatable.getValueBlock().getRowCount();
+            long[] values = new long[numValues];
+            for (int i = 0; i < numValues; i++) {
+                Object value = equatable.getValue(i);
+                if (value == null) {
+                    return Optional.empty();
+                }
+                values[i] = toLong(value);
+            }
+            Arrays.sort(values);
+            return Optional.of(new LongConstraintProjector(valueSet, true, equatable.isWhiteList(), values, null));
+        }
+        else if (valueSet instanceof SortedRangeSet) {
+            List<Range> ranges = ((SortedRangeSet) valueSet).getOrderedRanges();
+            List<long[]> bounds = new ArrayList<>(ranges.size());
+            for (Range next : ranges) {
+                long[] bound = toInclusiveBounds(next);
+                if (bound != null) {
+                    bounds.add(bound);
+                }
+            }
+            long[] lows = new long[bounds.size()];
+            long[] highs = new long[bounds.size()];
+            for (int i = 0; i < bounds.size(); i++) {
+                lows[i] = bounds.get(i)[0];
+                highs[i] = bounds.get(i)[1];
+            }
+            return Optional.of(new LongConstraintProjector(valueSet, false, true, lows, highs));
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Tests if the provided non-null value satisfies the constraint.
+     *
+     * @param value The value to test.
+     * @return True if the value satisfies the constraint, False otherwise.
+     */
+    public boolean apply(long value)
+    {
+        if (discrete) {
+            return whiteList == (Arrays.binarySearch(lows, value) >= 0);
+        }
+
+        int pos = Arrays.binarySearch(lows, value);
+        if (pos >= 0) {
+            return true;
+        }
+        //The range with the greatest lower bound that is less than the value, if any.
+        int candidate = -pos - 2;
+        return candidate >= 0 && value <= highs[candidate];
+    }
+
+    /**
+     * Tests if a null value satisfies the constraint.
+     *
+     * @return True if null values satisfy the constraint, False otherwise.
+     */
+    public boolean applyNull()
+    {
+        return nullAllowed;
+    }
+
+    @Override
+    public boolean apply(Object value)
+    {
+        if (value == null) {
+            return nullAllowed;
+        }
+        else if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte
+                || value instanceof LocalDateTime) {
+            return apply(toLong(value));
+        }
+        //Other values (e.g. BigDecimal or Double) would be truncated by longValue(), so they use the ValueSet.
+        return valueSet.containsValue(value);
+    }
+
+    private static boolean isSupported(Types.MinorType type)
+    {
+        switch (type) {
+            case TINYINT:
+            case SMALLINT:
+            case INT:
+            case BIGINT:
+            case DATEDAY:
+            case DATEMILLI:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Converts the provided Range to inclusive [low, high] bounds.
+     *
+     * @return The bounds or null if the Range contains no integral values.
+     */
+    private static long[] toInclusiveBounds(Range range)
+    {
+        Marker low = range.getLow();
+        Marker high = range.getHigh();
+
+        long lowValue = Long.MIN_VALUE;
+        if (!low.isLowerUnbounded()) {
+            lowValue = toLong(low.getValue());
+            if (low.getBound() == Marker.Bound.ABOVE) {
+                if (lowValue == Long.MAX_VALUE) {
+                    return null;
+                }
+                lowValue++;
+            }
+        }
+
+        long highValue = Long.MAX_VALUE;
+        if (!high.isUpperUnbounded()) {
+            highValue = toLong(high.getValue());
+            if (high.getBound() == Marker.Bound.BELOW) {
+                if (highValue == Long.MIN_VALUE) {
+                    return null;
+                }
+                highValue--;
+            }
+        }
+
+        return (lowValue <= highValue) ? new long[] {lowValue, highValue} : null;
+    }
+
+    private static long toLong(Object value)
+    {
+        if (value instanceof LocalDateTime) {
+            return ((LocalDateTime) value).toInstant(ZoneOffset.UTC).toEpochMilli();
+        }
+        return ((Number) value).longValue();
+    }
+}
@@ -25,8 +25,11 @@ import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockUtils;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 
-import java.util.HashMap;
 import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static com.amazonaws.athena.connector.lambda.data.BlockUtils.setValue;
 
@@ -36,15 +39,20 @@ import static com.amazonaws.athena.connector.lambda.data.BlockUtils.setValue;
  * reduce the memory requirement associated with Markers and constraint processing we use a MarkerFactory that is capable
  * of sharing an underlying Apache Arrow Block across multiple Markers. In Testing this was 100x more performant than
  * having a 1-1 relationship between Markers and VectorSchema.
+ * <p>
+ * Each thread leases Markers from its own set of shared Blocks so that creating and closing Markers does not require
+ * any locking, allowing a single MarkerFactory to be used concurrently without becoming a point of contention.
  */
 public class MarkerFactory
         implements AutoCloseable
 {
     private final BlockAllocator allocator;
-    //For each supported Apache Arrow Type we maintain a Block for its values.
-    private final Map<ArrowType, Block> sharedMarkerBlocks = new HashMap<>();
-    //For each shared Block in the above map, we maintain the 'next' available row.
-    private final Map<ArrowType, Integer> markerLeases = new HashMap<>();
+    //Every Block created by this factory, across all threads, so that they can be freed when the factory is closed.
+    private final Queue<Block> sharedMarkerBlocks = new ConcurrentLinkedQueue<>();
+    //Every thread's leases, so that close() can release those of all threads and not only the closing thread's.
+    private final Queue<Map<ArrowType, LeaseBlock>> threadLeases = new ConcurrentLinkedQueue<>();
+    //For each thread and supported Apache Arrow Type we maintain a Block for its values and the 'next' available row.
+    private final ThreadLocal<Map<ArrowType, LeaseBlock>> markerLeases = ThreadLocal.withInitial(this::newThreadLeases);
 
     /**
      * Creates a new MarkerFactory using the provided BlockAllocator.
@@ -71,7 +79,7 @@ public class MarkerFactory
         if (value != null) {
             setValue(lease.getBlock().getFieldVector(Marker.DEFAULT_COLUMN), lease.getPos(), value);
         }
-        return new SharedBlockMarker(this, lease.getBlock(), lease.getPos(), bound, value == null);
+        return new SharedBlockMarker(this, lease, bound, value == null);
     }
 
     /**
@@ -87,7 +95,7 @@ public class MarkerFactory
     {
         BlockLease lease = getOrCreateBlock(type);
         setValue(lease.getBlock().getFieldVector(Marker.DEFAULT_COLUMN), lease.getPos(), value);
-        return new SharedBlockMarker(this, lease.getBlock(), lease.getPos(), bound, false);
+        return new SharedBlockMarker(this, lease, bound, false);
     }
 
     /**
@@ -101,22 +109,30 @@ public class MarkerFactory
     public Marker create(ArrowType type, Marker.Bound bound)
     {
         BlockLease lease = getOrCreateBlock(type);
-        return new SharedBlockMarker(this, lease.getBlock(), lease.getPos(), bound, true);
+        return new SharedBlockMarker(this, lease, bound, true);
     }
 
-    private synchronized BlockLease getOrCreateBlock(ArrowType type)
+    private Map<ArrowType, LeaseBlock> newThreadLeases()
     {
-        Block sharedBlock = sharedMarkerBlocks.get(type);
-        Integer leaseNumber = markerLeases.get(type);
-        if (sharedBlock == null) {
-            sharedBlock = BlockUtils.newEmptyBlock(allocator, Marker.DEFAULT_COLUMN, type);
-            sharedMarkerBlocks.put(type, sharedBlock);
-            leaseNumber = 0;
+        //Only the owning thread adds leases but close() may clear them from any thread.
+        Map<ArrowType, LeaseBlock> leases = new ConcurrentHashMap<>();
+        threadLeases.add(leases);
+        return leases;
+    }
+
+    private BlockLease getOrCreateBlock(ArrowType type)
+    {
+        Map<ArrowType, LeaseBlock> leaseBlocks = markerLeases.get();
+        LeaseBlock leaseBlock = leaseBlocks.get(type);
+        if (leaseBlock == null) {
+            Block sharedBlock = BlockUtils.newEmptyBlock(allocator, Marker.DEFAULT_COLUMN, type);
+            sharedMarkerBlocks.add(sharedBlock);
+            leaseBlock = new LeaseBlock(sharedBlock);
+            leaseBlocks.put(type, leaseBlock);
         }
-        markerLeases.put(type, ++leaseNumber);
-        BlockLease lease = new BlockLease(sharedBlock, leaseNumber - 1);
-        sharedBlock.setRowCount(leaseNumber);
-        return lease;
+        int leaseNumber = leaseBlock.leases.incrementAndGet();
+        leaseBlock.block.setRowCount(leaseNumber);
+        return new BlockLease(leaseBlock, leaseNumber - 1);
     }
 
     /**
@@ -127,42 +143,51 @@ public class MarkerFactory
      * so even this crude logic works well at present. As we improve the constraint system we expect to refactor the concept
      * of a Marker significantly to improve on this awkward lifecycle.
      */
-    private synchronized void returnBlockLease(ArrowType type, int pos)
+    private void returnBlockLease(BlockLease lease)
     {
-        Block sharedBlock = sharedMarkerBlocks.get(type);
-        Integer leaseNumber = markerLeases.get(type);
-
-        if (sharedBlock != null && leaseNumber > 0 && leaseNumber == pos + 1) {
-            markerLeases.put(type, leaseNumber - 1);
-        }
+        //Only succeeds if this was the most recent lease, the Marker may be closed by a thread other than its creator.
+        lease.leaseBlock.leases.compareAndSet(lease.getPos() + 1, lease.getPos());
     }
 
     @Override
     public void close()
             throws Exception
     {
-        for (Block next : sharedMarkerBlocks.values()) {
+        for (Block next : sharedMarkerBlocks) {
             next.close();
         }
 
         sharedMarkerBlocks.clear();
-        markerLeases.clear();
+        for (Map<ArrowType, LeaseBlock> next : threadLeases) {
+            next.clear();
+        }
     }
 
-    private static class BlockLease
+    private static class LeaseBlock
     {
         private final Block block;
-        private final int pos;
+        private final AtomicInteger leases = new AtomicInteger(0);
 
-        public BlockLease(Block block, int pos)
+        public LeaseBlock(Block block)
         {
             this.block = block;
+        }
+    }
+
+    private static class BlockLease
+    {
+        private final LeaseBlock leaseBlock;
+        private final int pos;
+
+        public BlockLease(LeaseBlock leaseBlock, int pos)
+        {
+            this.leaseBlock = leaseBlock;
             this.pos = pos;
         }
 
         public Block getBlock()
         {
-            return block;
+            return leaseBlock.block;
         }
 
         public int getPos()
@@ -178,17 +203,17 @@ public class MarkerFactory
             extends Marker
     {
         private final MarkerFactory factory;
-        private final int valuePosition;
+        private final BlockLease lease;
 
-        public SharedBlockMarker(MarkerFactory factory, Block block, int valuePosition, Bound bound, boolean nullValue)
+        private SharedBlockMarker(MarkerFactory factory, BlockLease lease, Bound bound, boolean nullValue)
         {
-            super(block, valuePosition, bound, nullValue);
+            super(lease.getBlock(), lease.getPos(), bound, nullValue);
             this.factory = factory;
-            this.valuePosition = valuePosition;
+            this.lease = lease;
         }
 
         /**
-         * Signals to the MarkerFactory that created this SharedBlockMarker that the row are valuePosition can be considered
+         * Signals to the MarkerFactory that created this SharedBlockMarker that the row it leased can be considered
          * free.
          */
         @Override
@@ -196,7 +221,7 @@ public class MarkerFactory
                 throws Exception
         {
             //Don't call close on the super since we don't own the block, it shared.
-            factory.returnBlockLease(getType(), valuePosition);
+            factory.returnBlockLease(lease);
         }
     }
 }
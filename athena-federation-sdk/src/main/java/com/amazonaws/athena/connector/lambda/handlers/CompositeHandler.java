@@ -29,6 +29,7 @@ import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingRequest;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
 import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.amazonaws.athena.connector.lambda.serde.v5.ObjectMapperFactoryV5;
 import com.amazonaws.athena.connector.lambda.udf.UserDefinedFunctionRequest;
 import com.amazonaws.services.lambda.runtime.Context;
 import com.amazonaws.services.lambda.runtime.RequestStreamHandler;
@@ -94,12 +95,16 @@ public class CompositeHandler
     public final void handleRequest(InputStream inputStream, OutputStream outputStream, final Context context)
             throws IOException
     {
-        try (BlockAllocatorImpl allocator = new BlockAllocatorImpl()) {
+        try (BlockAllocatorImpl allocator = BlockAllocatorImpl.forRequest(metadataHandler.configOptions)) {
             ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator, SerDeVersion.SERDE_VERSION);
             FederationRequest rawReq;
             byte[] allInputBytes = com.google.common.io.ByteStreams.toByteArray(inputStream);
 
             try {
+                if (ObjectMapperFactoryV5.isBinaryEnvelope(allInputBytes)) {
+                    // the client framed its request in the binary envelope, so the response is framed in it as well
+                    objectMapper = VersionedObjectMapperFactory.create(allocator, SerDeVersion.BINARY_SERDE_VERSION);
+                }
                 rawReq = objectMapper.readValue(allInputBytes, FederationRequest.class);
             }
             catch (IllegalStateException e) { // if client has not upgraded to our latest, fallback to v2
@@ -32,6 +32,7 @@ import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
 import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
 import com.amazonaws.athena.connector.lambda.metadata.MetadataRequest;
 import com.amazonaws.athena.connector.lambda.metadata.glue.GlueFieldLexer;
+import com.amazonaws.athena.connector.lambda.metadata.glue.GlueMetadataCache;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.glue.AWSGlue;
@@ -40,7 +41,6 @@ import com.amazonaws.services.glue.model.Column;
 import com.amazonaws.services.glue.model.Database;
 import com.amazonaws.services.glue.model.GetDatabasesRequest;
 import com.amazonaws.services.glue.model.GetDatabasesResult;
-import com.amazonaws.services.glue.model.GetTableResult;
 import com.amazonaws.services.glue.model.GetTablesRequest;
 import com.amazonaws.services.glue.model.GetTablesResult;
 import com.amazonaws.services.glue.model.Table;
@@ -138,6 +138,8 @@ public abstract class GlueMetadataHandler
     public static final String GLUE_TABLE_CONTAINS_PREVIOUSLY_UNSUPPORTED_TYPE = "glueTableContainsPreviouslyUnsupportedType";
 
     private final AWSGlue awsGlue;
+    //Caches Glue Tables and their converted Schemas, disabled unless configured via configOptions.
+    private final GlueMetadataCache glueMetadataCache;
 
     /**
      * Basic constructor which is recommended when extending this class.
@@ -159,6 +161,7 @@ public abstract class GlueMetadataHandler
         awsGlue = disabled ? null : (AWSGlueClientBuilder.standard()
                 .withClientConfiguration(new ClientConfiguration().withConnectionTimeout(CONNECT_TIMEOUT))
                 .build());
+        glueMetadataCache = GlueMetadataCache.fromConfig(configOptions);
     }
 
     /**
@@ -172,6 +175,7 @@ public abstract class GlueMetadataHandler
     {
         super(sourceType, configOptions);
         this.awsGlue = awsGlue;
+        this.glueMetadataCache = GlueMetadataCache.fromConfig(configOptions);
     }
 
     /**
@@ -198,6 +202,7 @@ public abstract class GlueMetadataHandler
     {
         super(encryptionKeyFactory, secretsManager, athena, sourceType, spillBucket, spillPrefix, configOptions);
         this.awsGlue = awsGlue;
+        this.glueMetadataCache = GlueMetadataCache.fromConfig(configOptions);
     }
 
     /**
@@ -211,6 +216,18 @@ public abstract class GlueMetadataHandler
         return awsGlue;
     }
 
+    /**
+     * Provides access to the cache used for Glue Tables, pages of GetTables results, and converted Schemas. By default
+     * this is configured from the glue_cache_* configOptions (see GlueMetadataCache), extenders may override this to
+     * supply their own GlueMetadataCache (e.g. one shared by several handlers).
+     *
+     * @return The GlueMetadataCache to use.
+     */
+    protected GlueMetadataCache getGlueMetadataCache()
+    {
+        return glueMetadataCache;
+    }
+
     /**
      * Provides access to the current AWS Glue DataCatalog being used by this class.
      *
@@ -325,7 +342,8 @@ public abstract class GlueMetadataHandler
                 getTablesRequest.setMaxResults(maxResults);
                 pageSize -= maxResults;
             }
-            GetTablesResult result = awsGlue.getTables(getTablesRequest);
+            GetTablesRequest pageRequest = getTablesRequest.clone();
+            GetTablesResult result = getGlueMetadataCache().getTables(pageRequest, () -> awsGlue.getTables(pageRequest));
 
             for (Table next : result.getTableList()) {
                 if (filter == null || filter.filter(next)) {
@@ -387,18 +405,35 @@ public abstract class GlueMetadataHandler
             throws Exception
     {
         TableName tableName = request.getTableName();
+        String catalog = getCatalog(request);
         com.amazonaws.services.glue.model.GetTableRequest getTableRequest = new com.amazonaws.services.glue.model.GetTableRequest();
-        getTableRequest.setCatalogId(getCatalog(request));
+        getTableRequest.setCatalogId(catalog);
         getTableRequest.setDatabaseName(tableName.getSchemaName());
         getTableRequest.setName(tableName.getTableName());
 
-        GetTableResult result = awsGlue.getTable(getTableRequest);
-        Table table = result.getTable();
+        Table table = getGlueMetadataCache().getTable(catalog, tableName.getSchemaName(), tableName.getTableName(),
+                () -> awsGlue.getTable(getTableRequest).getTable());
 
         if (filter != null && !filter.filter(table)) {
             throw new RuntimeException("No matching table found " + request.getTableName());
         }
 
+        GetTableResponse converted = getGlueMetadataCache().getConverted(catalog, table, (Table next) -> convertTable(request, next));
+        return new GetTableResponse(request.getCatalogName(),
+                request.getTableName(),
+                converted.getSchema(),
+                converted.getPartitionColumns());
+    }
+
+    /**
+     * Converts the columns and properties of a Glue Table into a GetTableResponse.
+     *
+     * @param request The request the Table is being converted for.
+     * @param table The Table to convert.
+     * @return The GetTableResponse for the Table.
+     */
+    private GetTableResponse convertTable(GetTableRequest request, Table table)
+    {
         SchemaBuilder schemaBuilder = SchemaBuilder.newBuilder();
         if (table.getParameters() != null) {
             table.getParameters()
@@ -30,7 +30,9 @@ import com.amazonaws.athena.connector.lambda.data.BlockWriter;
 import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
 import com.amazonaws.athena.connector.lambda.data.SimpleBlockWriter;
 import com.amazonaws.athena.connector.lambda.data.SupportedTypes;
+import com.amazonaws.athena.connector.lambda.domain.Split;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocationVerifier;
@@ -73,14 +75,18 @@ import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
 import java.util.UUID;
 
 import static com.amazonaws.athena.connector.lambda.handlers.AthenaExceptionFilter.ATHENA_EXCEPTION_FILTER;
 import static com.amazonaws.athena.connector.lambda.handlers.FederationCapabilities.CAPABILITIES;
+import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.BINARY_SERDE_VERSION;
 import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.SERDE_VERSION;
 
 /**
@@ -222,9 +228,10 @@ public abstract class MetadataHandler
     public final void handleRequest(InputStream inputStream, OutputStream outputStream, final Context context)
             throws IOException
     {
-        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawReq = objectMapper.readValue(inputStream, FederationRequest.class)) {
+        try (BlockAllocator allocator = BlockAllocatorImpl.forRequest(configOptions)) {
+            InputStream in = new BufferedInputStream(inputStream);
+            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator, in);
+            try (FederationRequest rawReq = objectMapper.readValue(in, FederationRequest.class)) {
                 if (rawReq instanceof PingRequest) {
                     try (PingResponse response = doPing((PingRequest) rawReq)) {
                         assertNotNull(response);
@@ -379,6 +386,18 @@ public abstract class MetadataHandler
             return new GetTableLayoutResponse(request.getCatalogName(), request.getTableName(), partitions);
         }
 
+        /**
+         * If the constraint on any partition column can not be satisfied by any value, including NULL, then no partition
+         * can match, so we can skip enumerating the partitions entirely.
+         */
+        for (String nextPartCol : request.getPartitionCols()) {
+            ValueSet valueSet = request.getConstraints().getSummary().get(nextPartCol);
+            if (valueSet != null && valueSet.isNone() && !valueSet.isNullAllowed()) {
+                logger.info("doGetTableLayout: Constraint on partition column {} matches no values, skipping getPartitions.", nextPartCol);
+                return new GetTableLayoutResponse(request.getCatalogName(), request.getTableName(), allocator.createBlock(partitionSchema));
+            }
+        }
+
         /**
          * Now use the constraint that was in the request to do some partition pruning. Here we are just
          * generating some fake values for the partitions but in a real implementation you'd use your metastore
@@ -392,7 +411,14 @@ public abstract class MetadataHandler
             Block partitions = allocator.createBlock(partitionSchemaBuilder.build());
             partitions.constrain(constraintEvaluator);
             SimpleBlockWriter blockWriter = new SimpleBlockWriter(partitions);
-            getPartitions(blockWriter, request, queryStatusChecker);
+            String continuationToken = null;
+            int pages = 0;
+            do {
+                continuationToken = getPartitions(blockWriter, request, queryStatusChecker, continuationToken);
+                pages++;
+            }
+            while (continuationToken != null && queryStatusChecker.isQueryRunning());
+            logger.info("doGetTableLayout: Enumerated {} partitions in {} pages.", partitions.getRowCount(), pages);
             return new GetTableLayoutResponse(request.getCatalogName(), request.getTableName(), partitions);
         }
     }
@@ -437,6 +463,34 @@ public abstract class MetadataHandler
             final GetTableLayoutRequest request, QueryStatusChecker queryStatusChecker)
             throws Exception;
 
+    /**
+     * Used to get a single page of the partitions that must be read from the request table in order to satisfy the
+     * requested predicate. doGetTableLayout(...) calls this repeatedly, passing the continuation token returned by the
+     * previous call, until no continuation token is returned or the query is no longer running. Sources with very large
+     * numbers of partitions (e.g. a metastore with its own pagination) can override this to enumerate their partitions
+     * one page at a time instead of all at once.
+     *
+     * @param blockWriter Used to write rows (partitions) into the Apache Arrow response.
+     * @param request Provides details of the catalog, database, and table being queried as well as any filter predicate.
+     * @param queryStatusChecker A QueryStatusChecker that you can use to stop doing work for a query that has already terminated
+     * @param continuationToken The token returned by the previous page, or null for the first page.
+     * @return The continuation token for the next page, or null if there are no more partitions.
+     * @note The default implementation delegates to getPartitions(BlockWriter, GetTableLayoutRequest, QueryStatusChecker)
+     * and returns all partitions in a single page.
+     * @note Partitions that do not satisfy the query's predicate are filtered out as they are written but it is cheaper
+     * to never write them at all. Implementations can use blockWriter.getConstraintEvaluator().bindConstraint(...) to
+     * test a partition column's value before writing the partition or fetching any more details about it.
+     */
+    public String getPartitions(final BlockWriter blockWriter,
+            final GetTableLayoutRequest request,
+            QueryStatusChecker queryStatusChecker,
+            String continuationToken)
+            throws Exception
+    {
+        getPartitions(blockWriter, request, queryStatusChecker);
+        return null;
+    }
+
     /**
      * Used to split-up the reads required to scan the requested batch of partition(s).
      *
@@ -453,6 +507,49 @@ public abstract class MetadataHandler
     public abstract GetSplitsResponse doGetSplits(BlockAllocator allocator, GetSplitsRequest request)
             throws Exception;
 
+    /**
+     * Helper which can be used by doGetSplits(...) to consume the requested partitions incrementally, generating splits
+     * for one partition at a time and returning a continuation token once maxSplitsPerRequest splits have been
+     * generated. Athena then calls doGetSplits(...) again with the continuation token to resume from the next partition.
+     *
+     * @param request The GetSplitsRequest, its continuation token (if any) must have been generated by this method.
+     * @param maxSplitsPerRequest The number of splits after which to stop generating splits and return a continuation token.
+     * @param splitGenerator Generates the splits for a single partition.
+     * @return A GetSplitsResponse with the generated splits and, if there are partitions remaining, a continuation token.
+     */
+    protected GetSplitsResponse generateSplits(GetSplitsRequest request, int maxSplitsPerRequest, SplitGenerator splitGenerator)
+            throws Exception
+    {
+        Block partitions = request.getPartitions();
+        int startPartition = request.hasContinuationToken() ? Integer.parseInt(request.getContinuationToken()) : 0;
+        Set<Split> splits = new HashSet<>();
+        for (int curPartition = startPartition; curPartition < partitions.getRowCount(); curPartition++) {
+            splitGenerator.generateSplits(partitions, curPartition, splits);
+            if (splits.size() >= maxSplitsPerRequest && curPartition + 1 < partitions.getRowCount()) {
+                //We reached the number of splits we want to return in a single request, return and provide a continuation token.
+                return new GetSplitsResponse(request.getCatalogName(), splits, String.valueOf(curPartition + 1));
+            }
+        }
+        return new GetSplitsResponse(request.getCatalogName(), splits, null);
+    }
+
+    /**
+     * The interface you should implement for generating the splits of a single partition via
+     * generateSplits(GetSplitsRequest, int, SplitGenerator).
+     */
+    public interface SplitGenerator
+    {
+        /**
+         * Generates the splits required to read a single partition.
+         *
+         * @param partitions The Block of partitions from the GetSplitsRequest.
+         * @param partitionRow The row in partitions of the partition to generate splits for.
+         * @param splits The Set to add the generated splits to.
+         */
+        void generateSplits(Block partitions, int partitionRow, Set<Split> splits)
+                throws Exception;
+    }
+
     /**
      * Used to describe the types of capabilities supported by a data source. An engine can use this to determine what
      * portions of the query to push down. A connector that returns any optimization will guarantee that the associated
@@ -476,7 +573,7 @@ public abstract class MetadataHandler
      */
     public PingResponse doPing(PingRequest request)
     {
-        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION);
+        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION, BINARY_SERDE_VERSION);
         try {
             onPing(request);
         }
@@ -22,12 +22,18 @@ package com.amazonaws.athena.connector.lambda.handlers;
 
 import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
 import com.amazonaws.athena.connector.lambda.ThrottlingInvoker;
+import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
 import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
+import com.amazonaws.athena.connector.lambda.data.ProducerBlockWriter;
 import com.amazonaws.athena.connector.lambda.data.S3BlockSpiller;
 import com.amazonaws.athena.connector.lambda.data.SpillConfig;
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.metrics.EmfMetricsSink;
+import com.amazonaws.athena.connector.lambda.metrics.LoggingMetricsSink;
+import com.amazonaws.athena.connector.lambda.metrics.MetricsSink;
+import com.amazonaws.athena.connector.lambda.metrics.SplitMetrics;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsRequest;
 import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
 import com.amazonaws.athena.connector.lambda.records.RecordRequest;
@@ -49,15 +55,30 @@ import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.AWSSecretsManagerClientBuilder;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.compression.CompressionUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import static com.amazonaws.athena.connector.lambda.handlers.AthenaExceptionFilter.ATHENA_EXCEPTION_FILTER;
 import static com.amazonaws.athena.connector.lambda.handlers.FederationCapabilities.CAPABILITIES;
+import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.BINARY_SERDE_VERSION;
 import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.SERDE_VERSION;
 
 /**
@@ -69,13 +90,30 @@ public abstract class RecordHandler
 {
     private static final Logger logger = LoggerFactory.getLogger(RecordHandler.class);
     private static final String MAX_BLOCK_SIZE_BYTES = "MAX_BLOCK_SIZE_BYTES";
+    //Config to compress the buffers of spilled Blocks using LZ4_FRAME or ZSTD, the reader must support the codec.
+    private static final String SPILL_COMPRESSION_CODEC = "SPILL_COMPRESSION_CODEC";
     private static final int NUM_SPILL_THREADS = 2;
+    //Config to set the number of threads used to decode and write records by writeRecordsInParallel(...)
+    private static final String READ_PARALLELISM = "READ_PARALLELISM";
+    //The number of source records handed to a decode thread at a time.
+    private static final int RECORDS_PER_TASK = 64;
+    //How long the reading thread waits on a full queue before checking that the decode threads are still healthy.
+    private static final long QUEUE_POLL_MILLIS = 100;
+    //How long to wait for interrupted decode threads to stop before giving up on them.
+    private static final long DECODE_SHUTDOWN_MILLIS = 10_000;
+    //Signals to a decode thread that there are no more records.
+    private static final List<Object> END_OF_RECORDS = new ArrayList<>();
+    //Config to choose where per split metrics are published: log (default), emf, or none.
+    private static final String METRICS_SINK = "metrics_sink";
+    //Config to set the CloudWatch namespace used when metrics_sink is emf.
+    private static final String METRICS_NAMESPACE = "metrics_namespace";
     protected final java.util.Map<String, String> configOptions;
     private final AmazonS3 amazonS3;
     private final String sourceType;
     private final CachableSecretsManager secretsManager;
     private final AmazonAthena athena;
     private final ThrottlingInvoker athenaInvoker;
+    private final MetricsSink metricsSink;
 
     /**
      * @param sourceType Used to aid in logging diagnostic info when raising a support case.
@@ -88,6 +126,7 @@ public abstract class RecordHandler
         this.athena = AmazonAthenaClientBuilder.defaultClient();
         this.configOptions = configOptions;
         this.athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER, configOptions).build();
+        this.metricsSink = makeMetricsSink(configOptions);
     }
 
     /**
@@ -101,6 +140,7 @@ public abstract class RecordHandler
         this.athena = athena;
         this.configOptions = configOptions;
         this.athenaInvoker = ThrottlingInvoker.newDefaultBuilder(ATHENA_EXCEPTION_FILTER, configOptions).build();
+        this.metricsSink = makeMetricsSink(configOptions);
     }
 
     /**
@@ -126,9 +166,10 @@ public abstract class RecordHandler
     public final void handleRequest(InputStream inputStream, OutputStream outputStream, final Context context)
             throws IOException
     {
-        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawReq = objectMapper.readValue(inputStream, FederationRequest.class)) {
+        try (BlockAllocator allocator = BlockAllocatorImpl.forRequest(configOptions)) {
+            InputStream in = new BufferedInputStream(inputStream);
+            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator, in);
+            try (FederationRequest rawReq = objectMapper.readValue(in, FederationRequest.class)) {
                 if (rawReq instanceof PingRequest) {
                     try (PingResponse response = doPing((PingRequest) rawReq)) {
                         assertNotNull(response);
@@ -196,15 +237,73 @@ public abstract class RecordHandler
         ) {
             readWithConstraint(spiller, request, queryStatusChecker);
 
+            RecordResponse response;
             if (!spiller.spilled()) {
-                return new ReadRecordsResponse(request.getCatalogName(), spiller.getBlock());
+                Block block = spiller.getBlock();
+                spiller.getMetrics().recordBytesWritten(block.getSize());
+                response = new ReadRecordsResponse(request.getCatalogName(), block);
             }
             else {
-                return new RemoteReadRecordsResponse(request.getCatalogName(),
+                //Getting the spill locations waits for any in-flight spills, so their metrics are complete afterwards.
+                response = new RemoteReadRecordsResponse(request.getCatalogName(),
                         request.getSchema(),
                         spiller.getSpillLocations(),
                         spillConfig.getEncryptionKey());
             }
+            publishMetrics(request, spiller.getMetrics());
+            return response;
+        }
+    }
+
+    /**
+     * Provides the MetricsSink that per split metrics are published to, by default this is chosen using the
+     * metrics_sink config option. Override this to publish metrics somewhere else.
+     *
+     * @return The MetricsSink to publish to, null if metrics should not be published.
+     */
+    protected MetricsSink getMetricsSink()
+    {
+        return metricsSink;
+    }
+
+    /**
+     * Publishes the metrics collected while reading a split. Failing to publish metrics does not fail the request.
+     *
+     * @param request The request that was processed.
+     * @param metrics The metrics collected while processing the request.
+     */
+    private void publishMetrics(ReadRecordsRequest request, SplitMetrics metrics)
+    {
+        MetricsSink sink = getMetricsSink();
+        if (sink == null) {
+            return;
+        }
+
+        metrics.complete();
+        try {
+            sink.publish(ImmutableMap.of("Connector", String.valueOf(sourceType)),
+                    ImmutableMap.of("QueryId", String.valueOf(request.getQueryId()), "Catalog", String.valueOf(request.getCatalogName())),
+                    metrics);
+        }
+        catch (RuntimeException ex) {
+            logger.warn("publishMetrics: Failed to publish metrics.", ex);
+        }
+    }
+
+    private static MetricsSink makeMetricsSink(java.util.Map<String, String> configOptions)
+    {
+        String sink = (configOptions.get(METRICS_SINK) != null) ? configOptions.get(METRICS_SINK) : "log";
+        switch (sink.toLowerCase()) {
+            case "emf":
+                String namespace = (configOptions.get(METRICS_NAMESPACE) != null) ?
+                        configOptions.get(METRICS_NAMESPACE) : EmfMetricsSink.DEFAULT_NAMESPACE;
+                return new EmfMetricsSink(namespace, System.out);
+            case "none":
+                return null;
+            case "log":
+                return new LoggingMetricsSink();
+            default:
+                throw new IllegalArgumentException("Unknown " + METRICS_SINK + " " + sink + ", expected one of log, emf, none");
         }
     }
 
@@ -227,6 +326,146 @@ public abstract class RecordHandler
     protected abstract void readWithConstraint(BlockSpiller spiller, ReadRecordsRequest recordsRequest, QueryStatusChecker queryStatusChecker)
             throws Exception;
 
+    /**
+     * Helper which can be used from readWithConstraint(...) to decode and write the records of a Split using several
+     * threads. The calling thread reads from the source iterator and hands records, in small batches, to a pool of
+     * decode threads. Each decode thread writes to its own ProducerBlockWriter so that the Apache Arrow writes,
+     * constraint evaluation, and decoding of records happen in parallel.
+     *
+     * @param spiller The BlockSpiller to write the decoded rows to.
+     * @param queryStatusChecker Used to stop reading from the source once the query has terminated.
+     * @param source The source records of the Split, this iterator is only accessed by the calling thread.
+     * @param decoderFactory Creates a RecordDecoder for each decode thread, RecordDecoders need not be thread safe.
+     * @param <T> The type of the source records.
+     * @note The number of decode threads defaults to the number of available processors and can be set using the
+     * READ_PARALLELISM config option. Rows are not written in the same order that they are read from the source.
+     */
+    @SuppressWarnings("unchecked")
+    protected <T> void writeRecordsInParallel(BlockSpiller spiller,
+            QueryStatusChecker queryStatusChecker,
+            Iterator<T> source,
+            Supplier<RecordDecoder<T>> decoderFactory)
+            throws Exception
+    {
+        int parallelism = (configOptions.get(READ_PARALLELISM) != null) ?
+                Integer.parseInt(configOptions.get(READ_PARALLELISM)) : Runtime.getRuntime().availableProcessors();
+        parallelism = Math.max(parallelism, 1);
+
+        BlockingQueue<List<T>> queue = new ArrayBlockingQueue<>(parallelism * 2);
+        ExecutorService decodePool = Executors.newFixedThreadPool(parallelism);
+        List<Future<?>> decoders = new ArrayList<>(parallelism);
+        Throwable failure = null;
+        try {
+            for (int i = 0; i < parallelism; i++) {
+                decoders.add(decodePool.submit(() -> {
+                    RecordDecoder<T> decoder = decoderFactory.get();
+                    try (ProducerBlockWriter writer = spiller.newProducer()) {
+                        for (List<T> records = queue.take(); records != END_OF_RECORDS; records = queue.take()) {
+                            for (T next : records) {
+                                writer.writeRows((Block block, int rowNum) -> decoder.decode(block, rowNum, next));
+                            }
+                        }
+                    }
+                    return null;
+                }));
+            }
+
+            List<T> records = new ArrayList<>(RECORDS_PER_TASK);
+            while (source.hasNext() && queryStatusChecker.isQueryRunning()) {
+                records.add(source.next());
+                if (records.size() == RECORDS_PER_TASK) {
+                    enqueue(queue, records, decoders);
+                    records = new ArrayList<>(RECORDS_PER_TASK);
+                }
+            }
+            if (!records.isEmpty()) {
+                enqueue(queue, records, decoders);
+            }
+            for (int i = 0; i < parallelism; i++) {
+                enqueue(queue, (List<T>) END_OF_RECORDS, decoders);
+            }
+
+            for (Future<?> next : decoders) {
+                getDecoderResult(next);
+            }
+        }
+        catch (Throwable ex) {
+            failure = ex;
+            throw ex;
+        }
+        finally {
+            stopDecoders(decodePool, failure);
+        }
+    }
+
+    /**
+     * Interrupts the decode threads and waits for them to exit. An interrupted decode thread still closes its
+     * ProducerBlockWriter, which writes to the spiller, so the decode threads must stop before we return and the caller
+     * closes the spiller.
+     *
+     * @param failure The exception which ended the read, null if it completed.
+     */
+    private void stopDecoders(ExecutorService decodePool, Throwable failure)
+            throws InterruptedException
+    {
+        decodePool.shutdownNow();
+        if (!decodePool.awaitTermination(DECODE_SHUTDOWN_MILLIS, TimeUnit.MILLISECONDS)) {
+            IllegalStateException ex = new IllegalStateException("Decode threads did not stop within " + DECODE_SHUTDOWN_MILLIS + "ms.");
+            if (failure != null) {
+                ex.addSuppressed(failure);
+            }
+            throw ex;
+        }
+    }
+
+    /**
+     * Hands a batch of records to the decode threads, failing fast if any decode thread has failed since it would
+     * otherwise be possible to block forever on a queue that is no longer being drained.
+     */
+    private <T> void enqueue(BlockingQueue<List<T>> queue, List<T> records, List<Future<?>> decoders)
+            throws Exception
+    {
+        while (!queue.offer(records, QUEUE_POLL_MILLIS, TimeUnit.MILLISECONDS)) {
+            for (Future<?> next : decoders) {
+                if (next.isDone()) {
+                    getDecoderResult(next);
+                    throw new IllegalStateException("Decode thread exited before all records were written.");
+                }
+            }
+        }
+    }
+
+    private void getDecoderResult(Future<?> decoder)
+            throws Exception
+    {
+        try {
+            decoder.get();
+        }
+        catch (ExecutionException ex) {
+            throw (ex.getCause() instanceof Exception) ? (Exception) ex.getCause() : new RuntimeException(ex.getCause());
+        }
+    }
+
+    /**
+     * Decodes a single source record into a Block, used with writeRecordsInParallel(...).
+     *
+     * @param <T> The type of the source records.
+     */
+    public interface RecordDecoder<T>
+    {
+        /**
+         * Decodes the record and writes it to the Block.
+         *
+         * @param block The Block to write the record to.
+         * @param rowNum The row number in the Block that the record should be written to.
+         * @param record The source record.
+         * @return The number of rows that were written, this is 0 if the record did not satisfy the constraints.
+         * @throws Exception internal exception.
+         */
+        int decode(Block block, int rowNum, T record)
+                throws Exception;
+    }
+
     protected SpillConfig getSpillConfig(ReadRecordsRequest request)
     {
         long maxBlockSize = request.getMaxBlockSize();
@@ -241,12 +480,22 @@ public abstract class RecordHandler
                 .withRequestId(request.getQueryId())
                 .withEncryptionKey(request.getSplit().getEncryptionKey())
                 .withNumSpillThreads(NUM_SPILL_THREADS)
+                .withCompressionCodec(getSpillCompressionCodec())
                 .build();
     }
 
+    private CompressionUtil.CodecType getSpillCompressionCodec()
+    {
+        return (configOptions.get(SPILL_COMPRESSION_CODEC) != null) ?
+                CompressionUtil.CodecType.valueOf(configOptions.get(SPILL_COMPRESSION_CODEC).toUpperCase()) :
+                CompressionUtil.CodecType.NO_COMPRESSION;
+    }
+
     private PingResponse doPing(PingRequest request)
     {
-        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION);
+        CompressionUtil.CodecType spillCompressionCodec = getSpillCompressionCodec();
+        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION,
+                BINARY_SERDE_VERSION, (spillCompressionCodec != CompressionUtil.CodecType.NO_COMPRESSION) ? spillCompressionCodec.name() : null);
         try {
             onPing(request);
         }
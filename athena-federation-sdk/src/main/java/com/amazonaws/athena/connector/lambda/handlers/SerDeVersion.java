@@ -31,4 +31,10 @@ public class SerDeVersion
     private SerDeVersion() {}
 
     public static final int SERDE_VERSION = 2;
+
+    /**
+     * The SerDe version of the binary envelope, which carries Blocks as raw Arrow IPC instead of Base64 encoded JSON.
+     * This is advertised separately via PingResponse since callers opt in to it per request.
+     */
+    public static final int BINARY_SERDE_VERSION = 5;
 }
@@ -76,8 +76,11 @@ import org.apache.arrow.vector.types.pojo.Schema;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.math.BigDecimal;
@@ -89,6 +92,7 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connector.lambda.handlers.FederationCapabilities.CAPABILITIES;
+import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.BINARY_SERDE_VERSION;
 import static com.amazonaws.athena.connector.lambda.handlers.SerDeVersion.SERDE_VERSION;
 import static com.google.common.base.Preconditions.checkState;
 
@@ -112,9 +116,16 @@ public abstract class UserDefinedFunctionHandler
     @Override
     public final void handleRequest(InputStream inputStream, OutputStream outputStream, Context context)
     {
-        try (BlockAllocator allocator = new BlockAllocatorImpl()) {
-            ObjectMapper objectMapper = VersionedObjectMapperFactory.create(allocator);
-            try (FederationRequest rawRequest = objectMapper.readValue(inputStream, FederationRequest.class)) {
+        try (BlockAllocator allocator = BlockAllocatorImpl.forRequest(System.getenv())) {
+            InputStream in = new BufferedInputStream(inputStream);
+            ObjectMapper objectMapper;
+            try {
+                objectMapper = VersionedObjectMapperFactory.create(allocator, in);
+            }
+            catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            try (FederationRequest rawRequest = objectMapper.readValue(in, FederationRequest.class)) {
                 if (rawRequest instanceof PingRequest) {
                     try (PingResponse response = doPing((PingRequest) rawRequest)) {
                         assertNotNull(response);
@@ -278,7 +289,7 @@ public abstract class UserDefinedFunctionHandler
 
     private final PingResponse doPing(PingRequest request)
     {
-        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION);
+        PingResponse response = new PingResponse(request.getCatalogName(), request.getQueryId(), sourceType, CAPABILITIES, SERDE_VERSION, BINARY_SERDE_VERSION);
         try {
             onPing(request);
         }
@@ -0,0 +1,224 @@
+package com.amazonaws.athena.connector.lambda.metadata.glue;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.services.glue.model.GetTablesRequest;
+import com.amazonaws.services.glue.model.GetTablesResult;
+import com.amazonaws.services.glue.model.Table;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.UncheckedExecutionException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Size bounded, time to live, cache for AWS Glue metadata. Used by GlueMetadataHandler to avoid calling Glue, and
+ * converting the resulting Table into an Apache Arrow Schema, on every query when the same few tables are queried
+ * repeatedly. Glue Tables and pages of GetTables results are keyed by catalog, database, and table (or page), converted
+ * values are additionally keyed by the Table's version id so that a new version of the Table is always re-converted.
+ * <p>
+ * Entries expire after the configured TTL. When a refresh interval is also configured, entries older than the refresh
+ * interval are reloaded in the background while the cached value continues to be served, this keeps frequently used
+ * tables from ever blocking on Glue.
+ * <p>
+ * The cache is disabled (calls always go to Glue) unless glue_cache_ttl_seconds is set.
+ */
+public class GlueMetadataCache
+{
+    private static final Logger logger = LoggerFactory.getLogger(GlueMetadataCache.class);
+
+    //The seconds after which a cached entry expires, the cache is disabled when this is not set or is 0.
+    private static final String GLUE_CACHE_TTL_SECONDS = "glue_cache_ttl_seconds";
+    //(Optional) The seconds after which a cached entry is reloaded in the background, must be less than the TTL.
+    private static final String GLUE_CACHE_REFRESH_SECONDS = "glue_cache_refresh_seconds";
+    //(Optional) The max number of entries to cache.
+    private static final String GLUE_CACHE_MAX_ENTRIES = "glue_cache_max_entries";
+    private static final long DEFAULT_MAX_ENTRIES = 1_000;
+
+    private final long ttlMillis;
+    private final long refreshNanos;
+    private final Cache<List<Object>, Entry> cache;
+    //Runs background refreshes, null if background refresh is disabled.
+    private final ExecutorService refreshExecutor;
+
+    /**
+     * @param ttlMillis The milliseconds after which a cached entry expires, 0 disables the cache.
+     * @param refreshMillis The milliseconds after which a cached entry is reloaded in the background, 0 disables
+     * background refresh.
+     * @param maxEntries The max number of entries to cache.
+     */
+    public GlueMetadataCache(long ttlMillis, long refreshMillis, long maxEntries)
+    {
+        if (refreshMillis > 0 && refreshMillis >= ttlMillis) {
+            throw new IllegalArgumentException("refreshMillis was " + refreshMillis + " but must be less than ttlMillis " + ttlMillis);
+        }
+
+        this.ttlMillis = ttlMillis;
+        this.refreshNanos = TimeUnit.MILLISECONDS.toNanos(refreshMillis);
+        this.cache = CacheBuilder.newBuilder()
+                .maximumSize(maxEntries)
+                .expireAfterWrite(Math.max(ttlMillis, 0), TimeUnit.MILLISECONDS)
+                .build();
+        this.refreshExecutor = (refreshMillis > 0) ? Executors.newSingleThreadExecutor((Runnable runnable) -> {
+            Thread thread = new Thread(runnable, "GlueMetadataCacheRefresh");
+            thread.setDaemon(true);
+            return thread;
+        }) : null;
+    }
+
+    /**
+     * Creates a GlueMetadataCache using the glue_cache_* settings in the provided configOptions.
+     *
+     * @param configOptions The configOptions of the MetadataHandler using the cache.
+     * @return The GlueMetadataCache, which is disabled if glue_cache_ttl_seconds is not set.
+     */
+    public static GlueMetadataCache fromConfig(Map<String, String> configOptions)
+    {
+        long ttlSeconds = (configOptions.get(GLUE_CACHE_TTL_SECONDS) != null) ?
+                Long.parseLong(configOptions.get(GLUE_CACHE_TTL_SECONDS)) : 0;
+        long refreshSeconds = (configOptions.get(GLUE_CACHE_REFRESH_SECONDS) != null) ?
+                Long.parseLong(configOptions.get(GLUE_CACHE_REFRESH_SECONDS)) : 0;
+        long maxEntries = (configOptions.get(GLUE_CACHE_MAX_ENTRIES) != null) ?
+                Long.parseLong(configOptions.get(GLUE_CACHE_MAX_ENTRIES)) : DEFAULT_MAX_ENTRIES;
+        return new GlueMetadataCache(TimeUnit.SECONDS.toMillis(ttlSeconds), TimeUnit.SECONDS.toMillis(refreshSeconds), maxEntries);
+    }
+
+    /**
+     * @return True if values are being cached, False if every call goes to the loader.
+     */
+    public boolean isEnabled()
+    {
+        return ttlMillis > 0;
+    }
+
+    /**
+     * Gets a Glue Table, loading it if it is not cached.
+     *
+     * @param catalogId The Glue catalog the Table is in.
+     * @param databaseName The Glue database the Table is in.
+     * @param tableName The name of the Table.
+     * @param loader Loads the Table from Glue, may also be called from a background thread to refresh the Table.
+     * @return The Table.
+     */
+    public Table getTable(String catalogId, String databaseName, String tableName, Callable<Table> loader)
+            throws Exception
+    {
+        return get(Arrays.asList("table", catalogId, databaseName, tableName), loader);
+    }
+
+    /**
+     * Gets a page of GetTables results, loading it if it is not cached.
+     *
+     * @param request The GetTablesRequest for the page, all of its fields that affect the result are used as the key.
+     * The caller may modify the request once this method returns.
+     * @param loader Loads the page from Glue, may also be called from a background thread to refresh the page.
+     * @return The page of results.
+     */
+    public GetTablesResult getTables(GetTablesRequest request, Callable<GetTablesResult> loader)
+            throws Exception
+    {
+        return get(Arrays.asList("tables",
+                request.getCatalogId(),
+                request.getDatabaseName(),
+                request.getExpression(),
+                request.getNextToken(),
+                request.getMaxResults()),
+                loader);
+    }
+
+    /**
+     * Gets a value converted from a Glue Table (e.g. the Table's Apache Arrow Schema), converting it if it is not
+     * cached for the Table's current version.
+     *
+     * @param catalogId The Glue catalog the Table is in.
+     * @param table The Table to convert.
+     * @param converter Converts the Table.
+     * @return The converted value.
+     * @note Values are not cached for Tables without a version id.
+     */
+    public <V> V getConverted(String catalogId, Table table, Function<Table, V> converter)
+            throws Exception
+    {
+        if (table.getVersionId() == null) {
+            return converter.apply(table);
+        }
+        return get(Arrays.asList("converted", catalogId, table.getDatabaseName(), table.getName(), table.getVersionId()),
+                () -> converter.apply(table));
+    }
+
+    @SuppressWarnings("unchecked")
+    private <V> V get(List<Object> key, Callable<V> loader)
+            throws Exception
+    {
+        if (!isEnabled()) {
+            return loader.call();
+        }
+
+        Entry entry;
+        try {
+            entry = cache.get(key, () -> new Entry(loader.call()));
+        }
+        catch (ExecutionException | UncheckedExecutionException ex) {
+            throw (ex.getCause() instanceof Exception) ? (Exception) ex.getCause() : ex;
+        }
+
+        if (refreshExecutor != null && System.nanoTime() - entry.loadedNanos > refreshNanos
+                && entry.refreshing.compareAndSet(false, true)) {
+            refreshExecutor.execute(() -> refresh(key, entry, loader));
+        }
+        return (V) entry.value;
+    }
+
+    private void refresh(List<Object> key, Entry entry, Callable<?> loader)
+    {
+        try {
+            cache.put(key, new Entry(loader.call()));
+        }
+        catch (Exception ex) {
+            //Keep serving the cached value until it expires, the next get(...) will retry the refresh.
+            logger.warn("refresh: Error refreshing {}", key, ex);
+            entry.refreshing.set(false);
+        }
+    }
+
+    private static class Entry
+    {
+        private final Object value;
+        private final long loadedNanos = System.nanoTime();
+        private final AtomicBoolean refreshing = new AtomicBoolean(false);
+
+        Entry(Object value)
+        {
+            this.value = value;
+        }
+    }
+}
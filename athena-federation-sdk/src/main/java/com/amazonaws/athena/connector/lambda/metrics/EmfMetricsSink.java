@@ -0,0 +1,98 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * MetricsSink which writes the metrics for each split as a CloudWatch Embedded Metric Format (EMF) log line. When
+ * running in Lambda, anything written to stdout is sent to CloudWatch Logs which extracts the metrics automatically,
+ * so no calls to the CloudWatch API (and no extra permissions) are required.
+ */
+public class EmfMetricsSink
+        implements MetricsSink
+{
+    public static final String DEFAULT_NAMESPACE = "AthenaFederation";
+
+    private static final ObjectMapper mapper = new ObjectMapper();
+
+    private final String namespace;
+    private final PrintStream out;
+
+    /**
+     * Creates an EmfMetricsSink which writes to stdout using the default namespace.
+     */
+    public EmfMetricsSink()
+    {
+        this(DEFAULT_NAMESPACE, System.out);
+    }
+
+    /**
+     * @param namespace The CloudWatch namespace to publish the metrics in.
+     * @param out The stream to write EMF log lines to.
+     */
+    public EmfMetricsSink(String namespace, PrintStream out)
+    {
+        this.namespace = requireNonNull(namespace, "namespace is null");
+        this.out = requireNonNull(out, "out is null");
+    }
+
+    @Override
+    public void publish(Map<String, String> dimensions, Map<String, String> properties, SplitMetrics metrics)
+    {
+        ObjectNode root = mapper.createObjectNode();
+
+        ObjectNode aws = root.putObject("_aws");
+        aws.put("Timestamp", System.currentTimeMillis());
+        ObjectNode directive = aws.putArray("CloudWatchMetrics").addObject();
+        directive.put("Namespace", namespace);
+        ArrayNode dimensionSet = directive.putArray("Dimensions").addArray();
+        dimensions.keySet().forEach(dimensionSet::add);
+        ArrayNode metricDefinitions = directive.putArray("Metrics");
+        for (SplitMetrics.Metric next : SplitMetrics.Metric.values()) {
+            metricDefinitions.addObject()
+                    .put("Name", next.getName())
+                    .put("Unit", next.getUnit());
+        }
+
+        dimensions.forEach(root::put);
+        properties.forEach(root::put);
+        for (SplitMetrics.Metric next : SplitMetrics.Metric.values()) {
+            root.put(next.getName(), metrics.getValue(next));
+        }
+
+        try {
+            out.println(mapper.writeValueAsString(root));
+        }
+        catch (JsonProcessingException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+}
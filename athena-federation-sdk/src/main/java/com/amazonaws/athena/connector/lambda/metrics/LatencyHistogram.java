@@ -0,0 +1,93 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread safe histogram of latencies using power of two millisecond buckets. This trades precision for a small, fixed
+ * amount of memory and lock free recording, percentiles are reported as the upper bound of the bucket they fall in.
+ */
+public class LatencyHistogram
+{
+    //Bucket 0 counts latencies under 1 ms, bucket i counts latencies in [2^(i-1), 2^i) ms, the last bucket is unbounded.
+    private static final int NUM_BUCKETS = 24;
+
+    private final AtomicLongArray buckets = new AtomicLongArray(NUM_BUCKETS);
+    private final AtomicLong count = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    /**
+     * Records a single latency.
+     *
+     * @param nanos The latency in nanoseconds.
+     */
+    public void record(long nanos)
+    {
+        long millis = TimeUnit.NANOSECONDS.toMillis(Math.max(nanos, 0));
+        int bucket = (millis == 0) ? 0 : Math.min(64 - Long.numberOfLeadingZeros(millis), NUM_BUCKETS - 1);
+        buckets.incrementAndGet(bucket);
+        count.incrementAndGet();
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    /**
+     * @return The number of latencies recorded.
+     */
+    public long getCount()
+    {
+        return count.get();
+    }
+
+    /**
+     * @return The largest latency recorded, in milliseconds.
+     */
+    public long getMaxMillis()
+    {
+        return TimeUnit.NANOSECONDS.toMillis(maxNanos.get());
+    }
+
+    /**
+     * Gets the latency at or below which the given percentage of latencies fall.
+     *
+     * @param percentile The percentile, between 0 and 100.
+     * @return The upper bound, in milliseconds, of the bucket containing the percentile or 0 if nothing was recorded.
+     */
+    public long getPercentileMillis(double percentile)
+    {
+        long total = count.get();
+        if (total == 0) {
+            return 0;
+        }
+
+        long rank = (long) Math.ceil(total * percentile / 100D);
+        long seen = 0;
+        for (int i = 0; i < NUM_BUCKETS - 1; i++) {
+            seen += buckets.get(i);
+            if (seen >= Math.max(rank, 1)) {
+                return Math.min(1L << i, getMaxMillis());
+            }
+        }
+        return getMaxMillis();
+    }
+}
@@ -0,0 +1,41 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+
+/**
+ * MetricsSink which writes the metrics for each split as a single log line.
+ */
+public class LoggingMetricsSink
+        implements MetricsSink
+{
+    private static final Logger logger = LoggerFactory.getLogger(LoggingMetricsSink.class);
+
+    @Override
+    public void publish(Map<String, String> dimensions, Map<String, String> properties, SplitMetrics metrics)
+    {
+        logger.info("publish: {} {} {}", dimensions, properties, metrics);
+    }
+}
@@ -0,0 +1,39 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import java.util.Map;
+
+/**
+ * Destination for the SplitMetrics collected while reading each split. RecordHandler publishes to a sink once per
+ * ReadRecordsRequest, connectors can supply their own sink by overriding RecordHandler.getMetricsSink().
+ */
+public interface MetricsSink
+{
+    /**
+     * Publishes the metrics for a completed split.
+     *
+     * @param dimensions Low cardinality values the metrics should be aggregated by (e.g. the connector).
+     * @param properties High cardinality values that should accompany the metrics but not be aggregated by (e.g. query id).
+     * @param metrics The metrics collected for the split.
+     */
+    void publish(Map<String, String> dimensions, Map<String, String> properties, SplitMetrics metrics);
+}
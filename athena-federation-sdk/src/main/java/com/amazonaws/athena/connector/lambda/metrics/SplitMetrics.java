@@ -0,0 +1,271 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.google.common.base.MoreObjects;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects performance metrics for the processing of a single split, from the moment the BlockSpiller is created until
+ * the ReadRecordsResponse is built. All recording methods are thread safe so that background spill threads, producer
+ * threads, and the ThrottlingInvoker can report into the same instance.
+ * <p>
+ * Time spent in the source (e.g. fetching rows from a database) is not measured directly, instead it is derived as the
+ * total time minus the time spent inside the BlockSpiller's write methods. This keeps the overhead of measuring off of
+ * the per row path of connectors.
+ */
+public class SplitMetrics
+{
+    //Only 1 in this many calls to writeRows(...) is timed, the measured time is scaled up to estimate the total.
+    private static final int WRITE_SAMPLE_RATE = 16;
+
+    /**
+     * The metrics that are reported for each split along with the CloudWatch unit they are reported in.
+     */
+    public enum Metric
+    {
+        ROWS_READ("RowsRead", "Count"),
+        ROWS_FILTERED("RowsFiltered", "Count"),
+        ROWS_WRITTEN("RowsWritten", "Count"),
+        BYTES_WRITTEN("BytesWritten", "Bytes"),
+        BLOCKS_SPILLED("BlocksSpilled", "Count"),
+        SPILL_LATENCY_P50("SpillLatencyP50", "Milliseconds"),
+        SPILL_LATENCY_P99("SpillLatencyP99", "Milliseconds"),
+        SPILL_LATENCY_MAX("SpillLatencyMax", "Milliseconds"),
+        SPILL_QUEUE_WAIT("SpillQueueWaitTime", "Milliseconds"),
+        SOURCE_TIME("SourceTime", "Milliseconds"),
+        WRITE_TIME("WriteTime", "Milliseconds"),
+        THROTTLE_DELAY("ThrottleDelay", "Milliseconds"),
+        TOTAL_TIME("TotalTime", "Milliseconds");
+
+        private final String name;
+        private final String unit;
+
+        Metric(String name, String unit)
+        {
+            this.name = name;
+            this.unit = unit;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public String getUnit()
+        {
+            return unit;
+        }
+    }
+
+    private final long startNanos = System.nanoTime();
+    private final LongAdder rowsRead = new LongAdder();
+    private final LongAdder rowsFiltered = new LongAdder();
+    private final LongAdder rowsWritten = new LongAdder();
+    private final LongAdder bytesWritten = new LongAdder();
+    private final LongAdder blocksSpilled = new LongAdder();
+    private final LongAdder spillQueueWaitNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final LongAdder throttleDelayNanos = new LongAdder();
+    private final LatencyHistogram spillLatency = new LatencyHistogram();
+    //Set once the split has completed, until then the total time is measured up to now.
+    private volatile long totalNanos = -1;
+
+    /**
+     * Records the outcome of a single call to RowWriter.writeRows(...), connectors that filter rows themselves report 0
+     * rows when a source row did not satisfy the constraints.
+     *
+     * @param rows The number of rows the RowWriter wrote.
+     */
+    public void recordRows(int rows)
+    {
+        if (rows > 0) {
+            rowsRead.add(rows);
+            rowsWritten.add(rows);
+        }
+        else {
+            rowsRead.increment();
+            rowsFiltered.increment();
+        }
+    }
+
+    /**
+     * Records the outcome of writing a batch of rows which was filtered in bulk.
+     *
+     * @param read The number of rows in the batch.
+     * @param written The number of rows which satisfied the constraints and were written.
+     */
+    public void recordBatch(int read, int written)
+    {
+        rowsRead.add(read);
+        rowsWritten.add(written);
+        rowsFiltered.add(read - written);
+    }
+
+    /**
+     * Records a Block being spilled.
+     *
+     * @param bytes The number of bytes written to the spill location.
+     * @param nanos The time taken to serialize, encrypt, and upload the Block.
+     */
+    public void recordSpill(long bytes, long nanos)
+    {
+        bytesWritten.add(bytes);
+        blocksSpilled.increment();
+        spillLatency.record(nanos);
+    }
+
+    /**
+     * Records bytes that were returned inline rather than being spilled.
+     *
+     * @param bytes The number of bytes returned inline.
+     */
+    public void recordBytesWritten(long bytes)
+    {
+        bytesWritten.add(bytes);
+    }
+
+    /**
+     * Records time the writing thread spent blocked waiting for room in the spill queue.
+     *
+     * @param nanos The time spent waiting.
+     */
+    public void recordSpillQueueWait(long nanos)
+    {
+        spillQueueWaitNanos.add(nanos);
+    }
+
+    /**
+     * Records time spent backing off from a throttled source.
+     *
+     * @param nanos The time spent sleeping.
+     */
+    public void recordThrottleDelay(long nanos)
+    {
+        throttleDelayNanos.add(nanos);
+    }
+
+    /**
+     * Records time spent writing rows which was measured in full, rather than sampled.
+     *
+     * @param nanos The time spent writing.
+     */
+    public void recordWriteTime(long nanos)
+    {
+        writeNanos.add(nanos);
+    }
+
+    /**
+     * Starts timing a write, only a sample of writes are timed to keep the cost of measuring low.
+     *
+     * @return The token to pass to endWrite(...), 0 if this write is not being timed.
+     */
+    public long startWrite()
+    {
+        return (ThreadLocalRandom.current().nextInt(WRITE_SAMPLE_RATE) == 0) ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Completes timing a write started with startWrite().
+     *
+     * @param start The token returned by startWrite().
+     */
+    public void endWrite(long start)
+    {
+        if (start != 0) {
+            writeNanos.add((System.nanoTime() - start) * WRITE_SAMPLE_RATE);
+        }
+    }
+
+    /**
+     * Marks the split as completed, freezing the total time. Calling this more than once has no effect.
+     */
+    public void complete()
+    {
+        if (totalNanos < 0) {
+            totalNanos = System.nanoTime() - startNanos;
+        }
+    }
+
+    /**
+     * Gets the current value of the requested metric.
+     *
+     * @param metric The metric to get.
+     * @return The value of the metric, in the metric's unit.
+     */
+    public long getValue(Metric metric)
+    {
+        switch (metric) {
+            case ROWS_READ:
+                return rowsRead.sum();
+            case ROWS_FILTERED:
+                return rowsFiltered.sum();
+            case ROWS_WRITTEN:
+                return rowsWritten.sum();
+            case BYTES_WRITTEN:
+                return bytesWritten.sum();
+            case BLOCKS_SPILLED:
+                return blocksSpilled.sum();
+            case SPILL_LATENCY_P50:
+                return spillLatency.getPercentileMillis(50);
+            case SPILL_LATENCY_P99:
+                return spillLatency.getPercentileMillis(99);
+            case SPILL_LATENCY_MAX:
+                return spillLatency.getMaxMillis();
+            case SPILL_QUEUE_WAIT:
+                return toMillis(spillQueueWaitNanos.sum());
+            case SOURCE_TIME:
+                return toMillis(Math.max(0, getTotalNanos() - writeNanos.sum()));
+            case WRITE_TIME:
+                return toMillis(writeNanos.sum());
+            case THROTTLE_DELAY:
+                return toMillis(throttleDelayNanos.sum());
+            case TOTAL_TIME:
+                return toMillis(getTotalNanos());
+            default:
+                throw new IllegalArgumentException("Unknown metric " + metric);
+        }
+    }
+
+    private long getTotalNanos()
+    {
+        long total = totalNanos;
+        return (total < 0) ? System.nanoTime() - startNanos : total;
+    }
+
+    private static long toMillis(long nanos)
+    {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    @Override
+    public String toString()
+    {
+        MoreObjects.ToStringHelper helper = MoreObjects.toStringHelper(this);
+        for (Metric next : Metric.values()) {
+            helper.add(next.getName(), getValue(next));
+        }
+        return helper.toString();
+    }
+}
@@ -37,6 +37,8 @@ public class PingResponse
     private final String sourceType;
     private final int capabilities;
     private final int serDeVersion;
+    private final int binarySerDeVersion;
+    private final String spillCompressionCodec;
 
     /**
      *
@@ -45,12 +47,52 @@ public class PingResponse
      * @param sourceType The source type ID of the pinged endpoint.
      * @param capabilities The ID indicating the capabilities of the pinged endpoint.
      */
+    public PingResponse(String catalogName,
+            String queryId,
+            String sourceType,
+            int capabilities,
+            int serDeVersion)
+    {
+        this(catalogName, queryId, sourceType, capabilities, serDeVersion, 0);
+    }
+
+    /**
+     *
+     * @param catalogName The name of the catalog that was pinged.
+     * @param queryId The ID of the query that pinged.
+     * @param sourceType The source type ID of the pinged endpoint.
+     * @param capabilities The ID indicating the capabilities of the pinged endpoint.
+     * @param serDeVersion The version of serialization used by the pinged endpoint.
+     * @param binarySerDeVersion The version of the binary envelope accepted by the pinged endpoint, 0 if none.
+     */
+    public PingResponse(String catalogName,
+            String queryId,
+            String sourceType,
+            int capabilities,
+            int serDeVersion,
+            int binarySerDeVersion)
+    {
+        this(catalogName, queryId, sourceType, capabilities, serDeVersion, binarySerDeVersion, null);
+    }
+
+    /**
+     *
+     * @param catalogName The name of the catalog that was pinged.
+     * @param queryId The ID of the query that pinged.
+     * @param sourceType The source type ID of the pinged endpoint.
+     * @param capabilities The ID indicating the capabilities of the pinged endpoint.
+     * @param serDeVersion The version of serialization used by the pinged endpoint.
+     * @param binarySerDeVersion The version of the binary envelope accepted by the pinged endpoint, 0 if none.
+     * @param spillCompressionCodec The Apache Arrow IPC compression codec used for spilled Blocks, null if none.
+     */
     @JsonCreator
     public PingResponse(@JsonProperty("catalogName") String catalogName,
             @JsonProperty("queryId") String queryId,
             @JsonProperty("sourceType") String sourceType,
             @JsonProperty("capabilities") int capabilities,
-            @JsonProperty("serDeVersion") int serDeVersion)
+            @JsonProperty("serDeVersion") int serDeVersion,
+            @JsonProperty("binarySerDeVersion") int binarySerDeVersion,
+            @JsonProperty("spillCompressionCodec") String spillCompressionCodec)
     {
         requireNonNull(catalogName, "catalogName is null");
         requireNonNull(queryId, "queryId is null");
@@ -60,6 +102,8 @@ public class PingResponse
         this.capabilities = capabilities;
         // vanilla ObjectMapper defaults to zero on deserialization when not explicitly set for ints, but we want to default to 1
         this.serDeVersion = serDeVersion != 0 ? serDeVersion : 1;
+        this.binarySerDeVersion = binarySerDeVersion;
+        this.spillCompressionCodec = spillCompressionCodec;
     }
 
     /**
@@ -116,6 +160,30 @@ public class PingResponse
         return serDeVersion;
     }
 
+    /**
+     * Returns the version of the binary envelope accepted by the pinged endpoint, callers which support it may frame
+     * their requests in it to receive framed responses.
+     *
+     * @return The version of the binary envelope, or 0 if the pinged endpoint only accepts JSON.
+     */
+    @JsonProperty("binarySerDeVersion")
+    public int getBinarySerDeVersion()
+    {
+        return binarySerDeVersion;
+    }
+
+    /**
+     * Returns the Apache Arrow IPC compression codec (e.g. LZ4_FRAME or ZSTD) used for the buffers of Blocks spilled
+     * by the pinged endpoint, callers reading those Blocks must support the codec.
+     *
+     * @return The name of the codec, or null if spilled Blocks are not compressed.
+     */
+    @JsonProperty("spillCompressionCodec")
+    public String getSpillCompressionCodec()
+    {
+        return spillCompressionCodec;
+    }
+
     @Override
     public void close()
             throws Exception
@@ -132,6 +200,8 @@ public class PingResponse
                 ", sourceType='" + sourceType + '\'' +
                 ", capabilities='" + capabilities + '\'' +
                 ", serDeVersion='" + serDeVersion + '\'' +
+                ", binarySerDeVersion='" + binarySerDeVersion + '\'' +
+                ", spillCompressionCodec='" + spillCompressionCodec + '\'' +
                 '}';
     }
 
@@ -151,12 +221,15 @@ public class PingResponse
                 && Objects.equal(this.queryId, that.queryId)
                 && Objects.equal(this.sourceType, that.sourceType)
                 && Objects.equal(this.capabilities, that.capabilities)
-                && Objects.equal(this.serDeVersion, that.serDeVersion);
+                && Objects.equal(this.serDeVersion, that.serDeVersion)
+                && Objects.equal(this.binarySerDeVersion, that.binarySerDeVersion)
+                && Objects.equal(this.spillCompressionCodec, that.spillCompressionCodec);
     }
 
     @Override
     public int hashCode()
     {
-        return Objects.hashCode(catalogName, queryId, sourceType, capabilities, serDeVersion);
+        return Objects.hashCode(catalogName, queryId, sourceType, capabilities, serDeVersion, binarySerDeVersion,
+                spillCompressionCodec);
     }
 }
@@ -23,6 +23,8 @@ package com.amazonaws.athena.connector.lambda.security;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.RecordBatchSerDe;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.bouncycastle.jce.provider.BouncyCastleProvider;
 
@@ -30,19 +32,27 @@ import javax.crypto.BadPaddingException;
 import javax.crypto.Cipher;
 import javax.crypto.IllegalBlockSizeException;
 import javax.crypto.NoSuchPaddingException;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.security.InvalidAlgorithmParameterException;
 import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.NoSuchProviderException;
 import java.security.Security;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
 
 /**
  * Implementation of BlockCrypto which uses AES-GCM for encrypting and decrypting blocks.
+ * <p>
+ * Ciphers are cached per thread and reused across calls. Both Providers produce identical bytes, so Blocks encrypted
+ * with one can be decrypted with the other.
  *
  * @see BlockCrypto
  */
@@ -56,45 +66,92 @@ public class AesGcmBlockCrypto
     protected static final String ALGO = "AES/GCM/NoPadding";
     protected static final String ALGO_BC = "BC";
 
+    //The most recently used Cipher of each Provider on this thread, indexed by Provider ordinal.
+    private static final ThreadLocal<CachedCipher[]> CIPHER_CACHE =
+            ThreadLocal.withInitial(() -> new CachedCipher[Provider.values().length]);
+
+    /**
+     * The JCE provider used to supply the AES-GCM Cipher.
+     */
+    public enum Provider
+    {
+        /**
+         * The JDK's built in provider, which uses the AES and GHASH CPU instructions where available.
+         */
+        JDK,
+        /**
+         * The BouncyCastle provider, implemented in pure Java.
+         */
+        BOUNCY_CASTLE
+    }
+
     private final RecordBatchSerDe serDe;
     private final BlockAllocator allocator;
+    private final Provider provider;
+    private final CompressionCodec codec;
 
     static {
         Security.addProvider(new BouncyCastleProvider());
     }
 
     public AesGcmBlockCrypto(BlockAllocator allocator)
+    {
+        this(allocator, Provider.JDK);
+    }
+
+    public AesGcmBlockCrypto(BlockAllocator allocator, Provider provider)
+    {
+        this(allocator, provider, NoCompressionCodec.INSTANCE);
+    }
+
+    /**
+     * @param allocator The BlockAllocator used to create decrypted Blocks.
+     * @param provider The provider of the AES-GCM Cipher.
+     * @param codec The codec used to compress Blocks before they are encrypted, decryption detects the codec that was
+     * used from the serialized Block.
+     */
+    public AesGcmBlockCrypto(BlockAllocator allocator, Provider provider, CompressionCodec codec)
     {
         this.serDe = new RecordBatchSerDe(allocator);
         this.allocator = allocator;
+        this.provider = requireNonNull(provider, "provider is null");
+        this.codec = requireNonNull(codec, "codec is null");
     }
 
     public byte[] encrypt(EncryptionKey key, Block block)
     {
         try {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
-            serDe.serialize(block.getRecordBatch(), out);
-
-            Cipher cipher = makeCipher(Cipher.ENCRYPT_MODE, key);
-            return cipher.doFinal(out.toByteArray());
+            encrypt(key, block, out);
+            return out.toByteArray();
         }
-        catch (BadPaddingException | IllegalBlockSizeException | IOException ex) {
+        catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
 
+    @Override
+    public void encrypt(EncryptionKey key, Block block, OutputStream out)
+            throws IOException
+    {
+        CachedCipher cipher = borrowCipher(Cipher.ENCRYPT_MODE, key);
+        CipherStream cipherStream = new CipherStream(cipher.cipher, out);
+        serDe.serialize(block.getRecordBatch(codec), cipherStream);
+        cipherStream.finish();
+        returnCipher(cipher);
+    }
+
     public Block decrypt(EncryptionKey key, byte[] bytes, Schema schema)
     {
         try {
-            Cipher cipher = makeCipher(Cipher.DECRYPT_MODE, key);
-            byte[] clear = cipher.doFinal(bytes);
+            byte[] clear = decrypt(key, bytes);
 
             Block resultBlock = allocator.createBlock(schema);
             resultBlock.loadRecordBatch(serDe.deserialize(clear));
 
             return resultBlock;
         }
-        catch (BadPaddingException | IllegalBlockSizeException | IOException ex) {
+        catch (IOException ex) {
             throw new RuntimeException(ex);
         }
     }
@@ -102,15 +159,26 @@ public class AesGcmBlockCrypto
     public byte[] decrypt(EncryptionKey key, byte[] bytes)
     {
         try {
-            Cipher cipher = makeCipher(Cipher.DECRYPT_MODE, key);
-            return cipher.doFinal(bytes);
+            CachedCipher cipher = borrowCipher(Cipher.DECRYPT_MODE, key);
+            byte[] clear = cipher.cipher.doFinal(bytes);
+            returnCipher(cipher);
+            return clear;
         }
         catch (BadPaddingException | IllegalBlockSizeException ex) {
             throw new RuntimeException(ex);
         }
     }
 
-    private Cipher makeCipher(int mode, EncryptionKey key)
+    /**
+     * Takes this thread's cached Cipher for our Provider, initializing it for the requested mode and key, or creates a
+     * new Cipher if there is no cached Cipher that can be used. The Cipher is removed from the cache until it is
+     * returned, so a Cipher left in an unknown state by a failure is never reused.
+     *
+     * @param mode The Cipher mode, Cipher.ENCRYPT_MODE or Cipher.DECRYPT_MODE.
+     * @param key The key and nonce to initialize the Cipher with.
+     * @return A Cipher which is ready to use, wrapped with the parameters it was initialized with.
+     */
+    private CachedCipher borrowCipher(int mode, EncryptionKey key)
     {
         if (key.getNonce().length != NONCE_BYTES) {
             throw new RuntimeException("Expected " + NONCE_BYTES + " nonce bytes but found " + key.getNonce().length);
@@ -120,17 +188,142 @@ public class AesGcmBlockCrypto
             throw new RuntimeException("Expected " + KEY_BYTES + " key bytes but found " + key.getKey().length);
         }
 
-        GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH_BITS, key.getNonce());
-        SecretKeySpec secretKeySpec = new SecretKeySpec(key.getKey(), KEYSPEC);
+        CachedCipher[] cache = CIPHER_CACHE.get();
+        CachedCipher cached = cache[provider.ordinal()];
+        cache[provider.ordinal()] = null;
+
+        if (cached != null && mode == Cipher.DECRYPT_MODE && cached.isInitializedFor(mode, key)) {
+            //A completed decrypt leaves the Cipher in its initialized state, ready to decrypt with the same key again.
+            return cached;
+        }
+
+        //GCM Ciphers refuse to encrypt twice with the same key and nonce. Every Block of a split is encrypted with the
+        //split's key, so only a Cipher that was last used with a different key can be re-initialized for encryption.
+        if (cached == null || (mode == Cipher.ENCRYPT_MODE && cached.isInitializedWith(key))) {
+            cached = new CachedCipher(makeCipher());
+        }
+        cached.init(mode, key);
+        return cached;
+    }
+
+    /**
+     * Returns a Cipher which completed successfully to this thread's cache.
+     */
+    private void returnCipher(CachedCipher cipher)
+    {
+        CIPHER_CACHE.get()[provider.ordinal()] = cipher;
+    }
 
+    private Cipher makeCipher()
+    {
         try {
-            Cipher cipher = Cipher.getInstance(ALGO, ALGO_BC);
-            cipher.init(mode, secretKeySpec, spec);
-            return cipher;
+            return (provider == Provider.BOUNCY_CASTLE) ? Cipher.getInstance(ALGO, ALGO_BC) : Cipher.getInstance(ALGO);
         }
-        catch (NoSuchAlgorithmException | InvalidKeyException | InvalidAlgorithmParameterException
-                | NoSuchProviderException | NoSuchPaddingException ex) {
+        catch (NoSuchAlgorithmException | NoSuchProviderException | NoSuchPaddingException ex) {
             throw new RuntimeException(ex);
         }
     }
+
+    /**
+     * A Cipher along with the parameters it was last initialized with.
+     */
+    private static class CachedCipher
+    {
+        private final Cipher cipher;
+        private int mode;
+        private EncryptionKey key;
+
+        private CachedCipher(Cipher cipher)
+        {
+            this.cipher = cipher;
+        }
+
+        private void init(int mode, EncryptionKey key)
+        {
+            GCMParameterSpec spec = new GCMParameterSpec(GCM_TAG_LENGTH_BITS, key.getNonce());
+            SecretKeySpec secretKeySpec = new SecretKeySpec(key.getKey(), KEYSPEC);
+            try {
+                cipher.init(mode, secretKeySpec, spec);
+            }
+            catch (InvalidKeyException | InvalidAlgorithmParameterException ex) {
+                throw new RuntimeException(ex);
+            }
+
+            this.mode = mode;
+            this.key = key;
+        }
+
+        private boolean isInitializedFor(int mode, EncryptionKey key)
+        {
+            return this.mode == mode && isInitializedWith(key);
+        }
+
+        private boolean isInitializedWith(EncryptionKey key)
+        {
+            return Arrays.equals(this.key.getKey(), key.getKey()) && Arrays.equals(this.key.getNonce(), key.getNonce());
+        }
+    }
+
+    /**
+     * Passes everything written to it through the supplied Cipher before forwarding the result to the underlying
+     * OutputStream. Unlike javax.crypto.CipherOutputStream this does not close the underlying stream and it surfaces
+     * any failure to finalize the Cipher (e.g. computing the GCM tag) instead of silently dropping it.
+     */
+    private static class CipherStream
+            extends OutputStream
+    {
+        private final Cipher cipher;
+        private final OutputStream out;
+        private final byte[] single = new byte[1];
+        //Reused for the output of each update(...) so that encrypting a chunk does not allocate.
+        private byte[] buffer = new byte[0];
+
+        private CipherStream(Cipher cipher, OutputStream out)
+        {
+            this.cipher = cipher;
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b)
+                throws IOException
+        {
+            single[0] = (byte) b;
+            write(single, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len)
+                throws IOException
+        {
+            int maxLen = cipher.getOutputSize(len);
+            if (buffer.length < maxLen) {
+                buffer = new byte[maxLen];
+            }
+
+            try {
+                int encrypted = cipher.update(b, off, len, buffer, 0);
+                if (encrypted > 0) {
+                    out.write(buffer, 0, encrypted);
+                }
+            }
+            catch (ShortBufferException ex) {
+                throw new IOException(ex);
+            }
+        }
+
+        /**
+         * Finalizes the Cipher and writes any remaining bytes, including the authentication tag.
+         */
+        public void finish()
+                throws IOException
+        {
+            try {
+                out.write(cipher.doFinal());
+            }
+            catch (BadPaddingException | IllegalBlockSizeException ex) {
+                throw new IOException(ex);
+            }
+        }
+    }
 }
@@ -23,6 +23,9 @@ package com.amazonaws.athena.connector.lambda.security;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import org.apache.arrow.vector.types.pojo.Schema;
 
+import java.io.IOException;
+import java.io.OutputStream;
+
 /**
  * Defines a facility that can be used to encrypt and decrypt blocks.
  */
@@ -37,6 +40,23 @@ public interface BlockCrypto
      */
     byte[] encrypt(EncryptionKey key, Block block);
 
+    /**
+     * Used to encrypt the provided Block in its serialized form, writing the result to the supplied OutputStream
+     * as it is produced instead of materializing the whole encrypted Block in memory.
+     *
+     * @param key The EncryptionKey to use when encrypting the Block.
+     * @param block The Block to serialize and encrypt.
+     * @param out The OutputStream to write the encrypted representation of the serialized Block to. The stream is
+     * not closed by this method.
+     * @throws IOException If an error occurs while writing to the OutputStream.
+     * @note The bytes written are identical to those returned by encrypt(EncryptionKey, Block).
+     */
+    default void encrypt(EncryptionKey key, Block block, OutputStream out)
+            throws IOException
+    {
+        out.write(encrypt(key, block));
+    }
+
     /**
      * Used to decrypt and deserialize a Block from the provided bytes and schema.
      *
@@ -23,10 +23,13 @@ package com.amazonaws.athena.connector.lambda.security;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.RecordBatchSerDe;
+import org.apache.arrow.vector.compression.CompressionCodec;
+import org.apache.arrow.vector.compression.NoCompressionCodec;
 import org.apache.arrow.vector.types.pojo.Schema;
 
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 
 /**
  * Implementation of BlockCrypto does a No-OP (nothing) for encrypting and decrypting blocks. This is helpful when you
@@ -39,11 +42,22 @@ public class NoOpBlockCrypto
 {
     private final RecordBatchSerDe serDe;
     private final BlockAllocator allocator;
+    private final CompressionCodec codec;
 
     public NoOpBlockCrypto(BlockAllocator allocator)
+    {
+        this(allocator, NoCompressionCodec.INSTANCE);
+    }
+
+    /**
+     * @param allocator The BlockAllocator used to create deserialized Blocks.
+     * @param codec The codec used to compress serialized Blocks, deserialization detects the codec that was used.
+     */
+    public NoOpBlockCrypto(BlockAllocator allocator, CompressionCodec codec)
     {
         this.serDe = new RecordBatchSerDe(allocator);
         this.allocator = allocator;
+        this.codec = codec;
     }
 
     public byte[] encrypt(EncryptionKey key, Block block)
@@ -53,7 +67,7 @@ public class NoOpBlockCrypto
         }
         try {
             ByteArrayOutputStream out = new ByteArrayOutputStream();
-            serDe.serialize(block.getRecordBatch(), out);
+            serDe.serialize(block.getRecordBatch(codec), out);
             return out.toByteArray();
         }
         catch (IOException ex) {
@@ -61,6 +75,16 @@ public class NoOpBlockCrypto
         }
     }
 
+    @Override
+    public void encrypt(EncryptionKey key, Block block, OutputStream out)
+            throws IOException
+    {
+        if (key != null) {
+            throw new RuntimeException("Real key provided to NoOpBlockCrypto, likely indicates you wanted real crypto.");
+        }
+        serDe.serialize(block.getRecordBatch(codec), out);
+    }
+
     public Block decrypt(EncryptionKey key, byte[] bytes, Schema schema)
     {
         try {
@@ -0,0 +1,102 @@
+package com.amazonaws.athena.connector.lambda.serde;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Holds the serialized Apache Arrow record batches of the Blocks in a document that is framed in the binary envelope
+ * used by SerDe version 5. When an instance is set as the {@link #ATTRIBUTE} of the Jackson context, Block serializers
+ * add their record batch as an attachment and write its index in place of the Base64 encoded record batch.
+ *
+ * @see com.amazonaws.athena.connector.lambda.serde.v5.ObjectMapperFactoryV5
+ */
+public final class BlockAttachments
+{
+    //The Jackson context attribute under which the BlockAttachments for the current document are stored.
+    public static final Object ATTRIBUTE = BlockAttachments.class;
+
+    private final List<byte[]> attachments;
+
+    public BlockAttachments()
+    {
+        this.attachments = new ArrayList<>();
+    }
+
+    public BlockAttachments(List<byte[]> attachments)
+    {
+        this.attachments = requireNonNull(attachments, "attachments is null");
+    }
+
+    /**
+     * Adds an attachment.
+     *
+     * @param attachment The serialized record batch.
+     * @return The index of the attachment.
+     */
+    public int add(byte[] attachment)
+    {
+        attachments.add(attachment);
+        return attachments.size() - 1;
+    }
+
+    /**
+     * Gets an attachment.
+     *
+     * @param index The index of the attachment.
+     * @return The serialized record batch.
+     */
+    public byte[] get(int index)
+    {
+        if (index < 0 || index >= attachments.size()) {
+            throw new IllegalStateException("No attachment " + index + " in an envelope of " + attachments.size() + " attachments");
+        }
+        return attachments.get(index);
+    }
+
+    public List<byte[]> getAttachments()
+    {
+        return Collections.unmodifiableList(attachments);
+    }
+
+    /**
+     * @return The BlockAttachments of the document being serialized, or null if the document is plain JSON.
+     */
+    public static BlockAttachments from(SerializerProvider provider)
+    {
+        return (BlockAttachments) provider.getAttribute(ATTRIBUTE);
+    }
+
+    /**
+     * @return The BlockAttachments of the document being deserialized, or null if the document is plain JSON.
+     */
+    public static BlockAttachments from(DeserializationContext ctxt)
+    {
+        return (BlockAttachments) ctxt.getAttribute(ATTRIBUTE);
+    }
+}
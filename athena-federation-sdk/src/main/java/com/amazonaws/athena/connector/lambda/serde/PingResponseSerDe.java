@@ -23,6 +23,7 @@ import com.amazonaws.athena.connector.lambda.request.FederationResponse;
 import com.amazonaws.athena.connector.lambda.request.PingResponse;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.SerializerProvider;
 
@@ -39,6 +40,8 @@ public final class PingResponseSerDe
     private static final String SOURCE_TYPE_FIELD = "sourceType";
     private static final String CAPABILITIES_FIELD = "capabilities";
     private static final String SERDE_VERSION_FIELD = "serDeVersion";
+    private static final String BINARY_SERDE_VERSION_FIELD = "binarySerDeVersion";
+    private static final String SPILL_COMPRESSION_CODEC_FIELD = "spillCompressionCodec";
     // new fields should only be appended to the end for forwards compatibility
 
     private PingResponseSerDe() {}
@@ -61,6 +64,12 @@ public final class PingResponseSerDe
             jgen.writeStringField(SOURCE_TYPE_FIELD, pingResponse.getSourceType());
             jgen.writeNumberField(CAPABILITIES_FIELD, pingResponse.getCapabilities());
             jgen.writeNumberField(SERDE_VERSION_FIELD, pingResponse.getSerDeVersion());
+            if (pingResponse.getBinarySerDeVersion() != 0) {
+                jgen.writeNumberField(BINARY_SERDE_VERSION_FIELD, pingResponse.getBinarySerDeVersion());
+            }
+            if (pingResponse.getSpillCompressionCodec() != null) {
+                jgen.writeStringField(SPILL_COMPRESSION_CODEC_FIELD, pingResponse.getSpillCompressionCodec());
+            }
             // new fields should only be appended to the end for forwards compatibility
         }
     }
@@ -90,6 +99,8 @@ public final class PingResponseSerDe
             String sourceType = getNextStringField(jparser, SOURCE_TYPE_FIELD);
             int capabilities = getNextIntField(jparser, CAPABILITIES_FIELD);
             int serDeVersion;
+            int binarySerDeVersion = 0;
+            String spillCompressionCodec = null;
             try {
                 serDeVersion = getNextIntField(jparser, SERDE_VERSION_FIELD);
             }
@@ -97,8 +108,27 @@ public final class PingResponseSerDe
                 // this is for backwards compatibility as older SDK versions don't return this field
                 serDeVersion = 1;
             }
+            if (jparser.getCurrentToken() != JsonToken.END_OBJECT) {
+                // the optional fields are each omitted when not applicable and older SDK versions don't return them,
+                // so they are matched by name, stopping at the first field added by a newer SDK version
+                while (jparser.nextToken() == JsonToken.FIELD_NAME) {
+                    String fieldName = jparser.getCurrentName();
+                    if (BINARY_SERDE_VERSION_FIELD.equals(fieldName)) {
+                        jparser.nextToken();
+                        binarySerDeVersion = jparser.getValueAsInt();
+                    }
+                    else if (SPILL_COMPRESSION_CODEC_FIELD.equals(fieldName)) {
+                        jparser.nextToken();
+                        spillCompressionCodec = jparser.getValueAsString();
+                    }
+                    else {
+                        break;
+                    }
+                }
+            }
 
-            return new PingResponse(catalogName, queryId, sourceType, capabilities, serDeVersion);
+            return new PingResponse(catalogName, queryId, sourceType, capabilities, serDeVersion, binarySerDeVersion,
+                    spillCompressionCodec);
         }
     }
 }
@@ -24,8 +24,12 @@ import com.amazonaws.athena.connector.lambda.handlers.SerDeVersion;
 import com.amazonaws.athena.connector.lambda.serde.v2.ObjectMapperFactoryV2;
 import com.amazonaws.athena.connector.lambda.serde.v3.ObjectMapperFactoryV3;
 import com.amazonaws.athena.connector.lambda.serde.v4.ObjectMapperFactoryV4;
+import com.amazonaws.athena.connector.lambda.serde.v5.ObjectMapperFactoryV5;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import java.io.IOException;
+import java.io.InputStream;
+
 /**
  * Vends {@link ObjectMapper} instances that correspond to SerDe versions.
  */
@@ -44,6 +48,23 @@ public class VersionedObjectMapperFactory
         return create(allocator, SerDeVersion.SERDE_VERSION);
     }
 
+    /**
+     * Creates an {@link ObjectMapper} for the request in the provided stream. Requests framed in the binary envelope
+     * are read (and should be answered) using SerDe version 5, all other requests use the current SDK SerDe version.
+     *
+     * @param allocator
+     * @param request The stream containing the request, must support mark and reset. It is not consumed.
+     * @return
+     */
+    public static ObjectMapper create(BlockAllocator allocator, InputStream request)
+            throws IOException
+    {
+        if (ObjectMapperFactoryV5.isBinaryEnvelope(request)) {
+            return create(allocator, SerDeVersion.BINARY_SERDE_VERSION);
+        }
+        return create(allocator);
+    }
+
     /**
      * Creates an {@link ObjectMapper} using the provided SerDe version.
      *
@@ -62,6 +83,8 @@ public class VersionedObjectMapperFactory
                 return ObjectMapperFactoryV3.create(allocator);
             case 4:
                 return ObjectMapperFactoryV4.create(allocator);
+            case 5:
+                return ObjectMapperFactoryV5.create(allocator);
             default:
                 throw new IllegalArgumentException("No serde version " + version);
         }
@@ -22,25 +22,24 @@ package com.amazonaws.athena.connector.lambda.serde.v4;
 import com.amazonaws.athena.connector.lambda.data.Block;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorRegistry;
+import com.amazonaws.athena.connector.lambda.data.RecordBatchDeserializer;
 import com.amazonaws.athena.connector.lambda.serde.BaseDeserializer;
 import com.amazonaws.athena.connector.lambda.serde.BaseSerializer;
+import com.amazonaws.athena.connector.lambda.serde.BlockAttachments;
 import com.amazonaws.athena.connector.lambda.serde.VersionedSerDe;
 import com.fasterxml.jackson.core.JsonGenerator;
 import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.SerializerProvider;
-import org.apache.arrow.memory.BufferAllocator;
-import org.apache.arrow.vector.ipc.ReadChannel;
 import org.apache.arrow.vector.ipc.WriteChannel;
 import org.apache.arrow.vector.ipc.message.ArrowRecordBatch;
 import org.apache.arrow.vector.ipc.message.MessageSerializer;
 import org.apache.arrow.vector.types.pojo.Schema;
 
-import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.nio.channels.Channels;
-import java.util.concurrent.atomic.AtomicReference;
 
 import static java.util.Objects.requireNonNull;
 
@@ -72,7 +71,12 @@ public class BlockSerDeV4
             schemaSerializer.serialize(block.getSchema(), jgen, provider);
 
             jgen.writeFieldName(BATCH_FIELD_NAME);
-            if (block.getRowCount() > 0) {
+            BlockAttachments attachments = BlockAttachments.from(provider);
+            if (block.getRowCount() > 0 && attachments != null) {
+                //Framed in a binary envelope, the record batch is carried as raw bytes and referenced by index
+                jgen.writeNumber(attachments.add(serializeRecordBatch(block.getRecordBatch())));
+            }
+            else if (block.getRowCount() > 0) {
                 jgen.writeBinary(serializeRecordBatch(block.getRecordBatch()));
             }
             else {
@@ -125,16 +129,34 @@ public class BlockSerDeV4
             assertFieldName(jparser, SCHEMA_FIELD_NAME);
             Schema schema = schemaDeserializer.deserialize(jparser, ctxt);
 
-            byte[] batchBytes = getNextBinaryField(jparser, BATCH_FIELD_NAME);
-            Block block = getOrCreateAllocator(allocatorId).createBlock(schema);
-            if (batchBytes.length > 0) {
-                ArrowRecordBatch batch = deserializeBatch(allocatorId, batchBytes);
+            assertFieldName(jparser, BATCH_FIELD_NAME);
+            jparser.nextToken();
+            BlockAllocator blockAllocator = getOrCreateAllocator(allocatorId);
+            ArrowRecordBatch batch;
+            if (jparser.currentToken() == JsonToken.VALUE_NUMBER_INT) {
+                batch = RecordBatchDeserializer.deserialize(blockAllocator, getAttachments(ctxt).get(jparser.getIntValue()));
+            }
+            else {
+                //Decodes the records straight into allocator owned memory instead of via an intermediate byte[]
+                batch = RecordBatchDeserializer.deserialize(blockAllocator, jparser);
+            }
+            Block block = blockAllocator.createBlock(schema);
+            if (batch != null) {
                 block.loadRecordBatch(batch);
             }
 
             return block;
         }
 
+        private BlockAttachments getAttachments(DeserializationContext ctxt)
+        {
+            BlockAttachments attachments = BlockAttachments.from(ctxt);
+            if (attachments == null) {
+                throw new IllegalStateException("Found a reference to a record batch attachment outside of a binary envelope");
+            }
+            return attachments;
+        }
+
         private BlockAllocator getOrCreateAllocator(String allocatorId)
         {
             if (allocator != null) {
@@ -147,29 +169,5 @@ public class BlockSerDeV4
                 throw new IllegalStateException("allocator and allocatorRegistry are both null");
             }
         }
-
-        private ArrowRecordBatch deserializeBatch(String allocatorId, byte[] batchBytes)
-                throws IOException
-        {
-            return deserializeRecordBatch(getOrCreateAllocator(allocatorId), batchBytes);
-        }
-
-        private ArrowRecordBatch deserializeRecordBatch(BlockAllocator allocator, byte[] in)
-        {
-            AtomicReference<ArrowRecordBatch> batch = new AtomicReference<>();
-            try {
-                return allocator.registerBatch((BufferAllocator root) -> {
-                    batch.set((ArrowRecordBatch) MessageSerializer.deserializeMessageBatch(
-                            new ReadChannel(Channels.newChannel(new ByteArrayInputStream(in))), root));
-                    return batch.get();
-                });
-            }
-            catch (Exception ex) {
-                if (batch.get() != null) {
-                    batch.get().close();
-                }
-                throw ex;
-            }
-        }
     }
 }
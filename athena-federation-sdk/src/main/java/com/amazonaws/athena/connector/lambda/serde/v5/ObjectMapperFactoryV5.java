@@ -0,0 +1,377 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.serde.v5;
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.serde.BlockAttachments;
+import com.amazonaws.athena.connector.lambda.serde.v4.ObjectMapperFactoryV4;
+import com.fasterxml.jackson.core.FormatSchema;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.PrettyPrinter;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.InjectableValues;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationConfig;
+import com.google.common.io.ByteStreams;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SerDe version 5 frames a SerDe version 4 JSON document in a compact binary envelope. The Apache Arrow record batches
+ * of any Blocks in the document are carried as raw Arrow IPC attachments instead of as Base64 encoded JSON fields,
+ * which shrinks inline Blocks by about a quarter and avoids the cost of Base64 encoding and decoding them.
+ * <p>
+ * The envelope is made up of big-endian fields:
+ * <pre>
+ * int32 magic ("AFB5")
+ * int32 header length, followed by the header (a SerDe version 4 JSON document)
+ * int32 number of attachments, followed by each attachment as an int32 length and the Arrow IPC bytes
+ * </pre>
+ * Callers opt in to the envelope by sending their request in it, a request that isn't framed is answered with plain
+ * JSON.
+ */
+public class ObjectMapperFactoryV5
+{
+    private static final int MAGIC = 0x41464235;
+
+    private ObjectMapperFactoryV5() {}
+
+    public static ObjectMapper create(BlockAllocator allocator)
+    {
+        return new BinaryEnvelopeObjectMapper(ObjectMapperFactoryV4.create(allocator));
+    }
+
+    /**
+     * Tests if the provided stream starts with a binary envelope without consuming any of it.
+     *
+     * @param in The stream to test, must support mark and reset.
+     * @return True if the stream holds a binary envelope, False otherwise.
+     */
+    public static boolean isBinaryEnvelope(InputStream in)
+            throws IOException
+    {
+        if (!in.markSupported()) {
+            throw new IllegalArgumentException("InputStream must support mark/reset");
+        }
+        in.mark(Integer.BYTES);
+        try {
+            byte[] prefix = new byte[Integer.BYTES];
+            int read = 0;
+            while (read < prefix.length) {
+                int next = in.read(prefix, read, prefix.length - read);
+                if (next < 0) {
+                    return false;
+                }
+                read += next;
+            }
+            return isBinaryEnvelope(prefix);
+        }
+        finally {
+            in.reset();
+        }
+    }
+
+    /**
+     * Tests if the provided bytes start with a binary envelope.
+     *
+     * @param in The bytes to test.
+     * @return True if the bytes hold a binary envelope, False otherwise.
+     */
+    public static boolean isBinaryEnvelope(byte[] in)
+    {
+        return in.length >= Integer.BYTES
+                && ((in[0] & 0xFF) << 24 | (in[1] & 0xFF) << 16 | (in[2] & 0xFF) << 8 | (in[3] & 0xFF)) == MAGIC;
+    }
+
+    /**
+     * ObjectMapper which reads and writes values in the binary envelope, the header is (de)serialized by the
+     * SerDe version 4 ObjectMapper it was copied from. The envelope is binary so the character based (String, Reader
+     * and Writer) methods, and the ObjectReaders and ObjectWriters that would otherwise produce or expect plain JSON,
+     * are not supported.
+     */
+    private static class BinaryEnvelopeObjectMapper
+            extends ObjectMapper
+    {
+        private final ObjectMapper headerMapper;
+
+        private BinaryEnvelopeObjectMapper(ObjectMapper headerMapper)
+        {
+            super(headerMapper);
+            this.headerMapper = headerMapper;
+        }
+
+        @Override
+        public void writeValue(OutputStream out, Object value)
+                throws IOException
+        {
+            BlockAttachments attachments = new BlockAttachments();
+            byte[] header = headerMapper.writer().withAttribute(BlockAttachments.ATTRIBUTE, attachments).writeValueAsBytes(value);
+
+            DataOutputStream dataOut = new DataOutputStream(out);
+            dataOut.writeInt(MAGIC);
+            dataOut.writeInt(header.length);
+            dataOut.write(header);
+            dataOut.writeInt(attachments.getAttachments().size());
+            for (byte[] next : attachments.getAttachments()) {
+                dataOut.writeInt(next.length);
+                dataOut.write(next);
+            }
+            dataOut.flush();
+        }
+
+        @Override
+        public byte[] writeValueAsBytes(Object value)
+                throws JsonProcessingException
+        {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            try {
+                writeValue(out, value);
+            }
+            catch (JsonProcessingException ex) {
+                throw ex;
+            }
+            catch (IOException ex) {
+                throw JsonMappingException.fromUnexpectedIOE(ex);
+            }
+            return out.toByteArray();
+        }
+
+        @Override
+        public void writeValue(Writer out, Object value)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public String writeValueAsString(Object value)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public <T> T readValue(InputStream in, Class<T> valueType)
+                throws IOException
+        {
+            return readValue(in, getTypeFactory().constructType(valueType));
+        }
+
+        @Override
+        public <T> T readValue(InputStream in, TypeReference<T> valueTypeRef)
+                throws IOException
+        {
+            return readValue(in, getTypeFactory().constructType(valueTypeRef));
+        }
+
+        @Override
+        public <T> T readValue(InputStream in, JavaType valueType)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(ByteStreams.toByteArray(in)), valueType);
+        }
+
+        @Override
+        public <T> T readValue(byte[] in, Class<T> valueType)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(in), getTypeFactory().constructType(valueType));
+        }
+
+        @Override
+        public <T> T readValue(byte[] in, TypeReference<T> valueTypeRef)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(in), getTypeFactory().constructType(valueTypeRef));
+        }
+
+        @Override
+        public <T> T readValue(byte[] in, JavaType valueType)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(in), valueType);
+        }
+
+        @Override
+        public <T> T readValue(byte[] in, int offset, int len, Class<T> valueType)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(in, offset, len), getTypeFactory().constructType(valueType));
+        }
+
+        @Override
+        public <T> T readValue(byte[] in, int offset, int len, TypeReference<T> valueTypeRef)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(in, offset, len), getTypeFactory().constructType(valueTypeRef));
+        }
+
+        @Override
+        public <T> T readValue(byte[] in, int offset, int len, JavaType valueType)
+                throws IOException
+        {
+            return readEnvelope(ByteBuffer.wrap(in, offset, len), valueType);
+        }
+
+        @Override
+        public <T> T readValue(String in, Class<T> valueType)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public <T> T readValue(String in, TypeReference<T> valueTypeRef)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public <T> T readValue(String in, JavaType valueType)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public <T> T readValue(Reader in, Class<T> valueType)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public <T> T readValue(Reader in, TypeReference<T> valueTypeRef)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        public <T> T readValue(Reader in, JavaType valueType)
+        {
+            throw unsupported();
+        }
+
+        /**
+         * Every reader(...) and readerFor(...) method creates its ObjectReader here.
+         */
+        @Override
+        protected ObjectReader _newReader(DeserializationConfig config)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        protected ObjectReader _newReader(DeserializationConfig config, JavaType valueType, Object valueToUpdate,
+                FormatSchema schema, InjectableValues injectableValues)
+        {
+            throw unsupported();
+        }
+
+        /**
+         * Every writer(...) and writerFor(...) method creates its ObjectWriter here.
+         */
+        @Override
+        protected ObjectWriter _newWriter(SerializationConfig config)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        protected ObjectWriter _newWriter(SerializationConfig config, FormatSchema schema)
+        {
+            throw unsupported();
+        }
+
+        @Override
+        protected ObjectWriter _newWriter(SerializationConfig config, JavaType rootType, PrettyPrinter pp)
+        {
+            throw unsupported();
+        }
+
+        private <T> T readEnvelope(ByteBuffer in, JavaType valueType)
+                throws IOException
+        {
+            int magic = readInt(in);
+            if (magic != MAGIC) {
+                throw new IllegalStateException("Expected a binary envelope but found " + Integer.toHexString(magic));
+            }
+
+            byte[] header = new byte[readLength(in)];
+            in.get(header);
+            //Each attachment is at least its int32 length.
+            int numAttachments = readInt(in);
+            if (numAttachments < 0 || numAttachments > in.remaining() / Integer.BYTES) {
+                throw new IOException("Invalid number of attachments " + numAttachments + " with " + in.remaining() +
+                        " bytes remaining in the binary envelope");
+            }
+            List<byte[]> attachments = new ArrayList<>(numAttachments);
+            for (int i = 0; i < numAttachments; i++) {
+                byte[] next = new byte[readLength(in)];
+                in.get(next);
+                attachments.add(next);
+            }
+
+            return headerMapper.readerFor(valueType)
+                    .withAttribute(BlockAttachments.ATTRIBUTE, new BlockAttachments(attachments))
+                    .readValue(header);
+        }
+
+        /**
+         * Reads a length prefix, rejecting lengths which are negative or exceed the rest of the envelope so that a
+         * corrupt or hostile envelope can't make us allocate more than it holds.
+         */
+        private static int readLength(ByteBuffer in)
+                throws IOException
+        {
+            int length = readInt(in);
+            if (length < 0 || length > in.remaining()) {
+                throw new IOException("Invalid length " + length + " with " + in.remaining() +
+                        " bytes remaining in the binary envelope");
+            }
+            return length;
+        }
+
+        private static int readInt(ByteBuffer in)
+                throws IOException
+        {
+            if (in.remaining() < Integer.BYTES) {
+                throw new EOFException("Unexpected end of the binary envelope");
+            }
+            return in.getInt();
+        }
+
+        private static UnsupportedOperationException unsupported()
+        {
+            return new UnsupportedOperationException("The binary envelope can only be written to an OutputStream or as " +
+                    "bytes and read from an InputStream or bytes");
+        }
+    }
+}
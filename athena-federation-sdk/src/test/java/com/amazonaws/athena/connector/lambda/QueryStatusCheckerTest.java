@@ -42,6 +42,7 @@ import java.util.Random;
 import static com.amazonaws.athena.connector.lambda.handlers.AthenaExceptionFilter.ATHENA_EXCEPTION_FILTER;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -116,4 +117,43 @@ public class QueryStatusCheckerTest
             verify(athena, times(2)).getQueryExecution(any());
         }
     }
+
+    @Test
+    public void testSharedChecks()
+            throws InterruptedException
+    {
+        String queryId = "query4";
+        GetQueryExecutionRequest request = new GetQueryExecutionRequest().withQueryExecutionId(queryId);
+        when(athena.getQueryExecution(request)).thenReturn(new GetQueryExecutionResult().withQueryExecution(new QueryExecution().withStatus(new QueryExecutionStatus().withState("CANCELLED"))));
+        try (QueryStatusChecker split1 = new QueryStatusChecker(athena, athenaInvoker, queryId);
+                QueryStatusChecker split2 = new QueryStatusChecker(athena, athenaInvoker, queryId)) {
+            assertTrue(split1.isQueryRunning());
+            assertTrue(split2.isQueryRunning());
+            Thread.sleep(2000);
+            assertFalse(split1.isQueryRunning());
+            assertFalse(split2.isQueryRunning());
+            // both checkers share a single poll of the query's status
+            verify(athena, times(1)).getQueryExecution(any());
+        }
+    }
+
+    @Test
+    public void testClosed()
+    {
+        QueryStatusChecker queryStatusChecker = new QueryStatusChecker(athena, athenaInvoker, "query5");
+        queryStatusChecker.close();
+        // a closed checker must not start polling again since nothing would stop it
+        assertFalse(queryStatusChecker.isQueryRunning());
+        verify(athena, never()).getQueryExecution(any());
+    }
+
+    @Test
+    public void testClosedAfterCheck()
+    {
+        QueryStatusChecker queryStatusChecker = new QueryStatusChecker(athena, athenaInvoker, "query6");
+        assertTrue(queryStatusChecker.isQueryRunning());
+        queryStatusChecker.close();
+        // the last known status is kept once closed
+        assertTrue(queryStatusChecker.isQueryRunning());
+    }
 }
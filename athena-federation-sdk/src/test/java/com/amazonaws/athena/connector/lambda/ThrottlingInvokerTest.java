@@ -23,9 +23,13 @@ import com.amazonaws.athena.connector.lambda.data.BlockSpiller;
 import com.amazonaws.athena.connector.lambda.exceptions.FederationThrottleException;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.sql.Time;
 import java.util.concurrent.TimeoutException;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
@@ -119,4 +123,118 @@ public class ThrottlingInvokerTest
         when(spiller.spilled()).thenReturn(false);
         invoker.invoke(() -> {throw new RuntimeException();}, 2_000);
     }
+
+    @Test
+    public void invokeTokenBucketWithThrottle()
+            throws TimeoutException
+    {
+        ThrottlingInvoker invoker = ThrottlingInvoker.newBuilder()
+                .withDecrease(0.5)
+                .withIncrease(10)
+                .withInitialDelayMs(10)
+                .withMaxDelayMs(200)
+                .withFilter((Exception ex) -> ex instanceof FederationThrottleException)
+                .withMode(ThrottlingInvoker.Mode.TOKEN_BUCKET)
+                .build();
+
+        //Calls are not limited until the first congestion event.
+        assertEquals(2, (int) invoker.invoke(() -> 1 + 1, 10_000));
+        assertEquals(ThrottlingInvoker.State.FAST_START, invoker.getState());
+        assertEquals(0, invoker.getRate(), 0.0);
+
+        for (int i = 0; i < 5; i++) {
+            final AtomicLong count = new AtomicLong(0);
+            final int val = i;
+            long result = invoker.invoke(() -> {
+                        if (count.incrementAndGet() < 2) {
+                            throw new FederationThrottleException();
+                        }
+                        return val;
+                    }
+                    , 10_000);
+            assertEquals(val, result);
+            assertEquals(ThrottlingInvoker.State.AVOIDANCE, invoker.getState());
+            //The rate is cut from at most the initial 100 TPS and never below the min of 5 TPS.
+            assertTrue(invoker.getRate() >= 5);
+            assertTrue(invoker.getRate() < 100);
+        }
+        assertEquals(0, invoker.getDelay());
+    }
+
+    @Test
+    public void invokeTokenBucketSeededRate()
+            throws TimeoutException, IOException
+    {
+        Path rateCacheFile = Files.createTempFile("throttling-invoker", ".rate");
+        Files.delete(rateCacheFile);
+        try {
+            ThrottlingInvoker.Builder builder = ThrottlingInvoker.newBuilder()
+                    .withDecrease(0.5)
+                    .withIncrease(10)
+                    .withInitialDelayMs(10)
+                    .withMaxDelayMs(200)
+                    .withFilter((Exception ex) -> ex instanceof FederationThrottleException)
+                    .withMode(ThrottlingInvoker.Mode.TOKEN_BUCKET)
+                    .withRateCacheFile(rateCacheFile.toString());
+
+            ThrottlingInvoker invoker = builder.build();
+            final AtomicLong count = new AtomicLong(0);
+            invoker.invoke(() -> {
+                if (count.incrementAndGet() < 2) {
+                    throw new FederationThrottleException();
+                }
+                return 1;
+            }, 10_000);
+            assertTrue(Files.exists(rateCacheFile));
+
+            //A new invoker, e.g. in the next invocation of a warm container, starts at the last known good rate.
+            ThrottlingInvoker seeded = builder.build();
+            assertEquals(ThrottlingInvoker.State.AVOIDANCE, seeded.getState());
+            assertTrue(seeded.getRate() >= 5);
+            assertTrue(seeded.getRate() < 100);
+        }
+        finally {
+            Files.deleteIfExists(rateCacheFile);
+        }
+    }
+
+    @Test
+    public void invokeTokenBucketRateCachePerName()
+            throws TimeoutException, IOException
+    {
+        Path rateCacheDir = Files.createTempDirectory("throttling-invoker");
+        try {
+            ThrottlingInvoker.Builder builder = ThrottlingInvoker.newBuilder()
+                    .withDecrease(0.5)
+                    .withIncrease(10)
+                    .withInitialDelayMs(10)
+                    .withMaxDelayMs(200)
+                    .withFilter((Exception ex) -> ex instanceof FederationThrottleException)
+                    .withMode(ThrottlingInvoker.Mode.TOKEN_BUCKET)
+                    .withRateCacheDir(rateCacheDir.toString());
+
+            ThrottlingInvoker invoker = builder.withRateCacheName("table/1").build();
+            final AtomicLong count = new AtomicLong(0);
+            invoker.invoke(() -> {
+                if (count.incrementAndGet() < 2) {
+                    throw new FederationThrottleException();
+                }
+                return 1;
+            }, 10_000);
+            assertTrue(Files.exists(rateCacheDir.resolve("table_1.rate")));
+
+            //Only invokers for the same resource start from its rate, invokers without a name don't use the cache.
+            assertEquals(ThrottlingInvoker.State.AVOIDANCE, builder.withRateCacheName("table/1").build().getState());
+            assertEquals(ThrottlingInvoker.State.FAST_START, builder.withRateCacheName("table2").build().getState());
+            assertEquals(ThrottlingInvoker.State.FAST_START, builder.withRateCacheName(null).build().getState());
+        }
+        finally {
+            try (Stream<Path> files = Files.list(rateCacheDir)) {
+                for (Path next : (Iterable<Path>) files::iterator) {
+                    Files.delete(next);
+                }
+            }
+            Files.delete(rateCacheDir);
+        }
+    }
 }
@@ -0,0 +1,163 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.apache.arrow.vector.util.Text;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+public class BlockAllocatorImplTest
+{
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .build();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void recycleBlockTest()
+    {
+        Block block = allocator.createBlock(schema);
+        block.setValue("col1", 0, 10);
+        block.setValue("col2", 0, "value");
+        block.setRowCount(1);
+
+        allocator.recycleBlock(block, 1);
+
+        Block recycled = allocator.createBlock(schema);
+        assertSame(block, recycled);
+        assertEquals(0, recycled.getRowCount());
+        assertEquals(0, recycled.getSize());
+
+        //Values written before recycling must not leak into the reused block.
+        recycled.setRowCount(1);
+        assertNull(recycled.getFieldReader("col1").readObject());
+        assertNull(recycled.getFieldReader("col2").readObject());
+    }
+
+    @Test
+    public void recycleBlockRewriteTest()
+    {
+        Schema listSchema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .addListField("col3", new ArrowType.Utf8())
+                .build();
+
+        Block block = allocator.createBlock(listSchema);
+        for (int i = 0; i < 3; i++) {
+            block.setValue("col1", i, i);
+            block.setValue("col2", i, "a_long_value_" + i);
+            BlockUtils.setComplexValue(block.getFieldVector("col3"), i, FieldResolver.DEFAULT,
+                    Arrays.asList("x" + i, "y" + i));
+        }
+        block.setRowCount(3);
+        allocator.recycleBlock(block, 1);
+
+        //The data buffers keep their old bytes, rows written after recycling must only see the new values.
+        Block recycled = allocator.createBlock(listSchema);
+        assertSame(block, recycled);
+        recycled.setValue("col1", 1, 11);
+        recycled.setValue("col2", 1, "b");
+        BlockUtils.setComplexValue(recycled.getFieldVector("col3"), 1, FieldResolver.DEFAULT, Collections.singletonList("z"));
+        recycled.setRowCount(2);
+
+        assertNull(recycled.getFieldReader("col1").readObject());
+        assertNull(recycled.getFieldReader("col2").readObject());
+        assertNull(recycled.getFieldReader("col3").readObject());
+        recycled.getFieldReader("col1").setPosition(1);
+        recycled.getFieldReader("col2").setPosition(1);
+        recycled.getFieldReader("col3").setPosition(1);
+        assertEquals(11, recycled.getFieldReader("col1").readInteger().intValue());
+        assertEquals("b", recycled.getFieldReader("col2").readText().toString());
+        assertEquals(Collections.singletonList(new Text("z")), recycled.getFieldReader("col3").readObject());
+    }
+
+    @Test
+    public void recycleBlockPoolLimitTest()
+    {
+        Block block1 = allocator.createBlock(schema);
+        Block block2 = allocator.createBlock(schema);
+
+        allocator.recycleBlock(block1, 1);
+        allocator.recycleBlock(block2, 1);
+
+        assertSame(block1, allocator.createBlock(schema));
+        assertNotSame(block2, allocator.createBlock(schema));
+    }
+
+    @Test
+    public void closedBlocksAreNotTrackedTest()
+            throws Exception
+    {
+        for (int i = 0; i < 100; i++) {
+            allocator.createBlock(schema).close();
+        }
+        Block live = allocator.createBlock(schema);
+        assertEquals(1, allocator.getNumLiveBlocks());
+
+        live.close();
+        assertEquals(0, allocator.getNumLiveBlocks());
+    }
+
+    @Test
+    public void warmAllocatorTest()
+            throws Exception
+    {
+        try (BlockAllocatorImpl warm = BlockAllocatorImpl.forRequest(Collections.singletonMap("WARM_ALLOCATOR", "true"))) {
+            Block block = warm.createBlock(schema);
+            block.setValue("col1", 0, 10);
+            block.setRowCount(1);
+            assertEquals(1, warm.getNumLiveBlocks());
+        }
+
+        //A later request reuses the same RootAllocator but gets its own child allocator.
+        try (BlockAllocatorImpl warm = BlockAllocatorImpl.forRequest(Collections.singletonMap("WARM_ALLOCATOR", "true"))) {
+            assertEquals(0, warm.getUsage());
+            warm.createBlock(schema).close();
+            assertEquals(0, warm.getNumLiveBlocks());
+        }
+    }
+}
@@ -79,6 +79,9 @@ import java.util.Map;
 import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
 import static org.junit.Assert.assertTrue;
 
 //TODO: Consider breaking up this test into 3 separate tests but the setup for the test would be error prone
@@ -128,6 +131,61 @@ public class BlockTest
         }
     }
 
+    @Test
+    public void columnWriterTest()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addIntField("col1")
+                .addBigIntField("col2")
+                .addStringField("col3")
+                .build();
+
+        Block block = allocator.createBlock(schema);
+
+        ValueSet col1Constraint = EquatableValueSet.newBuilder(allocator, Types.MinorType.INT.getType(), true, false)
+                .add(10).build();
+        Constraints constraints = new Constraints(Collections.singletonMap("col1", col1Constraint), Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT);
+        try (ConstraintEvaluator constraintEvaluator = new ConstraintEvaluator(allocator, schema, constraints)) {
+            block.constrain(constraintEvaluator);
+            ColumnWriter col1 = block.getColumnWriter("col1");
+            ColumnWriter col2 = block.getColumnWriter("col2");
+            ColumnWriter col3 = block.getColumnWriter("col3");
+            assertSame(col1, block.getColumnWriter("col1"));
+
+            assertTrue(col1.offerValue(0, 10));
+            //Values which aren't of the field's native java type are coerced just like BlockUtils.setValue(...)
+            assertTrue(col1.offerValue(1, 10L));
+            assertFalse(col1.offerValue(2, 11));
+            assertFalse(col1.offerValue(2, null));
+            assertTrue(col2.offerValue(0, 100L));
+            assertTrue(col2.offerValue(1, null));
+            assertTrue(col3.offerValue(0, "value"));
+            assertTrue(col3.offerValue(1, new StringBuilder("builder")));
+            assertTrue(block.getColumnWriter("unknown_col").offerValue(0, 10));
+            assertNull(block.getColumnWriter("unknown_col").getFieldVector());
+            block.setRowCount(2);
+
+            assertEquals(10, block.getFieldReader("col1").readInteger().intValue());
+            FieldReader col1Reader = block.getFieldReader("col1");
+            col1Reader.setPosition(1);
+            assertEquals(10, col1Reader.readInteger().intValue());
+            FieldReader col2Reader = block.getFieldReader("col2");
+            assertEquals(100L, col2Reader.readLong().longValue());
+            col2Reader.setPosition(1);
+            assertFalse(col2Reader.isSet());
+            FieldReader col3Reader = block.getFieldReader("col3");
+            assertEquals("value", col3Reader.readText().toString());
+            col3Reader.setPosition(1);
+            assertEquals("builder", col3Reader.readText().toString());
+
+            //Constraining the Block again binds new ColumnWriters.
+            block.constrain(ConstraintEvaluator.emptyEvaluator());
+            assertNotSame(col1, block.getColumnWriter("col1"));
+            assertTrue(block.getColumnWriter("col1").offerValue(0, 11));
+        }
+    }
+
     //TODO: Break this into multiple smaller tests, probably primitive types vs. complex vs. nested complex
     //TODO: List of Lists
     //TODO: List of Structs
@@ -0,0 +1,123 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.Assert.*;
+
+public class RecordBatchDeserializerTest
+{
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+    private Block expected;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .build();
+
+        //Enough rows that the Base64 decode has to grow its buffer.
+        expected = allocator.createBlock(schema);
+        for (int i = 0; i < 10_000; i++) {
+            expected.setValue("col1", i, i);
+            expected.setValue("col2", i, "value_" + i);
+        }
+        expected.setRowCount(10_000);
+    }
+
+    @After
+    public void tearDown()
+            throws Exception
+    {
+        expected.close();
+        allocator.close();
+    }
+
+    @Test
+    public void deserializeBytesTest()
+            throws Exception
+    {
+        byte[] bytes = serialize(expected);
+        try (Block actual = allocator.createBlock(schema)) {
+            actual.loadRecordBatch(RecordBatchDeserializer.deserialize(allocator, bytes));
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void deserializeJsonTest()
+            throws Exception
+    {
+        StringWriter json = new StringWriter();
+        try (JsonGenerator jgen = new JsonFactory().createGenerator(json)) {
+            jgen.writeStartArray();
+            jgen.writeBinary(serialize(expected));
+            jgen.writeString("");
+            jgen.writeEndArray();
+        }
+
+        long usage = allocator.getUsage();
+        try (JsonParser jparser = new JsonFactory().createParser(json.toString());
+                Block actual = allocator.createBlock(schema)) {
+            assertEquals(JsonToken.START_ARRAY, jparser.nextToken());
+            assertEquals(JsonToken.VALUE_STRING, jparser.nextToken());
+            actual.loadRecordBatch(RecordBatchDeserializer.deserialize(allocator, jparser));
+            assertEquals(expected, actual);
+
+            //Empty values don't produce a batch.
+            assertEquals(JsonToken.VALUE_STRING, jparser.nextToken());
+            assertNull(RecordBatchDeserializer.deserialize(allocator, jparser));
+        }
+        //All memory used to decode the batch is released along with the Block it was loaded into.
+        assertEquals(usage, allocator.getUsage());
+    }
+
+    @Test(expected = RuntimeException.class)
+    public void deserializeInvalidTest()
+    {
+        RecordBatchDeserializer.deserialize(allocator, new byte[] {1, 2, 3, 4, 5, 6, 7, 8});
+    }
+
+    private byte[] serialize(Block block)
+            throws IOException
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new RecordBatchSerDe(allocator).serialize(block.getRecordBatch(), out);
+        return out.toByteArray();
+    }
+}
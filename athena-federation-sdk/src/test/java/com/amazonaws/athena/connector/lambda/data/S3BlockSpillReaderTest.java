@@ -0,0 +1,184 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.records.RemoteReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.security.AesGcmBlockCrypto;
+import com.amazonaws.athena.connector.lambda.security.BlockCrypto;
+import com.amazonaws.athena.connector.lambda.security.EncryptionKey;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.amazonaws.athena.connector.lambda.security.NoOpBlockCrypto;
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.Headers;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.ObjectMetadata;
+import com.amazonaws.services.s3.model.S3Object;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayInputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class S3BlockSpillReaderTest
+{
+    private static final String BUCKET = "MyBucket";
+    private static final int NUM_BLOCKS = 10;
+
+    @Mock
+    private AmazonS3 mockS3;
+
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+    private S3BlockSpillReader reader;
+    //Spilled objects keyed by S3 key.
+    private final Map<String, byte[]> objects = new HashMap<>();
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .build();
+        reader = new S3BlockSpillReader(mockS3, allocator);
+
+        when(mockS3.getObjectMetadata(anyString(), anyString())).thenAnswer(invocation -> {
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setContentLength(objects.get(invocation.getArgument(1)).length);
+            return metadata;
+        });
+        when(mockS3.getObject(any(GetObjectRequest.class))).thenAnswer(invocation -> {
+            GetObjectRequest request = invocation.getArgument(0);
+            byte[] bytes = objects.get(request.getKey());
+            long[] range = request.getRange();
+            int start = (int) range[0];
+            int end = (int) Math.min(range[1], bytes.length - 1);
+
+            ObjectMetadata metadata = new ObjectMetadata();
+            metadata.setHeader(Headers.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + bytes.length);
+            S3Object object = new S3Object();
+            object.setObjectMetadata(metadata);
+            object.setObjectContent(new ByteArrayInputStream(Arrays.copyOfRange(bytes, start, end + 1)));
+            return object;
+        });
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void iteratorTest()
+            throws Exception
+    {
+        EncryptionKey key = new LocalKeyFactory().create();
+        RemoteReadRecordsResponse response = spill(key, new AesGcmBlockCrypto(allocator));
+        assertBlocks(reader.iterator(response));
+    }
+
+    @Test
+    public void iteratorNoEncryptionTest()
+            throws Exception
+    {
+        RemoteReadRecordsResponse response = spill(null, new NoOpBlockCrypto(allocator));
+        assertBlocks(reader.iterator(response));
+    }
+
+    @Test
+    public void iteratorMemoryBudgetTest()
+            throws Exception
+    {
+        //A budget smaller than any block still makes progress, one block at a time.
+        RemoteReadRecordsResponse response = spill(null, new NoOpBlockCrypto(allocator));
+        assertBlocks(reader.iterator(response, 2, 1));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void iteratorInvalidPrefetchTest()
+    {
+        reader.iterator(new RemoteReadRecordsResponse("catalog", schema, new ArrayList<>(), null), 0, 1);
+    }
+
+    private RemoteReadRecordsResponse spill(EncryptionKey key, BlockCrypto crypto)
+            throws Exception
+    {
+        List<SpillLocation> locations = new ArrayList<>();
+        for (int i = 0; i < NUM_BLOCKS; i++) {
+            try (Block block = allocator.createBlock(schema)) {
+                for (int row = 0; row <= i; row++) {
+                    BlockUtils.setValue(block.getFieldVector("col1"), row, i * 100 + row);
+                    BlockUtils.setValue(block.getFieldVector("col2"), row, "value_" + i + "_" + row);
+                }
+                block.setRowCount(i + 1);
+                String objectKey = "blocks/spill/query/split." + i;
+                objects.put(objectKey, crypto.encrypt(key, block));
+                locations.add(new S3SpillLocation(BUCKET, objectKey, false));
+            }
+        }
+        return new RemoteReadRecordsResponse("catalog", schema, locations, key);
+    }
+
+    private void assertBlocks(S3BlockSpillReader.PrefetchingBlockIterator iterator)
+            throws Exception
+    {
+        try (S3BlockSpillReader.PrefetchingBlockIterator blocks = iterator) {
+            int numBlocks = 0;
+            while (blocks.hasNext()) {
+                try (Block block = blocks.next()) {
+                    assertEquals(numBlocks + 1, block.getRowCount());
+                    for (int row = 0; row < block.getRowCount(); row++) {
+                        block.getFieldReader("col1").setPosition(row);
+                        block.getFieldReader("col2").setPosition(row);
+                        assertEquals(numBlocks * 100 + row, block.getFieldReader("col1").readInteger().intValue());
+                        assertEquals("value_" + numBlocks + "_" + row, block.getFieldReader("col2").readText().toString());
+                    }
+                }
+                numBlocks++;
+            }
+            assertEquals(NUM_BLOCKS, numBlocks);
+        }
+        verify(mockS3, times(NUM_BLOCKS)).getObjectMetadata(anyString(), anyString());
+        verify(mockS3, times(NUM_BLOCKS)).getObject(any(GetObjectRequest.class));
+    }
+}
@@ -21,8 +21,13 @@ package com.amazonaws.athena.connector.lambda.data;
  */
 
 import com.amazonaws.athena.connector.lambda.domain.predicate.ConstraintEvaluator;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
 import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
 import com.amazonaws.athena.connector.lambda.domain.spill.SpillLocation;
+import com.amazonaws.athena.connector.lambda.metrics.SplitMetrics;
 import com.amazonaws.athena.connector.lambda.security.EncryptionKeyFactory;
 import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
 import com.amazonaws.services.s3.AmazonS3;
@@ -30,7 +35,11 @@ import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.S3ObjectInputStream;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
 import com.google.common.io.ByteStreams;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.compression.CompressionUtil;
 import org.apache.arrow.vector.types.pojo.ArrowType;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.After;
@@ -48,7 +57,16 @@ import org.slf4j.LoggerFactory;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
-
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.nullable;
@@ -196,6 +214,366 @@ public class S3BlockSpillerTest
         logger.info("spillTest: exit");
     }
 
+    @Test
+    public void streamingSpillTest()
+            throws Exception
+    {
+        final ByteHolder byteHolder = new ByteHolder();
+        when(mockS3.putObject(any()))
+                .thenAnswer((InvocationOnMock invocationOnMock) -> {
+                    InputStream inputStream = ((PutObjectRequest) invocationOnMock.getArguments()[0]).getInputStream();
+                    byteHolder.setBytes(ByteStreams.toByteArray(inputStream));
+                    return mock(PutObjectResult.class);
+                });
+
+        try (S3BlockSpiller streamingWriter = new S3BlockSpiller(mockS3, spillConfig, allocator, expected.getSchema(),
+                ConstraintEvaluator.emptyEvaluator(), com.google.common.collect.ImmutableMap.of("SPILL_MULTIPART_PART_SIZE", "5242880"))) {
+            SpillLocation blockLocation = streamingWriter.write(expected);
+            assertEquals(prefix + "/" + requestId + "/" + splitId + ".0", ((S3SpillLocation) blockLocation).getKey());
+
+            //Blocks smaller than a single part should not pay for a multipart upload
+            verify(mockS3, times(1)).putObject(any());
+            verifyNoMoreInteractions(mockS3);
+
+            when(mockS3.getObject(eq(bucket), eq(prefix + "/" + requestId + "/" + splitId + ".0")))
+                    .thenAnswer((InvocationOnMock invocationOnMock) -> {
+                        S3Object mockObject = mock(S3Object.class);
+                        when(mockObject.getObjectContent()).thenReturn(new S3ObjectInputStream(new ByteArrayInputStream(byteHolder.getBytes()), null));
+                        return mockObject;
+                    });
+
+            Block block = streamingWriter.read((S3SpillLocation) blockLocation, spillConfig.getEncryptionKey(), expected.getSchema());
+            assertEquals(expected, block);
+            block.close();
+        }
+    }
+
+    @Test
+    public void compressedSpillTest()
+            throws Exception
+    {
+        final ByteHolder byteHolder = new ByteHolder();
+        when(mockS3.putObject(any()))
+                .thenAnswer((InvocationOnMock invocationOnMock) -> {
+                    InputStream inputStream = ((PutObjectRequest) invocationOnMock.getArguments()[0]).getInputStream();
+                    byteHolder.setBytes(ByteStreams.toByteArray(inputStream));
+                    return mock(PutObjectResult.class);
+                });
+        when(mockS3.getObject(eq(bucket), any()))
+                .thenAnswer((InvocationOnMock invocationOnMock) -> {
+                    S3Object mockObject = mock(S3Object.class);
+                    when(mockObject.getObjectContent()).thenReturn(new S3ObjectInputStream(new ByteArrayInputStream(byteHolder.getBytes()), null));
+                    return mockObject;
+                });
+
+        try (Block compressible = allocator.createBlock(expected.getSchema())) {
+            for (int i = 0; i < 1_000; i++) {
+                compressible.setValue("col1", i, i % 10);
+                compressible.setValue("col2", i, "a repetitive value " + (i % 10));
+            }
+            compressible.setRowCount(1_000);
+
+            blockWriter.write(compressible);
+            int uncompressedBytes = byteHolder.getBytes().length;
+
+            for (CompressionUtil.CodecType codec : new CompressionUtil.CodecType[] {CompressionUtil.CodecType.LZ4_FRAME, CompressionUtil.CodecType.ZSTD}) {
+                SpillConfig compressedConfig = SpillConfig.newBuilder(spillConfig)
+                        .withRequestId(requestId)
+                        .withSpillLocation(spillConfig.getSpillLocation())
+                        .withCompressionCodec(codec)
+                        .build();
+                try (S3BlockSpiller compressedWriter = new S3BlockSpiller(mockS3, compressedConfig, allocator, expected.getSchema(),
+                        ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of())) {
+                    SpillLocation blockLocation = compressedWriter.write(compressible);
+                    assertTrue(codec + " did not compress", byteHolder.getBytes().length < uncompressedBytes);
+
+                    try (Block block = compressedWriter.read((S3SpillLocation) blockLocation, compressedConfig.getEncryptionKey(), expected.getSchema())) {
+                        assertEquals(compressible, block);
+                    }
+
+                    //Readers detect the codec from the spilled Block itself, so they don't need to be configured.
+                    try (Block block = blockWriter.read((S3SpillLocation) blockLocation, spillConfig.getEncryptionKey(), expected.getSchema())) {
+                        assertEquals(compressible, block);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void writeBatchTest()
+            throws Exception
+    {
+        int numRows = 1_000;
+        Schema srcSchema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .addField("unprojected", new ArrowType.Int(32, true))
+                .build();
+
+        Map<String, ValueSet> constraintsMap = new HashMap<>();
+        constraintsMap.put("col1", SortedRangeSet.copyOf(new ArrowType.Int(32, true),
+                ImmutableList.of(Range.greaterThan(allocator, new ArrowType.Int(32, true), 9)), false));
+        Constraints constraints = new Constraints(constraintsMap, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT);
+
+        SpillConfig inlineConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(10_000_000)
+                .withMaxInlineBlockBytes(10_000_000)
+                .build();
+
+        try (Block src = allocator.createBlock(srcSchema);
+                ConstraintEvaluator evaluator = new ConstraintEvaluator(allocator, expected.getSchema(), constraints);
+                S3BlockSpiller spiller = new S3BlockSpiller(mockS3, inlineConfig, allocator, expected.getSchema(), evaluator, ImmutableMap.of())) {
+            for (int i = 0; i < numRows; i++) {
+                src.setValue("col1", i, i);
+                src.setValue("col2", i, "value_" + i);
+                src.setValue("unprojected", i, -i);
+            }
+            src.setRowCount(numRows);
+
+            spiller.writeBatch(src.getVectorSchema());
+
+            assertFalse(spiller.spilled());
+            Block actual = spiller.getBlock();
+            assertEquals(numRows - 10, actual.getRowCount());
+            FieldReader col1 = actual.getFieldReader("col1");
+            FieldReader col2 = actual.getFieldReader("col2");
+            for (int i = 0; i < actual.getRowCount(); i++) {
+                col1.setPosition(i);
+                col2.setPosition(i);
+                assertEquals(i + 10, col1.readInteger().intValue());
+                assertEquals("value_" + (i + 10), col2.readText().toString());
+            }
+        }
+    }
+
+    @Test
+    public void writeBatchSpillTest()
+            throws Exception
+    {
+        int numRows = 1_000;
+        when(mockS3.putObject(any())).thenReturn(mock(PutObjectResult.class));
+
+        SpillConfig smallBlockConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(2_000)
+                .withMaxInlineBlockBytes(0)
+                .build();
+
+        try (Block src = allocator.createBlock(expected.getSchema());
+                S3BlockSpiller spiller = new S3BlockSpiller(mockS3, smallBlockConfig, allocator, expected.getSchema(),
+                        ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of())) {
+            for (int i = 0; i < numRows; i++) {
+                src.setValue("col1", i, i);
+                src.setValue("col2", i, "value_" + i);
+            }
+            src.setRowCount(numRows);
+
+            spiller.writeBatch(src.getVectorSchema());
+
+            assertTrue(spiller.spilled());
+            List<SpillLocation> locations = spiller.getSpillLocations();
+            assertTrue(locations.size() > 1);
+            verify(mockS3, times(locations.size())).putObject(any());
+        }
+    }
+
+    @Test
+    public void writeRowsRolloverTest()
+            throws Exception
+    {
+        int numRows = 5_000;
+        long maxBlockBytes = 2_000;
+        when(mockS3.putObject(any())).thenReturn(mock(PutObjectResult.class));
+
+        SpillConfig smallBlockConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(maxBlockBytes)
+                .withMaxInlineBlockBytes(0)
+                .build();
+
+        try (S3BlockSpiller spiller = new S3BlockSpiller(mockS3, smallBlockConfig, allocator, expected.getSchema(),
+                ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of())) {
+            long[] maxSizeSeen = new long[1];
+            for (int i = 0; i < numRows; i++) {
+                int value = i;
+                spiller.writeRows((Block block, int rowNum) -> {
+                    //A Block that has exceeded the max size must be spilled before any more rows are written to it.
+                    maxSizeSeen[0] = Math.max(maxSizeSeen[0], block.getSize());
+                    block.setValue("col1", rowNum, value);
+                    block.setValue("col2", rowNum, "value_" + value);
+                    return 1;
+                });
+            }
+
+            assertTrue(maxSizeSeen[0] <= maxBlockBytes);
+            assertTrue(spiller.spilled());
+            List<SpillLocation> locations = spiller.getSpillLocations();
+            assertTrue(locations.size() > 1);
+        }
+    }
+
+    @Test
+    public void spillFailureClosesBlockTest()
+            throws Exception
+    {
+        when(mockS3.putObject(any())).thenThrow(new RuntimeException("Simulated spill failure"));
+
+        SpillConfig smallBlockConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(2_000)
+                .withMaxInlineBlockBytes(0)
+                .build();
+
+        int liveBlocks = allocator.getNumLiveBlocks();
+        S3BlockSpiller spiller = new S3BlockSpiller(mockS3, smallBlockConfig, allocator, expected.getSchema(),
+                ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of());
+        for (int i = 0; i < 200; i++) {
+            int value = i;
+            spiller.writeRows((Block block, int rowNum) -> {
+                block.setValue("col1", rowNum, value);
+                block.setValue("col2", rowNum, "value_" + value);
+                return 1;
+            });
+        }
+        spiller.close();
+
+        //Only the in-progress Block remains, the Blocks that failed to spill were closed rather than leaked.
+        assertEquals(liveBlocks + 1, allocator.getNumLiveBlocks());
+        try {
+            spiller.spilled();
+            fail("Expected the spill failure to be reported");
+        }
+        catch (RuntimeException ex) {
+            assertEquals("Simulated spill failure", ex.getMessage());
+        }
+    }
+
+    @Test
+    public void metricsTest()
+            throws Exception
+    {
+        int numRows = 1_000;
+        when(mockS3.putObject(any())).thenReturn(mock(PutObjectResult.class));
+
+        SpillConfig smallBlockConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(2_000)
+                .withMaxInlineBlockBytes(0)
+                .build();
+
+        try (S3BlockSpiller spiller = new S3BlockSpiller(mockS3, smallBlockConfig, allocator, expected.getSchema(),
+                ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of())) {
+            for (int i = 0; i < numRows; i++) {
+                int value = i;
+                spiller.writeRows((Block block, int rowNum) -> {
+                    //Simulate a connector which filters out odd values itself.
+                    if (value % 2 == 1) {
+                        return 0;
+                    }
+                    block.setValue("col1", rowNum, value);
+                    block.setValue("col2", rowNum, "value_" + value);
+                    return 1;
+                });
+            }
+
+            List<SpillLocation> locations = spiller.getSpillLocations();
+            SplitMetrics metrics = spiller.getMetrics();
+            assertEquals(numRows, metrics.getValue(SplitMetrics.Metric.ROWS_READ));
+            assertEquals(numRows / 2, metrics.getValue(SplitMetrics.Metric.ROWS_WRITTEN));
+            assertEquals(numRows / 2, metrics.getValue(SplitMetrics.Metric.ROWS_FILTERED));
+            assertEquals(locations.size(), metrics.getValue(SplitMetrics.Metric.BLOCKS_SPILLED));
+            assertTrue(metrics.getValue(SplitMetrics.Metric.BYTES_WRITTEN) > 0);
+        }
+    }
+
+    @Test
+    public void multiProducerTest()
+            throws Exception
+    {
+        int numProducers = 4;
+        int rowsPerProducer = 500;
+        when(mockS3.putObject(any())).thenReturn(mock(PutObjectResult.class));
+
+        //Rows from all producers are merged into a single inline Block.
+        SpillConfig inlineConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(10_000_000)
+                .withMaxInlineBlockBytes(10_000_000)
+                .build();
+        try (S3BlockSpiller spiller = new S3BlockSpiller(mockS3, inlineConfig, allocator, expected.getSchema(),
+                ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of())) {
+            writeWithProducers(spiller, numProducers, rowsPerProducer);
+
+            assertFalse(spiller.spilled());
+            Block block = spiller.getBlock();
+            assertEquals(numProducers * rowsPerProducer, block.getRowCount());
+            long sum = 0;
+            FieldReader reader = block.getFieldReader("col1");
+            for (int i = 0; i < block.getRowCount(); i++) {
+                reader.setPosition(i);
+                sum += reader.readInteger();
+            }
+            assertEquals(numProducers * ((long) rowsPerProducer * (rowsPerProducer - 1) / 2), sum);
+        }
+
+        //Blocks spilled by concurrent producers are listed in spill number order.
+        SpillConfig smallBlockConfig = SpillConfig.newBuilder(spillConfig)
+                .withRequestId(requestId)
+                .withSpillLocation(spillConfig.getSpillLocation())
+                .withMaxBlockBytes(2_000)
+                .withMaxInlineBlockBytes(0)
+                .build();
+        try (S3BlockSpiller spiller = new S3BlockSpiller(mockS3, smallBlockConfig, allocator, expected.getSchema(),
+                ConstraintEvaluator.emptyEvaluator(), ImmutableMap.of())) {
+            writeWithProducers(spiller, numProducers, rowsPerProducer);
+
+            assertTrue(spiller.spilled());
+            List<SpillLocation> locations = spiller.getSpillLocations();
+            assertTrue(locations.size() > numProducers);
+            for (int i = 0; i < locations.size(); i++) {
+                assertEquals(prefix + "/" + requestId + "/" + splitId + "." + i, ((S3SpillLocation) locations.get(i)).getKey());
+            }
+        }
+    }
+
+    private void writeWithProducers(S3BlockSpiller spiller, int numProducers, int rowsPerProducer)
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(numProducers);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int i = 0; i < numProducers; i++) {
+                producers.add(executor.submit(() -> {
+                    try (ProducerBlockWriter producer = spiller.newProducer()) {
+                        for (int j = 0; j < rowsPerProducer; j++) {
+                            int value = j;
+                            producer.writeRows((Block block, int rowNum) -> {
+                                block.setValue("col1", rowNum, value);
+                                block.setValue("col2", rowNum, "value_" + value);
+                                return 1;
+                            });
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> next : producers) {
+                next.get();
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+
     private class ByteHolder
     {
         private byte[] bytes;
@@ -0,0 +1,122 @@
+package com.amazonaws.athena.connector.lambda.data;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.services.s3.AmazonS3;
+import com.amazonaws.services.s3.model.AbortMultipartUploadRequest;
+import com.amazonaws.services.s3.model.CompleteMultipartUploadRequest;
+import com.amazonaws.services.s3.model.InitiateMultipartUploadResult;
+import com.amazonaws.services.s3.model.PartETag;
+import com.amazonaws.services.s3.model.UploadPartRequest;
+import com.amazonaws.services.s3.model.UploadPartResult;
+import com.google.common.io.ByteStreams;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.MockitoJUnitRunner;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.stream.Collectors;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class S3SpillOutputStreamTest
+{
+    private static final String BUCKET = "bucket";
+    private static final String KEY = "key";
+    private static final int PART_SIZE = S3SpillOutputStream.MIN_PART_SIZE;
+
+    @Mock
+    private AmazonS3 mockS3;
+
+    @Test
+    public void multipartUploadTest()
+            throws Exception
+    {
+        ByteArrayOutputStream uploaded = new ByteArrayOutputStream();
+        InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+        initResult.setUploadId("uploadId");
+        when(mockS3.initiateMultipartUpload(any())).thenReturn(initResult);
+        when(mockS3.uploadPart(any())).thenAnswer(invocation -> {
+            UploadPartRequest request = invocation.getArgument(0);
+            uploaded.write(ByteStreams.toByteArray(request.getInputStream()));
+            UploadPartResult result = new UploadPartResult();
+            result.setPartNumber(request.getPartNumber());
+            result.setETag("etag" + request.getPartNumber());
+            return result;
+        });
+
+        byte[] data = new byte[PART_SIZE * 2 + 100];
+        new Random(0).nextBytes(data);
+
+        S3SpillOutputStream out = new S3SpillOutputStream(mockS3, BUCKET, KEY, PART_SIZE, request -> {});
+        //Write in uneven chunks to exercise part boundaries that fall mid-write.
+        int offset = 0;
+        while (offset < data.length) {
+            int len = Math.min(777_777, data.length - offset);
+            out.write(data, offset, len);
+            offset += len;
+        }
+        out.close();
+
+        ArgumentCaptor<CompleteMultipartUploadRequest> captor = ArgumentCaptor.forClass(CompleteMultipartUploadRequest.class);
+        verify(mockS3, times(1)).completeMultipartUpload(captor.capture());
+        verify(mockS3, times(3)).uploadPart(any());
+        verify(mockS3, never()).putObject(any());
+        assertEquals(Arrays.asList(1, 2, 3), captor.getValue().getPartETags().stream().map(PartETag::getPartNumber)
+                .collect(Collectors.toList()));
+        assertEquals(data.length, out.getTotalBytes());
+        assertArrayEquals(data, uploaded.toByteArray());
+    }
+
+    @Test
+    public void abortOnFailureTest()
+            throws Exception
+    {
+        InitiateMultipartUploadResult initResult = new InitiateMultipartUploadResult();
+        initResult.setUploadId("uploadId");
+        when(mockS3.initiateMultipartUpload(any())).thenReturn(initResult);
+        when(mockS3.uploadPart(any())).thenThrow(new RuntimeException("simulated failure"));
+
+        S3SpillOutputStream out = new S3SpillOutputStream(mockS3, BUCKET, KEY, PART_SIZE, request -> {});
+        try {
+            out.write(new byte[PART_SIZE]);
+            fail("Expected exception");
+        }
+        catch (RuntimeException ex) {
+            assertEquals("simulated failure", ex.getMessage());
+        }
+
+        verify(mockS3, times(1)).abortMultipartUpload(any(AbortMultipartUploadRequest.class));
+        verify(mockS3, never()).completeMultipartUpload(any());
+    }
+}
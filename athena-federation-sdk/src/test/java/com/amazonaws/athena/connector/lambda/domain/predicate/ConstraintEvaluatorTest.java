@@ -0,0 +1,177 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import org.apache.arrow.memory.BufferAllocator;
+import org.apache.arrow.memory.RootAllocator;
+import org.apache.arrow.vector.VectorSchemaRoot;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static com.amazonaws.athena.connector.lambda.domain.predicate.Constraints.DEFAULT_NO_LIMIT;
+import static org.junit.Assert.*;
+
+public class ConstraintEvaluatorTest
+{
+    private BlockAllocatorImpl allocator;
+    private Schema schema;
+    private ConstraintEvaluator evaluator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+
+        schema = SchemaBuilder.newBuilder()
+                .addIntField("col1")
+                .addBigIntField("col2")
+                .addStringField("col3")
+                .addFloat8Field("col4")
+                .build();
+
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put("col1", SortedRangeSet.of(false, Range.greaterThan(allocator, Types.MinorType.INT.getType(), 10)));
+        summary.put("col2", EquatableValueSet.newBuilder(allocator, Types.MinorType.BIGINT.getType(), true, true)
+                .add(1L).add(5L).build());
+        summary.put("col3", SortedRangeSet.of(false, Range.equal(allocator, Types.MinorType.VARCHAR.getType(), "abc")));
+        summary.put("col4", SortedRangeSet.of(false, Range.lessThanOrEqual(allocator, Types.MinorType.FLOAT8.getType(), 1.5D)));
+
+        evaluator = new ConstraintEvaluator(allocator, schema,
+                new Constraints(summary, Collections.emptyList(), Collections.emptyList(), DEFAULT_NO_LIMIT));
+    }
+
+    @After
+    public void tearDown()
+            throws Exception
+    {
+        evaluator.close();
+        allocator.close();
+    }
+
+    @Test
+    public void applyTest()
+    {
+        assertTrue(evaluator.apply("col1", 11));
+        assertFalse(evaluator.apply("col1", 10));
+        assertFalse(evaluator.apply("col1", null));
+
+        assertTrue(evaluator.apply("col2", 5L));
+        assertFalse(evaluator.apply("col2", 2L));
+        assertTrue(evaluator.apply("col2", null));
+
+        assertTrue(evaluator.apply("col3", "abc"));
+        assertFalse(evaluator.apply("col3", "abd"));
+
+        assertTrue(evaluator.apply("col4", 1.5D));
+        assertFalse(evaluator.apply("col4", 1.6D));
+
+        //Fields without constraints, or unknown fields, always pass.
+        assertTrue(evaluator.apply("col5", 1));
+    }
+
+    @Test
+    public void applyCoercedValueTest()
+    {
+        //These values are not of the java type Arrow uses for the field and so must be coerced.
+        assertTrue(evaluator.apply("col1", 11L));
+        assertFalse(evaluator.apply("col1", 10L));
+    }
+
+    @Test
+    public void selectRowsTest()
+            throws Exception
+    {
+        Object[][] rows = {
+                {11, 5L, "abc", 1.0D},
+                {11, null, "abc", 1.5D},
+                {11, 2L, "abc", 1.0D},
+                {11, 1L, "abc", null},
+                {10, 1L, "abc", 1.0D},
+                {12, 1L, "abd", 1.0D},
+                {13, 1L, "abc", -1.0D}
+        };
+
+        try (BufferAllocator batchAllocator = new RootAllocator();
+                VectorSchemaRoot batch = VectorSchemaRoot.create(schema, batchAllocator)) {
+            batch.allocateNew();
+            for (int row = 0; row < rows.length; row++) {
+                for (int col = 0; col < rows[row].length; col++) {
+                    BlockUtils.setValue(batch.getVector("col" + (col + 1)), row, rows[row][col]);
+                }
+            }
+            batch.setRowCount(rows.length);
+
+            int[] selection = new int[rows.length];
+            for (int i = 0; i < selection.length; i++) {
+                selection[i] = i;
+            }
+            int numSelected = evaluator.selectRows(batch, selection, selection.length);
+
+            assertEquals(3, numSelected);
+            assertArrayEquals(new int[] {0, 1, 6}, Arrays.copyOf(selection, numSelected));
+        }
+    }
+
+    @Test
+    public void applyConcurrentlyTest()
+            throws Exception
+    {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Integer>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> {
+                    int matched = 0;
+                    for (int j = 0; j < 1_000; j++) {
+                        //Mix the marker free and coerced paths.
+                        Object value = (j % 2 == 0) ? (Object) j : (Object) (long) j;
+                        if (evaluator.apply("col1", value) && evaluator.apply("col2", 5L)) {
+                            matched++;
+                        }
+                    }
+                    return matched;
+                }));
+            }
+            for (Future<Integer> next : results) {
+                assertEquals(989, next.get().intValue());
+            }
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.amazonaws.athena.connector.lambda.domain.predicate;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.apache.arrow.vector.types.Types.MinorType.BIGINT;
+import static org.apache.arrow.vector.types.Types.MinorType.FLOAT8;
+import static org.apache.arrow.vector.types.Types.MinorType.INT;
+import static org.apache.arrow.vector.types.Types.MinorType.VARCHAR;
+import static org.junit.Assert.*;
+
+public class ConstraintProjectorTest
+{
+    private BlockAllocatorImpl allocator;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void longSortedRangeSetTest()
+    {
+        List<ValueSet> valueSets = new ArrayList<>();
+        valueSets.add(SortedRangeSet.of(false,
+                Range.range(allocator, BIGINT.getType(), -10L, false, -5L, true),
+                Range.equal(allocator, BIGINT.getType(), 0L),
+                Range.range(allocator, BIGINT.getType(), 5L, true, 10L, false)));
+        valueSets.add(SortedRangeSet.of(true,
+                Range.lessThan(allocator, BIGINT.getType(), -3L),
+                Range.greaterThanOrEqual(allocator, BIGINT.getType(), 3L)));
+        valueSets.add(SortedRangeSet.of(false, Range.range(allocator, BIGINT.getType(), 4L, false, 5L, false)));
+        valueSets.add(SortedRangeSet.notNull(allocator, BIGINT.getType()));
+        valueSets.add(SortedRangeSet.onlyNull(BIGINT.getType()));
+
+        for (ValueSet next : valueSets) {
+            LongConstraintProjector projector = LongConstraintProjector.of(next).get();
+            assertLongEquivalent(next, projector);
+        }
+    }
+
+    @Test
+    public void longEquatableValueSetTest()
+    {
+        for (boolean whiteList : new boolean[] {true, false}) {
+            for (boolean nullAllowed : new boolean[] {true, false}) {
+                ValueSet valueSet = EquatableValueSet.newBuilder(allocator, INT.getType(), whiteList, nullAllowed)
+                        .add(7).add(-2).add(3)
+                        .build();
+                LongConstraintProjector projector = LongConstraintProjector.of(valueSet).get();
+                for (int i = -20; i <= 20; i++) {
+                    assertEquals("value " + i, valueSet.containsValue(i), projector.apply((long) i));
+                    assertEquals("value " + i, valueSet.containsValue(i), projector.apply((Object) i));
+                }
+                assertEquals(nullAllowed, projector.applyNull());
+            }
+        }
+    }
+
+    @Test
+    public void longFractionalValueTest()
+    {
+        ValueSet valueSet = EquatableValueSet.newBuilder(allocator, BIGINT.getType(), true, false).add(5L).build();
+        LongConstraintProjector projector = LongConstraintProjector.of(valueSet).get();
+        assertTrue(projector.apply((Object) 5L));
+        assertTrue(projector.apply((Object) 5));
+        assertTrue(projector.apply((Object) (short) 5));
+        assertTrue(projector.apply((Object) (byte) 5));
+
+        //Fractional values must not be truncated into a match, they are left to the ValueSet which, like before
+        //constraints were compiled, can't compare them to BIGINT values.
+        for (Object next : new Object[] {5.5D, 5.5F, new BigDecimal("5.5")}) {
+            try {
+                projector.apply(next);
+                fail("Expected " + next + " to be tested by the ValueSet");
+            }
+            catch (ClassCastException ex) {
+                //expected
+            }
+        }
+    }
+
+    @Test
+    public void longAllOrNoneTest()
+    {
+        LongConstraintProjector all = LongConstraintProjector.of(new AllOrNoneValueSet(BIGINT.getType(), true, false)).get();
+        assertTrue(all.apply(Long.MIN_VALUE));
+        assertTrue(all.apply(Long.MAX_VALUE));
+        assertFalse(all.applyNull());
+
+        LongConstraintProjector none = LongConstraintProjector.of(new AllOrNoneValueSet(BIGINT.getType(), false, true)).get();
+        assertFalse(none.apply(0L));
+        assertTrue(none.applyNull());
+    }
+
+    @Test
+    public void doubleSortedRangeSetTest()
+    {
+        List<ValueSet> valueSets = new ArrayList<>();
+        valueSets.add(SortedRangeSet.of(false,
+                Range.range(allocator, FLOAT8.getType(), -10.5D, false, -5D, true),
+                Range.equal(allocator, FLOAT8.getType(), 0D),
+                Range.range(allocator, FLOAT8.getType(), 5D, true, 10.5D, false)));
+        valueSets.add(SortedRangeSet.of(true,
+                Range.lessThan(allocator, FLOAT8.getType(), -3D),
+                Range.greaterThan(allocator, FLOAT8.getType(), 3D)));
+        valueSets.add(SortedRangeSet.of(false,
+                Range.lessThanOrEqual(allocator, FLOAT8.getType(), 1D),
+                Range.range(allocator, FLOAT8.getType(), 1D, false, 2D, true)));
+        valueSets.add(SortedRangeSet.notNull(allocator, FLOAT8.getType()));
+
+        for (ValueSet next : valueSets) {
+            DoubleConstraintProjector projector = DoubleConstraintProjector.of(next).get();
+            for (double i = -12D; i <= 12D; i += 0.25D) {
+                assertEquals(next + " value " + i, next.containsValue(i), projector.apply(i));
+            }
+            assertEquals(next.isNullAllowed(), projector.applyNull());
+        }
+    }
+
+    @Test
+    public void doubleEquatableValueSetTest()
+    {
+        ValueSet valueSet = EquatableValueSet.newBuilder(allocator, FLOAT8.getType(), true, false)
+                .add(1.5D).add(-2D)
+                .build();
+        DoubleConstraintProjector projector = DoubleConstraintProjector.of(valueSet).get();
+        assertTrue(projector.apply(1.5D));
+        assertTrue(projector.apply(-2D));
+        assertFalse(projector.apply(2D));
+        assertFalse(projector.applyNull());
+    }
+
+    @Test
+    public void unsupportedTypeTest()
+    {
+        ValueSet valueSet = SortedRangeSet.notNull(allocator, VARCHAR.getType());
+        assertFalse(LongConstraintProjector.of(valueSet).isPresent());
+        assertFalse(DoubleConstraintProjector.of(valueSet).isPresent());
+        assertFalse(DoubleConstraintProjector.of(SortedRangeSet.notNull(allocator, BIGINT.getType())).isPresent());
+    }
+
+    private void assertLongEquivalent(ValueSet valueSet, LongConstraintProjector projector)
+    {
+        for (long i = -20; i <= 20; i++) {
+            assertEquals(valueSet + " value " + i, valueSet.containsValue(i), projector.apply(i));
+        }
+        assertEquals(valueSet.isNullAllowed(), projector.applyNull());
+    }
+}
@@ -23,11 +23,14 @@ package com.amazonaws.athena.connector.lambda.domain.predicate;
 import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
 import org.apache.arrow.vector.types.Types;
 import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.util.Text;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.junit.Assert.*;
 
@@ -325,4 +328,46 @@ public class EquatableValueSetTest
         assertEquals(EquatableValueSet.of(allocator, INT, 0).complement(allocator).subtract(allocator, EquatableValueSet.of(allocator, INT, 0, 1)), EquatableValueSet.of(allocator, INT, 0, 1).complement(allocator));
         assertEquals(EquatableValueSet.of(allocator, INT, 0).complement(allocator).subtract(allocator, EquatableValueSet.of(allocator, INT, 0, 1).complement(allocator)), EquatableValueSet.of(allocator, INT, 1));
     }
+
+    @Test
+    public void testLargeInList()
+            throws Exception
+    {
+        ArrowType bigInt = Types.MinorType.BIGINT.getType();
+        ArrowType float8 = Types.MinorType.FLOAT8.getType();
+        ArrowType varchar = Types.MinorType.VARCHAR.getType();
+        List<Object> ints = new ArrayList<>();
+        List<Object> longs = new ArrayList<>();
+        List<Object> doubles = new ArrayList<>();
+        List<Object> strings = new ArrayList<>();
+        for (int i = 0; i < 1_000; i++) {
+            ints.add(i * 3);
+            longs.add(i * 3L);
+            doubles.add(i * 3D);
+            strings.add("value_" + (i * 3));
+        }
+
+        EquatableValueSet intSet = EquatableValueSet.of(allocator, INT, false, ints);
+        EquatableValueSet longSet = EquatableValueSet.of(allocator, bigInt, true, longs);
+        EquatableValueSet doubleSet = EquatableValueSet.of(allocator, float8, false, doubles);
+        EquatableValueSet stringSet = EquatableValueSet.of(allocator, varchar, false, strings);
+        EquatableValueSet blackList = intSet.complement(allocator);
+
+        for (int i = -10; i < 3_010; i++) {
+            boolean expected = i >= 0 && i < 3_000 && i % 3 == 0;
+            assertEquals(expected, intSet.containsValue(i));
+            assertEquals(expected, intSet.containsValue(Marker.exactly(allocator, INT, i)));
+            assertEquals(!expected, blackList.containsValue(i));
+            assertEquals(expected, longSet.containsValue((long) i));
+            assertEquals(expected, doubleSet.containsValue((double) i));
+            assertEquals(expected, stringSet.containsValue("value_" + i));
+            assertEquals(expected, stringSet.containsValue(new Text("value_" + i)));
+        }
+
+        assertFalse(intSet.containsValue((Object) null));
+        assertTrue(longSet.containsValue((Object) null));
+        assertFalse(doubleSet.containsValue(-0D));
+        assertTrue(doubleSet.containsValue(0D));
+        assertFalse(doubleSet.containsValue(Double.NaN));
+    }
 }
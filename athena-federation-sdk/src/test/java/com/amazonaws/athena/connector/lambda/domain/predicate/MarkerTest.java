@@ -30,6 +30,8 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import static org.junit.Assert.*;
 
@@ -173,4 +175,24 @@ public class MarkerTest
         catch (IllegalStateException e) {
         }
     }
+
+    @Test
+    public void testFactoryCloseReleasesLeasesOfAllThreads()
+            throws Exception
+    {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            MarkerFactory factory = new MarkerFactory(allocator);
+            executor.submit(() -> factory.create(Types.MinorType.INT.getType(), 1, Marker.Bound.EXACTLY)).get();
+            factory.close();
+
+            //The other thread's lease on the closed Block was released so it leases from a new Block.
+            Marker marker = executor.submit(() -> factory.create(Types.MinorType.INT.getType(), 2, Marker.Bound.EXACTLY)).get();
+            assertEquals(2, marker.getValue());
+            factory.close();
+        }
+        finally {
+            executor.shutdownNow();
+        }
+    }
 }
@@ -0,0 +1,262 @@
+package com.amazonaws.athena.connector.lambda.handlers;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.athena.connector.lambda.QueryStatusChecker;
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocator;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.BlockWriter;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.domain.Split;
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Constraints;
+import com.amazonaws.athena.connector.lambda.domain.predicate.Range;
+import com.amazonaws.athena.connector.lambda.domain.predicate.SortedRangeSet;
+import com.amazonaws.athena.connector.lambda.domain.predicate.ValueSet;
+import com.amazonaws.athena.connector.lambda.domain.spill.S3SpillLocation;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetSplitsResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableLayoutResponse;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableRequest;
+import com.amazonaws.athena.connector.lambda.metadata.GetTableResponse;
+import com.amazonaws.athena.connector.lambda.metadata.ListSchemasRequest;
+import com.amazonaws.athena.connector.lambda.metadata.ListSchemasResponse;
+import com.amazonaws.athena.connector.lambda.metadata.ListTablesRequest;
+import com.amazonaws.athena.connector.lambda.metadata.ListTablesResponse;
+import com.amazonaws.athena.connector.lambda.security.IdentityUtil;
+import com.amazonaws.athena.connector.lambda.security.LocalKeyFactory;
+import com.amazonaws.services.athena.AmazonAthena;
+import com.amazonaws.services.secretsmanager.AWSSecretsManager;
+import com.google.common.collect.ImmutableMap;
+import org.apache.arrow.vector.complex.reader.FieldReader;
+import org.apache.arrow.vector.types.Types;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.mockito.Mockito.mock;
+
+public class MetadataHandlerTest
+{
+    private static final String PARTITION_COL = "day";
+    private static final int PARTITIONS_PER_PAGE = 10;
+    private static final int NUM_PARTITIONS = 30;
+
+    private final AtomicInteger pagesRequested = new AtomicInteger();
+    private BlockAllocator allocator;
+    private MetadataHandler handler;
+
+    @Before
+    public void setUp()
+    {
+        allocator = new BlockAllocatorImpl();
+        handler = new MetadataHandler(new LocalKeyFactory(),
+                mock(AWSSecretsManager.class),
+                mock(AmazonAthena.class),
+                "test",
+                "spill-bucket",
+                "spill-prefix",
+                ImmutableMap.of())
+        {
+            @Override
+            public ListSchemasResponse doListSchemaNames(BlockAllocator allocator, ListSchemasRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public ListTablesResponse doListTables(BlockAllocator allocator, ListTablesRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public GetTableResponse doGetTable(BlockAllocator allocator, GetTableRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public void getPartitions(BlockWriter blockWriter, GetTableLayoutRequest request, QueryStatusChecker queryStatusChecker)
+            {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public String getPartitions(BlockWriter blockWriter, GetTableLayoutRequest request, QueryStatusChecker queryStatusChecker,
+                    String continuationToken)
+            {
+                pagesRequested.incrementAndGet();
+                int start = (continuationToken == null) ? 0 : Integer.parseInt(continuationToken);
+                for (int day = start; day < start + PARTITIONS_PER_PAGE; day++) {
+                    final int value = day;
+                    blockWriter.writeRows((Block block, int row) -> block.setValue(PARTITION_COL, row, value) ? 1 : 0);
+                }
+                return (start + PARTITIONS_PER_PAGE < NUM_PARTITIONS) ? String.valueOf(start + PARTITIONS_PER_PAGE) : null;
+            }
+
+            @Override
+            public GetSplitsResponse doGetSplits(BlockAllocator allocator, GetSplitsRequest request)
+            {
+                throw new UnsupportedOperationException();
+            }
+        };
+    }
+
+    @After
+    public void tearDown()
+    {
+        allocator.close();
+    }
+
+    @Test
+    public void doGetTableLayoutPaginated()
+            throws Exception
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(PARTITION_COL, SortedRangeSet.of(false,
+                Range.range(allocator, Types.MinorType.INT.getType(), 5, true, 25, false)));
+
+        try (GetTableLayoutResponse response = handler.doGetTableLayout(allocator, makeLayoutRequest(summary))) {
+            assertEquals(NUM_PARTITIONS / PARTITIONS_PER_PAGE, pagesRequested.get());
+            Block partitions = response.getPartitions();
+            assertEquals(20, partitions.getRowCount());
+            FieldReader reader = partitions.getFieldReader(PARTITION_COL);
+            for (int i = 0; i < partitions.getRowCount(); i++) {
+                reader.setPosition(i);
+                assertEquals(5 + i, reader.readInteger().intValue());
+            }
+        }
+    }
+
+    @Test
+    public void doGetTableLayoutNoneConstraint()
+            throws Exception
+    {
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(PARTITION_COL, SortedRangeSet.none(Types.MinorType.INT.getType()));
+
+        try (GetTableLayoutResponse response = handler.doGetTableLayout(allocator, makeLayoutRequest(summary))) {
+            assertEquals(0, pagesRequested.get());
+            assertEquals(0, response.getPartitions().getRowCount());
+        }
+    }
+
+    @Test
+    public void doGetTableLayoutIsNullConstraint()
+            throws Exception
+    {
+        //IS NULL has no ranges but can still match partitions, so they must be enumerated.
+        Map<String, ValueSet> summary = new HashMap<>();
+        summary.put(PARTITION_COL, SortedRangeSet.onlyNull(Types.MinorType.INT.getType()));
+
+        try (GetTableLayoutResponse response = handler.doGetTableLayout(allocator, makeLayoutRequest(summary))) {
+            assertEquals(NUM_PARTITIONS / PARTITIONS_PER_PAGE, pagesRequested.get());
+            assertEquals(0, response.getPartitions().getRowCount());
+        }
+    }
+
+    @Test
+    public void generateSplits()
+            throws Exception
+    {
+        Schema partitionSchema = SchemaBuilder.newBuilder().addIntField(PARTITION_COL).build();
+        Block partitions = allocator.createBlock(partitionSchema);
+        for (int i = 0; i < 5; i++) {
+            BlockUtils.setValue(partitions.getFieldVector(PARTITION_COL), i, i);
+        }
+        partitions.setRowCount(5);
+
+        GetSplitsRequest request = new GetSplitsRequest(IdentityUtil.fakeIdentity(),
+                "queryId",
+                "catalog",
+                new TableName("schema", "table"),
+                partitions,
+                Collections.singletonList(PARTITION_COL),
+                new Constraints(new HashMap<>(), Collections.emptyList(), Collections.emptyList(), Constraints.DEFAULT_NO_LIMIT),
+                null);
+
+        //Each partition generates 2 splits, so 3 splits per request ends each page after 2 partitions.
+        MetadataHandler.SplitGenerator splitGenerator = (Block block, int partitionRow, Set<Split> splits) -> {
+            for (int i = 0; i < 2; i++) {
+                splits.add(Split.newBuilder(makeSpillLocation(), null)
+                        .add(PARTITION_COL, String.valueOf(partitionRow))
+                        .add("part", String.valueOf(i))
+                        .build());
+            }
+        };
+
+        Set<Split> allSplits = new HashSet<>();
+        int numRequests = 0;
+        String continuationToken = null;
+        do {
+            GetSplitsResponse response = handler.generateSplits(new GetSplitsRequest(request, continuationToken), 3, splitGenerator);
+            allSplits.addAll(response.getSplits());
+            continuationToken = response.getContinuationToken();
+            numRequests++;
+        }
+        while (continuationToken != null);
+
+        assertEquals(3, numRequests);
+        assertEquals(10, allSplits.size());
+        assertNull(continuationToken);
+    }
+
+    private GetTableLayoutRequest makeLayoutRequest(Map<String, ValueSet> summary)
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addIntField(PARTITION_COL)
+                .addStringField("col1")
+                .build();
+
+        return new GetTableLayoutRequest(IdentityUtil.fakeIdentity(),
+                "queryId",
+                "catalog",
+                new TableName("schema", "table"),
+                new Constraints(summary, Collections.emptyList(), Collections.emptyList(), Constraints.DEFAULT_NO_LIMIT),
+                schema,
+                Collections.singleton(PARTITION_COL));
+    }
+
+    private static S3SpillLocation makeSpillLocation()
+    {
+        return S3SpillLocation.newBuilder()
+                .withBucket("spill-bucket")
+                .withPrefix("spill-prefix")
+                .withQueryId("queryId")
+                .withSplitId(UUID.randomUUID().toString())
+                .build();
+    }
+}
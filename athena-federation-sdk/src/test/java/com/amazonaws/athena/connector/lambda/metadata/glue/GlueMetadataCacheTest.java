@@ -0,0 +1,162 @@
+package com.amazonaws.athena.connector.lambda.metadata.glue;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.amazonaws.services.glue.model.GetTablesRequest;
+import com.amazonaws.services.glue.model.GetTablesResult;
+import com.amazonaws.services.glue.model.Table;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class GlueMetadataCacheTest
+{
+    @Test
+    public void disabledTest()
+            throws Exception
+    {
+        GlueMetadataCache cache = GlueMetadataCache.fromConfig(ImmutableMap.of());
+        assertFalse(cache.isEnabled());
+
+        AtomicInteger loads = new AtomicInteger();
+        for (int i = 0; i < 3; i++) {
+            cache.getTable("catalog", "db", "table", () -> {
+                loads.incrementAndGet();
+                return new Table().withName("table");
+            });
+        }
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    public void getTableTest()
+            throws Exception
+    {
+        GlueMetadataCache cache = GlueMetadataCache.fromConfig(ImmutableMap.of("glue_cache_ttl_seconds", "60"));
+        assertTrue(cache.isEnabled());
+
+        AtomicInteger loads = new AtomicInteger();
+        Table table1 = cache.getTable("catalog", "db", "table1", () -> {
+            loads.incrementAndGet();
+            return new Table().withName("table1");
+        });
+        Table cached = cache.getTable("catalog", "db", "table1", () -> {
+            loads.incrementAndGet();
+            return new Table().withName("table1");
+        });
+        assertSame(table1, cached);
+        assertEquals(1, loads.get());
+
+        //Tables are keyed by catalog, database, and name.
+        cache.getTable("other_catalog", "db", "table1", () -> {
+            loads.incrementAndGet();
+            return new Table().withName("table1");
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getTablesTest()
+            throws Exception
+    {
+        GlueMetadataCache cache = GlueMetadataCache.fromConfig(ImmutableMap.of("glue_cache_ttl_seconds", "60"));
+
+        AtomicInteger loads = new AtomicInteger();
+        GetTablesRequest request = new GetTablesRequest().withCatalogId("catalog").withDatabaseName("db");
+        GetTablesResult page1 = cache.getTables(request, () -> {
+            loads.incrementAndGet();
+            return new GetTablesResult().withNextToken("token");
+        });
+        assertSame(page1, cache.getTables(request.clone(), () -> {
+            loads.incrementAndGet();
+            return new GetTablesResult();
+        }));
+        assertEquals(1, loads.get());
+
+        //Each page is cached separately.
+        request.setNextToken("token");
+        cache.getTables(request, () -> {
+            loads.incrementAndGet();
+            return new GetTablesResult();
+        });
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void getConvertedTest()
+            throws Exception
+    {
+        GlueMetadataCache cache = GlueMetadataCache.fromConfig(ImmutableMap.of("glue_cache_ttl_seconds", "60"));
+
+        AtomicInteger conversions = new AtomicInteger();
+        Table version1 = new Table().withDatabaseName("db").withName("table").withVersionId("1");
+        Table version2 = new Table().withDatabaseName("db").withName("table").withVersionId("2");
+        Table noVersion = new Table().withDatabaseName("db").withName("table");
+        Function<Table, String> converter = (Table next) -> {
+            conversions.incrementAndGet();
+            return next.getVersionId();
+        };
+
+        assertEquals("1", cache.getConverted("catalog", version1, converter));
+        assertEquals("1", cache.getConverted("catalog", version1, converter));
+        assertEquals(1, conversions.get());
+
+        //A new version of the table is always converted.
+        assertEquals("2", cache.getConverted("catalog", version2, converter));
+        assertEquals(2, conversions.get());
+
+        cache.getConverted("catalog", noVersion, converter);
+        cache.getConverted("catalog", noVersion, converter);
+        assertEquals(4, conversions.get());
+    }
+
+    @Test
+    public void backgroundRefreshTest()
+            throws Exception
+    {
+        GlueMetadataCache cache = new GlueMetadataCache(60_000, 100, 100);
+
+        AtomicInteger loads = new AtomicInteger();
+        Table first = cache.getTable("catalog", "db", "table", () -> new Table().withVersionId(String.valueOf(loads.incrementAndGet())));
+        assertEquals("1", first.getVersionId());
+
+        Thread.sleep(200);
+        //The stale Table is served while it is reloaded in the background.
+        assertSame(first, cache.getTable("catalog", "db", "table", () -> new Table().withVersionId(String.valueOf(loads.incrementAndGet()))));
+
+        long deadline = System.currentTimeMillis() + 5_000;
+        Table refreshed = first;
+        while (refreshed == first && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+            refreshed = cache.getTable("catalog", "db", "table", () -> {
+                throw new IllegalStateException("Refreshed entries should not be loaded in the foreground");
+            });
+        }
+        assertEquals("2", refreshed.getVersionId());
+    }
+}
@@ -0,0 +1,70 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.google.common.collect.ImmutableMap;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class EmfMetricsSinkTest
+{
+    @Test
+    public void publish()
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        EmfMetricsSink sink = new EmfMetricsSink("TestNamespace", new PrintStream(out, true, StandardCharsets.UTF_8.name()));
+
+        SplitMetrics metrics = new SplitMetrics();
+        metrics.recordRows(2);
+        metrics.recordRows(0);
+        metrics.recordBytesWritten(123);
+        metrics.complete();
+
+        sink.publish(ImmutableMap.of("Connector", "test"), ImmutableMap.of("QueryId", "query-1"), metrics);
+
+        String line = new String(out.toByteArray(), StandardCharsets.UTF_8).trim();
+        assertEquals("EMF requires one JSON object per line", -1, line.indexOf('\n'));
+        JsonNode root = new ObjectMapper().readTree(line);
+
+        JsonNode directive = root.get("_aws").get("CloudWatchMetrics").get(0);
+        assertTrue(root.get("_aws").get("Timestamp").isNumber());
+        assertEquals("TestNamespace", directive.get("Namespace").asText());
+        assertEquals("Connector", directive.get("Dimensions").get(0).get(0).asText());
+        assertEquals(SplitMetrics.Metric.values().length, directive.get("Metrics").size());
+        assertEquals("RowsRead", directive.get("Metrics").get(0).get("Name").asText());
+        assertEquals("Count", directive.get("Metrics").get(0).get("Unit").asText());
+
+        assertEquals("test", root.get("Connector").asText());
+        assertEquals("query-1", root.get("QueryId").asText());
+        assertEquals(3, root.get("RowsRead").asLong());
+        assertEquals(1, root.get("RowsFiltered").asLong());
+        assertEquals(123, root.get("BytesWritten").asLong());
+    }
+}
@@ -0,0 +1,95 @@
+package com.amazonaws.athena.connector.lambda.metrics;
+
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class SplitMetricsTest
+{
+    @Test
+    public void rowAccounting()
+    {
+        SplitMetrics metrics = new SplitMetrics();
+        metrics.recordRows(1);
+        metrics.recordRows(0);
+        metrics.recordRows(3);
+        metrics.recordBatch(10, 4);
+
+        assertEquals(15, metrics.getValue(SplitMetrics.Metric.ROWS_READ));
+        assertEquals(8, metrics.getValue(SplitMetrics.Metric.ROWS_WRITTEN));
+        assertEquals(7, metrics.getValue(SplitMetrics.Metric.ROWS_FILTERED));
+    }
+
+    @Test
+    public void spillAccounting()
+    {
+        SplitMetrics metrics = new SplitMetrics();
+        for (int i = 0; i < 99; i++) {
+            metrics.recordSpill(100, TimeUnit.MILLISECONDS.toNanos(3));
+        }
+        metrics.recordSpill(100, TimeUnit.MILLISECONDS.toNanos(500));
+        metrics.recordBytesWritten(50);
+
+        assertEquals(100, metrics.getValue(SplitMetrics.Metric.BLOCKS_SPILLED));
+        assertEquals(100 * 100 + 50, metrics.getValue(SplitMetrics.Metric.BYTES_WRITTEN));
+        //3 ms falls in the [2, 4) ms bucket
+        assertEquals(4, metrics.getValue(SplitMetrics.Metric.SPILL_LATENCY_P50));
+        assertEquals(4, metrics.getValue(SplitMetrics.Metric.SPILL_LATENCY_P99));
+        assertEquals(500, metrics.getValue(SplitMetrics.Metric.SPILL_LATENCY_MAX));
+    }
+
+    @Test
+    public void timeAccounting()
+            throws InterruptedException
+    {
+        SplitMetrics metrics = new SplitMetrics();
+        metrics.recordWriteTime(TimeUnit.MILLISECONDS.toNanos(5));
+        metrics.recordThrottleDelay(TimeUnit.MILLISECONDS.toNanos(7));
+        metrics.recordSpillQueueWait(TimeUnit.MILLISECONDS.toNanos(9));
+        Thread.sleep(20);
+        metrics.complete();
+
+        long total = metrics.getValue(SplitMetrics.Metric.TOTAL_TIME);
+        assertTrue(total >= 20);
+        assertEquals(5, metrics.getValue(SplitMetrics.Metric.WRITE_TIME));
+        assertEquals(7, metrics.getValue(SplitMetrics.Metric.THROTTLE_DELAY));
+        assertEquals(9, metrics.getValue(SplitMetrics.Metric.SPILL_QUEUE_WAIT));
+        long source = metrics.getValue(SplitMetrics.Metric.SOURCE_TIME);
+        assertTrue(source >= total - 6 && source <= total - 4);
+
+        //Once complete, the total time no longer advances.
+        Thread.sleep(5);
+        assertEquals(total, metrics.getValue(SplitMetrics.Metric.TOTAL_TIME));
+    }
+
+    @Test
+    public void emptyHistogram()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getPercentileMillis(99));
+    }
+}
@@ -30,6 +30,9 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+
 import static org.junit.Assert.*;
 
 public class BlockCryptoTest
@@ -71,4 +74,52 @@ public class BlockCryptoTest
         Block actual = crypto.decrypt(key, cypher, schema);
         assertEquals(expected, actual);
     }
+
+    @Test
+    public void providersAreCompatible()
+            throws Exception
+    {
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .build();
+
+        Block expected = allocator.createBlock(schema);
+        for (int i = 0; i < 100; i++) {
+            BlockUtils.setValue(expected.getFieldVector("col1"), i, i);
+            BlockUtils.setValue(expected.getFieldVector("col2"), i, "VarChar" + i);
+        }
+        expected.setRowCount(100);
+
+        AesGcmBlockCrypto jdk = new AesGcmBlockCrypto(allocator, AesGcmBlockCrypto.Provider.JDK);
+        AesGcmBlockCrypto bouncyCastle = new AesGcmBlockCrypto(allocator, AesGcmBlockCrypto.Provider.BOUNCY_CASTLE);
+        EncryptionKey key = keyFactory.create();
+
+        //Encrypt more than once with the same key, as happens for every Block spilled by a split, to exercise reuse.
+        byte[] jdkCypher = jdk.encrypt(key, expected);
+        assertArrayEquals(jdkCypher, jdk.encrypt(key, expected));
+        byte[] bcCypher = bouncyCastle.encrypt(key, expected);
+        assertArrayEquals(bcCypher, bouncyCastle.encrypt(key, expected));
+        assertArrayEquals(jdkCypher, bcCypher);
+
+        ByteArrayOutputStream streamed = new ByteArrayOutputStream();
+        jdk.encrypt(key, expected, streamed);
+        assertArrayEquals(jdkCypher, streamed.toByteArray());
+
+        for (int i = 0; i < 2; i++) {
+            try (Block fromJdk = bouncyCastle.decrypt(key, jdkCypher, schema);
+                    Block fromBc = jdk.decrypt(key, bcCypher, schema)) {
+                assertEquals(expected, fromJdk);
+                assertEquals(expected, fromBc);
+            }
+        }
+
+        //Ciphers cached with a different key must not leak into the next use.
+        EncryptionKey otherKey = keyFactory.create();
+        byte[] otherCypher = jdk.encrypt(otherKey, expected);
+        assertFalse(Arrays.equals(jdkCypher, otherCypher));
+        try (Block actual = jdk.decrypt(otherKey, otherCypher, schema)) {
+            assertEquals(expected, actual);
+        }
+    }
 }
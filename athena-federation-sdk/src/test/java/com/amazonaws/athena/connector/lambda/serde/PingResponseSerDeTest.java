@@ -33,6 +33,7 @@ import java.io.IOException;
 import java.io.InputStream;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 public class PingResponseSerDeTest extends TypedSerDeTest<FederationResponse>
 {
@@ -81,6 +82,46 @@ public class PingResponseSerDeTest extends TypedSerDeTest<FederationResponse>
         logger.info("deserialize: exit");
     }
 
+    @Test
+    public void binarySerDeVersion()
+            throws IOException
+    {
+        logger.info("binarySerDeVersion: enter");
+        PingResponse binaryExpected = new PingResponse("test-catalog", "test-query-id", "test-source-type", 23, 2, 5);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        mapper.writeValue(outputStream, binaryExpected);
+
+        PingResponse actual = (PingResponse) mapper.readValue(new ByteArrayInputStream(outputStream.toByteArray()), FederationResponse.class);
+
+        assertEquals(binaryExpected, actual);
+        assertEquals(5, actual.getBinarySerDeVersion());
+        //Responses from endpoints that don't accept the binary envelope omit the field.
+        assertEquals(0, ((PingResponse) expected).getBinarySerDeVersion());
+        logger.info("binarySerDeVersion: exit");
+    }
+
+    @Test
+    public void spillCompressionCodec()
+            throws IOException
+    {
+        logger.info("spillCompressionCodec: enter");
+        //The codec is written whether or not the binary envelope is accepted.
+        for (int binarySerDeVersion : new int[] {0, 5}) {
+            PingResponse compressedExpected = new PingResponse("test-catalog", "test-query-id", "test-source-type", 23, 2,
+                    binarySerDeVersion, "ZSTD");
+            ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+            mapper.writeValue(outputStream, compressedExpected);
+
+            PingResponse actual = (PingResponse) mapper.readValue(new ByteArrayInputStream(outputStream.toByteArray()), FederationResponse.class);
+
+            assertEquals(compressedExpected, actual);
+            assertEquals("ZSTD", actual.getSpillCompressionCodec());
+            assertEquals(binarySerDeVersion, actual.getBinarySerDeVersion());
+        }
+        assertNull(((PingResponse) expected).getSpillCompressionCodec());
+        logger.info("spillCompressionCodec: exit");
+    }
+
     @Test
     public void testBackwardsAndForwardsCompatibility()
     {
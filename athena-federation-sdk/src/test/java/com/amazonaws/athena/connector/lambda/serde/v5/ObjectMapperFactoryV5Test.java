@@ -0,0 +1,161 @@
+/*-
+ * #%L
+ * Amazon Athena Query Federation SDK
+ * %%
+ * Copyright (C) 2019 - 2023 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connector.lambda.serde.v5;
+
+import com.amazonaws.athena.connector.lambda.data.Block;
+import com.amazonaws.athena.connector.lambda.data.BlockAllocatorImpl;
+import com.amazonaws.athena.connector.lambda.data.BlockUtils;
+import com.amazonaws.athena.connector.lambda.data.SchemaBuilder;
+import com.amazonaws.athena.connector.lambda.records.ReadRecordsResponse;
+import com.amazonaws.athena.connector.lambda.request.FederationResponse;
+import com.amazonaws.athena.connector.lambda.serde.VersionedObjectMapperFactory;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.arrow.vector.types.pojo.ArrowType;
+import org.apache.arrow.vector.types.pojo.Schema;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import static com.amazonaws.athena.connector.lambda.utils.TestUtils.SERDE_VERSION_FIVE;
+import static com.amazonaws.athena.connector.lambda.utils.TestUtils.SERDE_VERSION_FOUR;
+import static org.junit.Assert.*;
+
+public class ObjectMapperFactoryV5Test
+{
+    private BlockAllocatorImpl allocator;
+    private ReadRecordsResponse expected;
+
+    @Before
+    public void setup()
+    {
+        allocator = new BlockAllocatorImpl();
+        Schema schema = SchemaBuilder.newBuilder()
+                .addField("col1", new ArrowType.Int(32, true))
+                .addField("col2", new ArrowType.Utf8())
+                .build();
+
+        Block records = allocator.createBlock(schema);
+        for (int i = 0; i < 1_000; i++) {
+            BlockUtils.setValue(records.getFieldVector("col1"), i, i);
+            BlockUtils.setValue(records.getFieldVector("col2"), i, "value_" + i);
+        }
+        records.setRowCount(1_000);
+        expected = new ReadRecordsResponse("test-catalog", records);
+    }
+
+    @After
+    public void tearDown()
+            throws Exception
+    {
+        expected.close();
+        allocator.close();
+    }
+
+    @Test
+    public void testRoundTrip()
+            throws Exception
+    {
+        ObjectMapper mapper = VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FIVE);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        mapper.writeValue(out, expected);
+
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertTrue(ObjectMapperFactoryV5.isBinaryEnvelope(in));
+        try (ReadRecordsResponse actual = (ReadRecordsResponse) VersionedObjectMapperFactory.create(allocator, in)
+                .readValue(in, FederationResponse.class)) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testSmallerThanJson()
+            throws IOException
+    {
+        ByteArrayOutputStream binary = new ByteArrayOutputStream();
+        VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FIVE).writeValue(binary, expected);
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FOUR).writeValue(json, expected);
+
+        assertTrue(binary.size() < json.size());
+    }
+
+    @Test
+    public void testJsonFallback()
+            throws Exception
+    {
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FOUR).writeValue(json, expected);
+
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(json.toByteArray()));
+        assertFalse(ObjectMapperFactoryV5.isBinaryEnvelope(in));
+        assertFalse(ObjectMapperFactoryV5.isBinaryEnvelope(new byte[] {'{'}));
+        try (ReadRecordsResponse actual = (ReadRecordsResponse) VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FOUR)
+                .readValue(in, FederationResponse.class)) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test
+    public void testWriteValueAsBytes()
+            throws Exception
+    {
+        ObjectMapper mapper = VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FIVE);
+        byte[] bytes = mapper.writeValueAsBytes(expected);
+
+        assertTrue(ObjectMapperFactoryV5.isBinaryEnvelope(bytes));
+        try (ReadRecordsResponse actual = (ReadRecordsResponse) mapper.readValue(bytes, FederationResponse.class)) {
+            assertEquals(expected, actual);
+        }
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWriteValueAsStringUnsupported()
+            throws Exception
+    {
+        VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FIVE).writeValueAsString(expected);
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void testWriterUnsupported()
+    {
+        VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FIVE).writer();
+    }
+
+    @Test(expected = IOException.class)
+    public void testInvalidLength()
+            throws Exception
+    {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        DataOutputStream dataOut = new DataOutputStream(out);
+        dataOut.write("AFB5".getBytes(StandardCharsets.US_ASCII));
+        dataOut.writeInt(Integer.MAX_VALUE);
+        dataOut.writeInt(0);
+
+        VersionedObjectMapperFactory.create(allocator, SERDE_VERSION_FIVE).readValue(out.toByteArray(), FederationResponse.class);
+    }
+}
@@ -39,6 +39,7 @@ public class TestUtils
     public final static int SERDE_VERSION_TWO = 2;
     public final static int SERDE_VERSION_THREE = 3;
     public final static int SERDE_VERSION_FOUR = 4;
+    public final static int SERDE_VERSION_FIVE = 5;
 
     /**
      * Helper to retrieve resources from the class path and enforce they are found
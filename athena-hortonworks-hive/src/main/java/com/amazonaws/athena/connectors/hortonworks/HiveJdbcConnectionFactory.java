@@ -70,7 +70,7 @@ public class HiveJdbcConnectionFactory extends GenericJdbcConnectionFactory
                 derivedJdbcString = databaseConnectionConfig.getJdbcConnectionString();
             }
             Class.forName(databaseConnectionInfo.getDriverClassName()).newInstance();
-            return DriverManager.getConnection(derivedJdbcString, this.jdbcProperties);
+            return getPooledConnection(jdbcCredentialProvider, () -> DriverManager.getConnection(derivedJdbcString, this.jdbcProperties));
         }
         catch (SQLException sqlException) {
             throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException);
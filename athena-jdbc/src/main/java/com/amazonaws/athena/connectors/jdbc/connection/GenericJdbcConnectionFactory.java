@@ -28,6 +28,7 @@ import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
 import java.sql.DriverManager;
+import java.sql.SQLException;
 import java.util.Map;
 import java.util.Properties;
 import java.util.regex.Matcher;
@@ -39,6 +40,8 @@ import java.util.regex.Pattern;
  * <ul>
  * <li>Default ports will be used for the engine if not present.</li>
  * </ul>
+ * Connections are borrowed from a {@link JdbcConnectionPool} so that warm Lambda invocations reuse open connections,
+ * by default the pool shared by all factories in the Lambda is used.
  */
 public class GenericJdbcConnectionFactory
         implements JdbcConnectionFactory
@@ -51,15 +54,29 @@ public class GenericJdbcConnectionFactory
     private final DatabaseConnectionInfo databaseConnectionInfo;
     private final DatabaseConnectionConfig databaseConnectionConfig;
     private final Properties jdbcProperties;
+    private final JdbcConnectionPool connectionPool;
+    private volatile boolean driverRegistered;
 
     /**
      * @param databaseConnectionConfig database connection configuration {@link DatabaseConnectionConfig}
      * @param properties JDBC connection properties.
      */
     public GenericJdbcConnectionFactory(final DatabaseConnectionConfig databaseConnectionConfig, final Map<String, String> properties, final DatabaseConnectionInfo databaseConnectionInfo)
+    {
+        this(databaseConnectionConfig, properties, databaseConnectionInfo, JdbcConnectionPool.getShared());
+    }
+
+    /**
+     * @param databaseConnectionConfig database connection configuration {@link DatabaseConnectionConfig}
+     * @param properties JDBC connection properties.
+     * @param connectionPool pool to borrow connections from, null to open a new connection on every call.
+     */
+    public GenericJdbcConnectionFactory(final DatabaseConnectionConfig databaseConnectionConfig, final Map<String, String> properties,
+            final DatabaseConnectionInfo databaseConnectionInfo, final JdbcConnectionPool connectionPool)
     {
         this.databaseConnectionInfo = Validate.notNull(databaseConnectionInfo, "databaseConnectionInfo must not be null");
         this.databaseConnectionConfig = Validate.notNull(databaseConnectionConfig, "databaseEngine must not be null");
+        this.connectionPool = connectionPool;
 
         this.jdbcProperties = new Properties();
         if (properties != null) {
@@ -72,22 +89,49 @@ public class GenericJdbcConnectionFactory
             throws Exception
     {
         final String derivedJdbcString;
+        // copy so concurrent callers with different credentials don't share the user and password
+        final Properties connectionProperties = new Properties();
+        connectionProperties.putAll(this.jdbcProperties);
         if (jdbcCredentialProvider != null) {
             Matcher secretMatcher = SECRET_NAME_PATTERN.matcher(databaseConnectionConfig.getJdbcConnectionString());
             derivedJdbcString = secretMatcher.replaceAll(Matcher.quoteReplacement(""));
 
-            jdbcProperties.put("user", jdbcCredentialProvider.getCredential().getUser());
-            jdbcProperties.put("password", jdbcCredentialProvider.getCredential().getPassword());
+            connectionProperties.put("user", jdbcCredentialProvider.getCredential().getUser());
+            connectionProperties.put("password", jdbcCredentialProvider.getCredential().getPassword());
         }
         else {
             derivedJdbcString = databaseConnectionConfig.getJdbcConnectionString();
         }
 
-        // register driver
-        Class.forName(databaseConnectionInfo.getDriverClassName()).newInstance();
+        // register driver, once is enough since DriverManager keeps it registered
+        if (!driverRegistered) {
+            Class.forName(databaseConnectionInfo.getDriverClassName()).newInstance();
+            driverRegistered = true;
+        }
+
+        // borrow or create connection
+        return getPooledConnection(jdbcCredentialProvider, () -> DriverManager.getConnection(derivedJdbcString, connectionProperties));
+    }
 
-        // create connection
-        return DriverManager.getConnection(derivedJdbcString, this.jdbcProperties);
+    /**
+     * Borrows a connection to this factory's database from the connection pool, opening a new one with the supplier if
+     * there is no usable idle connection. Subclasses which derive their own connection string should open connections
+     * through this method so that they are pooled as well.
+     *
+     * @param jdbcCredentialProvider jdbc user and password provider, connections are only reused for the same credential.
+     * @param connectionSupplier opens a new connection to the database.
+     * @return JDBC connection. See {@link Connection}.
+     * @throws SQLException if a new connection could not be opened.
+     */
+    protected Connection getPooledConnection(final JdbcCredentialProvider jdbcCredentialProvider, final JdbcConnectionPool.ConnectionSupplier connectionSupplier)
+            throws SQLException
+    {
+        if (connectionPool == null) {
+            return connectionSupplier.open();
+        }
+        JdbcCredential credential = (jdbcCredentialProvider != null) ? jdbcCredentialProvider.getCredential() : null;
+        String endpoint = getClass().getName() + ":" + databaseConnectionConfig.getJdbcConnectionString();
+        return connectionPool.getConnection(endpoint, credential, connectionSupplier);
     }
 
     private String encodeValue(String value)
@@ -0,0 +1,478 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.connection;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.base.Ticker;
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.Validate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Keeps recently used JDBC connections open so that warm Lambda invocations can skip the TCP, TLS and authentication
+ * handshake with the database. Connections are pooled per endpoint, borrowed connections are handed out as wrappers
+ * whose close() returns the underlying connection to the pool instead of closing it. The statements, result sets and
+ * metadata created through a borrowed connection are wrapped too, so that they hand back the borrowed connection rather
+ * than the pooled one and so that connection exceptions they raise keep the connection out of the pool.
+ * <p>
+ * The pool has no background threads, Lambda freezes the container between invocations so idle connections are instead
+ * evicted lazily whenever the endpoint is used. Before a pooled connection is handed out it must be younger than the
+ * max lifetime, must not have been idle longer than the idle timeout (which is below the 350 second idle timeout of the
+ * NAT gateway most VPC Lambdas connect through) and must pass {@link Connection#isValid(int)}.
+ * <p>
+ * Each endpoint remembers the credential its connections were opened with. When a different credential is presented
+ * (e.g. the secret was rotated) all idle connections for the endpoint are closed, as are any connections opened with the
+ * old credential when they are returned.
+ */
+public class JdbcConnectionPool
+{
+    private static final Logger LOGGER = LoggerFactory.getLogger(JdbcConnectionPool.class);
+
+    /**
+     * Environment variable which controls the number of idle connections kept per endpoint, 0 disables pooling.
+     */
+    public static final String MAX_IDLE_ENV = "jdbc_pool_max_idle";
+    public static final int DEFAULT_MAX_IDLE = 4;
+    public static final long DEFAULT_IDLE_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(4);
+    public static final long DEFAULT_MAX_LIFETIME_MILLIS = TimeUnit.MINUTES.toMillis(30);
+    public static final int DEFAULT_VALIDATION_TIMEOUT_SECONDS = 5;
+
+    //SQLState class for connection exceptions, the connection should not be reused after one of these.
+    private static final String CONNECTION_EXCEPTION_CLASS = "08";
+    //Methods which change session state that can't be reliably reset when the connection is returned.
+    private static final Set<String> SESSION_STATE_METHODS = ImmutableSet.of("setCatalog", "setSchema", "setReadOnly",
+            "setTransactionIsolation", "setNetworkTimeout", "setClientInfo", "setTypeMap", "setHoldability");
+    //Objects created through a borrowed connection which are wrapped so they can't leak the pooled connection.
+    private static final Set<Class<?>> WRAPPED_TYPES = ImmutableSet.of(Statement.class, PreparedStatement.class,
+            CallableStatement.class, DatabaseMetaData.class, ResultSet.class);
+
+    private static final JdbcConnectionPool SHARED = new JdbcConnectionPool(getMaxIdleFromEnv(), DEFAULT_IDLE_TIMEOUT_MILLIS,
+            DEFAULT_MAX_LIFETIME_MILLIS, DEFAULT_VALIDATION_TIMEOUT_SECONDS, Ticker.systemTicker());
+
+    private final Map<String, Endpoint> endpoints = new ConcurrentHashMap<>();
+    private final int maxIdle;
+    private final long idleTimeoutNanos;
+    private final long maxLifetimeNanos;
+    private final int validationTimeoutSeconds;
+    private final Ticker ticker;
+
+    /**
+     * Opens a new physical connection, used when the pool has no usable idle connection for an endpoint.
+     */
+    public interface ConnectionSupplier
+    {
+        Connection open() throws SQLException;
+    }
+
+    /**
+     * @param maxIdle The max number of idle connections to keep per endpoint.
+     * @param idleTimeoutMillis Idle connections older than this are closed instead of being reused.
+     * @param maxLifetimeMillis Connections older than this are closed instead of being reused.
+     * @param validationTimeoutSeconds The timeout passed to {@link Connection#isValid(int)} when borrowing a connection.
+     */
+    public JdbcConnectionPool(int maxIdle, long idleTimeoutMillis, long maxLifetimeMillis, int validationTimeoutSeconds)
+    {
+        this(maxIdle, idleTimeoutMillis, maxLifetimeMillis, validationTimeoutSeconds, Ticker.systemTicker());
+    }
+
+    @VisibleForTesting
+    JdbcConnectionPool(int maxIdle, long idleTimeoutMillis, long maxLifetimeMillis, int validationTimeoutSeconds, Ticker ticker)
+    {
+        Validate.isTrue(maxIdle >= 0, "maxIdle must not be negative");
+        this.maxIdle = maxIdle;
+        this.idleTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(idleTimeoutMillis);
+        this.maxLifetimeNanos = TimeUnit.MILLISECONDS.toNanos(maxLifetimeMillis);
+        this.validationTimeoutSeconds = validationTimeoutSeconds;
+        this.ticker = Validate.notNull(ticker, "ticker must not be null");
+    }
+
+    /**
+     * @return The pool shared by every connection factory in this Lambda.
+     */
+    public static JdbcConnectionPool getShared()
+    {
+        return SHARED;
+    }
+
+    /**
+     * Borrows a connection for the endpoint, opening a new one if no idle connection is usable. The returned connection
+     * must be closed to return it to the pool.
+     *
+     * @param endpoint Identifies the database, connections are only shared between callers using the same endpoint.
+     * @param credential The credential the connection is opened with, null if the credential is part of the endpoint.
+     * @param connectionSupplier Opens a new connection for the endpoint using the credential.
+     * @return JDBC connection. See {@link Connection}.
+     * @throws SQLException If a new connection could not be opened.
+     */
+    public Connection getConnection(String endpoint, JdbcCredential credential, ConnectionSupplier connectionSupplier)
+            throws SQLException
+    {
+        Validate.notNull(endpoint, "endpoint must not be null");
+        Endpoint pool = endpoints.computeIfAbsent(endpoint, key -> new Endpoint());
+
+        PooledConnection candidate;
+        while ((candidate = poll(pool, credential)) != null) {
+            if (isUsable(candidate)) {
+                LOGGER.debug("getConnection: Reusing pooled connection for endpoint.");
+                return wrap(pool, candidate);
+            }
+            closeQuietly(candidate);
+        }
+
+        Connection connection = connectionSupplier.open();
+        try {
+            return wrap(pool, new PooledConnection(connection, credential, ticker.read(), connection.getAutoCommit()));
+        }
+        catch (SQLException ex) {
+            connection.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Closes all idle connections.
+     */
+    public void clear()
+    {
+        for (Endpoint next : endpoints.values()) {
+            List<PooledConnection> closing;
+            synchronized (next) {
+                closing = new ArrayList<>(next.idle);
+                next.idle.clear();
+            }
+            closing.forEach(this::closeQuietly);
+        }
+    }
+
+    @VisibleForTesting
+    int getIdleCount(String endpoint)
+    {
+        Endpoint pool = endpoints.get(endpoint);
+        if (pool == null) {
+            return 0;
+        }
+        synchronized (pool) {
+            return pool.idle.size();
+        }
+    }
+
+    /**
+     * Takes the most recently used idle connection for the endpoint, if the credential has changed since the endpoint
+     * was last used the idle connections are closed instead.
+     */
+    private PooledConnection poll(Endpoint pool, JdbcCredential credential)
+    {
+        List<PooledConnection> closing = new ArrayList<>();
+        PooledConnection candidate;
+        synchronized (pool) {
+            if (!Objects.equals(pool.credential, credential)) {
+                if (!pool.idle.isEmpty()) {
+                    LOGGER.info("poll: Credential changed, closing {} idle connections.", pool.idle.size());
+                }
+                closing.addAll(pool.idle);
+                pool.idle.clear();
+                pool.credential = credential;
+            }
+            evictExpired(pool, closing);
+            candidate = pool.idle.pollFirst();
+        }
+        closing.forEach(this::closeQuietly);
+        return candidate;
+    }
+
+    private void release(Endpoint pool, PooledConnection pooled)
+    {
+        if (pooled.broken || pooled.dirty || maxIdle == 0 || isExpired(pooled, ticker.read())) {
+            closeQuietly(pooled);
+            return;
+        }
+
+        try {
+            Connection connection = pooled.connection;
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+            }
+            if (connection.getAutoCommit() != pooled.autoCommit) {
+                connection.setAutoCommit(pooled.autoCommit);
+            }
+            connection.clearWarnings();
+        }
+        catch (SQLException ex) {
+            LOGGER.warn("release: Unable to reset connection, closing it.", ex);
+            closeQuietly(pooled);
+            return;
+        }
+
+        pooled.lastUsedNanos = ticker.read();
+        List<PooledConnection> closing = new ArrayList<>();
+        synchronized (pool) {
+            if (Objects.equals(pool.credential, pooled.credential)) {
+                pool.idle.addFirst(pooled);
+            }
+            else {
+                closing.add(pooled);
+            }
+            while (pool.idle.size() > maxIdle) {
+                closing.add(pool.idle.pollLast());
+            }
+            evictExpired(pool, closing);
+        }
+        closing.forEach(this::closeQuietly);
+    }
+
+    /**
+     * Idle connections are ordered most recently used first so expired connections accumulate at the tail.
+     */
+    private void evictExpired(Endpoint pool, List<PooledConnection> closing)
+    {
+        long now = ticker.read();
+        while (!pool.idle.isEmpty() && isExpired(pool.idle.peekLast(), now)) {
+            closing.add(pool.idle.pollLast());
+        }
+    }
+
+    private boolean isExpired(PooledConnection pooled, long now)
+    {
+        return now - pooled.createdNanos >= maxLifetimeNanos || now - pooled.lastUsedNanos >= idleTimeoutNanos;
+    }
+
+    private boolean isUsable(PooledConnection pooled)
+    {
+        if (isExpired(pooled, ticker.read())) {
+            return false;
+        }
+        try {
+            return pooled.connection.isValid(validationTimeoutSeconds);
+        }
+        catch (SQLException ex) {
+            LOGGER.info("isUsable: Pooled connection failed validation.", ex);
+            return false;
+        }
+    }
+
+    private void closeQuietly(PooledConnection pooled)
+    {
+        try {
+            pooled.connection.close();
+        }
+        catch (SQLException | RuntimeException ex) {
+            LOGGER.info("closeQuietly: Error while closing pooled connection.", ex);
+        }
+    }
+
+    private Connection wrap(Endpoint pool, PooledConnection pooled)
+    {
+        return (Connection) Proxy.newProxyInstance(JdbcConnectionPool.class.getClassLoader(),
+                new Class<?>[] {Connection.class},
+                new BorrowedConnection(pool, pooled));
+    }
+
+    private static int getMaxIdleFromEnv()
+    {
+        String maxIdle = System.getenv(MAX_IDLE_ENV);
+        return (maxIdle != null) ? Integer.parseInt(maxIdle) : DEFAULT_MAX_IDLE;
+    }
+
+    private static final class Endpoint
+    {
+        //Most recently used first.
+        private final Deque<PooledConnection> idle = new ArrayDeque<>();
+        private JdbcCredential credential;
+    }
+
+    private static final class PooledConnection
+    {
+        private final Connection connection;
+        private final JdbcCredential credential;
+        private final long createdNanos;
+        private final boolean autoCommit;
+        private long lastUsedNanos;
+        //Set when the session state was changed in a way release() can't reset.
+        private volatile boolean dirty;
+        //Set when the driver reported a connection exception.
+        private volatile boolean broken;
+
+        private PooledConnection(Connection connection, JdbcCredential credential, long createdNanos, boolean autoCommit)
+        {
+            this.connection = connection;
+            this.credential = credential;
+            this.createdNanos = createdNanos;
+            this.lastUsedNanos = createdNanos;
+            this.autoCommit = autoCommit;
+        }
+    }
+
+    /**
+     * The connection handed out to callers, delegates to the pooled connection until closed.
+     */
+    private final class BorrowedConnection
+            implements InvocationHandler
+    {
+        private final Endpoint pool;
+        private final PooledConnection pooled;
+        private volatile boolean closed;
+
+        private BorrowedConnection(Endpoint pool, PooledConnection pooled)
+        {
+            this.pool = pool;
+            this.pooled = pooled;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable
+        {
+            switch (method.getName()) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        release(pool, pooled);
+                    }
+                    return null;
+                case "isClosed":
+                    if (closed) {
+                        return true;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "BorrowedConnection{" + pooled.connection + ", closed=" + closed + "}";
+                default:
+                    break;
+            }
+
+            if (closed) {
+                throw new SQLException("Connection is closed.", CONNECTION_EXCEPTION_CLASS + "003");
+            }
+            if (SESSION_STATE_METHODS.contains(method.getName())) {
+                pooled.dirty = true;
+            }
+            return delegate(proxy, null, pooled.connection, method, args);
+        }
+
+        /**
+         * Invokes the method on the pooled connection or an object created through it, marking the connection broken if
+         * the driver reports a connection exception and wrapping any statement, result set or metadata returned.
+         *
+         * @param connection The borrowed connection handed out to the caller.
+         * @param parent The wrapped object the target was created through, null if the target is the pooled connection.
+         */
+        private Object delegate(Object connection, Object parent, Object target, Method method, Object[] args)
+                throws Throwable
+        {
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            }
+            catch (InvocationTargetException ex) {
+                Throwable cause = ex.getCause();
+                if (cause instanceof SQLException) {
+                    String sqlState = ((SQLException) cause).getSQLState();
+                    if (sqlState != null && sqlState.startsWith(CONNECTION_EXCEPTION_CLASS)) {
+                        pooled.broken = true;
+                    }
+                }
+                throw cause;
+            }
+
+            Class<?> type = method.getReturnType();
+            if (result == null || !WRAPPED_TYPES.contains(type)) {
+                return result;
+            }
+            return Proxy.newProxyInstance(JdbcConnectionPool.class.getClassLoader(), new Class<?>[] {type},
+                    new BorrowedObject(this, connection, parent, result));
+        }
+    }
+
+    /**
+     * A statement, result set or metadata created through a borrowed connection, delegates to the driver's object until
+     * the borrowed connection is closed.
+     */
+    private static final class BorrowedObject
+            implements InvocationHandler
+    {
+        private final BorrowedConnection owner;
+        private final Object connection;
+        private final Object parent;
+        private final Object target;
+
+        private BorrowedObject(BorrowedConnection owner, Object connection, Object parent, Object target)
+        {
+            this.owner = owner;
+            this.connection = connection;
+            this.parent = parent;
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args)
+                throws Throwable
+        {
+            switch (method.getName()) {
+                case "getConnection":
+                    return connection;
+                case "getStatement":
+                    if (parent instanceof Statement) {
+                        return parent;
+                    }
+                    break;
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "toString":
+                    return "Borrowed{" + target + "}";
+                default:
+                    break;
+            }
+
+            //The pooled connection may already be in use by another borrower.
+            if (owner.closed && !method.getName().equals("close") && !method.getName().equals("isClosed")) {
+                throw new SQLException("Connection is closed.", CONNECTION_EXCEPTION_CLASS + "003");
+            }
+            return owner.delegate(connection, proxy, target, method, args);
+        }
+    }
+}
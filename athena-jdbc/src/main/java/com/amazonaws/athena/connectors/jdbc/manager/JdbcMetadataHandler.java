@@ -40,6 +40,8 @@ import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionConfig;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcCredentialProvider;
 import com.amazonaws.athena.connectors.jdbc.connection.RdsSecretsCredentialProvider;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatistics;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatisticsProvider;
 import com.amazonaws.athena.connectors.jdbc.splits.Splitter;
 import com.amazonaws.athena.connectors.jdbc.splits.SplitterFactory;
 import com.amazonaws.services.athena.AmazonAthena;
@@ -62,6 +64,7 @@ import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Statement;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
 import java.util.Set;
@@ -296,6 +299,14 @@ public abstract class JdbcMetadataHandler
     @Override
     public abstract GetSplitsResponse doGetSplits(BlockAllocator blockAllocator, GetSplitsRequest getSplitsRequest);
 
+    /**
+     * Splits the table into ranges of its primary key. When the database has statistics for the key the number of splits is
+     * sized to the table's row count and, if there is a histogram, the ranges are placed so that each split reads roughly the
+     * same number of rows. Otherwise the range between the key's min and max is divided evenly.
+     *
+     * @param tableName table to split.
+     * @return split clauses, empty if the table can't be split.
+     */
     protected List<String> getSplitClauses(final TableName tableName)
     {
         List<String> splitClauses = new ArrayList<>();
@@ -306,11 +317,22 @@ public abstract class JdbcMetadataHandler
                 primaryKeyColumns.add(resultSet.getString("COLUMN_NAME"));
             }
             if (!primaryKeyColumns.isEmpty()) {
+                ColumnStatistics columnStatistics = getColumnStatistics(jdbcConnection, tableName, primaryKeyColumns.get(0));
+                int numSplits = splitterFactory.getNumSplits(columnStatistics, DEFAULT_NUM_SPLITS);
+                if (numSplits <= 1) {
+                    LOGGER.info("Table {} is small enough to read in a single split, {}", tableName, columnStatistics);
+                    return splitClauses;
+                }
+
                 try (Statement statement = jdbcConnection.createStatement();
                         ResultSet minMaxResultSet = statement.executeQuery(String.format(SQL_SPLITS_STRING, primaryKeyColumns.get(0), primaryKeyColumns.get(0),
                                 tableName.getSchemaName(), tableName.getTableName()))) {
                     minMaxResultSet.next(); // expecting one result row
-                    Optional<Splitter> optionalSplitter = splitterFactory.getSplitter(primaryKeyColumns.get(0), minMaxResultSet, DEFAULT_NUM_SPLITS);
+                    int columnType = minMaxResultSet.getMetaData().getColumnType(1);
+                    Optional<Splitter> optionalSplitter = splitterFactory.getSplitter(primaryKeyColumns.get(0), columnType, columnStatistics, numSplits);
+                    if (!optionalSplitter.isPresent()) {
+                        optionalSplitter = splitterFactory.getSplitter(primaryKeyColumns.get(0), minMaxResultSet, numSplits);
+                    }
 
                     if (optionalSplitter.isPresent()) {
                         Splitter splitter = optionalSplitter.get();
@@ -330,6 +352,31 @@ public abstract class JdbcMetadataHandler
         return splitClauses;
     }
 
+    /**
+     * Used to size and place the splits generated by {@link #getSplitClauses(TableName)}. Connectors for databases which
+     * keep column statistics should override this.
+     *
+     * @return {@link ColumnStatisticsProvider} for the database.
+     */
+    protected ColumnStatisticsProvider getColumnStatisticsProvider()
+    {
+        return ColumnStatisticsProvider.NONE;
+    }
+
+    private ColumnStatistics getColumnStatistics(final Connection jdbcConnection, final TableName tableName, final String columnName)
+    {
+        try {
+            Optional<ColumnStatistics> columnStatistics = getColumnStatisticsProvider().getColumnStatistics(jdbcConnection, tableName, columnName);
+            if (columnStatistics.isPresent()) {
+                return columnStatistics.get();
+            }
+        }
+        catch (SQLException | RuntimeException ex) {
+            LOGGER.warn("Unable to read statistics for {}.{}, splitting evenly.", tableName, columnName, ex);
+        }
+        return new ColumnStatistics(ColumnStatistics.UNKNOWN_ROW_COUNT, Collections.emptyList());
+    }
+
     /**
      * Converts an ARRAY column's TYPE_NAME (provided by the jdbc metadata) to an ArrowType.
      * @param typeName The column's TYPE_NAME (e.g. _int4, _text, _float8, etc...)
@@ -78,14 +78,17 @@ import org.slf4j.LoggerFactory;
 
 import java.sql.Array;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 /**
  * Abstracts JDBC record handler and provides common reusable split records handling.
@@ -194,7 +197,8 @@ public abstract class JdbcRecordHandler
     }
 
     /**
-     * Creates an Extractor for the given field. In this example the extractor just creates some random data.
+     * Creates an Extractor for the given field. The column is resolved to its ordinal once so that reading each value
+     * skips the by-label lookup, and each value is read from the ResultSet once.
      */
     @VisibleForTesting
     protected Extractor makeExtractor(Field field, ResultSet resultSet, Map<String, String> partitionValues)
@@ -210,98 +214,138 @@ public abstract class JdbcRecordHandler
             };
         }
 
+        final int columnIndex = findColumn(resultSet, fieldName);
         switch (fieldType) {
             case BIT:
                 return (BitExtractor) (Object context, NullableBitHolder dst) ->
                 {
-                    boolean value = resultSet.getBoolean(fieldName);
+                    boolean value = resultSet.getBoolean(columnIndex);
                     dst.value = value ? 1 : 0;
                     dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case TINYINT:
                 return (TinyIntExtractor) (Object context, NullableTinyIntHolder dst) ->
                 {
-                    dst.value = resultSet.getByte(fieldName);
+                    dst.value = resultSet.getByte(columnIndex);
                     dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case SMALLINT:
                 return (SmallIntExtractor) (Object context, NullableSmallIntHolder dst) ->
                 {
-                    dst.value = resultSet.getShort(fieldName);
+                    dst.value = resultSet.getShort(columnIndex);
                     dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case INT:
                 return (IntExtractor) (Object context, NullableIntHolder dst) ->
                 {
-                    dst.value = resultSet.getInt(fieldName);
+                    dst.value = resultSet.getInt(columnIndex);
                     dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case BIGINT:
                 return (BigIntExtractor) (Object context, NullableBigIntHolder dst) ->
                 {
-                    dst.value = resultSet.getLong(fieldName);
+                    dst.value = resultSet.getLong(columnIndex);
                     dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case FLOAT4:
                 return (Float4Extractor) (Object context, NullableFloat4Holder dst) ->
                 {
-                    dst.value = resultSet.getFloat(fieldName);
+                    dst.value = resultSet.getFloat(columnIndex);
                     dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case FLOAT8:
                 return (Float8Extractor) (Object context, NullableFloat8Holder dst) ->
                 {
                     try {
-                        dst.value = resultSet.getDouble(fieldName);
+                        dst.value = resultSet.getDouble(columnIndex);
+                        dst.isSet = resultSet.wasNull() ? 0 : 1;
                     }
                     catch (java.sql.SQLException ex) {
                         // We need to use Double.parseDouble()
                         // replaceAll() use to strip commas "$25,000.00"
-                        dst.value = Double.parseDouble(resultSet.getString(fieldName).replaceAll(",", "").replaceAll("\\$", ""));
+                        String value = resultSet.getString(columnIndex);
+                        if (value != null) {
+                            dst.value = Double.parseDouble(value.replaceAll(",", "").replaceAll("\\$", ""));
+                        }
+                        dst.isSet = value == null ? 0 : 1;
                     }
-                    dst.isSet = resultSet.wasNull() ? 0 : 1;
                 };
             case DECIMAL:
                 return (DecimalExtractor) (Object context, NullableDecimalHolder dst) ->
                 {
-                    dst.value = resultSet.getBigDecimal(fieldName);
-                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                    dst.value = resultSet.getBigDecimal(columnIndex);
+                    dst.isSet = dst.value == null ? 0 : 1;
                 };
             case DATEDAY:
-                return (DateDayExtractor) (Object context, NullableDateDayHolder dst) ->
-                {
-                    if (resultSet.getDate(fieldName) != null) {
-                        dst.value = (int) TimeUnit.MILLISECONDS.toDays(resultSet.getDate(fieldName).getTime());
-                    }
-                    dst.isSet = resultSet.wasNull() ? 0 : 1;
-                };
+                return makeDateDayExtractor(resultSet, columnIndex);
             case DATEMILLI:
                 return (DateMilliExtractor) (Object context, NullableDateMilliHolder dst) ->
                 {
-                    if (resultSet.getTimestamp(fieldName) != null) {
-                        dst.value = resultSet.getTimestamp(fieldName).getTime();
+                    Timestamp value = resultSet.getTimestamp(columnIndex);
+                    if (value != null) {
+                        dst.value = value.getTime();
                     }
-                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                    dst.isSet = value == null ? 0 : 1;
                 };
             case VARCHAR:
                 return (VarCharExtractor) (Object context, NullableVarCharHolder dst) ->
                 {
-                    if (null != resultSet.getString(fieldName)) {
-                        dst.value = resultSet.getString(fieldName);
-                    }
-                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                    dst.value = resultSet.getString(columnIndex);
+                    dst.isSet = dst.value == null ? 0 : 1;
                 };
             case VARBINARY:
                 return (VarBinaryExtractor) (Object context, NullableVarBinaryHolder dst) ->
                 {
-                    dst.value = resultSet.getBytes(fieldName);
-                    dst.isSet = resultSet.wasNull() ? 0 : 1;
+                    dst.value = resultSet.getBytes(columnIndex);
+                    dst.isSet = dst.value == null ? 0 : 1;
                 };
             default:
                 throw new RuntimeException("Unhandled type " + fieldType);
         }
     }
 
+    /**
+     * Reads dates as LocalDate, which avoids the java.sql.Date allocation and doesn't depend on the JVM time zone. Drivers
+     * which don't support JDBC 4.2 conversions fail the first read, after which the extractor falls back to getDate().
+     */
+    private Extractor makeDateDayExtractor(ResultSet resultSet, int columnIndex)
+    {
+        AtomicBoolean localDateSupported = new AtomicBoolean(true);
+        return (DateDayExtractor) (Object context, NullableDateDayHolder dst) ->
+        {
+            if (localDateSupported.get()) {
+                try {
+                    LocalDate value = resultSet.getObject(columnIndex, LocalDate.class);
+                    if (value != null) {
+                        dst.value = (int) value.toEpochDay();
+                    }
+                    dst.isSet = value == null ? 0 : 1;
+                    return;
+                }
+                catch (SQLException | RuntimeException ex) {
+                    LOGGER.info("makeDateDayExtractor: Driver can't read column {} as LocalDate, using getDate().", columnIndex, ex);
+                    localDateSupported.set(false);
+                }
+            }
+
+            Date value = resultSet.getDate(columnIndex);
+            if (value != null) {
+                dst.value = (int) value.toLocalDate().toEpochDay();
+            }
+            dst.isSet = value == null ? 0 : 1;
+        };
+    }
+
+    private static int findColumn(ResultSet resultSet, String fieldName)
+    {
+        try {
+            return resultSet.findColumn(fieldName);
+        }
+        catch (SQLException ex) {
+            throw new RuntimeException("Column " + fieldName + " not found in result set.", ex);
+        }
+    }
+
     /**
      * Builds split SQL string and returns prepared statement.
      *
@@ -0,0 +1,86 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Statistics the database keeps for a split column. Used to size the number of splits to the table and to place the split
+ * boundaries so that each split reads roughly the same number of rows, even when the column's values are skewed.
+ */
+public class ColumnStatistics
+{
+    public static final long UNKNOWN_ROW_COUNT = -1;
+
+    private final long rowCount;
+    private final List<String> histogramBounds;
+
+    /**
+     * @param rowCount estimated number of rows in the table, {@link #UNKNOWN_ROW_COUNT} if not known.
+     * @param histogramBounds ascending equal-height histogram bounds for the column, in the database's literal format. The
+     * first and last bounds are the (estimated) min and max values. Empty if the database has no histogram.
+     */
+    public ColumnStatistics(final long rowCount, final List<String> histogramBounds)
+    {
+        this.rowCount = rowCount < 0 ? UNKNOWN_ROW_COUNT : rowCount;
+        this.histogramBounds = histogramBounds == null ? Collections.emptyList() : Collections.unmodifiableList(histogramBounds);
+    }
+
+    public long getRowCount()
+    {
+        return rowCount;
+    }
+
+    public List<String> getHistogramBounds()
+    {
+        return histogramBounds;
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        ColumnStatistics that = (ColumnStatistics) o;
+        return getRowCount() == that.getRowCount() &&
+                Objects.equals(getHistogramBounds(), that.getHistogramBounds());
+    }
+
+    @Override
+    public int hashCode()
+    {
+        return Objects.hash(getRowCount(), getHistogramBounds());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ColumnStatistics{" +
+                "rowCount=" + rowCount +
+                ", histogramBounds=" + histogramBounds.size() +
+                '}';
+    }
+}
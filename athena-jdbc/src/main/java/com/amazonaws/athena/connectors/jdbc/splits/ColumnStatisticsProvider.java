@@ -0,0 +1,48 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Optional;
+
+/**
+ * Reads the statistics a database keeps for a column, e.g. PostgreSQL's pg_stats histogram bounds, MySQL's
+ * information_schema.COLUMN_STATISTICS or Oracle's ALL_TAB_HISTOGRAMS endpoints.
+ */
+public interface ColumnStatisticsProvider
+{
+    /**
+     * Provider for databases that don't expose column statistics.
+     */
+    ColumnStatisticsProvider NONE = (connection, tableName, columnName) -> Optional.empty();
+
+    /**
+     * @param connection database connection.
+     * @param tableName table the column belongs to.
+     * @param columnName column to read statistics for.
+     * @return {@link ColumnStatistics} optional, empty if the database has no statistics for the table.
+     * @throws SQLException exception reading the statistics.
+     */
+    Optional<ColumnStatistics> getColumnStatistics(Connection connection, TableName tableName, String columnName)
+            throws SQLException;
+}
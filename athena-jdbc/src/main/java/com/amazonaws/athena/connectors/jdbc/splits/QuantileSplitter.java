@@ -0,0 +1,178 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.google.common.collect.ImmutableSet;
+import org.apache.commons.lang3.Validate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+/**
+ * Equal-cardinality splits iterator driven by the database's equal-height histogram for the split column. Each histogram
+ * bucket holds roughly the same number of rows, so splitting on every k-th bound gives splits of roughly equal size
+ * regardless of how skewed the values are, unlike {@link IntegerSplitter} which assumes a uniform distribution.
+ *
+ * Statistics can be stale, so the first split has no lower bound and the last split has no upper bound. Splits are
+ * half-open, the lower bound is inclusive and the upper bound exclusive, which makes them work for any ordered type.
+ *
+ * Example: histogram bounds [1, 2, 3, 10, 100] and 2 expected splits
+ *  Splits = (col < 3), (col >= 3)
+ *
+ * {@link #next()} returns the range with null for an unbounded endpoint.
+ */
+public class QuantileSplitter
+        implements Splitter<String>
+{
+    private static final Set<Integer> NUMERIC_TYPES = ImmutableSet.of(Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT,
+            Types.DECIMAL, Types.NUMERIC);
+    private static final Set<Integer> STRING_TYPES = ImmutableSet.of(Types.CHAR, Types.VARCHAR, Types.LONGVARCHAR, Types.NCHAR,
+            Types.NVARCHAR, Types.LONGNVARCHAR);
+
+    /**
+     * Formats a string bound as a standard SQL literal, which only needs single quotes escaped.
+     */
+    public static final UnaryOperator<String> STANDARD_STRING_LITERAL = value -> "'" + value.replace("'", "''") + "'";
+
+    private final SplitInfo<String> splitInfo;
+    private final UnaryOperator<String> stringLiteral;
+    private final List<String> splitPoints = new ArrayList<>();
+    private final List<String> splitLiterals = new ArrayList<>();
+    private int currentSplit;
+
+    /**
+     * @param splitInfo split information, the split range is the first and last histogram bound.
+     * @param histogramBounds ascending histogram bounds, in the database's literal format.
+     */
+    public QuantileSplitter(SplitInfo<String> splitInfo, List<String> histogramBounds)
+    {
+        this(splitInfo, histogramBounds, STANDARD_STRING_LITERAL);
+    }
+
+    /**
+     * @param splitInfo split information, the split range is the first and last histogram bound.
+     * @param histogramBounds ascending histogram bounds, in the database's literal format.
+     * @param stringLiteral formats a string bound as a literal of the database's SQL dialect, e.g. one which treats
+     * backslash as an escape character.
+     */
+    public QuantileSplitter(SplitInfo<String> splitInfo, List<String> histogramBounds, UnaryOperator<String> stringLiteral)
+    {
+        this.splitInfo = Validate.notNull(splitInfo);
+        this.stringLiteral = Validate.notNull(stringLiteral);
+        Validate.isTrue(isSupported(splitInfo.getColumnType()), "unsupported column type %s", splitInfo.getColumnType());
+        Validate.isTrue(histogramBounds.size() >= 2, "histogram must have at least two bounds");
+
+        // the end bounds never appear in a range clause, but a bound the column type can't parse (e.g. a PostgreSQL
+        // 'infinity' date) means the histogram can't be trusted to size the splits
+        toLiteral(splitInfo.getColumnType(), histogramBounds.get(0));
+        toLiteral(splitInfo.getColumnType(), histogramBounds.get(histogramBounds.size() - 1));
+
+        int buckets = histogramBounds.size() - 1;
+        int numSplits = Math.min(splitInfo.getNumSplits(), buckets);
+        for (int i = 1; i < numSplits; i++) {
+            String point = histogramBounds.get(Math.round((float) i * buckets / numSplits));
+            if (splitPoints.isEmpty() || !splitPoints.get(splitPoints.size() - 1).equals(point)) {
+                splitPoints.add(point);
+                // formatted up front so that a bound the column type can't parse fails before any split is produced
+                splitLiterals.add(toLiteral(splitInfo.getColumnType(), point));
+            }
+        }
+    }
+
+    /**
+     * @param columnType database column type. See {@link Types}.
+     * @return true if the splitter can create range clauses for the column type.
+     */
+    public static boolean isSupported(int columnType)
+    {
+        return NUMERIC_TYPES.contains(columnType) || STRING_TYPES.contains(columnType) || columnType == Types.DATE || columnType == Types.TIMESTAMP;
+    }
+
+    /**
+     * @return the number of splits this splitter produces.
+     */
+    public int getNumSplits()
+    {
+        return splitPoints.size() + 1;
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return currentSplit < getNumSplits();
+    }
+
+    @Override
+    public SplitRange<String> next()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String low = currentSplit == 0 ? null : splitPoints.get(currentSplit - 1);
+        String high = currentSplit == splitPoints.size() ? null : splitPoints.get(currentSplit);
+        currentSplit++;
+        return new SplitRange<>(low, high);
+    }
+
+    @Override
+    public String nextRangeClause()
+    {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String columnName = splitInfo.getColumnName();
+        String clause;
+        if (splitPoints.isEmpty()) {
+            clause = String.format("(%s IS NOT NULL)", columnName);
+        }
+        else if (currentSplit == 0) {
+            clause = String.format("(%s < %s)", columnName, splitLiterals.get(0));
+        }
+        else if (currentSplit == splitPoints.size()) {
+            clause = String.format("(%s >= %s)", columnName, splitLiterals.get(currentSplit - 1));
+        }
+        else {
+            clause = String.format("(%s >= %s AND %s < %s)", columnName, splitLiterals.get(currentSplit - 1), columnName, splitLiterals.get(currentSplit));
+        }
+        currentSplit++;
+        return clause;
+    }
+
+    private String toLiteral(int columnType, String value)
+    {
+        if (NUMERIC_TYPES.contains(columnType)) {
+            return new BigDecimal(value).toPlainString();
+        }
+        else if (STRING_TYPES.contains(columnType)) {
+            return stringLiteral.apply(value);
+        }
+        else if (columnType == Types.DATE) {
+            return "DATE '" + LocalDate.parse(value) + "'";
+        }
+        return "TIMESTAMP '" + Timestamp.valueOf(value) + "'";
+    }
+}
@@ -22,13 +22,22 @@ package com.amazonaws.athena.connectors.jdbc.splits;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.time.DateTimeException;
+import java.util.List;
 import java.util.Optional;
+import java.util.function.UnaryOperator;
 
 /**
  * Creates splitter depending on split column data type.
  */
 public class SplitterFactory
 {
+    /**
+     * Number of rows each split should read when the table's row count is known.
+     */
+    public static final long ROWS_PER_SPLIT = 500_000;
+    public static final int MAX_NUM_SPLITS = 1000;
+
     /**
      * @param columnName split column name.
      * @param resultSet split min and max values.
@@ -47,4 +56,58 @@ public class SplitterFactory
                return Optional.empty();
         }
     }
+
+    /**
+     * @param columnName split column name.
+     * @param columnType split column type. See {@link Types}.
+     * @param columnStatistics split column statistics.
+     * @param maxSplits number of splits.
+     * @return {@link Splitter} optional, empty if the statistics have no histogram or the column type isn't supported.
+     */
+    public Optional<Splitter> getSplitter(final String columnName, final int columnType, final ColumnStatistics columnStatistics, final int maxSplits)
+    {
+        return getSplitter(columnName, columnType, columnStatistics, maxSplits, QuantileSplitter.STANDARD_STRING_LITERAL);
+    }
+
+    /**
+     * @param columnName split column name.
+     * @param columnType split column type. See {@link Types}.
+     * @param columnStatistics split column statistics.
+     * @param maxSplits number of splits.
+     * @param stringLiteral formats string bounds as literals of the database's SQL dialect.
+     * @return {@link Splitter} optional, empty if the statistics have no histogram or the column type isn't supported.
+     */
+    public Optional<Splitter> getSplitter(final String columnName, final int columnType, final ColumnStatistics columnStatistics, final int maxSplits,
+            final UnaryOperator<String> stringLiteral)
+    {
+        List<String> histogramBounds = columnStatistics.getHistogramBounds();
+        if (histogramBounds.size() < 2 || !QuantileSplitter.isSupported(columnType)) {
+            return Optional.empty();
+        }
+        SplitRange<String> splitRange = new SplitRange<>(histogramBounds.get(0), histogramBounds.get(histogramBounds.size() - 1));
+        try {
+            return Optional.of(new QuantileSplitter(new SplitInfo<>(splitRange, columnName, columnType, maxSplits), histogramBounds, stringLiteral));
+        }
+        catch (IllegalArgumentException | DateTimeException ex) {
+            // a bound the column type can't parse, e.g. a PostgreSQL 'infinity' date
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Sizes the number of splits to the table so that each split reads about {@link #ROWS_PER_SPLIT} rows.
+     *
+     * @param columnStatistics split column statistics.
+     * @param defaultNumSplits number of splits when the table's row count is unknown.
+     * @return number of splits.
+     */
+    public int getNumSplits(final ColumnStatistics columnStatistics, final int defaultNumSplits)
+    {
+        if (columnStatistics.getRowCount() == ColumnStatistics.UNKNOWN_ROW_COUNT) {
+            return defaultNumSplits;
+        }
+        long rowCount = columnStatistics.getRowCount();
+        long numSplits = rowCount / ROWS_PER_SPLIT + (rowCount % ROWS_PER_SPLIT == 0 ? 0 : 1);
+        return (int) Math.max(1, Math.min(numSplits, MAX_NUM_SPLITS));
+    }
 }
@@ -46,6 +46,9 @@ public class TestBase
                     return rowNumber.getAndIncrement() + 1 < rows.length;
                 });
 
+        Mockito.when(resultSet.findColumn(any())).thenAnswer((Answer<Integer>) invocation ->
+                Arrays.asList(columnNames).indexOf(invocation.getArguments()[0]) + 1);
+
         Mockito.when(resultSet.getInt(any())).thenAnswer((Answer<Integer>) invocation -> {
             Object argument = invocation.getArguments()[0];
 
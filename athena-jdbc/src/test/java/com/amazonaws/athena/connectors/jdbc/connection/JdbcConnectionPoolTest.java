@@ -0,0 +1,238 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.connection;
+
+import com.google.common.base.Ticker;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class JdbcConnectionPoolTest
+{
+    private static final String ENDPOINT = "mysql://jdbc:mysql://hostname/${testSecret}";
+    private static final JdbcCredential CREDENTIAL = new JdbcCredential("testUser", "testPassword");
+
+    private final AtomicLong nanos = new AtomicLong();
+    private final List<Connection> opened = new ArrayList<>();
+    private JdbcConnectionPool connectionPool;
+
+    @Before
+    public void setup()
+    {
+        Ticker ticker = new Ticker()
+        {
+            @Override
+            public long read()
+            {
+                return nanos.get();
+            }
+        };
+        connectionPool = new JdbcConnectionPool(2, TimeUnit.MINUTES.toMillis(4), TimeUnit.MINUTES.toMillis(30), 5, ticker);
+    }
+
+    @Test
+    public void reusesReturnedConnection()
+            throws SQLException
+    {
+        Connection first = borrow(CREDENTIAL);
+        first.close();
+        Assert.assertTrue(first.isClosed());
+        Assert.assertEquals(1, connectionPool.getIdleCount(ENDPOINT));
+
+        Connection second = borrow(CREDENTIAL);
+        Assert.assertEquals(1, opened.size());
+        Assert.assertFalse(second.isClosed());
+        Mockito.verify(opened.get(0)).isValid(5);
+        Mockito.verify(opened.get(0), Mockito.never()).close();
+    }
+
+    @Test
+    public void resetsTransactionOnReturn()
+            throws SQLException
+    {
+        Connection connection = borrow(CREDENTIAL);
+        connection.setAutoCommit(false);
+        Mockito.when(opened.get(0).getAutoCommit()).thenReturn(false);
+        connection.close();
+
+        Mockito.verify(opened.get(0)).rollback();
+        Mockito.verify(opened.get(0)).setAutoCommit(true);
+        Assert.assertEquals(1, connectionPool.getIdleCount(ENDPOINT));
+    }
+
+    @Test
+    public void discardsInvalidConnection()
+            throws SQLException
+    {
+        borrow(CREDENTIAL).close();
+        Mockito.when(opened.get(0).isValid(5)).thenReturn(false);
+
+        borrow(CREDENTIAL);
+        Assert.assertEquals(2, opened.size());
+        Mockito.verify(opened.get(0)).close();
+    }
+
+    @Test
+    public void evictsIdleConnection()
+            throws SQLException
+    {
+        borrow(CREDENTIAL).close();
+        nanos.addAndGet(TimeUnit.MINUTES.toNanos(5));
+
+        borrow(CREDENTIAL);
+        Assert.assertEquals(2, opened.size());
+        Mockito.verify(opened.get(0)).close();
+        Mockito.verify(opened.get(0), Mockito.never()).isValid(Mockito.anyInt());
+    }
+
+    @Test
+    public void closesConnectionsOnCredentialRotation()
+            throws SQLException
+    {
+        Connection borrowed = borrow(CREDENTIAL);
+        borrow(CREDENTIAL).close();
+
+        JdbcCredential rotated = new JdbcCredential("testUser", "rotatedPassword");
+        borrow(rotated);
+        Assert.assertEquals(3, opened.size());
+        Mockito.verify(opened.get(1)).close();
+
+        //Connections opened with the old credential are closed when returned.
+        borrowed.close();
+        Mockito.verify(opened.get(0)).close();
+        Assert.assertEquals(0, connectionPool.getIdleCount(ENDPOINT));
+    }
+
+    @Test
+    public void boundsIdleConnections()
+            throws SQLException
+    {
+        List<Connection> borrowed = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            borrowed.add(borrow(CREDENTIAL));
+        }
+        for (Connection next : borrowed) {
+            next.close();
+        }
+
+        Assert.assertEquals(2, connectionPool.getIdleCount(ENDPOINT));
+        Mockito.verify(opened.get(0)).close();
+    }
+
+    @Test
+    public void discardsBrokenAndModifiedConnections()
+            throws SQLException
+    {
+        Connection broken = borrow(CREDENTIAL);
+        Mockito.when(opened.get(0).getMetaData()).thenThrow(new SQLException("Communications link failure", "08S01"));
+        try {
+            broken.getMetaData();
+            Assert.fail("Expected SQLException");
+        }
+        catch (SQLException ex) {
+            Assert.assertEquals("08S01", ex.getSQLState());
+        }
+        broken.close();
+        Mockito.verify(opened.get(0)).close();
+
+        Connection modified = borrow(CREDENTIAL);
+        modified.setSchema("other");
+        modified.close();
+        Mockito.verify(opened.get(1)).close();
+        Assert.assertEquals(0, connectionPool.getIdleCount(ENDPOINT));
+    }
+
+    @Test
+    public void wrapsStatementsAndMetadata()
+            throws SQLException
+    {
+        Connection connection = borrow(CREDENTIAL);
+        Connection raw = opened.get(0);
+        PreparedStatement rawStatement = Mockito.mock(PreparedStatement.class);
+        ResultSet rawResultSet = Mockito.mock(ResultSet.class);
+        DatabaseMetaData rawMetaData = Mockito.mock(DatabaseMetaData.class);
+        Mockito.when(raw.prepareStatement("SELECT 1")).thenReturn(rawStatement);
+        Mockito.when(raw.getMetaData()).thenReturn(rawMetaData);
+        Mockito.when(rawStatement.getConnection()).thenReturn(raw);
+        Mockito.when(rawStatement.executeQuery()).thenReturn(rawResultSet);
+        Mockito.when(rawResultSet.getStatement()).thenReturn(rawStatement);
+        Mockito.when(rawMetaData.getConnection()).thenReturn(raw);
+
+        //None of them hand out the pooled connection, which would let callers close it or use it after it was returned.
+        PreparedStatement statement = connection.prepareStatement("SELECT 1");
+        Assert.assertSame(connection, statement.getConnection());
+        ResultSet resultSet = statement.executeQuery();
+        Assert.assertSame(statement, resultSet.getStatement());
+        Assert.assertSame(connection, connection.getMetaData().getConnection());
+
+        //Connection exceptions raised by a statement keep the connection out of the pool.
+        Mockito.when(rawResultSet.next()).thenThrow(new SQLException("Communications link failure", "08S01"));
+        try {
+            resultSet.next();
+            Assert.fail("Expected SQLException");
+        }
+        catch (SQLException ex) {
+            Assert.assertEquals("08S01", ex.getSQLState());
+        }
+        connection.close();
+        Mockito.verify(raw).close();
+        Assert.assertEquals(0, connectionPool.getIdleCount(ENDPOINT));
+
+        try {
+            statement.executeQuery();
+            Assert.fail("Expected SQLException");
+        }
+        catch (SQLException ex) {
+            Assert.assertEquals("08003", ex.getSQLState());
+        }
+    }
+
+    @Test(expected = SQLException.class)
+    public void closedConnectionIsUnusable()
+            throws SQLException
+    {
+        Connection connection = borrow(CREDENTIAL);
+        connection.close();
+        connection.createStatement();
+    }
+
+    private Connection borrow(JdbcCredential credential)
+            throws SQLException
+    {
+        return connectionPool.getConnection(ENDPOINT, credential, () -> {
+            Connection connection = Mockito.mock(Connection.class);
+            Mockito.when(connection.getAutoCommit()).thenReturn(true);
+            Mockito.when(connection.isValid(Mockito.anyInt())).thenReturn(true);
+            opened.add(connection);
+            return connection;
+        });
+    }
+}
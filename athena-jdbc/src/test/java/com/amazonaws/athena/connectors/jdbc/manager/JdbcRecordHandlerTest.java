@@ -46,6 +46,7 @@ import com.amazonaws.services.s3.model.PutObjectResult;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueRequest;
 import com.amazonaws.services.secretsmanager.model.GetSecretValueResult;
+import org.apache.arrow.vector.holders.NullableDateDayHolder;
 import org.apache.arrow.vector.holders.NullableFloat8Holder;
 import org.apache.arrow.vector.types.pojo.Schema;
 import org.junit.Assert;
@@ -57,10 +58,13 @@ import org.mockito.stubbing.Answer;
 import java.io.ByteArrayInputStream;
 import java.nio.charset.StandardCharsets;
 import java.sql.Connection;
+import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
 import java.sql.Types;
+import java.time.LocalDate;
 import java.util.Collections;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicInteger;
@@ -136,6 +140,7 @@ public class JdbcRecordHandlerTest
         Object[][] values = {{1, "testVal1"}, {2, "testVal2"}};
         AtomicInteger rowNumber = new AtomicInteger(-1);
         ResultSet resultSet = mockResultSet(schema, columnTypes, values, rowNumber);
+        Mockito.doAnswer((Answer<Integer>) invocation -> (Integer) values[rowNumber.get()][0]).when(resultSet).getInt(1);
         Mockito.when(this.preparedStatement.executeQuery()).thenReturn(resultSet);
 
         SpillConfig spillConfig = Mockito.mock(SpillConfig.class);
@@ -165,6 +170,8 @@ public class JdbcRecordHandlerTest
         AtomicInteger rowNumber = new AtomicInteger(0);
 
         ResultSet resultSet = mockResultSet(schema, columnTypes, values, rowNumber);
+        Mockito.doThrow(new SQLException("Postgres Money Type")).when(resultSet).getDouble(3);
+        Mockito.when(resultSet.getString(3)).thenReturn("$1,000.50");
         Mockito.when(this.preparedStatement.executeQuery()).thenReturn(resultSet);
         Map<String,String> partitionMap = Collections.singletonMap("testPartitionCol","testPartitionValue");
 
@@ -196,4 +203,22 @@ public class JdbcRecordHandlerTest
         ((Float8Extractor) actualFloat8).extract(null, dollarValue);
         Assert.assertEquals(dollarValue.value, 1000.5, 0.0);
     }
+
+    @Test
+    public void makeDateDayExtractorFallback()
+            throws Exception
+    {
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(resultSet.findColumn("testDate")).thenReturn(1);
+        Mockito.when(resultSet.getObject(1, LocalDate.class)).thenThrow(new SQLFeatureNotSupportedException("No JDBC 4.2 conversions"));
+        Mockito.when(resultSet.getDate(1)).thenReturn(Date.valueOf("1969-12-31"), Date.valueOf("2020-01-02"));
+
+        Extractor actualDateDay = this.jdbcRecordHandler.makeExtractor(FieldBuilder.newBuilder("testDate", org.apache.arrow.vector.types.Types.MinorType.DATEDAY.getType()).build(), resultSet, Collections.emptyMap());
+
+        NullableDateDayHolder dateValue = new NullableDateDayHolder();
+        ((DateDayExtractor) actualDateDay).extract(null, dateValue);
+        Assert.assertEquals(-1, dateValue.value);
+        ((DateDayExtractor) actualDateDay).extract(null, dateValue);
+        Assert.assertEquals(LocalDate.of(2020, 1, 2).toEpochDay(), dateValue.value);
+    }
 }
@@ -0,0 +1,117 @@
+/*-
+ * #%L
+ * athena-jdbc
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.jdbc.splits;
+
+import com.google.common.collect.ImmutableList;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class QuantileSplitterTest
+{
+    private static final String TEST_COLUMN_NAME = "testColumn";
+
+    @Test
+    public void skewedIntegerSplits()
+    {
+        // most of the rows are between 1 and 10, the histogram places most bounds there
+        List<String> bounds = Arrays.asList("1", "2", "3", "4", "5", "6", "7", "8", "10", "1000000");
+        QuantileSplitter splitter = makeSplitter(Types.BIGINT, bounds, 3);
+
+        Assert.assertEquals(3, splitter.getNumSplits());
+        Assert.assertEquals(Arrays.asList(
+                "(testColumn < 4)",
+                "(testColumn >= 4 AND testColumn < 7)",
+                "(testColumn >= 7)"), clauses(splitter));
+
+        Assert.assertEquals(Arrays.asList(
+                new SplitRange<>(null, "4"),
+                new SplitRange<>("4", "7"),
+                new SplitRange<>("7", null)), ImmutableList.copyOf(makeSplitter(Types.BIGINT, bounds, 3)));
+    }
+
+    @Test
+    public void splitsLimitedByHistogram()
+    {
+        QuantileSplitter splitter = makeSplitter(Types.INTEGER, Arrays.asList("1", "50", "100"), 20);
+        Assert.assertEquals(Arrays.asList("(testColumn < 50)", "(testColumn >= 50)"), clauses(splitter));
+    }
+
+    @Test
+    public void duplicateBoundsCollapsed()
+    {
+        QuantileSplitter splitter = makeSplitter(Types.INTEGER, Arrays.asList("1", "5", "5", "5", "9", "12"), 4);
+        Assert.assertEquals(Arrays.asList("(testColumn < 5)", "(testColumn >= 5 AND testColumn < 9)", "(testColumn >= 9)"), clauses(splitter));
+    }
+
+    @Test
+    public void literals()
+    {
+        Assert.assertEquals(Arrays.asList("(testColumn < 'it''s')", "(testColumn >= 'it''s')"),
+                clauses(makeSplitter(Types.VARCHAR, Arrays.asList("a", "it's", "z"), 2)));
+        Assert.assertEquals(Arrays.asList("(testColumn < DATE '2020-06-01')", "(testColumn >= DATE '2020-06-01')"),
+                clauses(makeSplitter(Types.DATE, Arrays.asList("2020-01-01", "2020-06-01", "2020-12-31"), 2)));
+        Assert.assertEquals(Arrays.asList("(testColumn < TIMESTAMP '2020-06-01 12:30:00.0')", "(testColumn >= TIMESTAMP '2020-06-01 12:30:00.0')"),
+                clauses(makeSplitter(Types.TIMESTAMP, Arrays.asList("2020-01-01 00:00:00", "2020-06-01 12:30:00", "2020-12-31 00:00:00"), 2)));
+        Assert.assertEquals(Arrays.asList("(testColumn < 10.25)", "(testColumn >= 10.25)"),
+                clauses(makeSplitter(Types.NUMERIC, Arrays.asList("0.5", "10.25", "20"), 2)));
+    }
+
+    @Test
+    public void dialectStringLiterals()
+    {
+        List<String> bounds = Arrays.asList("a", "it's \\", "z");
+        SplitRange<String> splitRange = new SplitRange<>(bounds.get(0), bounds.get(bounds.size() - 1));
+        QuantileSplitter splitter = new QuantileSplitter(new SplitInfo<>(splitRange, TEST_COLUMN_NAME, Types.VARCHAR, 2), bounds,
+                value -> "'" + value.replace("\\", "\\\\").replace("'", "''") + "'");
+        Assert.assertEquals(Arrays.asList("(testColumn < 'it''s \\\\')", "(testColumn >= 'it''s \\\\')"), clauses(splitter));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void invalidNumericBound()
+    {
+        makeSplitter(Types.INTEGER, Arrays.asList("1", "1; DROP TABLE t", "3"), 2);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void unsupportedType()
+    {
+        makeSplitter(Types.BLOB, Arrays.asList("1", "2", "3"), 2);
+    }
+
+    private static QuantileSplitter makeSplitter(int columnType, List<String> bounds, int numSplits)
+    {
+        SplitRange<String> splitRange = new SplitRange<>(bounds.get(0), bounds.get(bounds.size() - 1));
+        return new QuantileSplitter(new SplitInfo<>(splitRange, TEST_COLUMN_NAME, columnType, numSplits), bounds);
+    }
+
+    private static List<String> clauses(Splitter<?> splitter)
+    {
+        List<String> clauses = new ArrayList<>();
+        while (splitter.hasNext()) {
+            clauses.add(splitter.nextRangeClause());
+        }
+        return clauses;
+    }
+}
@@ -27,6 +27,8 @@ import org.mockito.Mockito;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.Optional;
 
 public class SplitterFactoryTest
@@ -91,4 +93,30 @@ public class SplitterFactoryTest
         Mockito.when(resultSet.getMetaData().getColumnType(1)).thenReturn(Types.DECIMAL);
         Assert.assertFalse(splitterFactory.getSplitter(TEST_COLUMN_NAME, resultSet, MAX_SPLITS).isPresent());
     }
+
+    @Test
+    public void getQuantileSplitter()
+    {
+        ColumnStatistics statistics = new ColumnStatistics(1_000_000, Arrays.asList("1", "10", "100"));
+        Optional<Splitter> splitter = splitterFactory.getSplitter(TEST_COLUMN_NAME, Types.BIGINT, statistics, MAX_SPLITS);
+        Assert.assertTrue(splitter.isPresent());
+        Assert.assertEquals(QuantileSplitter.class, splitter.get().getClass());
+
+        ColumnStatistics noHistogram = new ColumnStatistics(1_000_000, Collections.emptyList());
+        Assert.assertFalse(splitterFactory.getSplitter(TEST_COLUMN_NAME, Types.BIGINT, noHistogram, MAX_SPLITS).isPresent());
+        Assert.assertFalse(splitterFactory.getSplitter(TEST_COLUMN_NAME, Types.BLOB, statistics, MAX_SPLITS).isPresent());
+
+        ColumnStatistics infinity = new ColumnStatistics(1_000_000, Arrays.asList("-infinity", "2020-01-01", "infinity"));
+        Assert.assertFalse(splitterFactory.getSplitter(TEST_COLUMN_NAME, Types.DATE, infinity, MAX_SPLITS).isPresent());
+    }
+
+    @Test
+    public void getNumSplits()
+    {
+        Assert.assertEquals(MAX_SPLITS, splitterFactory.getNumSplits(new ColumnStatistics(ColumnStatistics.UNKNOWN_ROW_COUNT, Collections.emptyList()), MAX_SPLITS));
+        Assert.assertEquals(1, splitterFactory.getNumSplits(new ColumnStatistics(0, Collections.emptyList()), MAX_SPLITS));
+        Assert.assertEquals(1, splitterFactory.getNumSplits(new ColumnStatistics(SplitterFactory.ROWS_PER_SPLIT, Collections.emptyList()), MAX_SPLITS));
+        Assert.assertEquals(3, splitterFactory.getNumSplits(new ColumnStatistics(2 * SplitterFactory.ROWS_PER_SPLIT + 1, Collections.emptyList()), MAX_SPLITS));
+        Assert.assertEquals(SplitterFactory.MAX_NUM_SPLITS, splitterFactory.getNumSplits(new ColumnStatistics(Long.MAX_VALUE, Collections.emptyList()), MAX_SPLITS));
+    }
 }
@@ -79,7 +79,7 @@ public class OracleJdbcConnectionFactory extends GenericJdbcConnectionFactory
                         jdbcCredentialProvider.getCredential().getPassword());
                 derivedJdbcString = secretMatcher.replaceAll(Matcher.quoteReplacement(secretReplacement));
                 LOGGER.info("derivedJdbcString: " + derivedJdbcString);
-                return DriverManager.getConnection(derivedJdbcString, properties);
+                return getPooledConnection(jdbcCredentialProvider, () -> DriverManager.getConnection(derivedJdbcString, properties));
             }
             else {
                 throw new RuntimeException("Invalid connection string, Secret name is required.");
@@ -0,0 +1,105 @@
+/*-
+ * #%L
+ * athena-postgresql
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ * 
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ * 
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.postgresql;
+
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatistics;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatisticsProvider;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the table's estimated row count from pg_class and the column's equal-height histogram from pg_stats, both of
+ * which are maintained by ANALYZE (and autovacuum).
+ */
+public class PostGreSqlColumnStatisticsProvider
+        implements ColumnStatisticsProvider
+{
+    private static final String STATISTICS_QUERY = "SELECT c.reltuples, s.histogram_bounds::text FROM pg_catalog.pg_class c " +
+            "JOIN pg_catalog.pg_namespace n ON n.oid = c.relnamespace " +
+            "LEFT JOIN pg_catalog.pg_stats s ON s.schemaname = n.nspname AND s.tablename = c.relname AND s.attname = ? " +
+            "WHERE n.nspname = ? AND c.relname = ?";
+
+    @Override
+    public Optional<ColumnStatistics> getColumnStatistics(Connection connection, TableName tableName, String columnName)
+            throws SQLException
+    {
+        try (PreparedStatement preparedStatement = connection.prepareStatement(STATISTICS_QUERY)) {
+            preparedStatement.setString(1, columnName);
+            preparedStatement.setString(2, tableName.getSchemaName());
+            preparedStatement.setString(3, tableName.getTableName());
+            try (ResultSet resultSet = preparedStatement.executeQuery()) {
+                if (!resultSet.next()) {
+                    return Optional.empty();
+                }
+                // reltuples is -1 (0 before PostgreSQL 14) until the table has been analyzed
+                long rowCount = (long) resultSet.getFloat(1);
+                return Optional.of(new ColumnStatistics(rowCount > 0 ? rowCount : ColumnStatistics.UNKNOWN_ROW_COUNT,
+                        parseArray(resultSet.getString(2))));
+            }
+        }
+    }
+
+    /**
+     * Parses the text form of a PostgreSQL array, e.g. {1,2,"a b","c\"d"}.
+     *
+     * @param array text form of the array, may be null.
+     * @return the array's elements.
+     */
+    static List<String> parseArray(String array)
+    {
+        List<String> elements = new ArrayList<>();
+        if (array == null || array.length() <= 2) {
+            return elements;
+        }
+
+        StringBuilder element = new StringBuilder();
+        boolean quoted = false;
+        boolean escaped = false;
+        for (int i = 1; i < array.length() - 1; i++) {
+            char next = array.charAt(i);
+            if (escaped) {
+                element.append(next);
+                escaped = false;
+            }
+            else if (next == '\\') {
+                escaped = true;
+            }
+            else if (next == '"') {
+                quoted = !quoted;
+            }
+            else if (next == ',' && !quoted) {
+                elements.add(element.toString());
+                element.setLength(0);
+            }
+            else {
+                element.append(next);
+            }
+        }
+        elements.add(element.toString());
+        return elements;
+    }
+}
@@ -0,0 +1,88 @@
+/*-
+ * #%L
+ * athena-postgresql
+ * %%
+ * Copyright (C) 2019 Amazon Web Services
+ * %%
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ * #L%
+ */
+package com.amazonaws.athena.connectors.postgresql;
+
+import com.amazonaws.athena.connector.lambda.domain.TableName;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatistics;
+import org.junit.Assert;
+import org.junit.Test;
+import org.mockito.Mockito;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+
+public class PostGreSqlColumnStatisticsProviderTest
+{
+    @Test
+    public void getColumnStatistics()
+            throws SQLException
+    {
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(preparedStatement);
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true);
+        Mockito.when(resultSet.getFloat(1)).thenReturn(1.5e6f);
+        Mockito.when(resultSet.getString(2)).thenReturn("{1,20,300}");
+
+        Optional<ColumnStatistics> statistics = new PostGreSqlColumnStatisticsProvider()
+                .getColumnStatistics(connection, new TableName("testSchema", "testTable"), "id");
+
+        Assert.assertEquals(Optional.of(new ColumnStatistics(1_500_000, Arrays.asList("1", "20", "300"))), statistics);
+        Mockito.verify(preparedStatement).setString(1, "id");
+        Mockito.verify(preparedStatement).setString(2, "testSchema");
+        Mockito.verify(preparedStatement).setString(3, "testTable");
+    }
+
+    @Test
+    public void getColumnStatisticsNotAnalyzed()
+            throws SQLException
+    {
+        Connection connection = Mockito.mock(Connection.class);
+        PreparedStatement preparedStatement = Mockito.mock(PreparedStatement.class);
+        ResultSet resultSet = Mockito.mock(ResultSet.class);
+        Mockito.when(connection.prepareStatement(Mockito.anyString())).thenReturn(preparedStatement);
+        Mockito.when(preparedStatement.executeQuery()).thenReturn(resultSet);
+        Mockito.when(resultSet.next()).thenReturn(true);
+        Mockito.when(resultSet.getFloat(1)).thenReturn(-1f);
+        Mockito.when(resultSet.getString(2)).thenReturn(null);
+
+        Optional<ColumnStatistics> statistics = new PostGreSqlColumnStatisticsProvider()
+                .getColumnStatistics(connection, new TableName("testSchema", "testTable"), "id");
+
+        Assert.assertEquals(Optional.of(new ColumnStatistics(ColumnStatistics.UNKNOWN_ROW_COUNT, Collections.emptyList())), statistics);
+    }
+
+    @Test
+    public void parseArray()
+    {
+        Assert.assertEquals(Collections.emptyList(), PostGreSqlColumnStatisticsProvider.parseArray("{}"));
+        Assert.assertEquals(Arrays.asList("a", "b c", "d,e", "f\"g", "h\\i"),
+                PostGreSqlColumnStatisticsProvider.parseArray("{a,\"b c\",\"d,e\",\"f\\\"g\",\"h\\\\i\"}"));
+        Assert.assertEquals(Arrays.asList("2020-01-01 00:00:00", "2020-06-01 12:30:00"),
+                PostGreSqlColumnStatisticsProvider.parseArray("{\"2020-01-01 00:00:00\",\"2020-06-01 12:30:00\"}"));
+    }
+}
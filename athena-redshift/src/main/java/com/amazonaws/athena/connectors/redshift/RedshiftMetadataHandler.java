@@ -34,6 +34,7 @@ import com.amazonaws.athena.connectors.jdbc.connection.DatabaseConnectionInfo;
 import com.amazonaws.athena.connectors.jdbc.connection.GenericJdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.connection.JdbcConnectionFactory;
 import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatisticsProvider;
 import com.amazonaws.athena.connectors.postgresql.PostGreSqlMetadataHandler;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
@@ -98,4 +99,14 @@ public class RedshiftMetadataHandler
 
         return new GetDataSourceCapabilitiesResponse(request.getCatalogName(), capabilities.build());
     }
+
+    /**
+     * Redshift doesn't maintain pg_class.reltuples or pg_stats histograms the way PostgreSQL does, so splits are sized
+     * and placed without statistics.
+     */
+    @Override
+    protected ColumnStatisticsProvider getColumnStatisticsProvider()
+    {
+        return ColumnStatisticsProvider.NONE;
+    }
 }
@@ -35,6 +35,11 @@ public final class SnowflakeConstants
      * We arrived at this number after performance testing with datasets of different size
      */
     public static final int MAX_PARTITION_COUNT = 50;
+    /**
+     * Number of rows sampled per partition to estimate the split key ranges. Snowflake allows sampling at most
+     * 1000000 rows, which is reached at the maximum number of range partitions.
+     */
+    public static final int SAMPLE_ROWS_PER_PARTITION = 1000;
 
     private SnowflakeConstants() {}
 }
@@ -46,6 +46,9 @@ import com.amazonaws.athena.connectors.jdbc.manager.JDBCUtil;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcArrowTypeConverter;
 import com.amazonaws.athena.connectors.jdbc.manager.JdbcMetadataHandler;
 import com.amazonaws.athena.connectors.jdbc.manager.PreparedStatementBuilder;
+import com.amazonaws.athena.connectors.jdbc.splits.ColumnStatistics;
+import com.amazonaws.athena.connectors.jdbc.splits.Splitter;
+import com.amazonaws.athena.connectors.jdbc.splits.SplitterFactory;
 import com.amazonaws.services.athena.AmazonAthena;
 import com.amazonaws.services.secretsmanager.AWSSecretsManager;
 import com.google.common.annotations.VisibleForTesting;
@@ -64,16 +67,23 @@ import java.sql.DatabaseMetaData;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.amazonaws.athena.connectors.snowflake.SnowflakeConstants.MAX_PARTITION_COUNT;
 import static com.amazonaws.athena.connectors.snowflake.SnowflakeConstants.PARTITION_RECORD_COUNT;
+import static com.amazonaws.athena.connectors.snowflake.SnowflakeConstants.SAMPLE_ROWS_PER_PARTITION;
 
 /**
  * Handles metadata for Snowflake. User must have access to `schemata`, `tables`, `columns` in
@@ -101,6 +111,25 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
      */
     static final String VIEW_CHECK_QUERY = "SELECT * FROM information_schema.views WHERE table_schema = ? AND table_name = ?";
     static final String ALL_PARTITIONS = "*";
+    /**
+     * Prefix of partitions which read a range of the split key, followed by the range clause.
+     */
+    static final String RANGE_PARTITION_PREFIX = BLOCK_PARTITION_COLUMN_NAME + "-range-";
+    /**
+     * Query to fetch the clustering key, for example LINEAR(C1, C2)
+     */
+    static final String CLUSTERING_KEY_QUERY = "SELECT clustering_key FROM information_schema.tables WHERE table_schema = ? AND table_name = ?";
+    /**
+     * Estimates equal-height ranges of the split key from a sample of the table. Returns the min and max value of each range.
+     */
+    static final String SPLIT_KEY_RANGES_QUERY = "SELECT MIN(%1$s), MAX(%1$s) FROM (SELECT %1$s, NTILE(%2$d) OVER (ORDER BY %1$s) AS bucket " +
+            "FROM %3$s.%4$s SAMPLE (%5$d ROWS) WHERE %1$s IS NOT NULL) GROUP BY bucket ORDER BY bucket";
+    /**
+     * First column of a clustering key, if it is a plain (optionally quoted) column name rather than an expression.
+     */
+    private static final Pattern CLUSTERING_KEY_PATTERN = Pattern.compile(
+            "LINEAR\\(\\s*(?:([A-Za-z_][A-Za-z0-9_$]*)|\"((?:[^\"]|\"\")+)\")\\s*(?:,.*)?\\)", Pattern.CASE_INSENSITIVE | Pattern.DOTALL);
+    private final SplitterFactory splitterFactory = new SplitterFactory();
     /**
      * Instantiates handler to be used by Lambda function directly.
      *
@@ -145,7 +174,8 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
         return schemaBuilder.build();
     }
     /**
-     * Snowflake manual partition logic based upon number of records
+     * Snowflake manual partition logic based upon number of records. Tables with a clustering or primary key are
+     * partitioned into ranges of the key, other tables fall back to limit and offset pages.
      * @param blockWriter
      * @param getTableLayoutRequest
      * @param queryStatusChecker
@@ -187,44 +217,22 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
                     totalRecordCount = rs.getLong(1);
                 }
                 if (totalRecordCount > 0) {
-                    // if number of partitions are more than defined limit "MAX_PARTITION_COUNT"
-                    // it will do maximum 50 partitions,49 partitions will have 500000 records each and last partition will have the remaining number of records.
-                    double limitValue = totalRecordCount / PARTITION_RECORD_COUNT;
-                    double limit = (int) Math.ceil(limitValue);
-                    long offset = 0;
-                    if (limit > MAX_PARTITION_COUNT) {
-                        for (int i = 1; i <= MAX_PARTITION_COUNT; i++) {
-                            int partitionRecord = PARTITION_RECORD_COUNT;
-                            if (i == MAX_PARTITION_COUNT) {
-                                //Updating partitionRecord variable to display the remaining records in the last partition.
-                                //we get the value by subtracting the records displayed till 49th partition from the total number of records.
-                                partitionRecord = (int) totalRecordCount - (PARTITION_RECORD_COUNT * (MAX_PARTITION_COUNT - 1));
-                            }
-                            final String partitionVal = BLOCK_PARTITION_COLUMN_NAME + "-limit-" + partitionRecord + "-offset-" + offset;
+                    List<String> rangeClauses = getRangeClauses(connection, getTableLayoutRequest.getTableName(), (long) totalRecordCount);
+                    if (!rangeClauses.isEmpty()) {
+                        // each partition reads a disjoint range of the split key, so Snowflake can prune micro-partitions
+                        // instead of scanning and discarding the rows before an offset.
+                        for (String rangeClause : rangeClauses) {
+                            final String partitionVal = RANGE_PARTITION_PREFIX + rangeClause;
                             LOGGER.info("partitionVal {} ", partitionVal);
                             blockWriter.writeRows((Block block, int rowNum) ->
                             {
                                 block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionVal);
                                 return 1;
                             });
-                            offset = offset + PARTITION_RECORD_COUNT;
                         }
                     }
                     else {
-                        /**
-                         * Custom pagination based partition logic will be applied with limit and offset clauses.
-                         * the partition values we are setting the limit and offset values like p-limit-3000-offset-0
-                         */
-                        for (int i = 1; i <= limit; i++) {
-                            final String partitionVal = BLOCK_PARTITION_COLUMN_NAME + "-limit-" + PARTITION_RECORD_COUNT + "-offset-" + offset;
-                            LOGGER.info("partitionVal {} ", partitionVal);
-                            blockWriter.writeRows((Block block, int rowNum) ->
-                            {
-                                block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionVal);
-                                return 1;
-                            });
-                            offset = offset + PARTITION_RECORD_COUNT;
-                        }
+                        writeLimitOffsetPartitions(blockWriter, totalRecordCount);
                     }
                 }
                 else {
@@ -234,6 +242,191 @@ public class SnowflakeMetadataHandler extends JdbcMetadataHandler
         }
     }
 
+    /**
+     * Pagination based partitions read with limit and offset clauses, used when the table has no key to split on.
+     * @param blockWriter
+     * @param totalRecordCount
+     */
+    private void writeLimitOffsetPartitions(BlockWriter blockWriter, double totalRecordCount)
+    {
+        // if number of partitions are more than defined limit "MAX_PARTITION_COUNT"
+        // it will do maximum 50 partitions,49 partitions will have 500000 records each and last partition will have the remaining number of records.
+        double limitValue = totalRecordCount / PARTITION_RECORD_COUNT;
+        double limit = (int) Math.ceil(limitValue);
+        long offset = 0;
+        if (limit > MAX_PARTITION_COUNT) {
+            for (int i = 1; i <= MAX_PARTITION_COUNT; i++) {
+                int partitionRecord = PARTITION_RECORD_COUNT;
+                if (i == MAX_PARTITION_COUNT) {
+                    //Updating partitionRecord variable to display the remaining records in the last partition.
+                    //we get the value by subtracting the records displayed till 49th partition from the total number of records.
+                    partitionRecord = (int) totalRecordCount - (PARTITION_RECORD_COUNT * (MAX_PARTITION_COUNT - 1));
+                }
+                final String partitionVal = BLOCK_PARTITION_COLUMN_NAME + "-limit-" + partitionRecord + "-offset-" + offset;
+                LOGGER.info("partitionVal {} ", partitionVal);
+                blockWriter.writeRows((Block block, int rowNum) ->
+                {
+                    block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionVal);
+                    return 1;
+                });
+                offset = offset + PARTITION_RECORD_COUNT;
+            }
+        }
+        else {
+            /**
+             * Custom pagination based partition logic will be applied with limit and offset clauses.
+             * the partition values we are setting the limit and offset values like p-limit-3000-offset-0
+             */
+            for (int i = 1; i <= limit; i++) {
+                final String partitionVal = BLOCK_PARTITION_COLUMN_NAME + "-limit-" + PARTITION_RECORD_COUNT + "-offset-" + offset;
+                LOGGER.info("partitionVal {} ", partitionVal);
+                blockWriter.writeRows((Block block, int rowNum) ->
+                {
+                    block.setValue(BLOCK_PARTITION_COLUMN_NAME, rowNum, partitionVal);
+                    return 1;
+                });
+                offset = offset + PARTITION_RECORD_COUNT;
+            }
+        }
+    }
+
+    /**
+     * Generates disjoint range clauses of the table's split key, sized so that each range holds about
+     * {@link SplitterFactory#ROWS_PER_SPLIT} rows. The range boundaries are quantiles of a sample of the key.
+     * @param connection
+     * @param tableName
+     * @param totalRecordCount
+     * @return range clauses covering every row, empty if the table is too small or can't be split on a key.
+     */
+    private List<String> getRangeClauses(Connection connection, TableName tableName, long totalRecordCount)
+    {
+        List<String> rangeClauses = new ArrayList<>();
+        int numSplits = splitterFactory.getNumSplits(new ColumnStatistics(totalRecordCount, Collections.emptyList()), 1);
+        if (numSplits <= 1) {
+            return rangeClauses;
+        }
+        try {
+            Optional<String> splitKey = getSplitKey(connection, tableName);
+            if (!splitKey.isPresent()) {
+                LOGGER.info("No clustering or primary key to split {} on, using limit and offset", tableName);
+                return rangeClauses;
+            }
+            String splitColumn = quoteIdentifier(splitKey.get());
+            String rangesQuery = String.format(SPLIT_KEY_RANGES_QUERY, splitColumn, numSplits, quoteIdentifier(tableName.getSchemaName()),
+                    quoteIdentifier(tableName.getTableName()), numSplits * SAMPLE_ROWS_PER_PARTITION);
+            LOGGER.info(rangesQuery);
+            try (Statement statement = connection.createStatement();
+                 ResultSet resultSet = statement.executeQuery(rangesQuery)) {
+                int columnType = resultSet.getMetaData().getColumnType(1);
+                List<String> bounds = new ArrayList<>();
+                while (resultSet.next()) {
+                    if (bounds.isEmpty()) {
+                        bounds.add(getBound(resultSet, 1, columnType));
+                    }
+                    bounds.add(getBound(resultSet, 2, columnType));
+                }
+                Optional<Splitter> splitter = splitterFactory.getSplitter(splitColumn, columnType,
+                        new ColumnStatistics(totalRecordCount, bounds), numSplits, SnowflakeMetadataHandler::quoteStringLiteral);
+                if (!splitter.isPresent()) {
+                    LOGGER.info("Unable to split {} on {} of type {}, using limit and offset", tableName, splitColumn, columnType);
+                    return rangeClauses;
+                }
+                while (splitter.get().hasNext()) {
+                    rangeClauses.add(splitter.get().nextRangeClause());
+                }
+                // the ranges don't match null keys, clustering keys are nullable
+                rangeClauses.add(String.format("(%s IS NULL)", splitColumn));
+            }
+        }
+        catch (SQLException | RuntimeException ex) {
+            LOGGER.warn("Unable to generate range partitions for {}, using limit and offset.", tableName, ex);
+            rangeClauses.clear();
+        }
+        return rangeClauses;
+    }
+
+    /**
+     * The split key is the first column of the clustering key, since Snowflake keeps the micro-partitions of a clustered
+     * table sorted by it, otherwise the first column of the primary key.
+     * @param connection
+     * @param tableName
+     * @return split key column name
+     * @throws SQLException
+     */
+    private Optional<String> getSplitKey(Connection connection, TableName tableName) throws SQLException
+    {
+        List<String> parameters = Arrays.asList(tableName.getSchemaName(), tableName.getTableName());
+        try (PreparedStatement preparedStatement = new PreparedStatementBuilder().withConnection(connection)
+                .withQuery(CLUSTERING_KEY_QUERY).withParameters(parameters).build();
+             ResultSet resultSet = preparedStatement.executeQuery()) {
+            if (resultSet.next()) {
+                Optional<String> clusteringKey = parseClusteringKey(resultSet.getString(1));
+                if (clusteringKey.isPresent()) {
+                    return clusteringKey;
+                }
+            }
+        }
+        try (ResultSet resultSet = connection.getMetaData().getPrimaryKeys(connection.getCatalog(), tableName.getSchemaName(), tableName.getTableName())) {
+            // primary key columns are ordered by name, not by their position in the key
+            while (resultSet.next()) {
+                if (resultSet.getInt("KEY_SEQ") == 1) {
+                    return Optional.of(resultSet.getString(COLUMN_NAME));
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * @param clusteringKey clustering key as shown in information_schema.tables, for example LINEAR(C1, C2)
+     * @return name of the first column of the clustering key, empty if there is no clustering key or it starts with an expression.
+     */
+    @VisibleForTesting
+    static Optional<String> parseClusteringKey(String clusteringKey)
+    {
+        if (clusteringKey == null) {
+            return Optional.empty();
+        }
+        Matcher matcher = CLUSTERING_KEY_PATTERN.matcher(clusteringKey.trim());
+        if (!matcher.matches()) {
+            return Optional.empty();
+        }
+        if (matcher.group(1) != null) {
+            // unquoted identifiers are stored in upper case
+            return Optional.of(matcher.group(1).toUpperCase());
+        }
+        return Optional.of(matcher.group(2).replace("\"\"", "\""));
+    }
+
+    private static String quoteIdentifier(String identifier)
+    {
+        return "\"" + identifier.replace("\"", "\"\"") + "\"";
+    }
+
+    /**
+     * Snowflake treats backslash as an escape character in string constants, so it must be escaped along with single quotes.
+     */
+    @VisibleForTesting
+    static String quoteStringLiteral(String value)
+    {
+        return "'" + value.replace("\\", "\\\\").replace("'", "''") + "'";
+    }
+
+    /**
+     * Reads a range bound in the literal format expected by {@link SplitterFactory}.
+     */
+    private static String getBound(ResultSet resultSet, int columnIndex, int columnType) throws SQLException
+    {
+        switch (columnType) {
+            case java.sql.Types.DATE:
+                return resultSet.getDate(columnIndex).toLocalDate().toString();
+            case java.sql.Types.TIMESTAMP:
+                return resultSet.getTimestamp(columnIndex).toString();
+            default:
+                return resultSet.getString(columnIndex);
+        }
+    }
+
     /**
      * Check if the input table is a view and returns viewflag accordingly
      * @param getTableLayoutRequest
@@ -56,15 +56,28 @@ public class SnowflakeQueryStringBuilder
         return String.format(" FROM %s ", tableName);
     }
 
+    /**
+     * Range partitions are read with their range clause, as per "partition-range-(\"ID\" >= 100 AND \"ID\" < 200)" pattern.
+     * Splits without a range partition, or no split at all, have no partition where clause.
+     * @param split
+     * @return
+     */
     @Override
     protected List<String> getPartitionWhereClauses(Split split)
     {
+        if (split == null) {
+            return Collections.emptyList();
+        }
+        String partitionVal = split.getProperty(SnowflakeMetadataHandler.BLOCK_PARTITION_COLUMN_NAME);
+        if (partitionVal != null && partitionVal.startsWith(SnowflakeMetadataHandler.RANGE_PARTITION_PREFIX)) {
+            return Collections.singletonList(partitionVal.substring(SnowflakeMetadataHandler.RANGE_PARTITION_PREFIX.length()));
+        }
         return Collections.emptyList();
     }
 
     /**
-     * logic to apply limits in query, if partition value does not contain "-", no limit and offset condition
-     * to be applied, else apply limits and offset as per "p-limit-3000-offset-0" pattern.
+     * logic to apply limits in query, if partition value does not contain "-" or is a range partition, no limit and offset
+     * condition to be applied, else apply limits and offset as per "p-limit-3000-offset-0" pattern.
      * @param split
      * @return
      */
@@ -74,7 +87,7 @@ public class SnowflakeQueryStringBuilder
         String xLimit = "";
         String xOffset = "";
         String partitionVal = split.getProperty(split.getProperties().keySet().iterator().next()); //p-limit-3000-offset-0
-        if (!partitionVal.contains("-")) {
+        if (!partitionVal.contains("-") || partitionVal.startsWith(SnowflakeMetadataHandler.RANGE_PARTITION_PREFIX)) {
             return EMPTY_STRING;
         }
         else {
@@ -232,6 +232,100 @@ public class SnowflakeMetadataHandlerTest
         Mockito.verify(resultSet, Mockito.times(1)).getLong(1);
     }
 
+    @Test
+    public void doGetTableLayoutRangePartitions()
+            throws Exception {
+        TableName tableName = new TableName("testSchema", "testTable");
+        PreparedStatement clusteringKeyStatement = mockClusteringKey("LINEAR(id, ts)");
+        Statement rangesStatement = mockSplitKeyRanges(Types.INTEGER, new String[][] {{"1", "499000"}, {"499001", "1000000"}});
+
+        Assert.assertEquals(Arrays.asList("[partition : partition-range-(\"ID\" < 499000)]",
+                "[partition : partition-range-(\"ID\" >= 499000)]",
+                "[partition : partition-range-(\"ID\" IS NULL)]"), getRangePartitions(tableName));
+        Mockito.verify(clusteringKeyStatement, Mockito.times(1)).setString(1, tableName.getSchemaName());
+        Mockito.verify(clusteringKeyStatement, Mockito.times(1)).setString(2, tableName.getTableName());
+        Mockito.verify(rangesStatement, Mockito.times(1)).executeQuery(String.format(SnowflakeMetadataHandler.SPLIT_KEY_RANGES_QUERY,
+                "\"ID\"", 2, "\"testSchema\"", "\"testTable\"", 2 * SnowflakeConstants.SAMPLE_ROWS_PER_PARTITION));
+    }
+
+    @Test
+    public void doGetTableLayoutStringRangePartitions()
+            throws Exception {
+        mockClusteringKey("LINEAR(name)");
+        // Snowflake treats backslash as an escape character, a bound ending in one must not escape the closing quote
+        mockSplitKeyRanges(Types.VARCHAR, new String[][] {{"a", "it's \\"}, {"it's \\'", "z"}});
+
+        Assert.assertEquals(Arrays.asList("[partition : partition-range-(\"NAME\" < 'it''s \\\\')]",
+                "[partition : partition-range-(\"NAME\" >= 'it''s \\\\')]",
+                "[partition : partition-range-(\"NAME\" IS NULL)]"), getRangePartitions(new TableName("testSchema", "testTable")));
+    }
+
+    @Test
+    public void quoteStringLiteral()
+    {
+        Assert.assertEquals("'plain'", SnowflakeMetadataHandler.quoteStringLiteral("plain"));
+        Assert.assertEquals("'it''s'", SnowflakeMetadataHandler.quoteStringLiteral("it's"));
+        Assert.assertEquals("'\\\\'' OR 1=1 --'", SnowflakeMetadataHandler.quoteStringLiteral("\\' OR 1=1 --"));
+    }
+
+    private List<String> getRangePartitions(TableName tableName)
+            throws Exception
+    {
+        BlockAllocator blockAllocator = new BlockAllocatorImpl();
+        Constraints constraints = Mockito.mock(Constraints.class);
+        Schema partitionSchema = this.snowflakeMetadataHandler.getPartitionSchema("testCatalogName");
+        Set<String> partitionCols = new HashSet<>(Arrays.asList("partition"));
+        GetTableLayoutRequest getTableLayoutRequest = new GetTableLayoutRequest(this.federatedIdentity, "testQueryId", "testCatalogName", tableName, constraints, partitionSchema, partitionCols);
+
+        PreparedStatement countStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(SnowflakeMetadataHandler.COUNT_RECORDS_QUERY)).thenReturn(countStatement);
+        ResultSet countResultSet = mockResultSet(new String[] {"ROW_COUNT"}, new int[] {Types.BIGINT}, new Object[][] {{1000000L}}, new AtomicInteger(-1));
+        Mockito.when(countResultSet.getLong(1)).thenReturn(1000000L);
+        Mockito.when(countStatement.executeQuery()).thenReturn(countResultSet);
+
+        GetTableLayoutResponse getTableLayoutResponse = this.snowflakeMetadataHandler.doGetTableLayout(blockAllocator, getTableLayoutRequest);
+
+        List<String> actualValues = new ArrayList<>();
+        for (int i = 0; i < getTableLayoutResponse.getPartitions().getRowCount(); i++) {
+            actualValues.add(BlockUtils.rowToString(getTableLayoutResponse.getPartitions(), i));
+        }
+        return actualValues;
+    }
+
+    private PreparedStatement mockClusteringKey(String clusteringKey)
+            throws SQLException
+    {
+        PreparedStatement clusteringKeyStatement = Mockito.mock(PreparedStatement.class);
+        Mockito.when(this.connection.prepareStatement(SnowflakeMetadataHandler.CLUSTERING_KEY_QUERY)).thenReturn(clusteringKeyStatement);
+        ResultSet clusteringKeyResultSet = mockResultSet(new String[] {"CLUSTERING_KEY"}, new int[] {Types.VARCHAR}, new Object[][] {{clusteringKey}}, new AtomicInteger(-1));
+        // mockResultSet only stubs getString(String)
+        Mockito.when(clusteringKeyResultSet.getString(1)).thenReturn(clusteringKey);
+        Mockito.when(clusteringKeyStatement.executeQuery()).thenReturn(clusteringKeyResultSet);
+        return clusteringKeyStatement;
+    }
+
+    private Statement mockSplitKeyRanges(int columnType, String[][] ranges)
+            throws SQLException
+    {
+        Statement rangesStatement = Mockito.mock(Statement.class);
+        Mockito.when(this.connection.createStatement()).thenReturn(rangesStatement);
+        AtomicInteger rowNumber = new AtomicInteger(-1);
+        ResultSet rangesResultSet = mockResultSet(new String[] {"MIN", "MAX"}, new int[] {columnType, columnType}, ranges, rowNumber);
+        Mockito.when(rangesResultSet.getString(Mockito.anyInt())).thenAnswer(invocation -> ranges[rowNumber.get()][(Integer) invocation.getArgument(0) - 1]);
+        Mockito.when(rangesStatement.executeQuery(Mockito.anyString())).thenReturn(rangesResultSet);
+        return rangesStatement;
+    }
+
+    @Test
+    public void parseClusteringKey()
+    {
+        Assert.assertEquals(Optional.of("ID"), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(id)"));
+        Assert.assertEquals(Optional.of("C1"), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(C1, TO_DATE(C2))"));
+        Assert.assertEquals(Optional.of("my \"col\""), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(\"my \"\"col\"\"\", c2)"));
+        Assert.assertEquals(Optional.empty(), SnowflakeMetadataHandler.parseClusteringKey("LINEAR(TO_DATE(C2))"));
+        Assert.assertEquals(Optional.empty(), SnowflakeMetadataHandler.parseClusteringKey(null));
+    }
+
     @Test(expected = RuntimeException.class)
     public void doGetTableLayoutWithSQLException()
             throws Exception {
@@ -52,5 +52,28 @@ public class SnowflakeQueryStringBuilderTest
         List<String> expected = new ArrayList<>();
         Assert.assertEquals(expected, fromClauseWithSplit);
     }
+
+    @Test
+    public void testGetPartitionWhereClausesWithoutRange()
+    {
+        SnowflakeQueryStringBuilder builder = new SnowflakeQueryStringBuilder("'");
+        Split noPartition = Mockito.mock(Split.class);
+        Assert.assertEquals(Collections.emptyList(), builder.getPartitionWhereClauses(noPartition));
+
+        Split limitOffset = Mockito.mock(Split.class);
+        Mockito.when(limitOffset.getProperty(Mockito.eq("partition"))).thenReturn("partition-limit-500000-offset-0");
+        Assert.assertEquals(Collections.emptyList(), builder.getPartitionWhereClauses(limitOffset));
+    }
+
+    @Test
+    public void testRangePartition()
+    {
+        Split split = Mockito.mock(Split.class);
+        Mockito.when(split.getProperties()).thenReturn(Collections.singletonMap("partition", "partition-range-(\"ID\" >= -5 AND \"ID\" < 100)"));
+        Mockito.when(split.getProperty(Mockito.eq("partition"))).thenReturn("partition-range-(\"ID\" >= -5 AND \"ID\" < 100)");
+        SnowflakeQueryStringBuilder builder = new SnowflakeQueryStringBuilder("\"");
+        Assert.assertEquals(Collections.singletonList("(\"ID\" >= -5 AND \"ID\" < 100)"), builder.getPartitionWhereClauses(split));
+        Assert.assertEquals("", builder.appendLimitOffset(split));
+    }
 }
 
@@ -86,7 +86,7 @@ public class SynapseJdbcConnectionFactory extends GenericJdbcConnectionFactory
             // register driver
             Class.forName(databaseConnectionInfo.getDriverClassName()).newInstance();
             // create connection
-            return DriverManager.getConnection(derivedJdbcString, this.jdbcProperties);
+            return getPooledConnection(jdbcCredentialProvider, () -> DriverManager.getConnection(derivedJdbcString, this.jdbcProperties));
         }
         catch (SQLException sqlException) {
             throw new RuntimeException(sqlException.getErrorCode() + ": " + sqlException);